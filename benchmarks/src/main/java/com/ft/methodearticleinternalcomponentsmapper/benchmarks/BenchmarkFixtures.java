@@ -0,0 +1,119 @@
+package com.ft.methodearticleinternalcomponentsmapper.benchmarks;
+
+import com.codahale.metrics.MetricRegistry;
+import com.ft.bodyprocessing.html.Html5SelfClosingTagBodyProcessor;
+import com.ft.bodyprocessing.richcontent.VideoMatcher;
+import com.ft.bodyprocessing.richcontent.VideoSiteConfiguration;
+import com.ft.methodearticleinternalcomponentsmapper.clients.ConcordanceApiClient;
+import com.ft.methodearticleinternalcomponentsmapper.clients.DocumentStoreApiClient;
+import com.ft.methodearticleinternalcomponentsmapper.transformation.BlogUuidResolver;
+import com.ft.methodearticleinternalcomponentsmapper.transformation.BodyProcessingFieldTransformerFactory;
+import com.ft.methodearticleinternalcomponentsmapper.transformation.InteractiveGraphicsMatcher;
+import com.ft.methodearticleinternalcomponentsmapper.transformation.InternalComponentsMapper;
+import com.ft.methodearticleinternalcomponentsmapper.transformation.RemoteLookupsPrefetcher;
+import com.ft.methodearticleinternalcomponentsmapper.validation.MethodeArticleValidator;
+import com.ft.methodearticleinternalcomponentsmapper.xml.XmlInfrastructure;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.MoreExecutors;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * Builds the application's collaborators as <code>methode-article-internal-components-mapper.yaml</code> configures
+ * them, with stubbed remote clients.
+ */
+public final class BenchmarkFixtures {
+
+    public static final String API_HOST = "api.ft.com";
+    public static final String CANONICAL_URL_TEMPLATE = "https://www.ft.com/content/%s";
+
+    private static final List<String> T = Collections.singletonList("t");
+    private static final List<String> NONE = Collections.emptyList();
+
+    private static final List<VideoSiteConfiguration> VIDEO_CONFIGS = Arrays.asList(
+            new VideoSiteConfiguration("https?://www.youtube.com/watch\\?v=(?<id>[A-Za-z0-9_-]+)", "https://www.youtube.com/watch?v=%s", true, T, null, true),
+            new VideoSiteConfiguration("https?://youtu.be/(?<id>[A-Za-z0-9_-]+)", "https://www.youtube.com/watch?v=%s", false, T, null, true),
+            new VideoSiteConfiguration("https?://www.vimeo.com/(?<id>[0-9]+)", null, false, NONE, null, true),
+            new VideoSiteConfiguration("//player.vimeo.com/video/(?<id>[0-9]+)", "https://www.vimeo.com/%s", true, NONE, null, true),
+            new VideoSiteConfiguration("https?://video.ft.com/(?<id>[0-9]+)/", null, false, NONE, null, true)
+    );
+
+    private static final List<String> INTERACTIVE_GRAPHICS_WHITELIST = Arrays.asList(
+            "http://interactive.ftdata.co.uk/(?!(_other/ben/twitter)|(widgets/audio)).*",
+            "http://(www.)?ft.com/ig/(?!widgets/widgetBrowser/audio).*",
+            "http://ig.ft.com/features.*",
+            "http://ft.cartodb.com/.*"
+    );
+
+    public static final Map<String, String> CONTENT_TYPE_TEMPLATES = ImmutableMap.<String, String>builder()
+            .put("http://www.ft.com/ontology/content/Article", "/content/{{id}}")
+            .put("http://www.ft.com/ontology/content/ImageSet", "/content/{{id}}")
+            .put("http://www.ft.com/ontology/content/MediaResource", "/content/{{id}}")
+            .put("http://www.ft.com/ontology/content/Video", "/content/{{id}}")
+            .put("http://www.ft.com/ontology/company/PublicCompany", "/organisations/{{id}}")
+            .put("http://www.ft.com/ontology/content/ContentPackage", "/content/{{id}}")
+            .put("http://www.ft.com/ontology/content/Content", "/content/{{id}}")
+            .put("http://www.ft.com/ontology/content/Image", "/content/{{id}}")
+            .build();
+
+    private static final String AUTHORITY_PREFIX = "http://api.ft.com/system/";
+    private static final Map<String, String> BRAND_ID_MAPPINGS = ImmutableMap.<String, String>builder()
+            .put("blogs.ft.com/the-world", "FT-LABS-WP-1-2")
+            .put("blogs.ft.com/brusselsblog", "FT-LABS-WP-1-3")
+            .put("blogs.ft.com/businessblog", "FT-LABS-WP-1-9")
+            .put("blogs.ft.com/tech-blog", "FT-LABS-WP-1-10")
+            .put("blogs.ft.com/westminster", "FT-LABS-WP-1-12")
+            .put("ftalphaville.ft.com", "FT-LABS-WP-1-24")
+            .build();
+
+    private BenchmarkFixtures() {
+    }
+
+    public static BodyProcessingFieldTransformerFactory bodyTransformerFactory(DocumentStoreApiClient documentStoreApiClient,
+                                                                               ConcordanceApiClient concordanceApiClient) {
+        return new BodyProcessingFieldTransformerFactory(documentStoreApiClient,
+                new VideoMatcher(VIDEO_CONFIGS),
+                new InteractiveGraphicsMatcher(INTERACTIVE_GRAPHICS_WHITELIST),
+                CONTENT_TYPE_TEMPLATES,
+                API_HOST,
+                concordanceApiClient,
+                CANONICAL_URL_TEMPLATE,
+                new XmlInfrastructure(new MetricRegistry()));
+    }
+
+    /**
+     * @param remoteLatencyMillis how long each call to the Document Store, the Concordance API or the article
+     *                            validators takes.
+     * @param remoteCallExecutor runs the validation and body lookups of an article concurrently, as the application
+     *                           does; <code>null</code> makes every call in turn on the mapping thread.
+     */
+    public static InternalComponentsMapper internalComponentsMapper(long remoteLatencyMillis, Executor remoteCallExecutor) {
+        MetricRegistry metrics = new MetricRegistry();
+        XmlInfrastructure xmlInfrastructure = new XmlInfrastructure(metrics);
+        DocumentStoreApiClient documentStoreApiClient = new StubDocumentStoreApiClient(remoteLatencyMillis);
+        ConcordanceApiClient concordanceApiClient = new StubConcordanceApiClient(remoteLatencyMillis);
+
+        Map<String, MethodeArticleValidator> articleValidators = new HashMap<>();
+        articleValidators.put(InternalComponentsMapper.SourceCode.FT, new StubMethodeArticleValidator(remoteLatencyMillis));
+        articleValidators.put(InternalComponentsMapper.SourceCode.CONTENT_PLACEHOLDER, new StubMethodeArticleValidator(remoteLatencyMillis));
+        articleValidators.put(InternalComponentsMapper.SourceCode.DYNAMIC_CONTENT, new StubMethodeArticleValidator(remoteLatencyMillis));
+
+        return new InternalComponentsMapper(
+                bodyTransformerFactory(documentStoreApiClient, concordanceApiClient).newInstance(),
+                new Html5SelfClosingTagBodyProcessor(),
+                new BlogUuidResolver(metrics, documentStoreApiClient, AUTHORITY_PREFIX, BRAND_ID_MAPPINGS),
+                documentStoreApiClient,
+                articleValidators,
+                API_HOST,
+                xmlInfrastructure,
+                metrics,
+                remoteCallExecutor == null ? MoreExecutors.sameThreadExecutor() : remoteCallExecutor,
+                remoteCallExecutor == null ? null
+                        : new RemoteLookupsPrefetcher(documentStoreApiClient, concordanceApiClient, remoteCallExecutor));
+    }
+}
@@ -0,0 +1,62 @@
+package com.ft.methodearticleinternalcomponentsmapper.benchmarks;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Resources;
+
+import java.io.IOException;
+import java.util.UUID;
+
+/**
+ * Article bodies for the benchmarks: the kitchen sink article body used by the tests, and synthetic bodies of a
+ * given size built from the kinds of markup the kitchen sink covers (FT links, companies, empty formatting elements,
+ * lists, dashes and ellipses).
+ */
+public final class BodyCorpus {
+
+    public static final String KITCHEN_SINK = "kitchen-sink";
+
+    private static final String[] PARAGRAPHS = {
+            "<p>Markets rallied after the announcement, with <a href=\"http://www.ft.com/cms/s/2/%s.html\" title=\"www.ft.com\">"
+                    + "further coverage</a> of the deal and its effect on <em>sterling</em> and <strong>gilts</strong>.</p>\n",
+            "<p>Shares in <company DICoName=\"Google Inc\" DICoFTMWTickercode=\"us:GOOG\" DICoTickerSymbol=\"GOOG\" "
+                    + "CompositeId=\"TnN0ZWluX09OX0ZvcnR1bmVDb21wYW55X0dPT0c=-T04=\">Google</company> fell -- and then "
+                    + "rose again --- by the close. . . analysts were surprised...</p>\n",
+            "<p><em> </em>Read more in <a href=\"/FT/Content/Companies/Stories/Live/ProdStory1.xml?uuid=%s\">"
+                    + "a story about something financial</a><strong>\n</strong></p>\n",
+            "<h3>What happens next</h3>\n<ul><li>First point</li><li>Second <b>point</b></li><li><span></span></li></ul>\n",
+            "<p></p>\n<p>An external link to <a href=\"http://www.bbc.co.uk/news/world-africa-24577711\" "
+                    + "title=\"www.bbc.co.uk\">the BBC</a>.<br/></p>\n"
+    };
+
+    private BodyCorpus() {
+    }
+
+    /**
+     * @param name {@link #KITCHEN_SINK}, or a size such as <code>1KB</code> or <code>2MB</code>.
+     */
+    public static String body(String name) throws IOException {
+        if (KITCHEN_SINK.equals(name)) {
+            return Resources.toString(Resources.getResource("body/kitchen_sink_article_body.xml"), Charsets.UTF_8);
+        }
+        return synthetic(parseSize(name));
+    }
+
+    public static String synthetic(int size) {
+        StringBuilder body = new StringBuilder(size + 512).append("<body>");
+        for (int i = 0; body.length() < size - "</body>".length(); i++) {
+            String uuid = UUID.nameUUIDFromBytes(Integer.toString(i).getBytes(Charsets.UTF_8)).toString();
+            body.append(String.format(PARAGRAPHS[i % PARAGRAPHS.length], uuid));
+        }
+        return body.append("</body>").toString();
+    }
+
+    private static int parseSize(String name) {
+        if (name.endsWith("MB")) {
+            return Integer.parseInt(name.substring(0, name.length() - 2)) * 1024 * 1024;
+        }
+        if (name.endsWith("KB")) {
+            return Integer.parseInt(name.substring(0, name.length() - 2)) * 1024;
+        }
+        throw new IllegalArgumentException("Unknown body " + name);
+    }
+}
@@ -0,0 +1,54 @@
+package com.ft.methodearticleinternalcomponentsmapper.benchmarks;
+
+import com.ft.methodearticleinternalcomponentsmapper.transformation.FieldTransformer;
+import com.google.common.collect.Maps;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the whole body transformation, as <code>InternalComponentsMapper</code> runs it on an article body.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BodyProcessingFieldTransformerBenchmark {
+
+    private static final String TRANSACTION_ID = "tid_benchmark";
+    private static final String UUID_VALUE = UUID.randomUUID().toString();
+
+    @Param({BodyCorpus.KITCHEN_SINK, "1KB", "16KB", "128KB", "512KB", "2MB"})
+    public String body;
+
+    private String originalBody;
+    private FieldTransformer bodyTransformer;
+
+    @Setup
+    public void setUp() throws IOException {
+        originalBody = BodyCorpus.body(body);
+        bodyTransformer = BenchmarkFixtures.bodyTransformerFactory(new StubDocumentStoreApiClient(), new StubConcordanceApiClient())
+                .newInstance();
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public String transform() {
+        return bodyTransformer.transform(originalBody, TRANSACTION_ID,
+                Maps.immutableEntry("uuid", UUID_VALUE), Maps.immutableEntry("apiHost", BenchmarkFixtures.API_HOST));
+    }
+}
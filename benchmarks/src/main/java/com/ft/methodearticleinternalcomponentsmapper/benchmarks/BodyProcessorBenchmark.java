@@ -0,0 +1,79 @@
+package com.ft.methodearticleinternalcomponentsmapper.benchmarks;
+
+import com.ft.bodyprocessing.BodyProcessingContext;
+import com.ft.bodyprocessing.BodyProcessor;
+import com.ft.methodearticleinternalcomponentsmapper.transformation.MappedDataBodyProcessingContext;
+import com.google.common.collect.Maps;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures each processor of the body transformation on its own, given the body exactly as the processors before it
+ * in the chain leave it. <code>stage</code> is the position of the processor in
+ * <code>BodyProcessingFieldTransformerFactory.bodyProcessors()</code>:
+ * <ol start="0">
+ * <li>strip by attributes and values</li>
+ * <li>empty elements remover</li>
+ * <li>DOM stage (tear sheet links, images, promo boxes, dynamic content)</li>
+ * <li>Methode body transformation (StAX)</li>
+ * <li>Methode links</li>
+ * <li>modular XSLT</li>
+ * <li>FT tags links rewrite</li>
+ * <li>typography and paragraphs rewriter</li>
+ * <li>HTML5 self-closing tags</li>
+ * </ol>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BodyProcessorBenchmark {
+
+    @Param({BodyCorpus.KITCHEN_SINK, "1KB", "16KB", "128KB", "512KB", "2MB"})
+    public String body;
+
+    @Param({"0", "1", "2", "3", "4", "5", "6", "7", "8"})
+    public int stage;
+
+    private BodyProcessor processor;
+    private String input;
+    private BodyProcessingContext bodyProcessingContext;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() throws IOException {
+        List<BodyProcessor> processors = BenchmarkFixtures
+                .bodyTransformerFactory(new StubDocumentStoreApiClient(), new StubConcordanceApiClient())
+                .bodyProcessors();
+        bodyProcessingContext = new MappedDataBodyProcessingContext("tid_benchmark",
+                Maps.immutableEntry("uuid", UUID.randomUUID().toString()),
+                Maps.immutableEntry("apiHost", BenchmarkFixtures.API_HOST));
+
+        input = BodyCorpus.body(body);
+        for (BodyProcessor previous : processors.subList(0, stage)) {
+            input = previous.process(input, bodyProcessingContext);
+        }
+        processor = processors.get(stage);
+    }
+
+    @Benchmark
+    public String process() {
+        return processor.process(input, bodyProcessingContext);
+    }
+}
@@ -0,0 +1,120 @@
+package com.ft.methodearticleinternalcomponentsmapper.benchmarks;
+
+import com.ft.methodearticleinternalcomponentsmapper.model.EomFile;
+import com.ft.methodearticleinternalcomponentsmapper.transformation.InternalComponentsMapper;
+import com.google.common.base.Charsets;
+import com.google.common.io.Resources;
+import com.samskivert.mustache.Mustache;
+import com.samskivert.mustache.Template;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Methode articles for the mapper benchmarks, rendered from the <code>article_value.xml.mustache</code> and
+ * <code>article_attributes.xml.mustache</code> templates used by the tests.
+ */
+public final class EomFileCorpus {
+
+    private static final String EOM_TYPE_COMPOUND_STORY = "EOM::CompoundStory";
+    private static final String TEMPLATE_BODY = "<body>";
+    private static final String TEMPLATE_BODY_END = "</body>";
+
+    public enum Scenario {
+        /** An FT article with a summary, a main image and the kitchen sink body. */
+        FT,
+        /** A content placeholder for a blog post, resolved to the post's UUID by the Document Store. */
+        CONTENT_PLACEHOLDER_BLOG,
+        /** A content placeholder with an <code>OriginalUUID</code>, checked against the Document Store. */
+        CONTENT_PLACEHOLDER_ORIGINAL_UUID,
+        /** Dynamic content with {@link #DYNAMIC_CONTENT_BLOCKS} blocks, each transformed as a body. */
+        DYNAMIC_CONTENT,
+        /** An FT content package with the kitchen sink body. */
+        CONTENT_PACKAGE
+    }
+
+    public static final int DYNAMIC_CONTENT_BLOCKS = 100;
+
+    private EomFileCorpus() {
+    }
+
+    public static EomFile eomFile(Scenario scenario) throws IOException {
+        Map<String, Object> value = new HashMap<>();
+        Map<String, Object> attributes = new HashMap<>();
+        String body = null;
+        String blocks = null;
+
+        switch (scenario) {
+            case FT:
+                attributes.put("sourceCode", InternalComponentsMapper.SourceCode.FT);
+                value.put("mainImageUuid", UUID.randomUUID().toString());
+                value.put("summary", true);
+                value.put("displayPosition", "auto");
+                body = BodyCorpus.body(BodyCorpus.KITCHEN_SINK);
+                break;
+            case CONTENT_PLACEHOLDER_BLOG:
+                attributes.put("sourceCode", InternalComponentsMapper.SourceCode.CONTENT_PLACEHOLDER);
+                attributes.put("category", "blog");
+                attributes.put("serviceid", "http://ftalphaville.ft.com/?p=2193913");
+                attributes.put("ref_field", "2193913");
+                break;
+            case CONTENT_PLACEHOLDER_ORIGINAL_UUID:
+                attributes.put("sourceCode", InternalComponentsMapper.SourceCode.CONTENT_PLACEHOLDER);
+                attributes.put("originalUUID", UUID.randomUUID().toString());
+                break;
+            case DYNAMIC_CONTENT:
+                attributes.put("sourceCode", InternalComponentsMapper.SourceCode.DYNAMIC_CONTENT);
+                blocks = blocks(DYNAMIC_CONTENT_BLOCKS);
+                break;
+            case CONTENT_PACKAGE:
+                attributes.put("sourceCode", InternalComponentsMapper.SourceCode.FT);
+                attributes.put("isContentPackage", "true");
+                value.put("contentPackage", true);
+                value.put("contentPackageDesc", "Content package description");
+                value.put("contentPackageListHref", "<a href=\"http://www.ft.com/cms/s/2/" + UUID.randomUUID() + ".html\">List</a>");
+                body = BodyCorpus.body(BodyCorpus.KITCHEN_SINK);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown scenario " + scenario);
+        }
+
+        String renderedValue = render("article/article_value.xml.mustache", value);
+        if (body != null) {
+            renderedValue = renderedValue.substring(0, renderedValue.indexOf(TEMPLATE_BODY))
+                    + body
+                    + renderedValue.substring(renderedValue.indexOf(TEMPLATE_BODY_END) + TEMPLATE_BODY_END.length());
+        }
+        if (blocks != null) {
+            renderedValue = renderedValue.replace("<doc>", "<doc>" + blocks);
+        }
+
+        return new EomFile.Builder()
+                .withUuid(UUID.randomUUID().toString())
+                .withType(EOM_TYPE_COMPOUND_STORY)
+                .withValue(renderedValue.getBytes(Charsets.UTF_8))
+                .withAttributes(render("article/article_attributes.xml.mustache", attributes))
+                .withWorkflowStatus("Stories/WebReady")
+                .withWebUrl(null)
+                .build();
+    }
+
+    private static String blocks(int count) {
+        StringBuilder blocks = new StringBuilder("<blocks>");
+        for (int i = 0; i < count; i++) {
+            blocks.append("<block><block-name>block-").append(i).append("</block-name><block-html-value>")
+                    .append("<p>Update ").append(i).append(" with <a href=\"http://www.ft.com/cms/s/2/")
+                    .append(UUID.nameUUIDFromBytes(Integer.toString(i).getBytes(Charsets.UTF_8)))
+                    .append(".html\">a related story</a> -- and more . . .</p>")
+                    .append("</block-html-value></block>");
+        }
+        return blocks.append("</blocks>").toString();
+    }
+
+    private static String render(String templateName, Map<String, Object> values) throws IOException {
+        Template template = Mustache.compiler().escapeHTML(false)
+                .compile(Resources.toString(Resources.getResource(templateName), Charsets.UTF_8));
+        return template.execute(values);
+    }
+}
@@ -0,0 +1,76 @@
+package com.ft.methodearticleinternalcomponentsmapper.benchmarks;
+
+import com.ft.methodearticleinternalcomponentsmapper.model.EomFile;
+import com.ft.methodearticleinternalcomponentsmapper.model.InternalComponents;
+import com.ft.methodearticleinternalcomponentsmapper.transformation.InternalComponentsMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Date;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the time to map one Methode article end-to-end, for each kind of article the mapper accepts.
+ * <p>
+ * Every remote call (article validation, Document Store, Concordance API) is stubbed to take
+ * <code>remoteLatencyMillis</code>; with <code>0</code> only the CPU work is left, so comparing the two shows how much
+ * of each message's latency is spent waiting on the remote calls. <code>concurrentRemoteCalls</code> makes them on a
+ * pool, as the application does, rather than one after another.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InternalComponentsMapperBenchmark {
+
+    private static final String TRANSACTION_ID = "tid_benchmark";
+
+    @Param
+    public EomFileCorpus.Scenario scenario;
+
+    @Param({"0", "5"})
+    public long remoteLatencyMillis;
+
+    @Param({"false", "true"})
+    public boolean concurrentRemoteCalls;
+
+    private ExecutorService remoteCallExecutor;
+    private InternalComponentsMapper mapper;
+    private EomFile eomFile;
+    private Date lastModified;
+
+    @Setup
+    public void setUp() throws IOException {
+        remoteCallExecutor = concurrentRemoteCalls ? Executors.newFixedThreadPool(16) : null;
+        mapper = BenchmarkFixtures.internalComponentsMapper(remoteLatencyMillis, remoteCallExecutor);
+        eomFile = EomFileCorpus.eomFile(scenario);
+        lastModified = new Date();
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (remoteCallExecutor != null) {
+            remoteCallExecutor.shutdownNow();
+        }
+    }
+
+    @Benchmark
+    public InternalComponents map() {
+        return mapper.map(eomFile, TRANSACTION_ID, lastModified, false);
+    }
+}
@@ -0,0 +1,89 @@
+package com.ft.methodearticleinternalcomponentsmapper.benchmarks;
+
+import com.ft.bodyprocessing.BodyProcessingContext;
+import com.ft.bodyprocessing.BodyProcessor;
+import com.ft.methodearticleinternalcomponentsmapper.transformation.MappedDataBodyProcessingContext;
+import com.ft.methodearticleinternalcomponentsmapper.transformation.MethodeLinksBodyProcessor;
+import com.google.common.base.Charsets;
+import com.google.common.collect.Maps;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Base64;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how the Methode links processor and the tear sheet links transformer scale with the number of links in a
+ * body, every link being to content in the Document Store and every company being concorded, as in a market report.
+ * The time per link should stay flat as <code>links</code> grows.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LinkMatchingBenchmark {
+
+    /**
+     * The position of the DOM stage, which runs the tear sheet links transformer, in
+     * <code>BodyProcessingFieldTransformerFactory.bodyProcessors()</code>.
+     */
+    private static final int DOM_STAGE = 2;
+
+    @Param({"10", "100", "500", "2000"})
+    public int links;
+
+    private BodyProcessor methodeLinksProcessor;
+    private BodyProcessor tearSheetLinksProcessor;
+    private String linksBody;
+    private String companiesBody;
+    private BodyProcessingContext bodyProcessingContext;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        methodeLinksProcessor = new MethodeLinksBodyProcessor(new StubDocumentStoreApiClient(),
+                BenchmarkFixtures.CANONICAL_URL_TEMPLATE);
+        tearSheetLinksProcessor = BenchmarkFixtures
+                .bodyTransformerFactory(new StubDocumentStoreApiClient(), new StubConcordanceApiClient(0, true))
+                .bodyProcessors().get(DOM_STAGE);
+        bodyProcessingContext = new MappedDataBodyProcessingContext("tid_benchmark",
+                Maps.immutableEntry("uuid", UUID.randomUUID().toString()),
+                Maps.immutableEntry("apiHost", BenchmarkFixtures.API_HOST));
+
+        StringBuilder linksBody = new StringBuilder("<body>");
+        StringBuilder companiesBody = new StringBuilder("<body>");
+        for (int i = 0; i < links; i++) {
+            String uuid = UUID.nameUUIDFromBytes(Integer.toString(i).getBytes(Charsets.UTF_8)).toString();
+            linksBody.append("<p><a href=\"http://www.ft.com/cms/s/2/").append(uuid).append(".html\">Story ")
+                    .append(i).append("</a></p>");
+
+            String compositeId = Base64.getEncoder().encodeToString(("Company" + i).getBytes(Charsets.UTF_8)) + "-T04=";
+            companiesBody.append("<p><company CompositeId=\"").append(compositeId).append("\">Company ")
+                    .append(i).append("</company></p>");
+        }
+        this.linksBody = linksBody.append("</body>").toString();
+        this.companiesBody = companiesBody.append("</body>").toString();
+    }
+
+    @Benchmark
+    public String methodeLinks() {
+        return methodeLinksProcessor.process(linksBody, bodyProcessingContext);
+    }
+
+    @Benchmark
+    public String tearSheetLinks() {
+        return tearSheetLinksProcessor.process(companiesBody, bodyProcessingContext);
+    }
+}
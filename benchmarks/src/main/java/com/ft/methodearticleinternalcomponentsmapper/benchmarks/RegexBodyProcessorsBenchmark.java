@@ -0,0 +1,161 @@
+package com.ft.methodearticleinternalcomponentsmapper.benchmarks;
+
+import com.ft.bodyprocessing.BodyProcessingContext;
+import com.ft.bodyprocessing.BodyProcessor;
+import com.ft.bodyprocessing.BodyProcessorChain;
+import com.ft.methodearticleinternalcomponentsmapper.transformation.BodyProcessingFieldTransformerFactory;
+import com.ft.methodearticleinternalcomponentsmapper.transformation.FusedRegexBodyProcessor;
+import com.google.common.base.Charsets;
+import com.google.common.io.Resources;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compares the fused regex stages of the body transformation with the chains of
+ * <code>RegexRemoverBodyProcessor</code>s and <code>RegexReplacerBodyProcessor</code>s they replaced.
+ * <p>
+ * The empty elements remover runs against the raw kitchen sink body, as it does before the DOM stage; the typography
+ * and paragraphs rewriter runs against the transformed kitchen sink body, as it does after the XSLT.
+ * <p>
+ * The rewriter is also compared with a single scan for all of its rules, as one alternation with a group per rule.
+ * That scan does not give the same body, since a match of one rule can overlap one of the rule after it, or only
+ * appear once the rule before it has replaced its matches, so it only shows what one scan would cost.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RegexBodyProcessorsBenchmark {
+
+    private final BodyProcessingContext bodyProcessingContext = new BodyProcessingContext() {
+    };
+
+    private String rawBody;
+    private String transformedBody;
+
+    private BodyProcessor fusedEmptyElementsRemover;
+    private BodyProcessor chainedEmptyElementsRemover;
+    private BodyProcessor fusedTypographyAndParagraphsRewriter;
+    private BodyProcessor chainedTypographyAndParagraphsRewriter;
+    private BodyProcessor oneScanTypographyAndParagraphsRewriter;
+
+    @Setup
+    public void setUp() throws IOException {
+        rawBody = loadResource("body/kitchen_sink_article_body.xml");
+        transformedBody = loadResource("body/expected_transformed_kitchen_sink_article_body.xml");
+
+        FusedRegexBodyProcessor emptyElementsRemover = BodyProcessingFieldTransformerFactory.emptyElementsRemover();
+        fusedEmptyElementsRemover = emptyElementsRemover;
+        chainedEmptyElementsRemover = new BodyProcessorChain(emptyElementsRemover.asSeparateProcessors());
+
+        FusedRegexBodyProcessor typographyAndParagraphsRewriter = BodyProcessingFieldTransformerFactory.typographyAndParagraphsRewriter();
+        fusedTypographyAndParagraphsRewriter = typographyAndParagraphsRewriter;
+        chainedTypographyAndParagraphsRewriter = new BodyProcessorChain(typographyAndParagraphsRewriter.asSeparateProcessors());
+        oneScanTypographyAndParagraphsRewriter = new OneScanBodyProcessor(
+                "\\.\\s*\\.\\s*\\.\\s*", "\u2026",
+                "---", "\u2014",
+                "--", "\u2013",
+                "</p>(\\s*<br\\s*/>\\s*)*<p>", "</p><p>",
+                "(<p>)(\\s|(<br\\s*/>))*(</p>)", "",
+                "</p>(\\r?\\n)+<p>", "</p>" + System.lineSeparator() + "<p>",
+                "</p> +<p>", "</p><p>");
+    }
+
+    @Benchmark
+    public String emptyElementsRemoverFused() {
+        return fusedEmptyElementsRemover.process(rawBody, bodyProcessingContext);
+    }
+
+    @Benchmark
+    public String emptyElementsRemoverChained() {
+        return chainedEmptyElementsRemover.process(rawBody, bodyProcessingContext);
+    }
+
+    @Benchmark
+    public String typographyAndParagraphsRewriterFused() {
+        return fusedTypographyAndParagraphsRewriter.process(transformedBody, bodyProcessingContext);
+    }
+
+    @Benchmark
+    public String typographyAndParagraphsRewriterChained() {
+        return chainedTypographyAndParagraphsRewriter.process(transformedBody, bodyProcessingContext);
+    }
+
+    @Benchmark
+    public String typographyAndParagraphsRewriterOneScan() {
+        return oneScanTypographyAndParagraphsRewriter.process(transformedBody, bodyProcessingContext);
+    }
+
+    private static String loadResource(String name) throws IOException {
+        return Resources.toString(Resources.getResource(name), Charsets.UTF_8);
+    }
+
+    /**
+     * Replaces the matches of every regex in a single scan, each with the literal replacement of the regex which
+     * matched it.
+     */
+    private static class OneScanBodyProcessor implements BodyProcessor {
+
+        private final Pattern pattern;
+        private final int[] groups;
+        private final String[] replacements;
+
+        /**
+         * @param regexesAndReplacements each regex followed by its replacement.
+         */
+        private OneScanBodyProcessor(String... regexesAndReplacements) {
+            List<String> alternatives = new ArrayList<>();
+            groups = new int[regexesAndReplacements.length / 2];
+            replacements = new String[groups.length];
+            int group = 1;
+            for (int i = 0; i < groups.length; i++) {
+                String regex = regexesAndReplacements[2 * i];
+                alternatives.add("(" + regex + ")");
+                groups[i] = group;
+                replacements[i] = Matcher.quoteReplacement(regexesAndReplacements[2 * i + 1]);
+                group += Pattern.compile(regex).matcher("").groupCount() + 1;
+            }
+            pattern = Pattern.compile(String.join("|", alternatives));
+        }
+
+        @Override
+        public String process(String body, BodyProcessingContext bodyProcessingContext) {
+            Matcher matcher = pattern.matcher(body);
+            if (!matcher.find()) {
+                return body;
+            }
+
+            StringBuffer result = new StringBuffer(body.length());
+            do {
+                matcher.appendReplacement(result, replacements[matchedRegex(matcher)]);
+            } while (matcher.find());
+            matcher.appendTail(result);
+            return result.toString();
+        }
+
+        private int matchedRegex(Matcher matcher) {
+            int i = 0;
+            while (matcher.start(groups[i]) == -1) {
+                i++;
+            }
+            return i;
+        }
+    }
+}
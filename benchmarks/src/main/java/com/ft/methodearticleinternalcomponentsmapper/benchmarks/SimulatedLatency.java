@@ -0,0 +1,24 @@
+package com.ft.methodearticleinternalcomponentsmapper.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stands in for the round trip of a remote call in the stubbed clients.
+ */
+final class SimulatedLatency {
+
+    private SimulatedLatency() {
+    }
+
+    static void pause(long latencyMillis) {
+        if (latencyMillis <= 0) {
+            return;
+        }
+
+        try {
+            TimeUnit.MILLISECONDS.sleep(latencyMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.ft.methodearticleinternalcomponentsmapper.benchmarks;
+
+import com.ft.methodearticleinternalcomponentsmapper.clients.ConcordanceApiClient;
+import com.ft.methodearticleinternalcomponentsmapper.model.concordance.ConceptView;
+import com.ft.methodearticleinternalcomponentsmapper.model.concordance.Concordance;
+import com.ft.methodearticleinternalcomponentsmapper.model.concordance.Concordances;
+import com.ft.methodearticleinternalcomponentsmapper.model.concordance.Identifier;
+import com.sun.jersey.api.client.Client;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * A Concordance client which answers in-process, after a fixed latency, with no company concorded, or with every
+ * company concorded to a concept of its own.
+ */
+public class StubConcordanceApiClient extends ConcordanceApiClient {
+
+    private static final String TME_AUTHORITY = "http://api.ft.com/system/FT-TME";
+
+    private final long latencyMillis;
+    private final boolean concordsEverything;
+
+    public StubConcordanceApiClient() {
+        this(0);
+    }
+
+    public StubConcordanceApiClient(long latencyMillis) {
+        this(latencyMillis, false);
+    }
+
+    public StubConcordanceApiClient(long latencyMillis, boolean concordsEverything) {
+        super(Client.create(), "localhost", 8080, "/concordances", "public-concordances-api");
+        this.latencyMillis = latencyMillis;
+        this.concordsEverything = concordsEverything;
+    }
+
+    @Override
+    public Concordances getConcordancesByIdentifierValues(List<String> identifierValues) {
+        SimulatedLatency.pause(latencyMillis);
+        if (!concordsEverything) {
+            return new Concordances(Collections.emptyList());
+        }
+        return new Concordances(identifierValues.stream().map(this::concordance).collect(Collectors.toList()));
+    }
+
+    private Concordance concordance(String identifierValue) {
+        String conceptUuid = UUID.nameUUIDFromBytes(identifierValue.getBytes(StandardCharsets.UTF_8)).toString();
+        return new Concordance(new ConceptView("http://api.ft.com/things/" + conceptUuid, "http://api.ft.com/organisations/" + conceptUuid),
+                new Identifier(TME_AUTHORITY, identifierValue));
+    }
+}
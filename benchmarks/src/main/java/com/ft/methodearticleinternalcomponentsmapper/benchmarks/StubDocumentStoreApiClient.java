@@ -0,0 +1,45 @@
+package com.ft.methodearticleinternalcomponentsmapper.benchmarks;
+
+import com.ft.methodearticleinternalcomponentsmapper.clients.DocumentStoreApiClient;
+import com.ft.methodearticleinternalcomponentsmapper.model.Content;
+import com.sun.jersey.api.client.Client;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * A Document Store client which answers in-process, after a fixed latency: every UUID is present and is an article.
+ */
+public class StubDocumentStoreApiClient extends DocumentStoreApiClient {
+
+    private final long latencyMillis;
+
+    public StubDocumentStoreApiClient() {
+        this(0);
+    }
+
+    public StubDocumentStoreApiClient(long latencyMillis) {
+        super(Client.create(), "localhost", 8080, "document-store-api");
+        this.latencyMillis = latencyMillis;
+    }
+
+    @Override
+    public String resolveUUID(String identifierAuthority, String identifierValue, String transactionId) {
+        SimulatedLatency.pause(latencyMillis);
+        return UUID.nameUUIDFromBytes(identifierValue.getBytes()).toString();
+    }
+
+    @Override
+    public boolean isUUIDPresent(String uuid, String transactionId) {
+        SimulatedLatency.pause(latencyMillis);
+        return true;
+    }
+
+    @Override
+    public List<Content> getContentForUuids(Collection<String> uuids, String transactionId) {
+        SimulatedLatency.pause(latencyMillis);
+        return uuids.stream().map(uuid -> new Content(uuid, "Article")).collect(Collectors.toList());
+    }
+}
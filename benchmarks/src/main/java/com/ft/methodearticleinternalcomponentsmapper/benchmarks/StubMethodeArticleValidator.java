@@ -0,0 +1,27 @@
+package com.ft.methodearticleinternalcomponentsmapper.benchmarks;
+
+import com.ft.methodearticleinternalcomponentsmapper.model.EomFile;
+import com.ft.methodearticleinternalcomponentsmapper.validation.MethodeArticleValidator;
+import com.ft.methodearticleinternalcomponentsmapper.validation.PublishingStatus;
+import com.sun.jersey.api.client.Client;
+
+import java.net.URI;
+
+/**
+ * A Methode article mapper validator which answers in-process, after a fixed latency, that every article is valid.
+ */
+public class StubMethodeArticleValidator extends MethodeArticleValidator {
+
+    private final long latencyMillis;
+
+    public StubMethodeArticleValidator(long latencyMillis) {
+        super(Client.create(), URI.create("http://localhost:8080/map"), "methode-article-mapper");
+        this.latencyMillis = latencyMillis;
+    }
+
+    @Override
+    public PublishingStatus getPublishingStatus(EomFile eomFile, String transactionId, Boolean preview) {
+        SimulatedLatency.pause(latencyMillis);
+        return PublishingStatus.VALID;
+    }
+}
@@ -8,35 +8,53 @@ import com.ft.bodyprocessing.html.Html5SelfClosingTagBodyProcessor;
 import com.ft.bodyprocessing.richcontent.VideoMatcher;
 import com.ft.jerseyhttpwrapper.ResilientClientBuilder;
 import com.ft.jerseyhttpwrapper.config.EndpointConfiguration;
-import com.ft.jerseyhttpwrapper.continuation.ExponentialBackoffContinuationPolicy;
 import com.ft.message.consumer.MessageListener;
 import com.ft.message.consumer.MessageQueueConsumerInitializer;
 import com.ft.messagequeueproducer.MessageProducer;
 import com.ft.messagequeueproducer.QueueProxyProducer;
+import com.ft.methodearticleinternalcomponentsmapper.clients.CachingConcordanceApiClient;
+import com.ft.methodearticleinternalcomponentsmapper.clients.CachingDocumentStoreApiClient;
 import com.ft.methodearticleinternalcomponentsmapper.clients.ConcordanceApiClient;
+import com.ft.methodearticleinternalcomponentsmapper.clients.CountingContinuationPolicy;
 import com.ft.methodearticleinternalcomponentsmapper.clients.DocumentStoreApiClient;
+import com.ft.methodearticleinternalcomponentsmapper.clients.InstrumentingClientFilter;
+import com.ft.methodearticleinternalcomponentsmapper.clients.RemoteWaitTime;
+import com.ft.methodearticleinternalcomponentsmapper.configuration.BatchMappingConfiguration;
 import com.ft.methodearticleinternalcomponentsmapper.configuration.ConnectionConfiguration;
 import com.ft.methodearticleinternalcomponentsmapper.configuration.ConsumerConfiguration;
+import com.ft.methodearticleinternalcomponentsmapper.configuration.DedupConfiguration;
 import com.ft.methodearticleinternalcomponentsmapper.configuration.MethodeArticleInternalComponentsMapperConfiguration;
 import com.ft.methodearticleinternalcomponentsmapper.configuration.ProducerConfiguration;
+import com.ft.methodearticleinternalcomponentsmapper.configuration.PublishingStatusConfiguration;
+import com.ft.methodearticleinternalcomponentsmapper.configuration.RemoteCallsConfiguration;
 import com.ft.methodearticleinternalcomponentsmapper.configuration.UppServiceConfiguration;
 import com.ft.methodearticleinternalcomponentsmapper.health.CanConnectToMessageQueueProducerProxyHealthcheck;
 import com.ft.methodearticleinternalcomponentsmapper.health.RemoteServiceHealthCheck;
+import com.ft.methodearticleinternalcomponentsmapper.messaging.BatchingMessageProducer;
 import com.ft.methodearticleinternalcomponentsmapper.messaging.MessageBuilder;
 import com.ft.methodearticleinternalcomponentsmapper.messaging.MessageProducingInternalComponentsMapper;
 import com.ft.methodearticleinternalcomponentsmapper.messaging.NativeCmsPublicationEventsListener;
+import com.ft.methodearticleinternalcomponentsmapper.messaging.UnchangedContentCache;
+import com.ft.methodearticleinternalcomponentsmapper.reprocess.ReprocessCommand;
 import com.ft.methodearticleinternalcomponentsmapper.resources.MapResource;
+import com.ft.methodearticleinternalcomponentsmapper.tasks.InvalidateConcordanceCacheTask;
+import com.ft.methodearticleinternalcomponentsmapper.tasks.InvalidateDocumentStoreCacheTask;
 import com.ft.methodearticleinternalcomponentsmapper.transformation.BodyProcessingFieldTransformerFactory;
 import com.ft.methodearticleinternalcomponentsmapper.transformation.InteractiveGraphicsMatcher;
 import com.ft.methodearticleinternalcomponentsmapper.transformation.InternalComponentsMapper;
 import com.ft.methodearticleinternalcomponentsmapper.transformation.BlogUuidResolver;
+import com.ft.methodearticleinternalcomponentsmapper.transformation.RemoteLookupsPrefetcher;
 import com.ft.methodearticleinternalcomponentsmapper.validation.MethodeArticleValidator;
+import com.ft.methodearticleinternalcomponentsmapper.validation.PublishingStatusRules;
+import com.ft.methodearticleinternalcomponentsmapper.validation.RuleBasedMethodeArticleValidator;
+import com.ft.methodearticleinternalcomponentsmapper.xml.XmlInfrastructure;
 import com.ft.platform.dropwizard.AdvancedHealthCheck;
 import com.ft.platform.dropwizard.AdvancedHealthCheckBundle;
 import com.ft.platform.dropwizard.DefaultGoodToGoChecker;
 import com.ft.platform.dropwizard.GoodToGoConfiguredBundle;
 import com.sun.jersey.api.client.Client;
 import io.dropwizard.Application;
+import io.dropwizard.client.JerseyClientBuilder;
 import io.dropwizard.client.JerseyClientConfiguration;
 import io.dropwizard.setup.Bootstrap;
 import io.dropwizard.setup.Environment;
@@ -49,6 +67,10 @@ import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
 
 public class MethodeArticleInternalComponentsMapperApplication extends Application<MethodeArticleInternalComponentsMapperConfiguration> {
 
@@ -60,6 +82,7 @@ public class MethodeArticleInternalComponentsMapperApplication extends Applicati
     public void initialize(final Bootstrap<MethodeArticleInternalComponentsMapperConfiguration> bootstrap) {
         bootstrap.addBundle(new AdvancedHealthCheckBundle());
         bootstrap.addBundle(new GoodToGoConfiguredBundle(new DefaultGoodToGoChecker()));
+        bootstrap.addCommand(new ReprocessCommand(this));
     }
 
     @Override
@@ -69,17 +92,62 @@ public class MethodeArticleInternalComponentsMapperApplication extends Applicati
                 .info("JVM file.encoding = {}", System.getProperty("file.encoding"));
 
         environment.servlets().addFilter("transactionIdFilter", new TransactionIdFilter())
-                .addMappingForUrlPatterns(EnumSet.of(DispatcherType.REQUEST), true, "/map");
+                .addMappingForUrlPatterns(EnumSet.of(DispatcherType.REQUEST), true, "/map", "/map/batch");
 
         BuildInfoResource buildInfoResource = new BuildInfoResource();
         environment.jersey().register(buildInfoResource);
 
+        Executor remoteCallExecutor = buildRemoteCallExecutor(configuration, environment);
+        RemoteDependencies remoteDependencies = buildRemoteDependencies(configuration, environment, remoteCallExecutor);
+        XmlInfrastructure xmlInfrastructure = new XmlInfrastructure(environment.metrics());
+        InternalComponentsMapper eomFileProcessor = buildInternalComponentsMapper(configuration, environment,
+                remoteDependencies, remoteCallExecutor, xmlInfrastructure);
+
+        ConsumerConfiguration consumerConfig = configuration.getConsumerConfiguration();
+        MessageProducingInternalComponentsMapper msgProducingListMapper =
+                new MessageProducingInternalComponentsMapper(
+                        getMessageBuilder(configuration, environment),
+                        configureMessageProducer(configuration.getProducerConfiguration(), environment),
+                        eomFileProcessor,
+                        buildUnchangedContentCache(configuration.getDedupConfiguration(), environment),
+                        configuration.getDedupConfiguration().getMode() == DedupConfiguration.Mode.REEMIT
+                );
+        MessageListener listener = new NativeCmsPublicationEventsListener(
+                environment.getObjectMapper(),
+                msgProducingListMapper,
+                consumerConfig.getSystemCode(),
+                xmlInfrastructure,
+                environment.metrics()
+        );
+        registerListener(
+                environment, listener, consumerConfig,
+                getConsumerClient(environment, consumerConfig)
+        );
+
+
+        registerHealthChecks(
+                environment,
+                remoteDependencies.getHealthChecks()
+        );
+
+        BatchMappingConfiguration batchMappingConfig = configuration.getBatchMappingConfiguration();
+        environment.jersey().register(new MapResource(eomFileProcessor, environment.getObjectMapper(),
+                buildBatchMappingExecutor(batchMappingConfig, environment), batchMappingConfig.getThreads(), environment.metrics()));
+        environment.jersey().register(RuntimeExceptionMapper.class);
+    }
+
+    /**
+     * Builds the clients of the services the mapper calls, as the configuration describes them.
+     */
+    public RemoteDependencies buildRemoteDependencies(MethodeArticleInternalComponentsMapperConfiguration configuration,
+                                                      Environment environment, Executor remoteCallExecutor) {
         UppServiceConfiguration mamConfiguration =
                 configuration.getMethodeArticleMapperConfiguration();
         Client mamClient = configureResilientClient(
                 environment,
                 mamConfiguration.getEndpointConfiguration(),
-                mamConfiguration.getConnectionConfiguration()
+                mamConfiguration.getConnectionConfiguration(),
+                mamConfiguration.getHostHeader()
         );
         EndpointConfiguration mamEndpointConfiguration = mamConfiguration.getEndpointConfiguration();
         URI mamUri = UriBuilder
@@ -95,7 +163,8 @@ public class MethodeArticleInternalComponentsMapperApplication extends Applicati
         Client mcpmClient = configureResilientClient(
                 environment,
                 mcpmEndpointConfiguration,
-                mcpmConfiguration.getConnectionConfiguration()
+                mcpmConfiguration.getConnectionConfiguration(),
+                mcpmConfiguration.getHostHeader()
         );
         URI mcpmUri = UriBuilder
                 .fromPath(mcpmEndpointConfiguration.getPath())
@@ -104,8 +173,30 @@ public class MethodeArticleInternalComponentsMapperApplication extends Applicati
                 .port(mcpmEndpointConfiguration.getPort())
                 .build();
 
-        DocumentStoreApiClient documentStoreApiClient = new DocumentStoreApiClient(configuration.getDocumentStoreApiConfiguration(), environment);
-        ConcordanceApiClient concordanceApiClient = new ConcordanceApiClient(configuration.getConcordanceApiConfiguration(), environment);
+        DocumentStoreApiClient documentStoreApiClient = buildDocumentStoreApiClient(configuration.getDocumentStoreApiConfiguration(), environment);
+        ConcordanceApiClient concordanceApiClient = buildConcordanceApiClient(configuration.getConcordanceApiConfiguration(), environment, remoteCallExecutor);
+
+        Map<String, MethodeArticleValidator> articleValidators = new HashMap<>();
+        articleValidators.put(InternalComponentsMapper.SourceCode.FT, new MethodeArticleValidator(mamClient, mamUri, mamConfiguration.getHostHeader()));
+        articleValidators.put(InternalComponentsMapper.SourceCode.CONTENT_PLACEHOLDER, new MethodeArticleValidator(mcpmClient, mcpmUri, mcpmConfiguration.getHostHeader()));
+        articleValidators.put(InternalComponentsMapper.SourceCode.DYNAMIC_CONTENT, new MethodeArticleValidator(mamClient, mamUri, mamConfiguration.getHostHeader()));
+
+        List<AdvancedHealthCheck> healthchecks = new ArrayList<>();
+        healthchecks.add(buildMAMHealthCheck(mamClient, mamConfiguration));
+        healthchecks.add(buildMCPMHealthCheck(mcpmClient, mcpmConfiguration));
+        healthchecks.add(buildDocumentStoreApiHealthcheck(documentStoreApiClient.getJerseyClient(), configuration.getDocumentStoreApiConfiguration()));
+        healthchecks.add(buildConcordanceApiHealthcheck(concordanceApiClient.getJerseyClient(), configuration.getConcordanceApiConfiguration()));
+
+        return new RemoteDependencies(articleValidators, documentStoreApiClient, concordanceApiClient, healthchecks);
+    }
+
+    public InternalComponentsMapper buildInternalComponentsMapper(MethodeArticleInternalComponentsMapperConfiguration configuration,
+                                                                  Environment environment,
+                                                                  RemoteDependencies remoteDependencies,
+                                                                  Executor remoteCallExecutor,
+                                                                  XmlInfrastructure xmlInfrastructure) {
+        DocumentStoreApiClient documentStoreApiClient = remoteDependencies.getDocumentStoreApiClient();
+        ConcordanceApiClient concordanceApiClient = remoteDependencies.getConcordanceApiClient();
 
         BlogUuidResolver blogUuidResolver = new BlogUuidResolver(
                 environment.metrics(),
@@ -113,77 +204,136 @@ public class MethodeArticleInternalComponentsMapperApplication extends Applicati
                 configuration.getValidationConfiguration().getAuthorityPrefix(),
                 configuration.getValidationConfiguration().getBrandIdMappings());
 
-        Map<String, MethodeArticleValidator> articleValidators = new HashMap<>();
-        articleValidators.put(InternalComponentsMapper.SourceCode.FT, new MethodeArticleValidator(mamClient, mamUri, mamConfiguration.getHostHeader()));
-        articleValidators.put(InternalComponentsMapper.SourceCode.CONTENT_PLACEHOLDER, new MethodeArticleValidator(mcpmClient, mcpmUri, mcpmConfiguration.getHostHeader()));
-        articleValidators.put(InternalComponentsMapper.SourceCode.DYNAMIC_CONTENT, new MethodeArticleValidator(mamClient, mamUri, mamConfiguration.getHostHeader()));
-        InternalComponentsMapper eomFileProcessor = new InternalComponentsMapper(
+        return new InternalComponentsMapper(
                 new BodyProcessingFieldTransformerFactory(documentStoreApiClient,
                         new VideoMatcher(configuration.getVideoSiteConfig()),
                         new InteractiveGraphicsMatcher(configuration.getInteractiveGraphicsWhitelist()),
                         configuration.getContentTypeTemplates(),
                         configuration.getApiHost(),
                         concordanceApiClient,
-                        configuration.getCanonicalUrlTemplate()
+                        configuration.getCanonicalUrlTemplate(),
+                        xmlInfrastructure,
+                        configuration.getXsltConfiguration(),
+                        environment.metrics(),
+                        configuration.getBodyProcessingMetricsConfiguration()
                 ).newInstance(),
                 new Html5SelfClosingTagBodyProcessor(),
                 blogUuidResolver,
                 documentStoreApiClient,
-                articleValidators,
-                configuration.getApiHost()
-        );
-
-        ConsumerConfiguration consumerConfig = configuration.getConsumerConfiguration();
-        MessageProducingInternalComponentsMapper msgProducingListMapper =
-                new MessageProducingInternalComponentsMapper(
-                        getMessageBuilder(configuration, environment),
-                        configureMessageProducer(configuration.getProducerConfiguration(), environment),
-                        eomFileProcessor
-                );
-        MessageListener listener = new NativeCmsPublicationEventsListener(
-                environment.getObjectMapper(),
-                msgProducingListMapper,
-                consumerConfig.getSystemCode()
-        );
-        registerListener(
-                environment, listener, consumerConfig,
-                getConsumerClient(environment, consumerConfig)
+                buildArticleValidators(configuration.getPublishingStatusConfiguration(), remoteDependencies.getArticleValidators(),
+                        xmlInfrastructure, environment),
+                configuration.getApiHost(),
+                xmlInfrastructure,
+                environment.metrics(),
+                remoteCallExecutor,
+                new RemoteLookupsPrefetcher(documentStoreApiClient, concordanceApiClient, remoteCallExecutor)
         );
+    }
 
+    /**
+     * The publishing status rules are those of the Methode article mapper, so they only stand in for its validation of
+     * FT articles; content placeholders and dynamic content are still validated by their mappers.
+     */
+    private Map<String, MethodeArticleValidator> buildArticleValidators(PublishingStatusConfiguration publishingStatusConfig,
+                                                                        Map<String, MethodeArticleValidator> remoteValidators,
+                                                                        XmlInfrastructure xmlInfrastructure,
+                                                                        Environment environment) {
+        if (publishingStatusConfig.getMode() == PublishingStatusConfiguration.Mode.REMOTE) {
+            return remoteValidators;
+        }
 
-        List<AdvancedHealthCheck> healthchecks = new ArrayList<>();
-        healthchecks.add(buildMAMHealthCheck(mamClient, mamConfiguration));
-        healthchecks.add(buildMCPMHealthCheck(mcpmClient, mcpmConfiguration));
-        healthchecks.add(buildDocumentStoreApiHealthcheck(documentStoreApiClient.getJerseyClient(), configuration.getDocumentStoreApiConfiguration()));
-        healthchecks.add(buildConcordanceApiHealthcheck(concordanceApiClient.getJerseyClient(), configuration.getConcordanceApiConfiguration()));
+        PublishingStatusRules rules = new PublishingStatusRules(xmlInfrastructure, publishingStatusConfig.getWorkflowStatuses());
+        Map<String, MethodeArticleValidator> articleValidators = new HashMap<>(remoteValidators);
+        articleValidators.put(InternalComponentsMapper.SourceCode.FT,
+                new RuleBasedMethodeArticleValidator(remoteValidators.get(InternalComponentsMapper.SourceCode.FT), rules,
+                        publishingStatusConfig.getMode(), InternalComponentsMapper.SourceCode.FT, environment.metrics()));
+        return articleValidators;
+    }
 
-        registerHealthChecks(
-                environment,
-                healthchecks
-        );
+    /**
+     * @return the pool which makes the remote calls of each article concurrently; the calls made on it count towards
+     * the remote wait of the message they are made for.
+     */
+    public Executor buildRemoteCallExecutor(MethodeArticleInternalComponentsMapperConfiguration configuration, Environment environment) {
+        RemoteCallsConfiguration remoteCallsConfig = configuration.getRemoteCallsConfiguration();
+        return RemoteWaitTime.propagating(environment.lifecycle().executorService("remote-calls-%d")
+                .minThreads(remoteCallsConfig.getThreads())
+                .maxThreads(remoteCallsConfig.getThreads())
+                .workQueue(new ArrayBlockingQueue<Runnable>(remoteCallsConfig.getQueueSize()))
+                .rejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy())
+                .build());
+    }
 
-        environment.jersey().register(new MapResource(eomFileProcessor));
-        environment.jersey().register(RuntimeExceptionMapper.class);
+    /**
+     * @return the one client all the stand-ins of the remote dependencies are built on; they answer in-process, so it
+     * makes no calls.
+     */
+    public Client buildStandInClient(Environment environment) {
+        return new JerseyClientBuilder(environment).using(new JerseyClientConfiguration()).build("stand-ins");
     }
 
     private Client configureResilientClient(
             Environment environment,
             EndpointConfiguration endpointConfiguration,
-            ConnectionConfiguration connectionConfig) {
+            ConnectionConfiguration connectionConfig,
+            String hostHeader) {
 
         JerseyClientConfiguration jerseyClientConfiguration = endpointConfiguration.getJerseyClientConfiguration();
         jerseyClientConfiguration.setGzipEnabled(false);
         jerseyClientConfiguration.setGzipEnabledForRequests(false);
 
-        return ResilientClientBuilder.in(environment)
+        Client client = ResilientClientBuilder.in(environment)
                 .using(endpointConfiguration)
                 .withContinuationPolicy(
-                        new ExponentialBackoffContinuationPolicy(
+                        new CountingContinuationPolicy(
                                 connectionConfig.getNumberOfConnectionAttempts(),
-                                connectionConfig.getTimeoutMultiplier()
+                                connectionConfig.getTimeoutMultiplier(),
+                                hostHeader,
+                                environment.metrics()
                         )
                 ).withTransactionPropagation()
                 .build();
+        client.addFilter(new InstrumentingClientFilter(hostHeader, environment.metrics()));
+        return client;
+    }
+
+    private DocumentStoreApiClient buildDocumentStoreApiClient(UppServiceConfiguration documentStoreApiConfig, Environment environment) {
+        DocumentStoreApiClient documentStoreApiClient = new DocumentStoreApiClient(documentStoreApiConfig, environment);
+        if (documentStoreApiConfig.getCacheConfiguration() == null) {
+            return documentStoreApiClient;
+        }
+        CachingDocumentStoreApiClient cachingClient = new CachingDocumentStoreApiClient(documentStoreApiClient,
+                documentStoreApiConfig.getCacheConfiguration(), environment.metrics());
+        environment.admin().addTask(new InvalidateDocumentStoreCacheTask(cachingClient));
+        return cachingClient;
+    }
+
+    private ConcordanceApiClient buildConcordanceApiClient(UppServiceConfiguration concordanceApiConfig, Environment environment,
+                                                           Executor remoteCallExecutor) {
+        ConcordanceApiClient concordanceApiClient = new ConcordanceApiClient(concordanceApiConfig, environment);
+        if (concordanceApiConfig.getCacheConfiguration() == null) {
+            return concordanceApiClient;
+        }
+        CachingConcordanceApiClient cachingClient = new CachingConcordanceApiClient(concordanceApiClient,
+                concordanceApiConfig.getCacheConfiguration(), environment.metrics(), remoteCallExecutor);
+        environment.admin().addTask(new InvalidateConcordanceCacheTask(cachingClient));
+        return cachingClient;
+    }
+
+    private UnchangedContentCache buildUnchangedContentCache(DedupConfiguration dedupConfig, Environment environment) {
+        if (dedupConfig.getMode() == DedupConfiguration.Mode.OFF) {
+            return null;
+        }
+        return new UnchangedContentCache(dedupConfig.getMaxEntries(), dedupConfig.getTtl().toMilliseconds(), environment.metrics());
+    }
+
+    private ExecutorService buildBatchMappingExecutor(BatchMappingConfiguration batchMappingConfig, Environment environment) {
+        return environment.lifecycle().executorService("batch-mapping-%d")
+                .minThreads(batchMappingConfig.getThreads())
+                .maxThreads(batchMappingConfig.getThreads())
+                .workQueue(new ArrayBlockingQueue<Runnable>(batchMappingConfig.getQueueSize()))
+                .rejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy())
+                .build();
     }
 
     private void registerHealthChecks(Environment environment,
@@ -253,7 +403,7 @@ public class MethodeArticleInternalComponentsMapperApplication extends Applicati
                 "https://dewey.ft.com/up-mcpm.html");
     }
 
-    private MessageBuilder getMessageBuilder(
+    public MessageBuilder getMessageBuilder(
             MethodeArticleInternalComponentsMapperConfiguration configuration, Environment environment) {
         return new MessageBuilder(
                 UriBuilder.fromUri(configuration.getContentUriPrefix()).path("{uuid}"),
@@ -274,8 +424,8 @@ public class MethodeArticleInternalComponentsMapperApplication extends Applicati
                 .build();
     }
 
-    protected MessageProducer configureMessageProducer(ProducerConfiguration config,
-                                                       Environment environment) {
+    public MessageProducer configureMessageProducer(ProducerConfiguration config,
+                                                    Environment environment) {
         JerseyClientConfiguration jerseyConfig = config.getJerseyClientConfiguration();
         jerseyConfig.setGzipEnabled(false);
         jerseyConfig.setGzipEnabledForRequests(false);
@@ -285,6 +435,7 @@ public class MethodeArticleInternalComponentsMapperApplication extends Applicati
                 .usingDNS()
                 .named("producer-client")
                 .build();
+        producerClient.addFilter(new InstrumentingClientFilter("queue-proxy", environment.metrics()));
 
         final QueueProxyProducer.BuildNeeded queueProxyBuilder = QueueProxyProducer.builder()
                 .withJerseyClient(producerClient)
@@ -294,7 +445,14 @@ public class MethodeArticleInternalComponentsMapperApplication extends Applicati
 
         registerProducerHealthCheck(environment, config, queueProxyBuilder);
 
-        return producer;
+        if (config.getBatchSize() <= 1) {
+            return producer;
+        }
+        BatchingMessageProducer batchingProducer = new BatchingMessageProducer(producer,
+                config.getBatchSize(), config.getBatchInterval().toMilliseconds(), environment.metrics());
+        // managed before the consumer and the processing executor, so that it sends their last messages once they stop
+        environment.lifecycle().manage(batchingProducer);
+        return batchingProducer;
     }
 
     protected void registerListener(
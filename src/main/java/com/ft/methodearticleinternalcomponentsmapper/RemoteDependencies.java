@@ -0,0 +1,56 @@
+package com.ft.methodearticleinternalcomponentsmapper;
+
+import com.ft.methodearticleinternalcomponentsmapper.clients.ConcordanceApiClient;
+import com.ft.methodearticleinternalcomponentsmapper.clients.DocumentStoreApiClient;
+import com.ft.methodearticleinternalcomponentsmapper.validation.MethodeArticleValidator;
+import com.ft.platform.dropwizard.AdvancedHealthCheck;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The clients of the services the mapper calls while mapping an article, and the health checks of those services.
+ */
+public class RemoteDependencies {
+
+    private final Map<String, MethodeArticleValidator> articleValidators;
+    private final DocumentStoreApiClient documentStoreApiClient;
+    private final ConcordanceApiClient concordanceApiClient;
+    private final List<AdvancedHealthCheck> healthChecks;
+
+    public RemoteDependencies(Map<String, MethodeArticleValidator> articleValidators,
+                              DocumentStoreApiClient documentStoreApiClient,
+                              ConcordanceApiClient concordanceApiClient) {
+        this(articleValidators, documentStoreApiClient, concordanceApiClient, Collections.emptyList());
+    }
+
+    public RemoteDependencies(Map<String, MethodeArticleValidator> articleValidators,
+                              DocumentStoreApiClient documentStoreApiClient,
+                              ConcordanceApiClient concordanceApiClient,
+                              List<AdvancedHealthCheck> healthChecks) {
+        this.articleValidators = articleValidators;
+        this.documentStoreApiClient = documentStoreApiClient;
+        this.concordanceApiClient = concordanceApiClient;
+        this.healthChecks = healthChecks;
+    }
+
+    /**
+     * @return the validator of the articles of each source code.
+     */
+    public Map<String, MethodeArticleValidator> getArticleValidators() {
+        return articleValidators;
+    }
+
+    public DocumentStoreApiClient getDocumentStoreApiClient() {
+        return documentStoreApiClient;
+    }
+
+    public ConcordanceApiClient getConcordanceApiClient() {
+        return concordanceApiClient;
+    }
+
+    public List<AdvancedHealthCheck> getHealthChecks() {
+        return healthChecks;
+    }
+}
@@ -0,0 +1,81 @@
+package com.ft.methodearticleinternalcomponentsmapper.clients;
+
+import com.codahale.metrics.MetricRegistry;
+import com.ft.methodearticleinternalcomponentsmapper.configuration.LookupCacheConfiguration;
+import com.ft.methodearticleinternalcomponentsmapper.model.concordance.Concordance;
+import com.ft.methodearticleinternalcomponentsmapper.model.concordance.Concordances;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+/**
+ * Caches the concordances of TME identifier values answered by a {@link ConcordanceApiClient}, so that the companies
+ * mentioned across many articles are not asked for in each of them. An identifier value which is not concorded is
+ * remembered as such, for the shorter negative TTL.
+ * <p>
+ * Of a long list of identifier values, those not cached are asked for in requests of at most
+ * <code>maxKeysPerLookup</code> values, made in parallel.
+ */
+public class CachingConcordanceApiClient extends ConcordanceApiClient {
+
+    private final ConcordanceApiClient client;
+    private final LookupCache<List<Concordance>> concordances;
+
+    public CachingConcordanceApiClient(ConcordanceApiClient client, LookupCacheConfiguration configuration,
+                                       MetricRegistry metrics, Executor executor) {
+        this(client, new LookupCache<>("concordance.identifier-values", configuration, metrics, executor));
+    }
+
+    CachingConcordanceApiClient(ConcordanceApiClient client, LookupCache<List<Concordance>> concordances) {
+        super(client.getJerseyClient(), client.getApiHost(), client.getApiPort(), client.getApiPath(), client.getHostHeader());
+        this.client = client;
+        this.concordances = concordances;
+    }
+
+    @Override
+    public Concordances getConcordancesByIdentifierValues(List<String> identifierValues) {
+        if (identifierValues.isEmpty()) {
+            return client.getConcordancesByIdentifierValues(identifierValues);
+        }
+
+        Map<String, List<Concordance>> found = concordances.getAll(identifierValues, this::lookUp);
+
+        List<Concordance> result = new ArrayList<>();
+        for (String identifierValue : new LinkedHashSet<>(identifierValues)) {
+            List<Concordance> concorded = found.get(identifierValue);
+            if (concorded != null) {
+                result.addAll(concorded);
+            }
+        }
+        return new Concordances(result);
+    }
+
+    private Map<String, List<Concordance>> lookUp(Set<String> identifierValues) {
+        Concordances answer = client.getConcordancesByIdentifierValues(new ArrayList<>(identifierValues));
+
+        Map<String, List<Concordance>> concorded = new HashMap<>();
+        if (answer == null || answer.getConcordances() == null) {
+            return concorded;
+        }
+        for (Concordance concordance : answer.getConcordances()) {
+            String identifierValue = concordance.getIdentifier() == null ? null : concordance.getIdentifier().getIdentifierValue();
+            if (identifierValues.contains(identifierValue)) {
+                concorded.computeIfAbsent(identifierValue, value -> new ArrayList<>()).add(concordance);
+            }
+        }
+        return concorded;
+    }
+
+    public void invalidate(String identifierValue) {
+        concordances.invalidate(identifierValue);
+    }
+
+    public void invalidateAll() {
+        concordances.invalidateAll();
+    }
+}
@@ -0,0 +1,97 @@
+package com.ft.methodearticleinternalcomponentsmapper.clients;
+
+import com.codahale.metrics.MetricRegistry;
+import com.ft.methodearticleinternalcomponentsmapper.configuration.LookupCacheConfiguration;
+import com.ft.methodearticleinternalcomponentsmapper.model.Content;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Caches the answers of a {@link DocumentStoreApiClient}: the UUIDs resolved from identifiers, whether UUIDs are
+ * present, and the content of UUIDs, so that popular link targets and blog posts are not asked for in every article
+ * which mentions them. A UUID the Document Store has no content for is remembered as such, for the shorter negative
+ * TTL. An identifier which resolves to no UUID, or a UUID which is not present, is asked about again every time: the
+ * content may be published together with the article which refers to it, and is then looked up on its republish.
+ */
+public class CachingDocumentStoreApiClient extends DocumentStoreApiClient {
+
+    private final DocumentStoreApiClient client;
+    private final LookupCache<String> resolvedUuids;
+    private final LookupCache<Boolean> presentUuids;
+    private final LookupCache<Content> contents;
+
+    public CachingDocumentStoreApiClient(DocumentStoreApiClient client, LookupCacheConfiguration configuration, MetricRegistry metrics) {
+        this(client,
+                new LookupCache<>("document-store.resolved-uuids", configuration.withoutNegativeTtl(), metrics),
+                new LookupCache<>("document-store.present-uuids", configuration.withoutNegativeTtl(), metrics),
+                new LookupCache<>("document-store.contents", configuration, metrics));
+    }
+
+    CachingDocumentStoreApiClient(DocumentStoreApiClient client, LookupCache<String> resolvedUuids,
+                                  LookupCache<Boolean> presentUuids, LookupCache<Content> contents) {
+        super(client.getJerseyClient(), client.getApiHost(), client.getApiPort(), client.getHostHeader());
+        this.client = client;
+        this.resolvedUuids = resolvedUuids;
+        this.presentUuids = presentUuids;
+        this.contents = contents;
+    }
+
+    @Override
+    public String resolveUUID(String identifierAuthority, String identifierValue, String transactionId) {
+        if (identifierAuthority == null || identifierValue == null) {
+            return client.resolveUUID(identifierAuthority, identifierValue, transactionId);
+        }
+
+        return resolvedUuids.get(identifierKey(identifierAuthority, identifierValue),
+                () -> client.resolveUUID(identifierAuthority, identifierValue, transactionId));
+    }
+
+    @Override
+    public boolean isUUIDPresent(String uuid, String transactionId) {
+        return presentUuids.get(uuid, () -> client.isUUIDPresent(uuid, transactionId) ? Boolean.TRUE : null) != null;
+    }
+
+    @Override
+    public List<Content> getContentForUuids(Collection<String> uuids, String transactionId) {
+        Map<String, Content> found = contents.getAll(uuids, missing -> client.getContentForUuids(missing, transactionId).stream()
+                .filter(content -> content.getUuid() != null)
+                .collect(Collectors.toMap(Content::getUuid, Function.identity(), (first, second) -> first)));
+
+        List<Content> result = new ArrayList<>();
+        for (String uuid : new LinkedHashSet<>(uuids)) {
+            Content content = found.get(uuid);
+            if (content != null) {
+                result.add(content);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Forgets whether the UUID is present, and its content.
+     */
+    public void invalidate(String uuid) {
+        presentUuids.invalidate(uuid);
+        contents.invalidate(uuid);
+    }
+
+    public void invalidateIdentifier(String identifierAuthority, String identifierValue) {
+        resolvedUuids.invalidate(identifierKey(identifierAuthority, identifierValue));
+    }
+
+    public void invalidateAll() {
+        resolvedUuids.invalidateAll();
+        presentUuids.invalidateAll();
+        contents.invalidateAll();
+    }
+
+    private static String identifierKey(String identifierAuthority, String identifierValue) {
+        return identifierAuthority + "\n" + identifierValue;
+    }
+}
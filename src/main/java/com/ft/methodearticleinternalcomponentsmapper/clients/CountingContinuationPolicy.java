@@ -0,0 +1,60 @@
+package com.ft.methodearticleinternalcomponentsmapper.clients;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.MetricRegistry;
+import com.ft.jerseyhttpwrapper.continuation.ContinuationSession;
+import com.ft.jerseyhttpwrapper.continuation.ExponentialBackoffContinuationPolicy;
+import com.ft.jerseyhttpwrapper.providers.HostAndPortProvider;
+import com.google.common.net.HostAndPort;
+
+/**
+ * Backs off exponentially between the attempts of a request, as {@link ExponentialBackoffContinuationPolicy} does, and
+ * counts each attempt after the first in <code>CountingContinuationPolicy.&lt;dependency&gt;.retries</code>.
+ * <p>
+ * The retries are counted here rather than by a client filter, because a resilient client makes its attempts below
+ * the filters added to it, which each see a request only once.
+ */
+public class CountingContinuationPolicy extends ExponentialBackoffContinuationPolicy {
+
+    private final Counter retries;
+
+    public CountingContinuationPolicy(int maxAttempts, int backoffMultiplier, String dependency, MetricRegistry metrics) {
+        super(maxAttempts, backoffMultiplier);
+        this.retries = metrics.counter(MetricRegistry.name(CountingContinuationPolicy.class, dependency, "retries"));
+    }
+
+    @Override
+    public ContinuationSession startSession(HostAndPortProvider hostAndPortProvider) {
+        return new CountingSession(super.startSession(hostAndPortProvider), retries);
+    }
+
+    static class CountingSession implements ContinuationSession {
+        private final ContinuationSession session;
+        private final Counter retries;
+        private boolean attempted;
+
+        CountingSession(ContinuationSession session, Counter retries) {
+            this.session = session;
+            this.retries = retries;
+        }
+
+        @Override
+        public boolean shouldContinue() {
+            return session.shouldContinue();
+        }
+
+        @Override
+        public HostAndPort nextHost() {
+            if (attempted) {
+                retries.inc();
+            }
+            attempted = true;
+            return session.nextHost();
+        }
+
+        @Override
+        public void handleFailedHost(HostAndPort hostAndPort) {
+            session.handleFailedHost(hostAndPort);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.ft.methodearticleinternalcomponentsmapper.clients;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.sun.jersey.api.client.ClientHandlerException;
+import com.sun.jersey.api.client.ClientRequest;
+import com.sun.jersey.api.client.ClientResponse;
+import com.sun.jersey.api.client.filter.ClientFilter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Records, for each endpoint of a remote dependency, how long the requests the client makes to it take and the status
+ * codes of their responses. The endpoint of a request is
+ * its method and path, with any UUID in the path replaced by <code>uuid</code>, e.g.
+ * <code>InstrumentingClientFilter.document-store-api.GET.content.uuid.time</code>, <code>.responses.200</code> and
+ * <code>.failures</code> for requests which got no response.
+ * <p>
+ * The time of a request covers all of its attempts; a resilient client counts its retries with a
+ * {@link CountingContinuationPolicy}. The time of each request also counts towards the {@link RemoteWaitTime} of the message it is made for.
+ */
+public class InstrumentingClientFilter extends ClientFilter {
+
+    private static final Pattern UUID = Pattern.compile("[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}");
+
+    private final String dependency;
+    private final MetricRegistry metrics;
+    private final ConcurrentMap<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+    public InstrumentingClientFilter(String dependency, MetricRegistry metrics) {
+        this.dependency = dependency;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public ClientResponse handle(ClientRequest request) throws ClientHandlerException {
+        Endpoint endpoint = endpoint(request);
+
+        long start = System.nanoTime();
+        try {
+            ClientResponse response = getNext().handle(request);
+            endpoint.responses(response.getStatus()).mark();
+            return response;
+        } catch (RuntimeException e) {
+            endpoint.failures.mark();
+            throw e;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            endpoint.time.update(elapsed, TimeUnit.NANOSECONDS);
+            RemoteWaitTime.add(elapsed);
+        }
+    }
+
+    private Endpoint endpoint(ClientRequest request) {
+        String path = request.getURI() == null ? null : request.getURI().getPath();
+        // keyed by the normalised name, so that every UUID of an endpoint shares one entry
+        String name = endpointName(request.getMethod(), path);
+        Endpoint endpoint = endpoints.get(name);
+        if (endpoint == null) {
+            endpoint = new Endpoint(name);
+            Endpoint existing = endpoints.putIfAbsent(name, endpoint);
+            if (existing != null) {
+                endpoint = existing;
+            }
+        }
+        return endpoint;
+    }
+
+    int endpointCount() {
+        return endpoints.size();
+    }
+
+    static String endpointName(String method, String path) {
+        List<String> parts = new ArrayList<>();
+        parts.add(method);
+        if (path != null) {
+            for (String segment : path.split("/")) {
+                if (!segment.isEmpty()) {
+                    parts.add(UUID.matcher(segment).replaceAll("uuid"));
+                }
+            }
+        }
+        return String.join(".", parts);
+    }
+
+    private class Endpoint {
+        private final String name;
+        private final Timer time;
+        private final Meter failures;
+        private final ConcurrentMap<Integer, Meter> responses = new ConcurrentHashMap<>();
+
+        private Endpoint(String name) {
+            this.name = name;
+            this.time = metrics.timer(MetricRegistry.name(InstrumentingClientFilter.class, dependency, name, "time"));
+            this.failures = metrics.meter(MetricRegistry.name(InstrumentingClientFilter.class, dependency, name, "failures"));
+        }
+
+        private Meter responses(int status) {
+            Meter meter = responses.get(status);
+            if (meter == null) {
+                meter = metrics.meter(MetricRegistry.name(InstrumentingClientFilter.class, dependency, name, "responses",
+                        Integer.toString(status)));
+                responses.putIfAbsent(status, meter);
+            }
+            return meter;
+        }
+    }
+}
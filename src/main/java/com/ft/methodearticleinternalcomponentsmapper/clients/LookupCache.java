@@ -0,0 +1,256 @@
+package com.ft.methodearticleinternalcomponentsmapper.clients;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.ft.methodearticleinternalcomponentsmapper.configuration.LookupCacheConfiguration;
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Iterables;
+import com.google.common.util.concurrent.MoreExecutors;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * A size-bounded cache of the answers of a remote service, keyed by what was asked. An answer which found something
+ * is kept for the positive TTL, and one which found nothing for the negative TTL; failures are not kept.
+ * <p>
+ * Concurrent misses on the same key make a single lookup, the other callers waiting for its answer, and a lookup of
+ * several keys asks only for those neither cached nor already being looked up. If there are more of those than
+ * <code>maxKeysPerLookup</code>, they are asked for in several lookups made in parallel.
+ */
+public class LookupCache<V> {
+
+    private final Cache<String, Entry<V>> entries;
+    private final ConcurrentMap<String, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final long positiveTtlNanos;
+    private final long negativeTtlNanos;
+    private final int maxKeysPerLookup;
+    private final Executor executor;
+    private final Ticker ticker;
+
+    private final Meter hits;
+    private final Meter misses;
+
+    public LookupCache(String name, LookupCacheConfiguration configuration, MetricRegistry metrics) {
+        this(name, configuration, metrics, MoreExecutors.sameThreadExecutor());
+    }
+
+    /**
+     * @param executor makes the lookups of a list of keys longer than <code>maxKeysPerLookup</code> in parallel.
+     */
+    public LookupCache(String name, LookupCacheConfiguration configuration, MetricRegistry metrics, Executor executor) {
+        this(name, configuration.getMaxEntries(), configuration.getPositiveTtl().toMilliseconds(),
+                configuration.getNegativeTtl().toMilliseconds(), configuration.getMaxKeysPerLookup(), executor, metrics,
+                Ticker.systemTicker());
+    }
+
+    LookupCache(String name, int maxEntries, long positiveTtlMillis, long negativeTtlMillis, int maxKeysPerLookup,
+                Executor executor, MetricRegistry metrics, Ticker ticker) {
+        this.positiveTtlNanos = TimeUnit.MILLISECONDS.toNanos(positiveTtlMillis);
+        this.negativeTtlNanos = TimeUnit.MILLISECONDS.toNanos(negativeTtlMillis);
+        this.maxKeysPerLookup = maxKeysPerLookup;
+        this.executor = executor;
+        this.ticker = ticker;
+
+        CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder().maximumSize(maxEntries).ticker(ticker);
+        long longestTtlMillis = Math.max(positiveTtlMillis, negativeTtlMillis);
+        if (longestTtlMillis > 0) {
+            // each entry has its own TTL, checked as it is read; this clears out those which are not read again
+            builder.expireAfterWrite(longestTtlMillis, TimeUnit.MILLISECONDS);
+        }
+        this.entries = builder.build();
+
+        this.hits = metrics.meter(MetricRegistry.name(LookupCache.class, name, "hits"));
+        this.misses = metrics.meter(MetricRegistry.name(LookupCache.class, name, "misses"));
+        metrics.register(MetricRegistry.name(LookupCache.class, name, "entries"), (Gauge<Long>) entries::size);
+    }
+
+    /**
+     * @param lookup asks the remote service, returning <code>null</code> if it found nothing.
+     * @return the answer for the key, or <code>null</code> if the remote service found nothing.
+     */
+    public V get(String key, Supplier<V> lookup) {
+        return getAll(Collections.singleton(key), keys -> {
+            V value = lookup.get();
+            return value == null ? Collections.emptyMap() : Collections.singletonMap(key, value);
+        }).get(key);
+    }
+
+    /**
+     * @param lookup asks the remote service about the keys it is given, leaving out of its answer those it found
+     *               nothing for.
+     * @return the answers for those keys the remote service found something for.
+     */
+    public Map<String, V> getAll(Collection<String> keys, Function<Set<String>, Map<String, V>> lookup) {
+        Map<String, V> found = new HashMap<>();
+        Map<String, CompletableFuture<V>> owned = new LinkedHashMap<>();
+        Map<String, CompletableFuture<V>> awaited = new HashMap<>();
+
+        long now = ticker.read();
+        for (String key : new LinkedHashSet<>(keys)) {
+            Entry<V> entry = entries.getIfPresent(key);
+            if (entry != null && entry.expiresAt - now > 0) {
+                hits.mark();
+                if (entry.value != null) {
+                    found.put(key, entry.value);
+                }
+                continue;
+            }
+
+            misses.mark();
+            CompletableFuture<V> answer = new CompletableFuture<>();
+            CompletableFuture<V> existing = inFlight.putIfAbsent(key, answer);
+            if (existing == null) {
+                owned.put(key, answer);
+            } else {
+                awaited.put(key, existing);
+            }
+        }
+
+        if (!owned.isEmpty()) {
+            found.putAll(lookUp(owned, lookup));
+        }
+        awaited.forEach((key, answer) -> {
+            V value = join(answer);
+            if (value != null) {
+                found.put(key, value);
+            }
+        });
+        return found;
+    }
+
+    private Map<String, V> lookUp(Map<String, CompletableFuture<V>> owned, Function<Set<String>, Map<String, V>> lookup) {
+        if (maxKeysPerLookup < 1 || owned.size() <= maxKeysPerLookup) {
+            return lookUpPart(owned, owned.keySet(), lookup);
+        }
+
+        List<PartLookup> parts = new ArrayList<>();
+        for (List<String> keys : Iterables.partition(owned.keySet(), maxKeysPerLookup)) {
+            PartLookup part = new PartLookup(owned, new LinkedHashSet<>(keys), lookup);
+            parts.add(part);
+            try {
+                executor.execute(part::runUnlessStarted);
+            } catch (RejectedExecutionException e) {
+                // the calling thread makes the lookup below
+            }
+        }
+        // the calling thread makes any lookup the executor has not yet started, so that it never waits for an
+        // executor it may itself be running on
+        parts.forEach(PartLookup::runUnlessStarted);
+
+        Map<String, V> found = new HashMap<>();
+        for (PartLookup part : parts) {
+            found.putAll(join(part.answers));
+        }
+        return found;
+    }
+
+    private Map<String, V> lookUpPart(Map<String, CompletableFuture<V>> owned, Set<String> keys,
+                                      Function<Set<String>, Map<String, V>> lookup) {
+        Map<String, V> answers;
+        try {
+            answers = lookup.apply(Collections.unmodifiableSet(keys));
+        } catch (RuntimeException | Error e) {
+            keys.forEach(key -> {
+                CompletableFuture<V> answer = owned.get(key);
+                inFlight.remove(key, answer);
+                answer.completeExceptionally(e);
+            });
+            throw e;
+        }
+
+        long lookedUpAt = ticker.read();
+        Map<String, V> found = new HashMap<>();
+        keys.forEach(key -> {
+            V value = answers.get(key);
+            long ttlNanos = value == null ? negativeTtlNanos : positiveTtlNanos;
+            if (ttlNanos > 0) {
+                entries.put(key, new Entry<>(value, lookedUpAt + ttlNanos));
+            }
+            CompletableFuture<V> answer = owned.get(key);
+            inFlight.remove(key, answer);
+            answer.complete(value);
+            if (value != null) {
+                found.put(key, value);
+            }
+        });
+        return found;
+    }
+
+    private static <V> V join(CompletableFuture<V> answer) {
+        try {
+            return answer.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    public void invalidate(String key) {
+        entries.invalidate(key);
+    }
+
+    public void invalidateAll() {
+        entries.invalidateAll();
+    }
+
+    private class PartLookup {
+        private final Map<String, CompletableFuture<V>> owned;
+        private final Set<String> keys;
+        private final Function<Set<String>, Map<String, V>> lookup;
+        private final AtomicBoolean started = new AtomicBoolean();
+        private final CompletableFuture<Map<String, V>> answers = new CompletableFuture<>();
+
+        private PartLookup(Map<String, CompletableFuture<V>> owned, Set<String> keys, Function<Set<String>, Map<String, V>> lookup) {
+            this.owned = owned;
+            this.keys = keys;
+            this.lookup = lookup;
+        }
+
+        private void runUnlessStarted() {
+            if (!started.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                answers.complete(lookUpPart(owned, keys, lookup));
+            } catch (RuntimeException | Error e) {
+                answers.completeExceptionally(e);
+            }
+        }
+    }
+
+    private static class Entry<V> {
+        private final V value;
+        private final long expiresAt;
+
+        private Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
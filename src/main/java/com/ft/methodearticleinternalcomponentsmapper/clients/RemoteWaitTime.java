@@ -0,0 +1,82 @@
+package com.ft.methodearticleinternalcomponentsmapper.clients;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Adds up how long the remote calls made for a message take, whichever thread makes them: the calls made by a task
+ * given to an executor wrapped by {@link #propagating(Executor)} count towards the message of the thread which gave
+ * it. Calls made concurrently overlap, so their total may be longer than it took to map the message.
+ */
+public final class RemoteWaitTime {
+
+    private static final ThreadLocal<AtomicLong> CURRENT = new ThreadLocal<>();
+
+    private RemoteWaitTime() {
+    }
+
+    /**
+     * Starts adding up the remote calls made on this thread, and by the tasks it gives to propagating executors,
+     * until the measurement is stopped.
+     */
+    public static Measurement start() {
+        Measurement measurement = new Measurement(CURRENT.get());
+        CURRENT.set(measurement.total);
+        return measurement;
+    }
+
+    /**
+     * Counts a remote call which was not made through an {@link InstrumentingClientFilter}.
+     */
+    public static void add(long nanos) {
+        AtomicLong total = CURRENT.get();
+        if (total != null) {
+            total.addAndGet(nanos);
+        }
+    }
+
+    public static Executor propagating(Executor executor) {
+        return command -> {
+            AtomicLong total = CURRENT.get();
+            if (total == null) {
+                executor.execute(command);
+                return;
+            }
+
+            executor.execute(() -> {
+                AtomicLong previous = CURRENT.get();
+                CURRENT.set(total);
+                try {
+                    command.run();
+                } finally {
+                    restore(previous);
+                }
+            });
+        };
+    }
+
+    private static void restore(AtomicLong previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    public static class Measurement {
+        private final AtomicLong total = new AtomicLong();
+        private final AtomicLong previous;
+
+        private Measurement(AtomicLong previous) {
+            this.previous = previous;
+        }
+
+        /**
+         * @return the total time of the remote calls made since the measurement started, in nanoseconds.
+         */
+        public long stop() {
+            restore(previous);
+            return total.get();
+        }
+    }
+}
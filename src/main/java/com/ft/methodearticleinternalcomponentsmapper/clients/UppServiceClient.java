@@ -2,7 +2,6 @@ package com.ft.methodearticleinternalcomponentsmapper.clients;
 
 import com.ft.jerseyhttpwrapper.ResilientClientBuilder;
 import com.ft.jerseyhttpwrapper.config.EndpointConfiguration;
-import com.ft.jerseyhttpwrapper.continuation.ExponentialBackoffContinuationPolicy;
 import com.ft.methodearticleinternalcomponentsmapper.configuration.UppServiceConfiguration;
 import com.sun.jersey.api.client.Client;
 import com.sun.jersey.api.client.ClientResponse;
@@ -21,11 +20,14 @@ public abstract class UppServiceClient {
     public UppServiceClient(final UppServiceConfiguration uppServiceConfiguration, final Environment environment){
         EndpointConfiguration endpointConfiguration = uppServiceConfiguration.getEndpointConfiguration();
         jerseyClient = ResilientClientBuilder.in(environment).using(endpointConfiguration).withContinuationPolicy(
-                new ExponentialBackoffContinuationPolicy(
+                new CountingContinuationPolicy(
                         uppServiceConfiguration.getConnectionConfiguration().getNumberOfConnectionAttempts(),
-                        uppServiceConfiguration.getConnectionConfiguration().getTimeoutMultiplier()
+                        uppServiceConfiguration.getConnectionConfiguration().getTimeoutMultiplier(),
+                        uppServiceConfiguration.getHostHeader(),
+                        environment.metrics()
                 )
         ).build();
+        jerseyClient.addFilter(new InstrumentingClientFilter(uppServiceConfiguration.getHostHeader(), environment.metrics()));
         this.apiHost = endpointConfiguration.getHost();
         this.apiPort = endpointConfiguration.getPort();
         this.apiPath = endpointConfiguration.getPath();
@@ -56,6 +58,10 @@ public abstract class UppServiceClient {
         return apiPort;
     }
 
+    public String getApiPath() {
+        return apiPath;
+    }
+
     public String getHostHeader() {
         return hostHeader;
     }
@@ -0,0 +1,31 @@
+package com.ft.methodearticleinternalcomponentsmapper.configuration;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * The size of the pool which maps the articles of a <code>/map/batch</code> request concurrently. Each batch has at
+ * most <code>threads</code> articles being mapped at once; when the queue is full, the thread writing the response
+ * maps the article itself.
+ */
+public class BatchMappingConfiguration {
+
+    private static final int DEFAULT_THREADS = 8;
+    private static final int DEFAULT_QUEUE_SIZE = 100;
+
+    private final int threads;
+    private final int queueSize;
+
+    public BatchMappingConfiguration(@JsonProperty("threads") Integer threads,
+                                     @JsonProperty("queueSize") Integer queueSize) {
+        this.threads = threads == null ? DEFAULT_THREADS : threads;
+        this.queueSize = queueSize == null ? DEFAULT_QUEUE_SIZE : queueSize;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public int getQueueSize() {
+        return queueSize;
+    }
+}
@@ -0,0 +1,33 @@
+package com.ft.methodearticleinternalcomponentsmapper.configuration;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Which fraction of the bodies transformed have the time, input and output sizes and, optionally, the bytes
+ * allocated by each stage of the body processing chain recorded; 0 records none of them.
+ */
+public class BodyProcessingMetricsConfiguration {
+
+    private final double sampleRate;
+    private final boolean threadAllocation;
+
+    public BodyProcessingMetricsConfiguration(@JsonProperty("sampleRate") Double sampleRate,
+                                              @JsonProperty("threadAllocation") Boolean threadAllocation) {
+        this.sampleRate = sampleRate == null ? 0 : sampleRate;
+        this.threadAllocation = threadAllocation != null && threadAllocation;
+        if (this.sampleRate < 0 || this.sampleRate > 1) {
+            throw new IllegalArgumentException("sampleRate should be between 0 and 1, but was " + this.sampleRate);
+        }
+    }
+
+    public double getSampleRate() {
+        return sampleRate;
+    }
+
+    /**
+     * @return whether the bytes each stage allocates on the calling thread are recorded, where the JVM can measure them.
+     */
+    public boolean isThreadAllocation() {
+        return threadAllocation;
+    }
+}
@@ -39,4 +39,5 @@ public class ConsumerConfiguration {
     public String getSystemCode() {
         return systemCode;
     }
+
 }
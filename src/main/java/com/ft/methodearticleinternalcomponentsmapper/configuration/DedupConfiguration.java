@@ -0,0 +1,50 @@
+package com.ft.methodearticleinternalcomponentsmapper.configuration;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.dropwizard.util.Duration;
+
+/**
+ * What happens when Methode republishes a story whose type, value, attributes, workflow status and system attributes
+ * have not changed since it was last mapped: with <code>off</code> it is mapped again, with <code>reemit</code> the components mapped last time are sent
+ * again under the new publish reference, and with <code>skip</code> nothing is sent.
+ */
+public class DedupConfiguration {
+
+    public enum Mode {
+        OFF, REEMIT, SKIP
+    }
+
+    private static final int DEFAULT_MAX_ENTRIES = 10000;
+    private static final Duration DEFAULT_TTL = Duration.hours(1);
+
+    private final Mode mode;
+    private final int maxEntries;
+    private final Duration ttl;
+
+    public DedupConfiguration(@JsonProperty("mode") String mode,
+                              @JsonProperty("maxEntries") Integer maxEntries,
+                              @JsonProperty("ttl") Duration ttl) {
+        this.mode = mode == null ? Mode.OFF : Mode.valueOf(mode.toUpperCase());
+        this.maxEntries = maxEntries == null ? DEFAULT_MAX_ENTRIES : maxEntries;
+        this.ttl = ttl == null ? DEFAULT_TTL : ttl;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * @return how many stories are remembered, the least recently mapped being forgotten first.
+     */
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    /**
+     * @return how long a mapped story is remembered, which bounds how stale a re-emitted lookup such as a link title
+     * can be.
+     */
+    public Duration getTtl() {
+        return ttl;
+    }
+}
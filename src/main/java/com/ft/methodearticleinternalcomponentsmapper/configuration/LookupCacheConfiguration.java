@@ -0,0 +1,64 @@
+package com.ft.methodearticleinternalcomponentsmapper.configuration;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.dropwizard.util.Duration;
+
+/**
+ * How the answers of a remote service are cached: how many are kept, and for how long an answer which found
+ * something is trusted compared with one which found nothing.
+ */
+public class LookupCacheConfiguration {
+
+    private static final int DEFAULT_MAX_ENTRIES = 10000;
+    private static final Duration DEFAULT_POSITIVE_TTL = Duration.minutes(10);
+    private static final Duration DEFAULT_NEGATIVE_TTL = Duration.seconds(30);
+
+    private final int maxEntries;
+    private final Duration positiveTtl;
+    private final Duration negativeTtl;
+    private final int maxKeysPerLookup;
+
+    public LookupCacheConfiguration(@JsonProperty("maxEntries") Integer maxEntries,
+                                    @JsonProperty("positiveTtl") Duration positiveTtl,
+                                    @JsonProperty("negativeTtl") Duration negativeTtl,
+                                    @JsonProperty("maxKeysPerLookup") Integer maxKeysPerLookup) {
+        this.maxEntries = maxEntries == null ? DEFAULT_MAX_ENTRIES : maxEntries;
+        this.positiveTtl = positiveTtl == null ? DEFAULT_POSITIVE_TTL : positiveTtl;
+        this.negativeTtl = negativeTtl == null ? DEFAULT_NEGATIVE_TTL : negativeTtl;
+        this.maxKeysPerLookup = maxKeysPerLookup == null ? 0 : maxKeysPerLookup;
+    }
+
+    /**
+     * @return how many answers are kept, the least recently used being evicted first.
+     */
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public Duration getPositiveTtl() {
+        return positiveTtl;
+    }
+
+    /**
+     * @return how long an answer which found nothing is kept; short, as the content may be published at any moment.
+     */
+    public Duration getNegativeTtl() {
+        return negativeTtl;
+    }
+
+    /**
+     * @return this configuration with answers which found nothing not kept at all, for lookups whose misses must be
+     * asked again each time.
+     */
+    public LookupCacheConfiguration withoutNegativeTtl() {
+        return new LookupCacheConfiguration(maxEntries, positiveTtl, Duration.milliseconds(0), maxKeysPerLookup);
+    }
+
+    /**
+     * @return how many keys are asked for in one request, longer lists being split into requests made in parallel, or
+     * 0 to ask for them all at once.
+     */
+    public int getMaxKeysPerLookup() {
+        return maxKeysPerLookup;
+    }
+}
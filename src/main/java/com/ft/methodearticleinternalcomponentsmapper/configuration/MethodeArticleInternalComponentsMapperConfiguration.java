@@ -28,6 +28,12 @@ public class MethodeArticleInternalComponentsMapperConfiguration extends Configu
     private final Map<String, String> contentTypeTemplates;
     private final String apiHost;
     private final String canonicalUrlTemplate;
+    private final XsltConfiguration xsltConfiguration;
+    private final RemoteCallsConfiguration remoteCallsConfiguration;
+    private final DedupConfiguration dedupConfiguration;
+    private final BodyProcessingMetricsConfiguration bodyProcessingMetricsConfiguration;
+    private final BatchMappingConfiguration batchMappingConfiguration;
+    private final PublishingStatusConfiguration publishingStatusConfiguration;
 
     public MethodeArticleInternalComponentsMapperConfiguration(@JsonProperty("consumer") ConsumerConfiguration consumerConfiguration,
                                                                @JsonProperty("producer") ProducerConfiguration producerConfiguration,
@@ -41,7 +47,13 @@ public class MethodeArticleInternalComponentsMapperConfiguration extends Configu
                                                                @JsonProperty("contentUriPrefix") String contentUriPrefix,
                                                                @JsonProperty("contentTypeTemplates") Map<String, String> contentTypeTemplates,
                                                                @JsonProperty("apiHost") String apiHost,
-                                                               @JsonProperty("canonicalUrlTemplate") String canonicalUrlTemplate) {
+                                                               @JsonProperty("canonicalUrlTemplate") String canonicalUrlTemplate,
+                                                               @JsonProperty("xslt") XsltConfiguration xsltConfiguration,
+                                                               @JsonProperty("remoteCalls") RemoteCallsConfiguration remoteCallsConfiguration,
+                                                               @JsonProperty("dedup") DedupConfiguration dedupConfiguration,
+                                                               @JsonProperty("bodyProcessingMetrics") BodyProcessingMetricsConfiguration bodyProcessingMetricsConfiguration,
+                                                               @JsonProperty("batchMapping") BatchMappingConfiguration batchMappingConfiguration,
+                                                               @JsonProperty("publishingStatus") PublishingStatusConfiguration publishingStatusConfiguration) {
         this.consumerConfiguration = consumerConfiguration;
         this.producerConfiguration = producerConfiguration;
         this.documentStoreApiConfiguration = documentStoreApiConfiguration;
@@ -55,6 +67,17 @@ public class MethodeArticleInternalComponentsMapperConfiguration extends Configu
         this.contentTypeTemplates = contentTypeTemplates;
         this.apiHost = apiHost;
         this.canonicalUrlTemplate = canonicalUrlTemplate;
+        this.xsltConfiguration = xsltConfiguration;
+        this.remoteCallsConfiguration = remoteCallsConfiguration == null
+                ? new RemoteCallsConfiguration(null, null) : remoteCallsConfiguration;
+        this.dedupConfiguration = dedupConfiguration == null
+                ? new DedupConfiguration(null, null, null) : dedupConfiguration;
+        this.bodyProcessingMetricsConfiguration = bodyProcessingMetricsConfiguration == null
+                ? new BodyProcessingMetricsConfiguration(null, null) : bodyProcessingMetricsConfiguration;
+        this.batchMappingConfiguration = batchMappingConfiguration == null
+                ? new BatchMappingConfiguration(null, null) : batchMappingConfiguration;
+        this.publishingStatusConfiguration = publishingStatusConfiguration == null
+                ? new PublishingStatusConfiguration(null, null) : publishingStatusConfiguration;
     }
 
     @JsonProperty
@@ -127,6 +150,30 @@ public class MethodeArticleInternalComponentsMapperConfiguration extends Configu
         return canonicalUrlTemplate;
     }
 
+    public XsltConfiguration getXsltConfiguration() {
+        return xsltConfiguration;
+    }
+
+    public RemoteCallsConfiguration getRemoteCallsConfiguration() {
+        return remoteCallsConfiguration;
+    }
+
+    public DedupConfiguration getDedupConfiguration() {
+        return dedupConfiguration;
+    }
+
+    public BodyProcessingMetricsConfiguration getBodyProcessingMetricsConfiguration() {
+        return bodyProcessingMetricsConfiguration;
+    }
+
+    public BatchMappingConfiguration getBatchMappingConfiguration() {
+        return batchMappingConfiguration;
+    }
+
+    public PublishingStatusConfiguration getPublishingStatusConfiguration() {
+        return publishingStatusConfiguration;
+    }
+
     @Override
     public AppInfo getAppInfo() {
         return appInfo;
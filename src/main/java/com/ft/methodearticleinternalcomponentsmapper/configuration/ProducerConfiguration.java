@@ -5,19 +5,28 @@ import com.ft.message.consumer.config.HealthcheckConfiguration;
 import com.ft.messagequeueproducer.QueueProxyConfiguration;
 
 import io.dropwizard.client.JerseyClientConfiguration;
+import io.dropwizard.util.Duration;
 
 public class ProducerConfiguration {
+    private static final Duration DEFAULT_BATCH_INTERVAL = Duration.milliseconds(100);
+
     private final JerseyClientConfiguration jerseyConfig;
     private final QueueProxyConfiguration producerConfig;
     private final HealthcheckConfiguration healthcheckConfig;
+    private final int batchSize;
+    private final Duration batchInterval;
 
     public ProducerConfiguration(@JsonProperty("jerseyClient") JerseyClientConfiguration jerseyConfig,
                                  @JsonProperty("messageProducer") QueueProxyConfiguration producerConfig,
-                                 @JsonProperty("healthCheck") HealthcheckConfiguration healthcheckConfig) {
+                                 @JsonProperty("healthCheck") HealthcheckConfiguration healthcheckConfig,
+                                 @JsonProperty("batchSize") Integer batchSize,
+                                 @JsonProperty("batchInterval") Duration batchInterval) {
 
         this.jerseyConfig = jerseyConfig;
         this.producerConfig = producerConfig;
         this.healthcheckConfig = healthcheckConfig;
+        this.batchSize = batchSize == null ? 1 : batchSize;
+        this.batchInterval = batchInterval == null ? DEFAULT_BATCH_INTERVAL : batchInterval;
     }
 
     public JerseyClientConfiguration getJerseyClientConfiguration() {
@@ -31,4 +40,18 @@ public class ProducerConfiguration {
     public HealthcheckConfiguration getHealthcheckConfiguration() {
         return healthcheckConfig;
     }
+
+    /**
+     * @return how many messages are sent to the queue proxy in one request, or 1 to send each message as it is mapped.
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * @return how long a message may wait for its batch to fill before the batch is sent anyway.
+     */
+    public Duration getBatchInterval() {
+        return batchInterval;
+    }
 }
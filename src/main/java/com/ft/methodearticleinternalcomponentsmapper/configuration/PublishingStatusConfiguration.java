@@ -0,0 +1,38 @@
+package com.ft.methodearticleinternalcomponentsmapper.configuration;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * How the publishing status of an article is decided: with <code>remote</code> by the Methode article mappers, with
+ * <code>shadow</code> still by them but checking the local rules against each of their answers, and with
+ * <code>local</code> by the local rules for the articles they reject, asking the mappers about all others. The
+ * <code>workflowStatuses</code> are those an article may be published in, as the Methode article mapper is configured.
+ */
+public class PublishingStatusConfiguration {
+
+    public enum Mode {
+        REMOTE, SHADOW, LOCAL
+    }
+
+    private static final List<String> DEFAULT_WORKFLOW_STATUSES = Collections.singletonList("Stories/WebReady");
+
+    private final Mode mode;
+    private final List<String> workflowStatuses;
+
+    public PublishingStatusConfiguration(@JsonProperty("mode") String mode,
+                                         @JsonProperty("workflowStatuses") List<String> workflowStatuses) {
+        this.mode = mode == null ? Mode.REMOTE : Mode.valueOf(mode.toUpperCase());
+        this.workflowStatuses = workflowStatuses == null ? DEFAULT_WORKFLOW_STATUSES : workflowStatuses;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public List<String> getWorkflowStatuses() {
+        return workflowStatuses;
+    }
+}
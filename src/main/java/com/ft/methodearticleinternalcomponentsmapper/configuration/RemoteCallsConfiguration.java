@@ -0,0 +1,30 @@
+package com.ft.methodearticleinternalcomponentsmapper.configuration;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * The size of the pool which makes the publishing status checks and body lookups of an article concurrently. When
+ * the queue is full, the calling thread makes the call itself.
+ */
+public class RemoteCallsConfiguration {
+
+    private static final int DEFAULT_THREADS = 16;
+    private static final int DEFAULT_QUEUE_SIZE = 100;
+
+    private final int threads;
+    private final int queueSize;
+
+    public RemoteCallsConfiguration(@JsonProperty("threads") Integer threads,
+                                    @JsonProperty("queueSize") Integer queueSize) {
+        this.threads = threads == null ? DEFAULT_THREADS : threads;
+        this.queueSize = queueSize == null ? DEFAULT_QUEUE_SIZE : queueSize;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public int getQueueSize() {
+        return queueSize;
+    }
+}
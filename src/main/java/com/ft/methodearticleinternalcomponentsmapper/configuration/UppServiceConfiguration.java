@@ -9,13 +9,16 @@ public class UppServiceConfiguration {
     private final EndpointConfiguration endpointConfiguration;
     private final ConnectionConfiguration connectionConfiguration;
     private final String hostHeader;
+    private final LookupCacheConfiguration cacheConfiguration;
 
     public UppServiceConfiguration(@JsonProperty("endpointConfiguration") final EndpointConfiguration endpointConfiguration,
                                    @JsonProperty("numberOfConnectionAttempts") final ConnectionConfiguration connectionConfiguration,
-                                   @JsonProperty("hostHeader") String hostHeader) {
+                                   @JsonProperty("hostHeader") String hostHeader,
+                                   @JsonProperty("cache") LookupCacheConfiguration cacheConfiguration) {
         this.endpointConfiguration = endpointConfiguration;
         this.connectionConfiguration = connectionConfiguration;
         this.hostHeader = hostHeader;
+        this.cacheConfiguration = cacheConfiguration;
     }
 
     @Valid
@@ -30,4 +33,11 @@ public class UppServiceConfiguration {
     public String getHostHeader() {
         return hostHeader;
     }
+
+    /**
+     * @return how the answers of the service are cached, or <code>null</code> if they are not.
+     */
+    public LookupCacheConfiguration getCacheConfiguration() {
+        return cacheConfiguration;
+    }
 }
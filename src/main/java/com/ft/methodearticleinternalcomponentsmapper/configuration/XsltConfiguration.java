@@ -0,0 +1,28 @@
+package com.ft.methodearticleinternalcomponentsmapper.configuration;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.dropwizard.util.Duration;
+
+/**
+ * Where to read the body XSLT files from, when they should not be read from the classpath, and how often to check
+ * them for changes.
+ */
+public class XsltConfiguration {
+
+    private final String directory;
+    private final Duration reloadInterval;
+
+    public XsltConfiguration(@JsonProperty("directory") String directory,
+                             @JsonProperty("reloadInterval") Duration reloadInterval) {
+        this.directory = directory;
+        this.reloadInterval = reloadInterval;
+    }
+
+    public String getDirectory() {
+        return directory;
+    }
+
+    public Duration getReloadInterval() {
+        return reloadInterval;
+    }
+}
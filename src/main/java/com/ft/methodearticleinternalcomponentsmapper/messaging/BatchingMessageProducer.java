@@ -0,0 +1,160 @@
+package com.ft.methodearticleinternalcomponentsmapper.messaging;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.ft.messagequeueproducer.MessageProducer;
+import com.ft.messaging.standards.message.v1.Message;
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.dropwizard.lifecycle.Managed;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects the messages sent to it and sends them on to the queue proxy in batches, once <code>batchSize</code>
+ * messages are waiting or when <code>flushIntervalMillis</code> has passed, whichever comes first.
+ * <p>
+ * Batches are sent one at a time, in the order their messages were sent, so messages with the same key reach the
+ * queue in order. Each sender waits until the batch holding its messages has been sent, and is thrown the failure of
+ * that batch if it could not be, so a consumer returns from a message only once what it produced has been delivered.
+ * Batching therefore only pays off when several threads send at once: a lone sender waits out the interval for every
+ * message. A batch which fails is not retried here: the proxy client already retries.
+ * <p>
+ * Messages are only batched while this producer is started: before then, and once it has stopped, each sender sends
+ * its messages, and any waiting, at once.
+ */
+public class BatchingMessageProducer implements MessageProducer, Managed {
+
+    private final MessageProducer producer;
+    private final int batchSize;
+    private final long flushIntervalMillis;
+    private final ScheduledExecutorService flusher;
+
+    private final Object sending = new Object();
+    private Batch pending = new Batch();
+    private volatile boolean started;
+
+    private final Histogram batchSizes;
+    private final Timer flushes;
+    private final Meter failedMessages;
+
+    public BatchingMessageProducer(MessageProducer producer, int batchSize, long flushIntervalMillis, MetricRegistry metrics) {
+        if (batchSize < 1 || flushIntervalMillis < 1) {
+            throw new IllegalArgumentException(
+                    String.format("batches need at least one message and a positive interval: batchSize=%d flushIntervalMillis=%d",
+                            batchSize, flushIntervalMillis));
+        }
+
+        this.producer = producer;
+        this.batchSize = batchSize;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder().setNameFormat("message-batch-flusher").setDaemon(true).build());
+
+        this.batchSizes = metrics.histogram(MetricRegistry.name(BatchingMessageProducer.class, "batch-size"));
+        this.flushes = metrics.timer(MetricRegistry.name(BatchingMessageProducer.class, "flushes"));
+        this.failedMessages = metrics.meter(MetricRegistry.name(BatchingMessageProducer.class, "failed-messages"));
+    }
+
+    /**
+     * Adds the messages to the current batch, sending it if it is full or this producer is not started, and waits
+     * until that batch has been sent.
+     *
+     * @throws RuntimeException if the batch could not be delivered.
+     */
+    @Override
+    public void send(List<Message> messages) {
+        Batch batch;
+        boolean full;
+        synchronized (this) {
+            batch = pending;
+            batch.messages.addAll(messages);
+            full = batch.messages.size() >= batchSize;
+        }
+        if (full || !started) {
+            sendPending();
+        }
+        batch.awaitSent();
+    }
+
+    /**
+     * Sends the messages waiting, if there are any.
+     *
+     * @throws RuntimeException if they could not be delivered.
+     */
+    public void flush() {
+        Batch batch = sendPending();
+        if (batch != null) {
+            batch.awaitSent();
+        }
+    }
+
+    /**
+     * @return the batch sent, with its outcome, or <code>null</code> if no messages were waiting.
+     */
+    private Batch sendPending() {
+        synchronized (sending) {
+            Batch batch;
+            synchronized (this) {
+                if (pending.messages.isEmpty()) {
+                    return null;
+                }
+                batch = pending;
+                pending = new Batch();
+            }
+
+            try (Timer.Context ignored = flushes.time()) {
+                batchSizes.update(batch.messages.size());
+                producer.send(batch.messages);
+                batch.sent.complete(null);
+            } catch (Throwable e) {
+                // whatever went wrong, even on schedule, is thrown to the senders rather than leaving them waiting
+                failedMessages.mark(batch.messages.size());
+                batch.sent.completeExceptionally(e);
+            }
+            return batch;
+        }
+    }
+
+    @Override
+    public void start() {
+        started = true;
+        flusher.scheduleWithFixedDelay(this::sendPending, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Sends any messages still waiting. Messages sent from then on are sent at once.
+     */
+    @Override
+    public void stop() throws InterruptedException {
+        started = false;
+        flusher.shutdown();
+        flusher.awaitTermination(flushIntervalMillis, TimeUnit.MILLISECONDS);
+        flush();
+    }
+
+    private static class Batch {
+        private final List<Message> messages = new ArrayList<>();
+        private final CompletableFuture<Void> sent = new CompletableFuture<>();
+
+        private void awaitSent() {
+            try {
+                sent.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted waiting for a batch of messages to be sent", e);
+            } catch (ExecutionException e) {
+                Throwables.propagateIfPossible(e.getCause());
+                throw new IllegalStateException("Unable to send a batch of messages", e.getCause());
+            }
+        }
+    }
+}
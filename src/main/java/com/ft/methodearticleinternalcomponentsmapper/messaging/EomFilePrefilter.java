@@ -0,0 +1,123 @@
+package com.ft.methodearticleinternalcomponentsmapper.messaging;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.google.common.collect.ImmutableSet;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Skips messages which are not compound stories from a supported source, reading the JSON of the message as a token
+ * stream without binding it to an <code>EomFile</code>. The <code>value</code> field, which holds the base64 encoded
+ * content, is stepped over without being decoded, and the attributes are scanned as text rather than parsed.
+ * <p>
+ * Only messages which the full filter would certainly skip are skipped here: whatever cannot be decided cheaply,
+ * including malformed JSON, is accepted and left to it.
+ */
+public class EomFilePrefilter {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private static final String COMPOUND_STORY_TYPE = "EOM::CompoundStory";
+    private static final Set<String> SUPPORTED_SOURCE_CODES = ImmutableSet.of("FT", "ContentPlaceholder", "DynamicContent");
+    private static final String SOURCE_CODE_START = "<SourceCode";
+    private static final String SOURCE_CODE_OPEN_TAG = "<SourceCode>";
+    private static final String SOURCE_CODE_CLOSE_TAG = "</SourceCode>";
+
+    private final Meter accepted;
+    private final Meter skippedType;
+    private final Meter skippedSourceCode;
+
+    public EomFilePrefilter(MetricRegistry metrics) {
+        accepted = metrics.meter(MetricRegistry.name(EomFilePrefilter.class, "accepted"));
+        skippedType = metrics.meter(MetricRegistry.name(EomFilePrefilter.class, "skipped", "type"));
+        skippedSourceCode = metrics.meter(MetricRegistry.name(EomFilePrefilter.class, "skipped", "source-code"));
+    }
+
+    /**
+     * @return <code>false</code> if the message is certainly not one the mapper handles.
+     */
+    public boolean accept(String messageBody) {
+        if (messageBody == null) {
+            return accept();
+        }
+
+        String type = null;
+        String attributes = null;
+        try (JsonParser parser = JSON_FACTORY.createParser(messageBody)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return accept();
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken token = parser.nextToken();
+                if ("type".equals(field)) {
+                    type = token == JsonToken.VALUE_STRING ? parser.getText() : null;
+                    if (!COMPOUND_STORY_TYPE.equals(type)) {
+                        return skip(skippedType);
+                    }
+                } else if ("attributes".equals(field)) {
+                    attributes = token == JsonToken.VALUE_STRING ? parser.getText() : null;
+                    if (!mayHaveSupportedSourceCode(attributes)) {
+                        return skip(skippedSourceCode);
+                    }
+                } else {
+                    // the text of a string, including the value, is not decoded unless it is asked for
+                    parser.skipChildren();
+                }
+            }
+        } catch (IOException e) {
+            return accept();
+        }
+
+        if (type == null) {
+            return skip(skippedType);
+        }
+        if (attributes == null) {
+            return skip(skippedSourceCode);
+        }
+        return accept();
+    }
+
+    /**
+     * @return <code>false</code> only if every <code>SourceCode</code> element in the attributes is plain text naming
+     * an unsupported source, so that whichever one the full filter reads is unsupported.
+     */
+    private boolean mayHaveSupportedSourceCode(String attributes) {
+        if (attributes == null) {
+            return false;
+        }
+
+        int start = attributes.indexOf(SOURCE_CODE_START);
+        while (start >= 0) {
+            if (!attributes.startsWith(SOURCE_CODE_OPEN_TAG, start)) {
+                return true;
+            }
+            int textStart = start + SOURCE_CODE_OPEN_TAG.length();
+            int end = attributes.indexOf(SOURCE_CODE_CLOSE_TAG, textStart);
+            if (end < 0) {
+                return true;
+            }
+            String sourceCode = attributes.substring(textStart, end);
+            if (SUPPORTED_SOURCE_CODES.contains(sourceCode) || sourceCode.indexOf('<') >= 0 || sourceCode.indexOf('&') >= 0) {
+                return true;
+            }
+            start = attributes.indexOf(SOURCE_CODE_START, end + SOURCE_CODE_CLOSE_TAG.length());
+        }
+        return false;
+    }
+
+    private boolean accept() {
+        accepted.mark();
+        return true;
+    }
+
+    private boolean skip(Meter reason) {
+        reason.mark();
+        return false;
+    }
+}
@@ -36,7 +36,7 @@ public class MessageBuilder {
         this.objectMapper = objectMapper;
     }
 
-    Message buildMessage(InternalComponents internalComponents) {
+    public Message buildMessage(InternalComponents internalComponents) {
         MessageBody msgBody = new MessageBody(
                 internalComponents,
                 contentUriBuilder.build(internalComponents.getUuid()).toString(),
@@ -46,7 +46,7 @@ public class MessageBuilder {
         return buildMessage(internalComponents.getUuid(), internalComponents.getPublishReference(), msgBody);
     }
 
-    Message buildDeletedInternalComponentsMessage(String uuid, String publishReference, Date lastModified) {
+    public Message buildDeletedInternalComponentsMessage(String uuid, String publishReference, Date lastModified) {
         MessageBody msgBody = new MessageBody(
                 null,
                 contentUriBuilder.build(uuid).toString(),
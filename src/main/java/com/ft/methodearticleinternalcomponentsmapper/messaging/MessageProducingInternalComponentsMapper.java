@@ -8,7 +8,10 @@ import com.ft.methodearticleinternalcomponentsmapper.exception.MethodeArticleNot
 import com.ft.methodearticleinternalcomponentsmapper.exception.MethodeArticleUnsupportedSourceCodeException;
 import com.ft.methodearticleinternalcomponentsmapper.exception.TransformationException;
 import com.ft.methodearticleinternalcomponentsmapper.model.EomFile;
+import com.ft.methodearticleinternalcomponentsmapper.model.InternalComponents;
 import com.ft.methodearticleinternalcomponentsmapper.transformation.InternalComponentsMapper;
+import com.ft.methodearticleinternalcomponentsmapper.transformation.ParsedEomFile;
+import com.google.common.hash.HashCode;
 import org.apache.commons.lang.exception.ExceptionUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -23,23 +26,55 @@ public class MessageProducingInternalComponentsMapper {
     private final MessageBuilder messageBuilder;
     private final MessageProducer producer;
     private final InternalComponentsMapper internalComponentsMapper;
+    private final UnchangedContentCache unchangedContentCache;
+    private final boolean reemitUnchanged;
 
     public MessageProducingInternalComponentsMapper(
             MessageBuilder messageBuilder,
             MessageProducer producer,
             InternalComponentsMapper internalComponentsMapper) {
+        this(messageBuilder, producer, internalComponentsMapper, null, false);
+    }
+
+    /**
+     * @param unchangedContentCache if not <code>null</code>, recognises republishes of which nothing the mapping reads
+     *                              has changed since they were last mapped, which are then not mapped again.
+     * @param reemitUnchanged       whether such a republish sends the components mapped last time, under its own
+     *                              publish reference and last modified date, or sends nothing.
+     */
+    public MessageProducingInternalComponentsMapper(
+            MessageBuilder messageBuilder,
+            MessageProducer producer,
+            InternalComponentsMapper internalComponentsMapper,
+            UnchangedContentCache unchangedContentCache,
+            boolean reemitUnchanged) {
 
         this.messageBuilder = messageBuilder;
         this.producer = producer;
         this.internalComponentsMapper = internalComponentsMapper;
+        this.unchangedContentCache = unchangedContentCache;
+        this.reemitUnchanged = reemitUnchanged;
     }
 
-    void mapInternalComponents(EomFile methodeContent, String transactionId, Date messageTimestamp) {
+    void mapInternalComponents(ParsedEomFile parsedEomFile, String transactionId, Date messageTimestamp) {
+        EomFile methodeContent = parsedEomFile.getEomFile();
+        HashCode contentHash = null;
+        if (unchangedContentCache != null) {
+            contentHash = UnchangedContentCache.hash(methodeContent);
+            InternalComponents unchanged = unchangedContentCache.getIfUnchanged(methodeContent.getUuid(), contentHash);
+            if (unchanged != null) {
+                sendUnchanged(unchanged, transactionId, messageTimestamp);
+                return;
+            }
+        }
+
         Message message;
         try {
-            message = messageBuilder.buildMessage(
-                    internalComponentsMapper.map(methodeContent, transactionId, messageTimestamp, false)
-            );
+            InternalComponents internalComponents = internalComponentsMapper.map(parsedEomFile, transactionId, messageTimestamp, false);
+            message = messageBuilder.buildMessage(internalComponents);
+            if (unchangedContentCache != null) {
+                unchangedContentCache.put(methodeContent.getUuid(), contentHash, internalComponents, message.getMessageBody().length());
+            }
         } catch (MethodeMarkedDeletedException e) {
             LOGGER.info("Article with uuid={} marked as deleted. Delete message event is created.", methodeContent.getUuid());
             message = messageBuilder.buildDeletedInternalComponentsMessage(methodeContent.getUuid(), transactionId, messageTimestamp);
@@ -58,4 +93,19 @@ public class MessageProducingInternalComponentsMapper {
         }
         producer.send(Collections.singletonList(message));
     }
+
+    private void sendUnchanged(InternalComponents unchanged, String transactionId, Date messageTimestamp) {
+        if (!reemitUnchanged) {
+            LOGGER.info("Article with uuid={} is unchanged since it was last mapped, and is skipped.", unchanged.getUuid());
+            return;
+        }
+        LOGGER.info("Article with uuid={} is unchanged since it was last mapped, and is sent again.", unchanged.getUuid());
+        producer.send(Collections.singletonList(messageBuilder.buildMessage(
+                InternalComponents.builder()
+                        .withValuesFrom(unchanged)
+                        .withPublishReference(transactionId)
+                        .withLastModified(messageTimestamp)
+                        .build()
+        )));
+    }
 }
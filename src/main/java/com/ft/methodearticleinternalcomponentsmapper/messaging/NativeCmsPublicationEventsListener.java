@@ -1,100 +1,147 @@
 package com.ft.methodearticleinternalcomponentsmapper.messaging;
 
-import static com.ft.methodearticleinternalcomponentsmapper.model.EomFile.SOURCE_ATTR_XPATH;
-
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.MetricRegistry;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.ft.message.consumer.MessageListener;
 import com.ft.messaging.standards.message.v1.Message;
 import com.ft.messaging.standards.message.v1.SystemId;
-import com.ft.methodearticleinternalcomponentsmapper.exception.MethodeArticleInternalComponentsMapperException;
+import com.ft.methodearticleinternalcomponentsmapper.clients.RemoteWaitTime;
 import com.ft.methodearticleinternalcomponentsmapper.model.EomFile;
+import com.ft.methodearticleinternalcomponentsmapper.transformation.EomFileMetadataExtractor;
+import com.ft.methodearticleinternalcomponentsmapper.transformation.ParsedEomFile;
+import com.ft.methodearticleinternalcomponentsmapper.xml.XmlInfrastructure;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.w3c.dom.Document;
-import org.xml.sax.InputSource;
-import org.xml.sax.SAXException;
 
 import java.io.IOException;
-import java.io.StringReader;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Predicate;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.xpath.XPath;
-import javax.xml.xpath.XPathExpressionException;
-import javax.xml.xpath.XPathFactory;
+import javax.xml.stream.XMLStreamException;
 
 public class NativeCmsPublicationEventsListener implements MessageListener {
 
     private static final Logger LOG = LoggerFactory.getLogger(NativeCmsPublicationEventsListener.class);
 
     private final MessageProducingInternalComponentsMapper msgProducingArticleMapper;
-    private final ObjectMapper objectMapper;
+    private final ObjectReader eomFileReader;
     private final Predicate<Message> messageFilter;
+    private final EomFilePrefilter prefilter;
+    private final EomFileMetadataExtractor metadataExtractor;
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private final Histogram wallTime;
+    private final Histogram cpuTime;
+    private final Histogram remoteWaitTime;
 
     public NativeCmsPublicationEventsListener(ObjectMapper objectMapper, MessageProducingInternalComponentsMapper msgProducingArticleMapper, String systemCode) {
-        this.objectMapper = objectMapper;
+        this(objectMapper, msgProducingArticleMapper, systemCode, new XmlInfrastructure(new MetricRegistry()));
+    }
+
+    public NativeCmsPublicationEventsListener(ObjectMapper objectMapper, MessageProducingInternalComponentsMapper msgProducingArticleMapper, String systemCode,
+                                              XmlInfrastructure xmlInfrastructure) {
+        this(objectMapper, msgProducingArticleMapper, systemCode, xmlInfrastructure, new MetricRegistry());
+    }
+
+    public NativeCmsPublicationEventsListener(ObjectMapper objectMapper, MessageProducingInternalComponentsMapper msgProducingArticleMapper, String systemCode,
+                                              XmlInfrastructure xmlInfrastructure, MetricRegistry metrics) {
+        this.eomFileReader = objectMapper.reader(EomFile.class);
         this.msgProducingArticleMapper = msgProducingArticleMapper;
+        this.metadataExtractor = new EomFileMetadataExtractor(xmlInfrastructure, metrics);
+        this.wallTime = metrics.histogram(MetricRegistry.name(NativeCmsPublicationEventsListener.class, "message", "wall-time-micros"));
+        this.cpuTime = metrics.histogram(MetricRegistry.name(NativeCmsPublicationEventsListener.class, "message", "cpu-time-micros"));
+        this.remoteWaitTime = metrics.histogram(MetricRegistry.name(NativeCmsPublicationEventsListener.class, "message", "remote-wait-time-micros"));
 
-        this.messageFilter = systemIDFilter(systemCode).and(contentTypeFilter(objectMapper));
+        this.messageFilter = systemIDFilter(systemCode);
+        this.prefilter = new EomFilePrefilter(metrics);
     }
 
     @Override
     public boolean onMessage(Message message, String transactionId) {
-        if (!messageFilter.test(message)) {
+        ParsedEomFile methodeContent = messageFilter.test(message) ? readSupportedContent(message) : null;
+        if (methodeContent == null) {
             LOG.info("Skip message");
             LOG.debug("Skip message {}", message);
             return true;
         }
 
         LOG.info("Process message");
+        map(methodeContent, transactionId, message.getMessageTimestamp());
+        return true;
+    }
+
+    /**
+     * Maps the content, recording how long it took, how much of that was spent on this thread's CPU and how long the
+     * remote calls made for it took. The remote calls may overlap, so their total can exceed the time taken.
+     */
+    private void map(ParsedEomFile methodeContent, String transactionId, Date messageTimestamp) {
+        boolean measuringCpu = threads.isCurrentThreadCpuTimeSupported() && threads.isThreadCpuTimeEnabled();
+        long cpuStart = measuringCpu ? threads.getCurrentThreadCpuTime() : 0;
+        long start = System.nanoTime();
+        RemoteWaitTime.Measurement remoteWait = RemoteWaitTime.start();
         try {
-            EomFile methodeContent = objectMapper.reader(EomFile.class).readValue(message.getMessageBody());
-            msgProducingArticleMapper.mapInternalComponents(methodeContent, transactionId, message.getMessageTimestamp());
-        } catch (IOException e) {
-            throw new MethodeArticleInternalComponentsMapperException("Unable to process message", e);
+            msgProducingArticleMapper.mapInternalComponents(methodeContent, transactionId, messageTimestamp);
+        } finally {
+            long remoteNanos = remoteWait.stop();
+            long wallNanos = System.nanoTime() - start;
+            long cpuNanos = measuringCpu ? threads.getCurrentThreadCpuTime() - cpuStart : -1;
+
+            wallTime.update(TimeUnit.NANOSECONDS.toMicros(wallNanos));
+            remoteWaitTime.update(TimeUnit.NANOSECONDS.toMicros(remoteNanos));
+            if (measuringCpu) {
+                cpuTime.update(TimeUnit.NANOSECONDS.toMicros(cpuNanos));
+            }
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Mapped uuid={} transaction_id={} in {}ms: cpu={}ms remote_wait={}ms",
+                        methodeContent.getEomFile().getUuid(), transactionId, TimeUnit.NANOSECONDS.toMillis(wallNanos),
+                        measuringCpu ? TimeUnit.NANOSECONDS.toMillis(cpuNanos) : "n/a", TimeUnit.NANOSECONDS.toMillis(remoteNanos));
+            }
         }
-        return true;
     }
 
     private Predicate<Message> systemIDFilter(String systemCode) {
         return msg -> (SystemId.systemIdFromCode(systemCode).equals(msg.getOriginSystemId()));
     }
 
-    private Predicate<Message> contentTypeFilter(ObjectMapper objectMapper) {
-        return msg -> {
-            EomFile eomFile = null;
-            try {
-                eomFile = objectMapper.reader(EomFile.class).readValue(msg.getMessageBody());
-            } catch (IOException e) {
-                LOG.warn("Message filter failure", e);
-                return false;
-            }
-            return isValidType(eomFile.getType())
-                    && isValidSource(eomFile.getAttributes());
-        };
+    /**
+     * @return the content of the message if it is of a type and source the mapper handles, otherwise <code>null</code>.
+     */
+    private ParsedEomFile readSupportedContent(Message msg) {
+        if (!prefilter.accept(msg.getMessageBody())) {
+            return null;
+        }
+
+        EomFile eomFile;
+        try {
+            eomFile = eomFileReader.readValue(msg.getMessageBody());
+        } catch (IOException e) {
+            LOG.warn("Message filter failure", e);
+            return null;
+        }
+
+        if (!isValidType(eomFile.getType())) {
+            return null;
+        }
+        ParsedEomFile parsedEomFile = new ParsedEomFile(eomFile);
+        return isValidSource(parsedEomFile) ? parsedEomFile : null;
     }
 
     private boolean isValidType(String type) {
         return "EOM::CompoundStory".equals(type);
     }
 
-    private boolean isValidSource(String attributes) {
+    private boolean isValidSource(ParsedEomFile parsedEomFile) {
         String sourceCode = null;
 
         try {
-            DocumentBuilderFactory documentBuilderFactory = DocumentBuilderFactory.newInstance();
-            documentBuilderFactory.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
-
-            DocumentBuilder db = documentBuilderFactory.newDocumentBuilder();
-            Document attributesDocument = db.parse(new InputSource(new StringReader(attributes)));
-
-            XPath xpath = XPathFactory.newInstance().newXPath();
-
-            sourceCode = xpath.evaluate(SOURCE_ATTR_XPATH, attributesDocument);
-        } catch (IOException | ParserConfigurationException | SAXException | XPathExpressionException e) {
+            sourceCode = metadataExtractor.extractSourceCode(parsedEomFile);
+        } catch (XMLStreamException | ParserConfigurationException e) {
             LOG.warn("Unable to obtain EOMFile source", e);
             // and fall through, to return false
         }
@@ -0,0 +1,99 @@
+package com.ft.methodearticleinternalcomponentsmapper.messaging;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.ft.methodearticleinternalcomponentsmapper.model.EomFile;
+import com.ft.methodearticleinternalcomponentsmapper.model.InternalComponents;
+import com.google.common.base.Strings;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Remembers, for each recently mapped story, a hash of everything the mapping reads of it (its type, value,
+ * attributes, workflow status and system attributes) together with the components it was mapped to, so that a
+ * republish which changes none of them need not be mapped again.
+ * <p>
+ * Entries are forgotten once <code>maxEntries</code> is exceeded, least recently used first, and <code>ttl</code>
+ * after they were mapped. The memory they hold is estimated from the size of the message each was sent in.
+ */
+public class UnchangedContentCache {
+
+    private static final HashFunction CONTENT_HASH = Hashing.murmur3_128();
+    // the components are held as strings of about the length of the JSON they were sent as, at two bytes a character
+    private static final int BYTES_PER_CHARACTER = 2;
+
+    private final Cache<String, Entry> entries;
+    private final AtomicLong estimatedBytes = new AtomicLong();
+    private final Meter hits;
+    private final Meter misses;
+
+    public UnchangedContentCache(int maxEntries, long ttlMillis, MetricRegistry metrics) {
+        this.entries = CacheBuilder.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttlMillis, TimeUnit.MILLISECONDS)
+                .removalListener((RemovalListener<String, Entry>) removal -> estimatedBytes.addAndGet(-removal.getValue().estimatedBytes))
+                .build();
+
+        this.hits = metrics.meter(MetricRegistry.name(UnchangedContentCache.class, "hits"));
+        this.misses = metrics.meter(MetricRegistry.name(UnchangedContentCache.class, "misses"));
+        metrics.register(MetricRegistry.name(UnchangedContentCache.class, "entries"), (Gauge<Long>) entries::size);
+        metrics.register(MetricRegistry.name(UnchangedContentCache.class, "estimated-bytes"), (Gauge<Long>) estimatedBytes::get);
+    }
+
+    public static HashCode hash(EomFile eomFile) {
+        byte[] value = eomFile.getValue();
+        Hasher hasher = CONTENT_HASH.newHasher()
+                .putInt(value == null ? -1 : value.length)
+                .putBytes(value == null ? new byte[0] : value);
+        // each string is preceded by its length, so that moving characters from one field to the next changes the hash
+        for (String field : new String[]{eomFile.getType(), eomFile.getAttributes(), eomFile.getWorkflowStatus(),
+                eomFile.getSystemAttributes()}) {
+            hasher.putInt(field == null ? -1 : field.length()).putString(Strings.nullToEmpty(field));
+        }
+        return hasher.hash();
+    }
+
+    /**
+     * @return the components the story was last mapped to, if its content hash is unchanged, otherwise
+     * <code>null</code>, forgetting them so that only a successful mapping of the changed story is remembered.
+     */
+    public InternalComponents getIfUnchanged(String uuid, HashCode hash) {
+        Entry entry = entries.getIfPresent(uuid);
+        if (entry == null || !entry.hash.equals(hash)) {
+            if (entry != null) {
+                entries.invalidate(uuid);
+            }
+            misses.mark();
+            return null;
+        }
+        hits.mark();
+        return entry.internalComponents;
+    }
+
+    public void put(String uuid, HashCode hash, InternalComponents internalComponents, int messageLength) {
+        Entry entry = new Entry(hash, internalComponents, (long) messageLength * BYTES_PER_CHARACTER);
+        estimatedBytes.addAndGet(entry.estimatedBytes);
+        entries.put(uuid, entry);
+    }
+
+    private static class Entry {
+        private final HashCode hash;
+        private final InternalComponents internalComponents;
+        private final long estimatedBytes;
+
+        private Entry(HashCode hash, InternalComponents internalComponents, long estimatedBytes) {
+            this.hash = hash;
+            this.internalComponents = internalComponents;
+            this.estimatedBytes = estimatedBytes;
+        }
+    }
+}
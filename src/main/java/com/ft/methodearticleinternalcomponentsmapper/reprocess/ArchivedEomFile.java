@@ -0,0 +1,52 @@
+package com.ft.methodearticleinternalcomponentsmapper.reprocess;
+
+import com.ft.methodearticleinternalcomponentsmapper.model.EomFile;
+
+/**
+ * An article read from an {@link EomFileArchive}, with its position in the archive, or the reason it could not be
+ * read.
+ */
+public class ArchivedEomFile {
+
+    private final int index;
+    private final String name;
+    private final EomFile eomFile;
+    private final String unreadable;
+
+    private ArchivedEomFile(int index, String name, EomFile eomFile, String unreadable) {
+        this.index = index;
+        this.name = name;
+        this.eomFile = eomFile;
+        this.unreadable = unreadable;
+    }
+
+    static ArchivedEomFile read(int index, String name, EomFile eomFile) {
+        return new ArchivedEomFile(index, name, eomFile, null);
+    }
+
+    static ArchivedEomFile unreadable(int index, String name, String reason) {
+        return new ArchivedEomFile(index, name, null, reason);
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * @return the UUID of the article, or the name of the file it could not be read from.
+     */
+    public String getName() {
+        return eomFile != null && eomFile.getUuid() != null ? eomFile.getUuid() : name;
+    }
+
+    /**
+     * @return the article, or <code>null</code> if it could not be read.
+     */
+    public EomFile getEomFile() {
+        return eomFile;
+    }
+
+    public String getUnreadable() {
+        return unreadable;
+    }
+}
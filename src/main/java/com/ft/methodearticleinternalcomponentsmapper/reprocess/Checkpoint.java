@@ -0,0 +1,88 @@
+package com.ft.methodearticleinternalcomponentsmapper.reprocess;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+import java.util.TreeSet;
+
+/**
+ * How far through an archive a reprocessing run has got: the number of articles from its start which have all been
+ * written, although they finish out of order. A run resumed from a checkpoint starts with the first article not
+ * covered by it, so any article finished after the checkpoint was saved is processed again.
+ */
+public class Checkpoint {
+
+    private static final String INPUT = "input";
+    private static final String COMPLETED = "completed";
+
+    private final Path path;
+    private final String input;
+    private final TreeSet<Integer> completedOutOfOrder = new TreeSet<>();
+    private int completed;
+
+    private Checkpoint(Path path, String input, int completed) {
+        this.path = path;
+        this.input = input;
+        this.completed = completed;
+    }
+
+    public static Checkpoint start(Path path, String input) {
+        return new Checkpoint(path, input, 0);
+    }
+
+    /**
+     * @throws IllegalStateException if the checkpoint was saved by a run over another archive.
+     */
+    public static Checkpoint resume(Path path, String input) throws IOException {
+        if (!Files.exists(path)) {
+            return start(path, input);
+        }
+
+        Properties saved = new Properties();
+        try (InputStream in = Files.newInputStream(path)) {
+            saved.load(in);
+        }
+        if (!input.equals(saved.getProperty(INPUT))) {
+            throw new IllegalStateException(String.format("Checkpoint %s is of %s, not %s", path, saved.getProperty(INPUT), input));
+        }
+        return new Checkpoint(path, input, Integer.parseInt(saved.getProperty(COMPLETED, "0")));
+    }
+
+    public synchronized void complete(int index) {
+        if (index != completed) {
+            completedOutOfOrder.add(index);
+            return;
+        }
+
+        completed++;
+        while (completedOutOfOrder.remove(completed)) {
+            completed++;
+        }
+    }
+
+    /**
+     * @return the number of articles from the start of the archive which have all been completed.
+     */
+    public synchronized int getCompleted() {
+        return completed;
+    }
+
+    /**
+     * Saves the given count, replacing the checkpoint saved before it as a whole.
+     */
+    public void save(int completedUpTo) throws IOException {
+        Properties saved = new Properties();
+        saved.setProperty(INPUT, input);
+        saved.setProperty(COMPLETED, Integer.toString(completedUpTo));
+
+        Path saving = path.resolveSibling(path.getFileName() + ".saving");
+        try (OutputStream out = Files.newOutputStream(saving)) {
+            saved.store(out, null);
+        }
+        Files.move(saving, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
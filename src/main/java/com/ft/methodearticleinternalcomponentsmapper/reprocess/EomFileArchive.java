@@ -0,0 +1,182 @@
+package com.ft.methodearticleinternalcomponentsmapper.reprocess;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.ft.methodearticleinternalcomponentsmapper.model.EomFile;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Methode articles archived locally, read in the same order each time so that a reprocessing run can resume part way
+ * through: either a directory of files of one <code>EomFile</code> JSON each, read in order of their names, or a file
+ * of newline-delimited <code>EomFile</code> JSON, gzipped if its name ends with <code>.gz</code>. Both are read through
+ * memory-mapped I/O. An article which is not valid JSON is returned as unreadable, and the articles after it are still
+ * read.
+ */
+public abstract class EomFileArchive implements Closeable {
+
+    protected final ObjectReader eomFileReader;
+    protected int next;
+
+    private EomFileArchive(ObjectMapper objectMapper) {
+        this.eomFileReader = objectMapper.reader(EomFile.class);
+    }
+
+    public static EomFileArchive open(Path path, ObjectMapper objectMapper) throws IOException {
+        if (Files.isDirectory(path)) {
+            return new DirectoryArchive(path, objectMapper);
+        }
+        return new NdjsonArchive(path, objectMapper);
+    }
+
+    /**
+     * @return the next article, or <code>null</code> once all have been read.
+     * @throws IOException if the rest of the archive cannot be read.
+     */
+    public abstract ArchivedEomFile next() throws IOException;
+
+    /**
+     * Passes over the next articles without reading them.
+     */
+    public abstract void skip(int count) throws IOException;
+
+    private static class DirectoryArchive extends EomFileArchive {
+        private final List<Path> files = new ArrayList<>();
+
+        private DirectoryArchive(Path directory, ObjectMapper objectMapper) throws IOException {
+            super(objectMapper);
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory, "*.json")) {
+                entries.forEach(files::add);
+            }
+            Collections.sort(files);
+        }
+
+        @Override
+        public ArchivedEomFile next() throws IOException {
+            if (next >= files.size()) {
+                return null;
+            }
+
+            int index = next++;
+            Path file = files.get(index);
+            try (InputStream input = new MappedInputStream(file)) {
+                return ArchivedEomFile.read(index, file.getFileName().toString(), eomFileReader.readValue(input));
+            } catch (JsonProcessingException e) {
+                // the other files can still be read
+                return ArchivedEomFile.unreadable(index, file.getFileName().toString(), e.getOriginalMessage());
+            }
+        }
+
+        @Override
+        public void skip(int count) {
+            next = Math.min(files.size(), next + count);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static class NdjsonArchive extends EomFileArchive {
+        private static final int BUFFER_SIZE = 64 * 1024;
+
+        private final String name;
+        private final InputStream input;
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+        private int position;
+        private int limit;
+        private final ByteArrayOutputStream line = new ByteArrayOutputStream();
+
+        private NdjsonArchive(Path file, ObjectMapper objectMapper) throws IOException {
+            super(objectMapper);
+            this.name = file.getFileName().toString();
+            InputStream mapped = new MappedInputStream(file);
+            this.input = name.endsWith(".gz") ? new GZIPInputStream(mapped, BUFFER_SIZE) : mapped;
+        }
+
+        @Override
+        public ArchivedEomFile next() throws IOException {
+            byte[] article = nextLine();
+            if (article == null) {
+                return null;
+            }
+            int index = next++;
+            try {
+                return ArchivedEomFile.read(index, name + ":" + index, eomFileReader.readValue(article));
+            } catch (JsonProcessingException e) {
+                // the next line starts the next article
+                return ArchivedEomFile.unreadable(index, name + ":" + index, e.getOriginalMessage());
+            }
+        }
+
+        @Override
+        public void skip(int count) throws IOException {
+            // skipped articles are only split into lines, not parsed
+            for (int i = 0; i < count && nextLine() != null; i++) {
+                next++;
+            }
+        }
+
+        /**
+         * @return the next line which is not blank, without its newline, or <code>null</code> at the end of the file.
+         */
+        private byte[] nextLine() throws IOException {
+            while (true) {
+                line.reset();
+                boolean ended = false;
+                while (!ended) {
+                    if (position == limit) {
+                        int read = input.read(buffer, 0, buffer.length);
+                        if (read == -1) {
+                            if (line.size() == 0) {
+                                return null;
+                            }
+                            break;
+                        }
+                        position = 0;
+                        limit = read;
+                    }
+                    int start = position;
+                    while (position < limit && buffer[position] != '\n') {
+                        position++;
+                    }
+                    line.write(buffer, start, position - start);
+                    if (position < limit) {
+                        position++;
+                        ended = true;
+                    }
+                }
+
+                byte[] bytes = line.toByteArray();
+                if (!isBlank(bytes)) {
+                    return bytes;
+                }
+            }
+        }
+
+        private static boolean isBlank(byte[] bytes) {
+            for (byte b : bytes) {
+                if (b != ' ' && b != '\t' && b != '\r') {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            input.close();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.ft.methodearticleinternalcomponentsmapper.reprocess;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.ft.methodearticleinternalcomponentsmapper.resources.BatchMappingResult;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes each result as a line of JSON, as <code>/map/batch</code> answers, to a file which is gzipped if its name
+ * ends with <code>.gz</code>. A resumed run writes to a new file numbered after the last, e.g.
+ * <code>results.1.ndjson.gz</code> after <code>results.ndjson.gz</code>, rather than appending to one which may end
+ * part way through a line or a gzip block.
+ */
+public class FileReprocessOutput implements ReprocessOutput {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path path;
+    private final OutputStream file;
+    private final JsonGenerator output;
+    private final ObjectWriter resultWriter;
+
+    public FileReprocessOutput(Path path, boolean resume, ObjectMapper objectMapper) throws IOException {
+        this.path = resume ? nextPart(path) : path;
+        OutputStream out = new BufferedOutputStream(Files.newOutputStream(this.path), BUFFER_SIZE);
+        // a sync flush writes out everything compressed so far, so that the results covered by a checkpoint are on disk
+        this.file = path.getFileName().toString().endsWith(".gz") ? new GZIPOutputStream(out, BUFFER_SIZE, true) : out;
+        this.output = objectMapper.getFactory().createGenerator(file);
+        this.output.setRootValueSeparator(null);
+        this.resultWriter = objectMapper.writer();
+    }
+
+    /**
+     * @return the first of the output's numbered files which does not exist yet.
+     */
+    static Path nextPart(Path path) {
+        String fileName = path.getFileName().toString();
+        int extension = fileName.indexOf('.');
+        String base = extension < 0 ? fileName : fileName.substring(0, extension);
+        String extensions = extension < 0 ? "" : fileName.substring(extension);
+
+        Path part;
+        int number = 1;
+        do {
+            part = path.resolveSibling(base + "." + number++ + extensions);
+        } while (Files.exists(part));
+        return part;
+    }
+
+    /**
+     * @return the file written to.
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    @Override
+    public synchronized void write(BatchMappingResult result) throws IOException {
+        resultWriter.writeValue(output, result);
+        output.writeRaw('\n');
+    }
+
+    @Override
+    public synchronized void flush() throws IOException {
+        output.flush();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        output.close();
+        file.close();
+    }
+}
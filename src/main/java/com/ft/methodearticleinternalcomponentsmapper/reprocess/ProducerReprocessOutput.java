@@ -0,0 +1,63 @@
+package com.ft.methodearticleinternalcomponentsmapper.reprocess;
+
+import com.ft.messagequeueproducer.MessageProducer;
+import com.ft.messaging.standards.message.v1.Message;
+import com.ft.methodearticleinternalcomponentsmapper.messaging.BatchingMessageProducer;
+import com.ft.methodearticleinternalcomponentsmapper.messaging.MessageBuilder;
+import com.ft.methodearticleinternalcomponentsmapper.resources.BatchMappingResult;
+import org.apache.http.HttpStatus;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Date;
+
+/**
+ * Sends the internal components of each article to the queue as the service does: a message for each article mapped,
+ * a delete message for each marked as deleted, and nothing for those which could not be mapped.
+ */
+public class ProducerReprocessOutput implements ReprocessOutput {
+
+    private final MessageBuilder messageBuilder;
+    private final MessageProducer producer;
+    private final String transactionId;
+
+    public ProducerReprocessOutput(MessageBuilder messageBuilder, MessageProducer producer, String transactionId) {
+        this.messageBuilder = messageBuilder;
+        this.producer = producer;
+        this.transactionId = transactionId;
+    }
+
+    @Override
+    public void write(BatchMappingResult result) throws IOException {
+        Message message;
+        if (result.getStatus() == HttpStatus.SC_OK) {
+            message = messageBuilder.buildMessage(result.getInternalComponents());
+        } else if (result.getStatus() == HttpStatus.SC_NOT_FOUND && result.getUuid() != null) {
+            message = messageBuilder.buildDeletedInternalComponentsMessage(result.getUuid(), transactionId, new Date());
+        } else {
+            return;
+        }
+
+        try {
+            producer.send(Collections.singletonList(message));
+        } catch (RuntimeException e) {
+            throw new IOException("Unable to send the internal components of " + result.getUuid(), e);
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (producer instanceof BatchingMessageProducer) {
+            try {
+                ((BatchingMessageProducer) producer).flush();
+            } catch (RuntimeException e) {
+                throw new IOException("Unable to send a batch of internal components", e);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+    }
+}
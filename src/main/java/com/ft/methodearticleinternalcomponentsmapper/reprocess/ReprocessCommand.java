@@ -0,0 +1,165 @@
+package com.ft.methodearticleinternalcomponentsmapper.reprocess;
+
+import com.ft.methodearticleinternalcomponentsmapper.MethodeArticleInternalComponentsMapperApplication;
+import com.ft.methodearticleinternalcomponentsmapper.RemoteDependencies;
+import com.ft.methodearticleinternalcomponentsmapper.configuration.MethodeArticleInternalComponentsMapperConfiguration;
+import com.ft.methodearticleinternalcomponentsmapper.standins.LocalStandIns;
+import com.ft.methodearticleinternalcomponentsmapper.standins.RecordedExchanges;
+import com.ft.methodearticleinternalcomponentsmapper.transformation.InternalComponentsMapper;
+import com.ft.methodearticleinternalcomponentsmapper.xml.XmlInfrastructure;
+import io.dropwizard.cli.ConfiguredCommand;
+import io.dropwizard.setup.Bootstrap;
+import io.dropwizard.setup.Environment;
+import net.sourceforge.argparse4j.impl.Arguments;
+import net.sourceforge.argparse4j.inf.Namespace;
+import net.sourceforge.argparse4j.inf.Subparser;
+import org.eclipse.jetty.util.component.ContainerLifeCycle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Maps every article of a local archive again, e.g. after a change to the body transformation, without the service
+ * running:
+ * <pre>
+ * java -jar methode-article-internal-components-mapper.jar reprocess --input articles.ndjson.gz --output results.ndjson.gz config.yaml
+ * </pre>
+ * The results go to a file of newline-delimited JSON, as <code>/map/batch</code> answers, or with
+ * <code>--output producer</code> to the queue the service writes to. A checkpoint is saved as the run goes, from which
+ * <code>--resume</code> carries on. With <code>--remote-calls local</code>, the services the mapper calls are stood in
+ * for in-process; with <code>record</code>, what they answer is saved to the <code>--recording</code> file, for a later
+ * run with <code>replay</code> to be answered the same in-process, as slowly as when recorded or with
+ * <code>--replay-latency</code>. A replayed call asking what was not recorded fails, unless
+ * <code>--replay-unrecorded local</code>.
+ */
+public class ReprocessCommand extends ConfiguredCommand<MethodeArticleInternalComponentsMapperConfiguration> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ReprocessCommand.class);
+
+    static final String PRODUCER = "producer";
+    static final String LIVE = "live";
+    static final String LOCAL = "local";
+    static final String RECORD = "record";
+    static final String REPLAY = "replay";
+    static final String FAIL = "fail";
+
+    private final MethodeArticleInternalComponentsMapperApplication application;
+
+    public ReprocessCommand(MethodeArticleInternalComponentsMapperApplication application) {
+        super("reprocess", "Maps the Methode articles of a local archive to internal components");
+        this.application = application;
+    }
+
+    @Override
+    public void configure(Subparser subparser) {
+        super.configure(subparser);
+        subparser.addArgument("--input").dest("input").required(true)
+                .help("a directory of EomFile JSON files, or a file of newline-delimited EomFile JSON, gzipped if it ends with .gz");
+        subparser.addArgument("--output").dest("output").required(true)
+                .help("a file to write newline-delimited results to, gzipped if it ends with .gz, or '" + PRODUCER + "' to send them to the queue");
+        subparser.addArgument("--checkpoint").dest("checkpoint")
+                .help("the checkpoint file, by default the output file or the input followed by .checkpoint");
+        subparser.addArgument("--resume").dest("resume").action(Arguments.storeTrue())
+                .help("carry on from the checkpoint, writing to a new numbered output file");
+        subparser.addArgument("--parallelism").dest("parallelism").type(Integer.class)
+                .setDefault(Runtime.getRuntime().availableProcessors())
+                .help("the number of articles mapped at once, by default one per core");
+        subparser.addArgument("--remote-calls").dest("remoteCalls").choices(LIVE, LOCAL, RECORD, REPLAY).setDefault(LIVE)
+                .help("call the services the configuration describes, stand in for them in-process, call them recording "
+                        + "their answers, or replay recorded answers in-process");
+        subparser.addArgument("--recording").dest("recording")
+                .help("the file answers are recorded to or replayed from, gzipped if it ends with .gz");
+        subparser.addArgument("--replay-latency").dest("replayLatency").type(Long.class)
+                .help("milliseconds each replayed call takes, by default as long as it took when recorded");
+        subparser.addArgument("--replay-unrecorded").dest("replayUnrecorded").choices(FAIL, LOCAL).setDefault(FAIL)
+                .help("fail the replayed calls which ask a question that was not recorded, or answer it as '" + LOCAL + "' would");
+        subparser.addArgument("--transaction-id").dest("transactionId")
+                .help("the publish reference of the results, by default tid_reprocess_ and the time the run started");
+        subparser.addArgument("--checkpoint-interval").dest("checkpointInterval").type(Integer.class).setDefault(10)
+                .help("seconds between checkpoints");
+        subparser.addArgument("--report-interval").dest("reportInterval").type(Integer.class).setDefault(30)
+                .help("seconds between throughput reports");
+    }
+
+    @Override
+    protected void run(Bootstrap<MethodeArticleInternalComponentsMapperConfiguration> bootstrap, Namespace namespace,
+                       MethodeArticleInternalComponentsMapperConfiguration configuration) throws Exception {
+
+        Environment environment = new Environment(bootstrap.getApplication().getName(), bootstrap.getObjectMapper(),
+                bootstrap.getValidatorFactory().getValidator(), bootstrap.getMetricRegistry(), bootstrap.getClassLoader());
+
+        Path input = Paths.get(namespace.getString("input"));
+        String outputName = namespace.getString("output");
+        boolean toProducer = PRODUCER.equals(outputName);
+        Path checkpointPath = namespace.getString("checkpoint") != null
+                ? Paths.get(namespace.getString("checkpoint"))
+                : Paths.get((toProducer ? input.toString() : outputName) + ".checkpoint");
+        boolean resume = namespace.getBoolean("resume");
+        String transactionId = namespace.getString("transactionId") != null
+                ? namespace.getString("transactionId")
+                : "tid_reprocess_" + TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
+
+        String remoteCalls = namespace.getString("remoteCalls");
+        Path recording = namespace.getString("recording") == null ? null : Paths.get(namespace.getString("recording"));
+        if ((RECORD.equals(remoteCalls) || REPLAY.equals(remoteCalls)) && recording == null) {
+            throw new IllegalArgumentException("--recording is required to " + remoteCalls + " remote calls");
+        }
+
+        Executor remoteCallExecutor = application.buildRemoteCallExecutor(configuration, environment);
+        RecordedExchanges recorded = REPLAY.equals(remoteCalls)
+                ? RecordedExchanges.load(recording, environment.getObjectMapper())
+                : new RecordedExchanges(environment.getObjectMapper());
+        RemoteDependencies remoteDependencies;
+        if (LOCAL.equals(remoteCalls)) {
+            remoteDependencies = LocalStandIns.remoteDependencies(application.buildStandInClient(environment));
+        } else if (REPLAY.equals(remoteCalls)) {
+            remoteDependencies = LocalStandIns.replaying(application.buildStandInClient(environment), recorded,
+                    namespace.get("replayLatency"), LOCAL.equals(namespace.getString("replayUnrecorded")));
+        } else {
+            remoteDependencies = application.buildRemoteDependencies(configuration, environment, remoteCallExecutor);
+            if (RECORD.equals(remoteCalls)) {
+                remoteDependencies = LocalStandIns.recording(remoteDependencies, recorded);
+            }
+        }
+        InternalComponentsMapper internalComponentsMapper = application.buildInternalComponentsMapper(configuration,
+                environment, remoteDependencies, remoteCallExecutor, new XmlInfrastructure(environment.metrics()));
+        ReprocessOutput output;
+        if (toProducer) {
+            output = new ProducerReprocessOutput(application.getMessageBuilder(configuration, environment),
+                    application.configureMessageProducer(configuration.getProducerConfiguration(), environment), transactionId);
+        } else {
+            FileReprocessOutput fileOutput = new FileReprocessOutput(Paths.get(outputName), resume, environment.getObjectMapper());
+            LOG.info("Writing the results to {}", fileOutput.getPath());
+            output = fileOutput;
+        }
+
+        Checkpoint checkpoint = resume
+                ? Checkpoint.resume(checkpointPath, input.toAbsolutePath().toString())
+                : Checkpoint.start(checkpointPath, input.toAbsolutePath().toString());
+        Reprocessor reprocessor = new Reprocessor(internalComponentsMapper, namespace.getInt("parallelism"), transactionId,
+                TimeUnit.SECONDS.toMillis(namespace.getInt("checkpointInterval")),
+                TimeUnit.SECONDS.toMillis(namespace.getInt("reportInterval")));
+
+        // attaching only takes in the objects managed so far, so it is done once all of them have been built
+        ContainerLifeCycle lifecycle = new ContainerLifeCycle();
+        environment.lifecycle().attach(lifecycle);
+        lifecycle.start();
+        try (EomFileArchive archive = EomFileArchive.open(input, environment.getObjectMapper())) {
+            int completed = reprocessor.reprocess(archive, output, checkpoint);
+            LOG.info("Reprocessed {} articles of {}, transaction_id={}", completed, input, transactionId);
+        } finally {
+            output.close();
+            lifecycle.stop();
+            if (RECORD.equals(remoteCalls)) {
+                recorded.save(recording);
+                LOG.info("Recorded the answers to {} questions to {}", recorded.size(), recording);
+            } else if (REPLAY.equals(remoteCalls)) {
+                LOG.info("Replayed from {} recorded answers, {} questions had not been recorded", recorded.size(), recorded.getUnrecorded());
+            }
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.ft.methodearticleinternalcomponentsmapper.reprocess;
+
+import com.ft.methodearticleinternalcomponentsmapper.resources.BatchMappingResult;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Where a reprocessing run puts the result of each article. Results are written from many threads at once.
+ */
+public interface ReprocessOutput extends Closeable {
+
+    /**
+     * @throws IOException if the result could not be written, which stops the run.
+     */
+    void write(BatchMappingResult result) throws IOException;
+
+    /**
+     * Makes every result written so far durable, before the checkpoint covering them is saved.
+     */
+    void flush() throws IOException;
+}
@@ -0,0 +1,184 @@
+package com.ft.methodearticleinternalcomponentsmapper.reprocess;
+
+import com.ft.methodearticleinternalcomponentsmapper.model.InternalComponents;
+import com.ft.methodearticleinternalcomponentsmapper.resources.BatchMappingResult;
+import com.ft.methodearticleinternalcomponentsmapper.resources.MapResource;
+import com.ft.methodearticleinternalcomponentsmapper.transformation.InternalComponentsMapper;
+import org.apache.http.HttpStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Date;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Maps every article of an archive on a fork-join pool, writing each result as it finishes, and saves a checkpoint as
+ * it goes so that a run which stops can be resumed. At most twice as many articles as the pool has threads are read
+ * ahead of those written, whatever the size of the archive.
+ * <p>
+ * An article whose processing throws, rather than failing to map, stops the run: the checkpoint cannot get past it,
+ * so the articles after it are not read, and the run fails once those already read have been processed.
+ */
+public class Reprocessor {
+
+    private static final Logger LOG = LoggerFactory.getLogger(Reprocessor.class);
+
+    private final InternalComponentsMapper internalComponentsMapper;
+    private final int parallelism;
+    private final String transactionId;
+    private final long checkpointIntervalMillis;
+    private final long reportIntervalMillis;
+
+    private final AtomicInteger mapped = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private final AtomicInteger crashed = new AtomicInteger();
+    private final AtomicReference<IOException> outputFailure = new AtomicReference<>();
+    private final AtomicReference<Throwable> processFailure = new AtomicReference<>();
+
+    public Reprocessor(InternalComponentsMapper internalComponentsMapper, int parallelism, String transactionId,
+                       long checkpointIntervalMillis, long reportIntervalMillis) {
+        this.internalComponentsMapper = internalComponentsMapper;
+        this.parallelism = parallelism;
+        this.transactionId = transactionId;
+        this.checkpointIntervalMillis = checkpointIntervalMillis;
+        this.reportIntervalMillis = reportIntervalMillis;
+    }
+
+    /**
+     * Maps the articles of the archive not already covered by the checkpoint.
+     *
+     * @return the number of articles from the start of the archive which have all been written.
+     * @throws IOException if the archive could not be read to its end, or a result could not be written.
+     * @throws IllegalStateException if processing an article threw.
+     */
+    public int reprocess(EomFileArchive archive, ReprocessOutput output, Checkpoint checkpoint) throws IOException, InterruptedException {
+        int resumedFrom = checkpoint.getCompleted();
+        archive.skip(resumedFrom);
+        if (resumedFrom > 0) {
+            LOG.info("Resuming after the first {} articles", resumedFrom);
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        Semaphore readAhead = new Semaphore(parallelism * 2);
+        Throughput throughput = new Throughput(System.nanoTime());
+        long nextCheckpoint = System.currentTimeMillis() + checkpointIntervalMillis;
+        long nextReport = System.currentTimeMillis() + reportIntervalMillis;
+        try {
+            ArchivedEomFile article;
+            while (outputFailure.get() == null && processFailure.get() == null && (article = archive.next()) != null) {
+                readAhead.acquire();
+                ArchivedEomFile reading = article;
+                pool.execute(() -> {
+                    try {
+                        process(reading, output, checkpoint);
+                    } catch (RuntimeException | Error e) {
+                        crashed.incrementAndGet();
+                        LOG.error("Unable to process article {}", reading.getName(), e);
+                        processFailure.compareAndSet(null, e);
+                    } finally {
+                        readAhead.release();
+                    }
+                });
+
+                long now = System.currentTimeMillis();
+                if (now >= nextCheckpoint) {
+                    save(checkpoint, output);
+                    nextCheckpoint = now + checkpointIntervalMillis;
+                }
+                if (now >= nextReport) {
+                    throughput.report(false);
+                    nextReport = now + reportIntervalMillis;
+                }
+            }
+        } finally {
+            pool.shutdown();
+            pool.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+            save(checkpoint, output);
+            throughput.report(true);
+        }
+
+        if (outputFailure.get() != null) {
+            throw outputFailure.get();
+        }
+        if (processFailure.get() != null) {
+            throw new IllegalStateException(crashed.get() + " articles could not be processed", processFailure.get());
+        }
+        return checkpoint.getCompleted();
+    }
+
+    private void process(ArchivedEomFile article, ReprocessOutput output, Checkpoint checkpoint) {
+        if (outputFailure.get() != null) {
+            return;
+        }
+
+        BatchMappingResult result;
+        if (article.getEomFile() == null) {
+            result = new BatchMappingResult(article.getIndex(), article.getName(), HttpStatus.SC_BAD_REQUEST, null, article.getUnreadable());
+        } else {
+            result = map(article);
+        }
+        if (result.getStatus() == HttpStatus.SC_OK) {
+            mapped.incrementAndGet();
+        } else {
+            failed.incrementAndGet();
+        }
+
+        try {
+            output.write(result);
+            checkpoint.complete(article.getIndex());
+        } catch (IOException e) {
+            outputFailure.compareAndSet(null, e);
+        }
+    }
+
+    private BatchMappingResult map(ArchivedEomFile article) {
+        String uuid = article.getEomFile().getUuid();
+        try {
+            InternalComponents internalComponents = internalComponentsMapper.map(article.getEomFile(), transactionId, new Date(), false);
+            return new BatchMappingResult(article.getIndex(), uuid, HttpStatus.SC_OK, internalComponents, null);
+        } catch (RuntimeException e) {
+            LOG.debug("Unable to map article uuid={}", uuid, e);
+            return new BatchMappingResult(article.getIndex(), uuid, MapResource.statusOf(e), null, e.getMessage());
+        }
+    }
+
+    private void save(Checkpoint checkpoint, ReprocessOutput output) throws IOException {
+        // the results of every article the checkpoint covers have been written, and are made durable before it is
+        int completed = checkpoint.getCompleted();
+        output.flush();
+        checkpoint.save(completed);
+    }
+
+    private class Throughput {
+        private final long startNanos;
+        private long lastNanos;
+        private int lastDone;
+
+        private Throughput(long startNanos) {
+            this.startNanos = startNanos;
+            this.lastNanos = startNanos;
+        }
+
+        private void report(boolean finished) {
+            long now = System.nanoTime();
+            int done = mapped.get() + failed.get();
+            double overall = perSecond(done, now - startNanos);
+            double recent = perSecond(done - lastDone, now - lastNanos);
+            lastNanos = now;
+            lastDone = done;
+
+            LOG.info("{} {} articles ({} mapped, {} failed) in {}s: {} articles/s overall, {} articles/s since the last report",
+                    finished ? "Reprocessed" : "Reprocessing,", done, mapped.get(), failed.get(),
+                    TimeUnit.NANOSECONDS.toSeconds(now - startNanos), String.format("%.1f", overall), String.format("%.1f", recent));
+        }
+
+        private double perSecond(int count, long nanos) {
+            return nanos <= 0 ? 0 : count * (double) TimeUnit.SECONDS.toNanos(1) / nanos;
+        }
+    }
+}
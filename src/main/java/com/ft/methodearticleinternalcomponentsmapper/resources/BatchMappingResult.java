@@ -0,0 +1,46 @@
+package com.ft.methodearticleinternalcomponentsmapper.resources;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.ft.methodearticleinternalcomponentsmapper.model.InternalComponents;
+
+/**
+ * One line of the response to <code>/map/batch</code>: the position of the article in the request, and either its
+ * internal components or the message of the error which stopped it being mapped.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchMappingResult {
+
+    private final int index;
+    private final String uuid;
+    private final int status;
+    private final InternalComponents internalComponents;
+    private final String message;
+
+    public BatchMappingResult(int index, String uuid, int status, InternalComponents internalComponents, String message) {
+        this.index = index;
+        this.uuid = uuid;
+        this.status = status;
+        this.internalComponents = internalComponents;
+        this.message = message;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public String getUuid() {
+        return uuid;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public InternalComponents getInternalComponents() {
+        return internalComponents;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
@@ -1,6 +1,15 @@
 package com.ft.methodearticleinternalcomponentsmapper.resources;
 
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
 import com.codahale.metrics.annotation.Timed;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.ft.api.util.transactionid.TransactionIdUtils;
 import com.ft.methodearticleinternalcomponentsmapper.exception.InvalidMethodeContentException;
 import com.ft.methodearticleinternalcomponentsmapper.exception.MethodeMarkedDeletedException;
@@ -10,8 +19,10 @@ import com.ft.methodearticleinternalcomponentsmapper.exception.TransformationExc
 import com.ft.methodearticleinternalcomponentsmapper.model.EomFile;
 import com.ft.methodearticleinternalcomponentsmapper.model.InternalComponents;
 import com.ft.methodearticleinternalcomponentsmapper.transformation.InternalComponentsMapper;
+import com.google.common.util.concurrent.MoreExecutors;
 import org.apache.http.HttpStatus;
 
+import javax.ws.rs.Consumes;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
@@ -20,17 +31,52 @@ import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.Date;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
 
 @Path("/")
 public class MapResource {
 
     private static final String CHARSET_UTF_8 = ";charset=utf-8";
+    static final String APPLICATION_NDJSON = "application/x-ndjson";
 
     private final InternalComponentsMapper internalComponentsMapper;
+    private final ObjectReader eomFileReader;
+    private final ObjectWriter resultWriter;
+    private final JsonFactory jsonFactory;
+    private final Executor batchExecutor;
+    private final int batchConcurrency;
+    private final Timer batchTime;
+    private final Timer batchItemTime;
+    private final Histogram batchSize;
 
     public MapResource(InternalComponentsMapper internalComponentsMapper) {
+        this(internalComponentsMapper, new ObjectMapper(), MoreExecutors.sameThreadExecutor(), 1, new MetricRegistry());
+    }
+
+    /**
+     * @param batchExecutor      maps the articles of a batch.
+     * @param batchConcurrency   the most articles of a batch being mapped at once.
+     */
+    public MapResource(InternalComponentsMapper internalComponentsMapper, ObjectMapper objectMapper, Executor batchExecutor,
+                       int batchConcurrency, MetricRegistry metrics) {
         this.internalComponentsMapper = internalComponentsMapper;
+        this.eomFileReader = objectMapper.reader(EomFile.class);
+        this.resultWriter = objectMapper.writer();
+        this.jsonFactory = objectMapper.getFactory();
+        this.batchExecutor = batchExecutor;
+        this.batchConcurrency = Math.max(1, batchConcurrency);
+        this.batchTime = metrics.timer(MetricRegistry.name(MapResource.class, "batch", "time"));
+        this.batchItemTime = metrics.timer(MetricRegistry.name(MapResource.class, "batch", "item", "time"));
+        this.batchSize = metrics.histogram(MetricRegistry.name(MapResource.class, "batch", "size"));
     }
 
     @POST
@@ -44,14 +90,138 @@ public class MapResource {
         String transactionId = TransactionIdUtils.getTransactionIdOrDie(httpHeaders);
         try {
             return internalComponentsMapper.map(eomFile, transactionId, new Date(), preview);
-        } catch (MethodeMarkedDeletedException e) {
-            throw new WebApplicationException(HttpStatus.SC_NOT_FOUND);
-        } catch (MethodeArticleNotEligibleForPublishException | InvalidMethodeContentException
-                | MethodeArticleUnsupportedSourceCodeException e) {
-            throw new WebApplicationException(HttpStatus.SC_UNPROCESSABLE_ENTITY);
-        } catch (TransformationException e) {
-            throw new WebApplicationException(HttpStatus.SC_INTERNAL_SERVER_ERROR);
+        } catch (MethodeMarkedDeletedException | MethodeArticleNotEligibleForPublishException | InvalidMethodeContentException
+                | MethodeArticleUnsupportedSourceCodeException | TransformationException e) {
+            throw new WebApplicationException(statusOf(e));
+        }
+    }
+
+    /**
+     * Maps a JSON array, or newline-delimited JSON, of Methode articles, streaming back a line of JSON for each as
+     * soon as it is mapped, so not necessarily in the order they were sent. Each line has the index of the article in
+     * the request and the status code <code>/map</code> would have answered for it. If the request stops being
+     * readable part way through, the last line has status 400 and the index of the first article not read.
+     * <p>
+     * Each article is mapped under its own transaction id, that of the request followed by <code>-</code> and the
+     * index of the article, so that each gets a publish reference of its own.
+     */
+    @POST
+    @QueryParam("preview")
+    @Path("/map/batch")
+    @Consumes({MediaType.APPLICATION_JSON, APPLICATION_NDJSON})
+    @Produces(APPLICATION_NDJSON + CHARSET_UTF_8)
+    public final Response mapBatch(@QueryParam("preview") boolean preview, InputStream eomFiles,
+                                   @Context HttpHeaders httpHeaders) {
+
+        String transactionId = TransactionIdUtils.getTransactionIdOrDie(httpHeaders);
+        MappingIterator<EomFile> items;
+        try {
+            items = eomFileReader.readValues(eomFiles);
+        } catch (IOException e) {
+            throw new WebApplicationException(HttpStatus.SC_BAD_REQUEST);
+        }
+
+        StreamingOutput results = output -> writeBatch(items, transactionId, preview, output);
+        return Response.ok(results).build();
+    }
+
+    /**
+     * Holds no more than <code>batchConcurrency</code> articles and their results at once, however long the batch:
+     * the next article is read only once a result has been written, and each result is serialized straight into the
+     * response and flushed.
+     */
+    private void writeBatch(MappingIterator<EomFile> items, String transactionId, boolean preview, OutputStream response)
+            throws IOException {
+
+        JsonGenerator output = jsonFactory.createGenerator(response);
+        output.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        // each result ends with a newline, rather than being separated from the next by a space
+        output.setRootValueSeparator(null);
+        Timer.Context timer = batchTime.time();
+        CompletionService<BatchMappingResult> completions = new ExecutorCompletionService<>(batchExecutor);
+        int read = 0;
+        int inFlight = 0;
+        BatchMappingResult unreadable = null;
+        try {
+            while (true) {
+                while (unreadable == null && inFlight < batchConcurrency) {
+                    EomFile eomFile;
+                    try {
+                        if (!items.hasNextValue()) {
+                            break;
+                        }
+                        eomFile = items.nextValue();
+                    } catch (IOException | RuntimeException e) {
+                        unreadable = new BatchMappingResult(read, null, HttpStatus.SC_BAD_REQUEST, null, e.getMessage());
+                        break;
+                    }
+                    int index = read++;
+                    completions.submit(() -> mapItem(index, eomFile, transactionId + "-" + index, preview));
+                    inFlight++;
+                }
+                if (inFlight == 0) {
+                    break;
+                }
+
+                write(take(completions), output);
+                inFlight--;
+            }
+            if (unreadable != null) {
+                write(unreadable, output);
+            }
+        } finally {
+            batchSize.update(read);
+            timer.stop();
+            output.close();
+        }
+    }
+
+    private BatchMappingResult mapItem(int index, EomFile eomFile, String transactionId, boolean preview) {
+        String uuid = eomFile == null ? null : eomFile.getUuid();
+        Timer.Context timer = batchItemTime.time();
+        try {
+            InternalComponents internalComponents = internalComponentsMapper.map(eomFile, transactionId, new Date(), preview);
+            return new BatchMappingResult(index, uuid, HttpStatus.SC_OK, internalComponents, null);
+        } catch (RuntimeException e) {
+            return new BatchMappingResult(index, uuid, statusOf(e), null, e.getMessage());
+        } finally {
+            timer.stop();
+        }
+    }
+
+    private static BatchMappingResult take(CompletionService<BatchMappingResult> completions) throws IOException {
+        try {
+            return completions.take().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while mapping a batch", e);
+        } catch (ExecutionException e) {
+            // mapItem turns every failure into a result
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private void write(BatchMappingResult result, JsonGenerator output) throws IOException {
+        resultWriter.writeValue(output, result);
+        output.writeRaw('\n');
+        output.flush();
+    }
+
+    /**
+     * @return the status code <code>/map</code> answers when mapping an article fails with the exception.
+     */
+    public static int statusOf(RuntimeException e) {
+        if (e instanceof MethodeMarkedDeletedException) {
+            return HttpStatus.SC_NOT_FOUND;
+        }
+        if (e instanceof MethodeArticleNotEligibleForPublishException || e instanceof InvalidMethodeContentException
+                || e instanceof MethodeArticleUnsupportedSourceCodeException) {
+            return HttpStatus.SC_UNPROCESSABLE_ENTITY;
+        }
+        if (e instanceof WebApplicationException) {
+            return ((WebApplicationException) e).getResponse().getStatus();
         }
+        return HttpStatus.SC_INTERNAL_SERVER_ERROR;
     }
 
-}
\ No newline at end of file
+}
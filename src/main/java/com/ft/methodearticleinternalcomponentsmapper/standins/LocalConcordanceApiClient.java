@@ -0,0 +1,23 @@
+package com.ft.methodearticleinternalcomponentsmapper.standins;
+
+import com.ft.methodearticleinternalcomponentsmapper.clients.ConcordanceApiClient;
+import com.ft.methodearticleinternalcomponentsmapper.model.concordance.Concordances;
+import com.sun.jersey.api.client.Client;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Stands in for the Public Concordances API, answering in-process that no company is concorded.
+ */
+public class LocalConcordanceApiClient extends ConcordanceApiClient {
+
+    public LocalConcordanceApiClient(Client client) {
+        super(client, "localhost", 80, "/concordances", "public-concordances-api");
+    }
+
+    @Override
+    public Concordances getConcordancesByIdentifierValues(List<String> identifierValues) {
+        return new Concordances(Collections.emptyList());
+    }
+}
@@ -0,0 +1,37 @@
+package com.ft.methodearticleinternalcomponentsmapper.standins;
+
+import com.ft.methodearticleinternalcomponentsmapper.clients.DocumentStoreApiClient;
+import com.ft.methodearticleinternalcomponentsmapper.model.Content;
+import com.sun.jersey.api.client.Client;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Stands in for the Document Store API, answering in-process that every UUID is present and is an article, and
+ * resolving each identifier to a UUID derived from it.
+ */
+public class LocalDocumentStoreApiClient extends DocumentStoreApiClient {
+
+    public LocalDocumentStoreApiClient(Client client) {
+        super(client, "localhost", 80, "document-store-api");
+    }
+
+    @Override
+    public String resolveUUID(String identifierAuthority, String identifierValue, String transactionId) {
+        return UUID.nameUUIDFromBytes(identifierValue.getBytes(StandardCharsets.UTF_8)).toString();
+    }
+
+    @Override
+    public boolean isUUIDPresent(String uuid, String transactionId) {
+        return true;
+    }
+
+    @Override
+    public List<Content> getContentForUuids(Collection<String> uuids, String transactionId) {
+        return uuids.stream().map(uuid -> new Content(uuid, "Article")).collect(Collectors.toList());
+    }
+}
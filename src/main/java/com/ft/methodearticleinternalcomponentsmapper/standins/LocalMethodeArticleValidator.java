@@ -0,0 +1,24 @@
+package com.ft.methodearticleinternalcomponentsmapper.standins;
+
+import com.ft.methodearticleinternalcomponentsmapper.model.EomFile;
+import com.ft.methodearticleinternalcomponentsmapper.validation.MethodeArticleValidator;
+import com.ft.methodearticleinternalcomponentsmapper.validation.PublishingStatus;
+import com.sun.jersey.api.client.Client;
+
+import java.net.URI;
+
+/**
+ * Stands in for the Methode article and content placeholder mappers, answering in-process that every article is
+ * valid.
+ */
+public class LocalMethodeArticleValidator extends MethodeArticleValidator {
+
+    public LocalMethodeArticleValidator(Client client) {
+        super(client, URI.create("http://localhost/map"), "methode-article-mapper");
+    }
+
+    @Override
+    public PublishingStatus getPublishingStatus(EomFile eomFile, String transactionId, Boolean preview) {
+        return PublishingStatus.VALID;
+    }
+}
@@ -0,0 +1,73 @@
+package com.ft.methodearticleinternalcomponentsmapper.standins;
+
+import com.ft.methodearticleinternalcomponentsmapper.RemoteDependencies;
+import com.ft.methodearticleinternalcomponentsmapper.transformation.InternalComponentsMapper;
+import com.ft.methodearticleinternalcomponentsmapper.validation.MethodeArticleValidator;
+import com.sun.jersey.api.client.Client;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-process stand-ins for every service the mapper calls, so that articles can be mapped with no network: either
+ * local ones, by which every article is valid, all linked content exists and is an article, and no company is
+ * concorded, or ones which replay the answers recorded from the live services.
+ */
+public final class LocalStandIns {
+
+    private static final List<String> SOURCE_CODES = Arrays.asList(InternalComponentsMapper.SourceCode.FT,
+            InternalComponentsMapper.SourceCode.CONTENT_PLACEHOLDER, InternalComponentsMapper.SourceCode.DYNAMIC_CONTENT);
+
+    private LocalStandIns() {
+    }
+
+    /**
+     * @param client the client the stand-ins are built on, which they make no calls with.
+     */
+    public static RemoteDependencies remoteDependencies(Client client) {
+        MethodeArticleValidator validator = new LocalMethodeArticleValidator(client);
+        Map<String, MethodeArticleValidator> articleValidators = new HashMap<>();
+        for (String sourceCode : SOURCE_CODES) {
+            articleValidators.put(sourceCode, validator);
+        }
+
+        return new RemoteDependencies(articleValidators, new LocalDocumentStoreApiClient(client),
+                new LocalConcordanceApiClient(client));
+    }
+
+    /**
+     * @return the dependencies given, recording what the services answer them, with the same health checks.
+     */
+    public static RemoteDependencies recording(RemoteDependencies live, RecordedExchanges recorded) {
+        Map<String, MethodeArticleValidator> articleValidators = new HashMap<>();
+        live.getArticleValidators().forEach((sourceCode, validator) ->
+                articleValidators.put(sourceCode, new RecordingMethodeArticleValidator(validator, sourceCode, recorded)));
+
+        return new RemoteDependencies(articleValidators,
+                new RecordingDocumentStoreApiClient(live.getDocumentStoreApiClient(), recorded),
+                new RecordingConcordanceApiClient(live.getConcordanceApiClient(), recorded),
+                live.getHealthChecks());
+    }
+
+    /**
+     * @param client                 the client the stand-ins are built on, which they make no calls with.
+     * @param latencyMillis          how long each call takes, or <code>null</code> for as long as it took when
+     *                               recorded.
+     * @param answerUnrecordedLocally whether questions which were not recorded are answered as by
+     *                               {@link #remoteDependencies(Client)}, rather than failing the call.
+     */
+    public static RemoteDependencies replaying(Client client, RecordedExchanges recorded, Long latencyMillis,
+                                               boolean answerUnrecordedLocally) {
+        Map<String, MethodeArticleValidator> articleValidators = new HashMap<>();
+        for (String sourceCode : SOURCE_CODES) {
+            articleValidators.put(sourceCode,
+                    new ReplayingMethodeArticleValidator(client, sourceCode, recorded, latencyMillis, answerUnrecordedLocally));
+        }
+
+        return new RemoteDependencies(articleValidators,
+                new ReplayingDocumentStoreApiClient(client, recorded, latencyMillis, answerUnrecordedLocally),
+                new ReplayingConcordanceApiClient(client, recorded, latencyMillis, answerUnrecordedLocally));
+    }
+}
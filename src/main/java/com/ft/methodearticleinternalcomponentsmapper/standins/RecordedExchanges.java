@@ -0,0 +1,131 @@
+package com.ft.methodearticleinternalcomponentsmapper.standins;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.NullNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The answers of the services the mapper calls, recorded by the recording stand-ins and served again by the replaying
+ * ones, each with how long the call which got it took. Only the first answer to each question is kept, so that a
+ * question answered again from a cache does not replace the time the remote call took.
+ * <p>
+ * They are saved as a line of JSON per question, in order of the questions, to a file which is gzipped if its name
+ * ends with <code>.gz</code>.
+ */
+public class RecordedExchanges {
+
+    private static final String QUESTION = "question";
+    private static final String MICROS = "micros";
+    private static final String ANSWER = "answer";
+
+    private final ObjectMapper objectMapper;
+    private final ConcurrentMap<String, Exchange> exchanges = new ConcurrentHashMap<>();
+    private final AtomicLong unrecorded = new AtomicLong();
+
+    public RecordedExchanges(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public static RecordedExchanges load(Path path, ObjectMapper objectMapper) throws IOException {
+        RecordedExchanges recorded = new RecordedExchanges(objectMapper);
+        try (InputStream in = open(path)) {
+            MappingIterator<JsonNode> lines = objectMapper.reader(JsonNode.class).readValues(in);
+            while (lines.hasNextValue()) {
+                JsonNode line = lines.nextValue();
+                recorded.exchanges.put(line.path(QUESTION).asText(), new Exchange(line.get(ANSWER), line.path(MICROS).asLong()));
+            }
+        }
+        return recorded;
+    }
+
+    public void save(Path path) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(create(path))) {
+            generator.setRootValueSeparator(null);
+            for (Map.Entry<String, Exchange> exchange : new TreeMap<>(exchanges).entrySet()) {
+                ObjectNode line = objectMapper.createObjectNode();
+                line.put(QUESTION, exchange.getKey());
+                line.put(MICROS, exchange.getValue().micros);
+                line.set(ANSWER, exchange.getValue().answer);
+                generator.writeTree(line);
+                generator.writeRaw('\n');
+            }
+        }
+    }
+
+    /**
+     * @param answer what the service answered, <code>null</code> if it found nothing.
+     */
+    void record(String question, Object answer, long nanos) {
+        exchanges.putIfAbsent(question, new Exchange(objectMapper.valueToTree(answer), TimeUnit.NANOSECONDS.toMicros(nanos)));
+    }
+
+    /**
+     * @return the exchange in which the question was answered, or <code>null</code> if it was not recorded.
+     */
+    Exchange find(String question) {
+        Exchange exchange = exchanges.get(question);
+        if (exchange == null) {
+            unrecorded.incrementAndGet();
+        }
+        return exchange;
+    }
+
+    <T> T answer(Exchange exchange, TypeReference<T> type) {
+        return objectMapper.convertValue(exchange.answer, type);
+    }
+
+    public int size() {
+        return exchanges.size();
+    }
+
+    /**
+     * @return the number of questions asked of the replaying stand-ins which had not been recorded.
+     */
+    public long getUnrecorded() {
+        return unrecorded.get();
+    }
+
+    private static InputStream open(Path path) throws IOException {
+        InputStream in = new BufferedInputStream(Files.newInputStream(path));
+        return path.getFileName().toString().endsWith(".gz") ? new GZIPInputStream(in) : in;
+    }
+
+    private static OutputStream create(Path path) throws IOException {
+        OutputStream out = new BufferedOutputStream(Files.newOutputStream(path));
+        return path.getFileName().toString().endsWith(".gz") ? new GZIPOutputStream(out) : out;
+    }
+
+    static class Exchange {
+        private final JsonNode answer;
+        private final long micros;
+
+        private Exchange(JsonNode answer, long micros) {
+            this.answer = answer == null ? NullNode.getInstance() : answer;
+            this.micros = micros;
+        }
+
+        long getMicros() {
+            return micros;
+        }
+    }
+}
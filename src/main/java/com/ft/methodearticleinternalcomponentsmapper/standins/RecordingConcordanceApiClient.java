@@ -0,0 +1,49 @@
+package com.ft.methodearticleinternalcomponentsmapper.standins;
+
+import com.ft.methodearticleinternalcomponentsmapper.clients.ConcordanceApiClient;
+import com.ft.methodearticleinternalcomponentsmapper.model.concordance.Concordance;
+import com.ft.methodearticleinternalcomponentsmapper.model.concordance.Concordances;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Records the concordances a {@link ConcordanceApiClient} answers for each TME identifier value, including that a
+ * value is not concorded.
+ */
+public class RecordingConcordanceApiClient extends ConcordanceApiClient {
+
+    private final ConcordanceApiClient client;
+    private final RecordedExchanges recorded;
+
+    public RecordingConcordanceApiClient(ConcordanceApiClient client, RecordedExchanges recorded) {
+        super(client.getJerseyClient(), client.getApiHost(), client.getApiPort(), client.getApiPath(), client.getHostHeader());
+        this.client = client;
+        this.recorded = recorded;
+    }
+
+    @Override
+    public Concordances getConcordancesByIdentifierValues(List<String> identifierValues) {
+        long start = System.nanoTime();
+        Concordances answer = client.getConcordancesByIdentifierValues(identifierValues);
+        long nanos = System.nanoTime() - start;
+
+        Map<String, List<Concordance>> concorded = new HashMap<>();
+        if (answer != null && answer.getConcordances() != null) {
+            for (Concordance concordance : answer.getConcordances()) {
+                String identifierValue = concordance.getIdentifier() == null ? null : concordance.getIdentifier().getIdentifierValue();
+                concorded.computeIfAbsent(identifierValue, value -> new ArrayList<>()).add(concordance);
+            }
+        }
+        for (String identifierValue : identifierValues) {
+            recorded.record(concordancesQuestion(identifierValue), concorded.getOrDefault(identifierValue, new ArrayList<>()), nanos);
+        }
+        return answer;
+    }
+
+    static String concordancesQuestion(String identifierValue) {
+        return "concordance/" + identifierValue;
+    }
+}
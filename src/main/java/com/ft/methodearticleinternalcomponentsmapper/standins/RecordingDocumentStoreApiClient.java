@@ -0,0 +1,77 @@
+package com.ft.methodearticleinternalcomponentsmapper.standins;
+
+import com.ft.methodearticleinternalcomponentsmapper.clients.DocumentStoreApiClient;
+import com.ft.methodearticleinternalcomponentsmapper.exception.TransientUuidResolverException;
+import com.ft.methodearticleinternalcomponentsmapper.model.Content;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Records the answers of a {@link DocumentStoreApiClient}: the UUID resolved from each identifier, whether each UUID
+ * is present, and the content of each UUID. An identifier the Document Store has no UUID for, and a UUID it has no
+ * content for, are recorded as such; failures are not recorded.
+ */
+public class RecordingDocumentStoreApiClient extends DocumentStoreApiClient {
+
+    private final DocumentStoreApiClient client;
+    private final RecordedExchanges recorded;
+
+    public RecordingDocumentStoreApiClient(DocumentStoreApiClient client, RecordedExchanges recorded) {
+        super(client.getJerseyClient(), client.getApiHost(), client.getApiPort(), client.getHostHeader());
+        this.client = client;
+        this.recorded = recorded;
+    }
+
+    @Override
+    public String resolveUUID(String identifierAuthority, String identifierValue, String transactionId) {
+        long start = System.nanoTime();
+        String uuid;
+        try {
+            uuid = client.resolveUUID(identifierAuthority, identifierValue, transactionId);
+        } catch (TransientUuidResolverException e) {
+            recorded.record(resolvedUuidQuestion(identifierAuthority, identifierValue), null, System.nanoTime() - start);
+            throw e;
+        }
+        recorded.record(resolvedUuidQuestion(identifierAuthority, identifierValue), uuid, System.nanoTime() - start);
+        return uuid;
+    }
+
+    @Override
+    public boolean isUUIDPresent(String uuid, String transactionId) {
+        long start = System.nanoTime();
+        boolean present = client.isUUIDPresent(uuid, transactionId);
+        recorded.record(presentUuidQuestion(uuid), present, System.nanoTime() - start);
+        return present;
+    }
+
+    @Override
+    public List<Content> getContentForUuids(Collection<String> uuids, String transactionId) {
+        long start = System.nanoTime();
+        List<Content> contents = client.getContentForUuids(uuids, transactionId);
+        long nanos = System.nanoTime() - start;
+
+        Map<String, Content> byUuid = new HashMap<>();
+        for (Content content : contents) {
+            byUuid.putIfAbsent(content.getUuid(), content);
+        }
+        for (String uuid : uuids) {
+            recorded.record(contentQuestion(uuid), byUuid.get(uuid), nanos);
+        }
+        return contents;
+    }
+
+    static String resolvedUuidQuestion(String identifierAuthority, String identifierValue) {
+        return "document-store/resolved-uuid/" + identifierAuthority + "/" + identifierValue;
+    }
+
+    static String presentUuidQuestion(String uuid) {
+        return "document-store/present-uuid/" + uuid;
+    }
+
+    static String contentQuestion(String uuid) {
+        return "document-store/content/" + uuid;
+    }
+}
@@ -0,0 +1,37 @@
+package com.ft.methodearticleinternalcomponentsmapper.standins;
+
+import com.ft.methodearticleinternalcomponentsmapper.messaging.UnchangedContentCache;
+import com.ft.methodearticleinternalcomponentsmapper.model.EomFile;
+import com.ft.methodearticleinternalcomponentsmapper.validation.MethodeArticleValidator;
+import com.ft.methodearticleinternalcomponentsmapper.validation.PublishingStatus;
+
+/**
+ * Records the publishing status a {@link MethodeArticleValidator} answers for each article, by its UUID and the hash of
+ * its content, so that the article is not answered from the recording once it has changed.
+ */
+public class RecordingMethodeArticleValidator extends MethodeArticleValidator {
+
+    private final MethodeArticleValidator validator;
+    private final String sourceCode;
+    private final RecordedExchanges recorded;
+
+    public RecordingMethodeArticleValidator(MethodeArticleValidator validator, String sourceCode, RecordedExchanges recorded) {
+        super(null, null, null);
+        this.validator = validator;
+        this.sourceCode = sourceCode;
+        this.recorded = recorded;
+    }
+
+    @Override
+    public PublishingStatus getPublishingStatus(EomFile eomFile, String transactionId, Boolean preview) {
+        long start = System.nanoTime();
+        PublishingStatus status = validator.getPublishingStatus(eomFile, transactionId, preview);
+        recorded.record(publishingStatusQuestion(sourceCode, eomFile, preview), status, System.nanoTime() - start);
+        return status;
+    }
+
+    static String publishingStatusQuestion(String sourceCode, EomFile eomFile, Boolean preview) {
+        return "methode-article-validator/" + sourceCode + "/" + eomFile.getUuid() + "?preview=" + preview
+                + "&content=" + UnchangedContentCache.hash(eomFile);
+    }
+}
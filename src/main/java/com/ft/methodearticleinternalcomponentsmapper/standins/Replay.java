@@ -0,0 +1,77 @@
+package com.ft.methodearticleinternalcomponentsmapper.standins;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.ft.methodearticleinternalcomponentsmapper.clients.RemoteWaitTime;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Answers the questions of a call from the recorded exchanges, after waiting as long as the slowest of them took when
+ * it was recorded, or for a fixed latency. A question which was not recorded fails the call with an
+ * {@link UnrecordedExchangeException}, or, if asked to, is answered by a local stand-in.
+ */
+class Replay {
+
+    private final RecordedExchanges recorded;
+    private final Long latencyMillis;
+    private final boolean answerUnrecorded;
+
+    /**
+     * @param latencyMillis    how long each call takes, or <code>null</code> for as long as it took when recorded.
+     * @param answerUnrecorded whether questions which were not recorded are answered locally rather than failed.
+     */
+    Replay(RecordedExchanges recorded, Long latencyMillis, boolean answerUnrecorded) {
+        this.recorded = recorded;
+        this.latencyMillis = latencyMillis;
+        this.answerUnrecorded = answerUnrecorded;
+    }
+
+    <T> T answer(String question, TypeReference<T> type, Supplier<T> unrecorded) {
+        return answers(Collections.singleton(question), Function.identity(), type, item -> unrecorded.get()).get(question);
+    }
+
+    /**
+     * @return the answer to the question about each item, in the order of the items.
+     * @throws UnrecordedExchangeException if a question was not recorded and is not to be answered locally.
+     */
+    <T> Map<String, T> answers(Collection<String> items, Function<String, String> question, TypeReference<T> type,
+                               Function<String, T> unrecorded) {
+        Map<String, T> answers = new LinkedHashMap<>();
+        long recordedMicros = 0;
+        for (String item : items) {
+            String asked = question.apply(item);
+            RecordedExchanges.Exchange exchange = recorded.find(asked);
+            if (exchange == null) {
+                if (!answerUnrecorded) {
+                    throw new UnrecordedExchangeException(asked);
+                }
+                answers.put(item, unrecorded.apply(item));
+            } else {
+                answers.put(item, recorded.answer(exchange, type));
+                recordedMicros = Math.max(recordedMicros, exchange.getMicros());
+            }
+        }
+        await(latencyMillis == null ? recordedMicros : TimeUnit.MILLISECONDS.toMicros(latencyMillis));
+        return answers;
+    }
+
+    private static void await(long micros) {
+        if (micros <= 0) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            TimeUnit.MICROSECONDS.sleep(micros);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            RemoteWaitTime.add(System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.ft.methodearticleinternalcomponentsmapper.standins;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.ft.methodearticleinternalcomponentsmapper.clients.ConcordanceApiClient;
+import com.ft.methodearticleinternalcomponentsmapper.model.concordance.Concordance;
+import com.ft.methodearticleinternalcomponentsmapper.model.concordance.Concordances;
+import com.sun.jersey.api.client.Client;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Answers the concordances recorded for each TME identifier value, and for a value which was not recorded either fails
+ * or answers that it is not concorded.
+ */
+public class ReplayingConcordanceApiClient extends ConcordanceApiClient {
+
+    private static final TypeReference<List<Concordance>> CONCORDANCES = new TypeReference<List<Concordance>>() {
+    };
+
+    private final Replay replay;
+
+    public ReplayingConcordanceApiClient(Client client, RecordedExchanges recorded, Long latencyMillis,
+                                         boolean answerUnrecorded) {
+        super(client, "localhost", 80, "/concordances", "public-concordances-api");
+        this.replay = new Replay(recorded, latencyMillis, answerUnrecorded);
+    }
+
+    @Override
+    public Concordances getConcordancesByIdentifierValues(List<String> identifierValues) {
+        List<Concordance> result = new ArrayList<>();
+        if (identifierValues.isEmpty()) {
+            return new Concordances(result);
+        }
+
+        for (List<Concordance> concorded : replay.answers(new LinkedHashSet<>(identifierValues),
+                RecordingConcordanceApiClient::concordancesQuestion, CONCORDANCES, value -> Collections.emptyList()).values()) {
+            if (concorded != null) {
+                result.addAll(concorded);
+            }
+        }
+        return new Concordances(result);
+    }
+}
@@ -0,0 +1,70 @@
+package com.ft.methodearticleinternalcomponentsmapper.standins;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.ft.methodearticleinternalcomponentsmapper.clients.DocumentStoreApiClient;
+import com.ft.methodearticleinternalcomponentsmapper.exception.TransientUuidResolverException;
+import com.ft.methodearticleinternalcomponentsmapper.exception.UuidResolverException;
+import com.ft.methodearticleinternalcomponentsmapper.model.Content;
+import com.sun.jersey.api.client.Client;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Answers what the Document Store API answered when recorded, and either fails questions which were not recorded or
+ * answers them as {@link LocalDocumentStoreApiClient} does.
+ */
+public class ReplayingDocumentStoreApiClient extends DocumentStoreApiClient {
+
+    private static final TypeReference<String> UUID = new TypeReference<String>() {
+    };
+    private static final TypeReference<Boolean> PRESENT = new TypeReference<Boolean>() {
+    };
+    private static final TypeReference<Content> CONTENT = new TypeReference<Content>() {
+    };
+
+    private final Replay replay;
+    private final LocalDocumentStoreApiClient unrecorded;
+
+    public ReplayingDocumentStoreApiClient(Client client, RecordedExchanges recorded, Long latencyMillis,
+                                           boolean answerUnrecorded) {
+        super(client, "localhost", 80, "document-store-api");
+        this.unrecorded = new LocalDocumentStoreApiClient(client);
+        this.replay = new Replay(recorded, latencyMillis, answerUnrecorded);
+    }
+
+    @Override
+    public String resolveUUID(String identifierAuthority, String identifierValue, String transactionId) {
+        if (identifierAuthority == null || identifierValue == null) {
+            throw new UuidResolverException("Neither the identifierAuthority nor identifierValue should be null!");
+        }
+
+        String uuid = replay.answer(RecordingDocumentStoreApiClient.resolvedUuidQuestion(identifierAuthority, identifierValue),
+                UUID, () -> unrecorded.resolveUUID(identifierAuthority, identifierValue, transactionId));
+        if (uuid == null) {
+            throw new TransientUuidResolverException("Document Store API found no uuid for identifierAuthority="
+                    + identifierAuthority + " identifierValue=" + identifierValue + " when recorded", null, identifierValue);
+        }
+        return uuid;
+    }
+
+    @Override
+    public boolean isUUIDPresent(String uuid, String transactionId) {
+        return replay.answer(RecordingDocumentStoreApiClient.presentUuidQuestion(uuid), PRESENT,
+                () -> unrecorded.isUUIDPresent(uuid, transactionId));
+    }
+
+    @Override
+    public List<Content> getContentForUuids(Collection<String> uuids, String transactionId) {
+        Collection<Content> contents = replay.answers(new LinkedHashSet<>(uuids), RecordingDocumentStoreApiClient::contentQuestion,
+                CONTENT, uuid -> unrecorded.getContentForUuids(Collections.singleton(uuid), transactionId).get(0)).values();
+
+        List<Content> found = new ArrayList<>(contents);
+        found.removeIf(Objects::isNull);
+        return found;
+    }
+}
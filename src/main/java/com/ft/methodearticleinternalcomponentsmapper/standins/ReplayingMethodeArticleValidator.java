@@ -0,0 +1,37 @@
+package com.ft.methodearticleinternalcomponentsmapper.standins;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.ft.methodearticleinternalcomponentsmapper.model.EomFile;
+import com.ft.methodearticleinternalcomponentsmapper.validation.MethodeArticleValidator;
+import com.ft.methodearticleinternalcomponentsmapper.validation.PublishingStatus;
+import com.sun.jersey.api.client.Client;
+
+import java.net.URI;
+
+/**
+ * Answers the publishing status recorded for each article, as long as it is unchanged since, and if none was either
+ * fails or answers that it is valid.
+ */
+public class ReplayingMethodeArticleValidator extends MethodeArticleValidator {
+
+    private static final TypeReference<PublishingStatus> PUBLISHING_STATUS = new TypeReference<PublishingStatus>() {
+    };
+
+    private final String sourceCode;
+    private final Replay replay;
+    private final LocalMethodeArticleValidator unrecorded;
+
+    public ReplayingMethodeArticleValidator(Client client, String sourceCode, RecordedExchanges recorded,
+                                            Long latencyMillis, boolean answerUnrecorded) {
+        super(client, URI.create("http://localhost/map"), "methode-article-mapper");
+        this.sourceCode = sourceCode;
+        this.unrecorded = new LocalMethodeArticleValidator(client);
+        this.replay = new Replay(recorded, latencyMillis, answerUnrecorded);
+    }
+
+    @Override
+    public PublishingStatus getPublishingStatus(EomFile eomFile, String transactionId, Boolean preview) {
+        return replay.answer(RecordingMethodeArticleValidator.publishingStatusQuestion(sourceCode, eomFile, preview),
+                PUBLISHING_STATUS, () -> unrecorded.getPublishingStatus(eomFile, transactionId, preview));
+    }
+}
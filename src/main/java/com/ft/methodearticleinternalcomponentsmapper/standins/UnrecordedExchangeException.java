@@ -0,0 +1,11 @@
+package com.ft.methodearticleinternalcomponentsmapper.standins;
+
+/**
+ * Thrown by a replaying stand-in asked a question which was not recorded, unless it answers such questions locally.
+ */
+public class UnrecordedExchangeException extends IllegalStateException {
+
+    public UnrecordedExchangeException(String question) {
+        super("No answer was recorded to " + question);
+    }
+}
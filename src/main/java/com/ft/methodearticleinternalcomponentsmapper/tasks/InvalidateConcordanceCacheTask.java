@@ -0,0 +1,38 @@
+package com.ft.methodearticleinternalcomponentsmapper.tasks;
+
+import com.ft.methodearticleinternalcomponentsmapper.clients.CachingConcordanceApiClient;
+import com.google.common.collect.ImmutableCollection;
+import com.google.common.collect.ImmutableMultimap;
+import io.dropwizard.servlets.tasks.Task;
+
+import java.io.PrintWriter;
+
+/**
+ * Forgets the concordances the Concordance API has told the mapper, on
+ * <code>POST /tasks/invalidate-concordance-cache</code> on the admin port: with <code>identifierValue</code>
+ * parameters, those of each TME identifier value, and with none, everything.
+ */
+public class InvalidateConcordanceCacheTask extends Task {
+
+    private final CachingConcordanceApiClient client;
+
+    public InvalidateConcordanceCacheTask(CachingConcordanceApiClient client) {
+        super("invalidate-concordance-cache");
+        this.client = client;
+    }
+
+    @Override
+    public void execute(ImmutableMultimap<String, String> parameters, PrintWriter output) {
+        ImmutableCollection<String> identifierValues = parameters.get("identifierValue");
+        if (identifierValues.isEmpty()) {
+            client.invalidateAll();
+            output.println("Invalidated all entries");
+            return;
+        }
+
+        for (String identifierValue : identifierValues) {
+            client.invalidate(identifierValue);
+            output.println("Invalidated identifierValue=" + identifierValue);
+        }
+    }
+}
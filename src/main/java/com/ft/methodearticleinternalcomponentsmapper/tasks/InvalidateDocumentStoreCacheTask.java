@@ -0,0 +1,55 @@
+package com.ft.methodearticleinternalcomponentsmapper.tasks;
+
+import com.ft.methodearticleinternalcomponentsmapper.clients.CachingDocumentStoreApiClient;
+import com.google.common.collect.ImmutableCollection;
+import com.google.common.collect.ImmutableMultimap;
+import io.dropwizard.servlets.tasks.Task;
+
+import java.io.PrintWriter;
+
+/**
+ * Forgets what the Document Store API has told the mapper, on <code>POST /tasks/invalidate-document-store-cache</code>
+ * on the admin port:
+ * <ul>
+ * <li>with <code>uuid</code> parameters, whether each UUID is present and its content;</li>
+ * <li>with <code>identifierAuthority</code> and <code>identifierValue</code>, the UUID resolved from that identifier;</li>
+ * <li>with neither, everything.</li>
+ * </ul>
+ */
+public class InvalidateDocumentStoreCacheTask extends Task {
+
+    private final CachingDocumentStoreApiClient client;
+
+    public InvalidateDocumentStoreCacheTask(CachingDocumentStoreApiClient client) {
+        super("invalidate-document-store-cache");
+        this.client = client;
+    }
+
+    @Override
+    public void execute(ImmutableMultimap<String, String> parameters, PrintWriter output) {
+        ImmutableCollection<String> uuids = parameters.get("uuid");
+        ImmutableCollection<String> authorities = parameters.get("identifierAuthority");
+        ImmutableCollection<String> values = parameters.get("identifierValue");
+
+        if (uuids.isEmpty() && authorities.isEmpty() && values.isEmpty()) {
+            client.invalidateAll();
+            output.println("Invalidated all entries");
+            return;
+        }
+
+        for (String uuid : uuids) {
+            client.invalidate(uuid);
+            output.println("Invalidated uuid=" + uuid);
+        }
+        if (authorities.size() != values.size()) {
+            output.println("identifierAuthority and identifierValue must be given in pairs; no identifiers invalidated");
+            return;
+        }
+        for (int i = 0; i < authorities.size(); i++) {
+            String authority = authorities.asList().get(i);
+            String value = values.asList().get(i);
+            client.invalidateIdentifier(authority, value);
+            output.println("Invalidated identifierAuthority=" + authority + " identifierValue=" + value);
+        }
+    }
+}
@@ -1,29 +1,34 @@
 package com.ft.methodearticleinternalcomponentsmapper.transformation;
 
+import com.codahale.metrics.MetricRegistry;
 import com.ft.bodyprocessing.BodyProcessingException;
 import com.ft.bodyprocessing.BodyProcessor;
 import com.ft.bodyprocessing.BodyProcessorChain;
 import com.ft.bodyprocessing.html.Html5SelfClosingTagBodyProcessor;
-import com.ft.bodyprocessing.regex.RegexRemoverBodyProcessor;
-import com.ft.bodyprocessing.regex.RegexReplacerBodyProcessor;
 import com.ft.bodyprocessing.richcontent.VideoMatcher;
 import com.ft.bodyprocessing.xml.StAXTransformingBodyProcessor;
-import com.ft.bodyprocessing.xml.dom.DOMTransformingBodyProcessor;
 import com.ft.bodyprocessing.xml.dom.XPathHandler;
 import com.ft.methodearticleinternalcomponentsmapper.clients.ConcordanceApiClient;
 import com.ft.methodearticleinternalcomponentsmapper.clients.DocumentStoreApiClient;
+import com.ft.methodearticleinternalcomponentsmapper.configuration.BodyProcessingMetricsConfiguration;
+import com.ft.methodearticleinternalcomponentsmapper.configuration.XsltConfiguration;
+import com.ft.methodearticleinternalcomponentsmapper.transformation.FusedRegexBodyProcessor.Rule;
 import com.ft.methodearticleinternalcomponentsmapper.transformation.xslt.ModularXsltBodyProcessor;
 import com.ft.methodearticleinternalcomponentsmapper.transformation.xslt.XsltFile;
+import com.ft.methodearticleinternalcomponentsmapper.xml.XmlInfrastructure;
 import com.google.common.base.Charsets;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.io.Resources;
+import io.dropwizard.util.Duration;
 
 import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
-import static java.util.Arrays.asList;
-
 public class BodyProcessingFieldTransformerFactory implements FieldTransformerFactory {
 
     private DocumentStoreApiClient documentStoreApiClient;
@@ -33,6 +38,10 @@ public class BodyProcessingFieldTransformerFactory implements FieldTransformerFa
     private final Map<String, String> contentTypeTemplates;
     private final String apiHost;
     private String canonicalUrlTemplate;
+    private final XmlInfrastructure xmlInfrastructure;
+    private final XsltConfiguration xsltConfiguration;
+    private final MetricRegistry metrics;
+    private final BodyProcessingMetricsConfiguration metricsConfiguration;
 
     public BodyProcessingFieldTransformerFactory(final DocumentStoreApiClient documentStoreApiClient,
                                                  final VideoMatcher videoMatcher,
@@ -41,6 +50,55 @@ public class BodyProcessingFieldTransformerFactory implements FieldTransformerFa
                                                  final String apiHost,
                                                  ConcordanceApiClient concordanceApiClient,
                                                  String canonicalUrlTemplate) {
+        this(documentStoreApiClient, videoMatcher, interactiveGraphicsMatcher, contentTypeTemplates, apiHost,
+                concordanceApiClient, canonicalUrlTemplate, new XmlInfrastructure(new MetricRegistry()));
+    }
+
+    public BodyProcessingFieldTransformerFactory(final DocumentStoreApiClient documentStoreApiClient,
+                                                 final VideoMatcher videoMatcher,
+                                                 final InteractiveGraphicsMatcher interactiveGraphicsMatcher,
+                                                 final Map<String, String> contentTypeTemplates,
+                                                 final String apiHost,
+                                                 ConcordanceApiClient concordanceApiClient,
+                                                 String canonicalUrlTemplate,
+                                                 XmlInfrastructure xmlInfrastructure) {
+        this(documentStoreApiClient, videoMatcher, interactiveGraphicsMatcher, contentTypeTemplates, apiHost,
+                concordanceApiClient, canonicalUrlTemplate, xmlInfrastructure, null);
+    }
+
+    /**
+     * @param xsltConfiguration where to read the body XSLT files from; if <code>null</code> or without a directory,
+     *                          they are read from the classpath.
+     */
+    public BodyProcessingFieldTransformerFactory(final DocumentStoreApiClient documentStoreApiClient,
+                                                 final VideoMatcher videoMatcher,
+                                                 final InteractiveGraphicsMatcher interactiveGraphicsMatcher,
+                                                 final Map<String, String> contentTypeTemplates,
+                                                 final String apiHost,
+                                                 ConcordanceApiClient concordanceApiClient,
+                                                 String canonicalUrlTemplate,
+                                                 XmlInfrastructure xmlInfrastructure,
+                                                 XsltConfiguration xsltConfiguration) {
+        this(documentStoreApiClient, videoMatcher, interactiveGraphicsMatcher, contentTypeTemplates, apiHost,
+                concordanceApiClient, canonicalUrlTemplate, xmlInfrastructure, xsltConfiguration, null, null);
+    }
+
+    /**
+     * @param metrics                 where the chains from {@link #newInstance()} record the metrics of each stage;
+     *                                if <code>null</code>, they record none.
+     * @param metricsConfiguration    which bodies have their processing recorded.
+     */
+    public BodyProcessingFieldTransformerFactory(final DocumentStoreApiClient documentStoreApiClient,
+                                                 final VideoMatcher videoMatcher,
+                                                 final InteractiveGraphicsMatcher interactiveGraphicsMatcher,
+                                                 final Map<String, String> contentTypeTemplates,
+                                                 final String apiHost,
+                                                 ConcordanceApiClient concordanceApiClient,
+                                                 String canonicalUrlTemplate,
+                                                 XmlInfrastructure xmlInfrastructure,
+                                                 XsltConfiguration xsltConfiguration,
+                                                 MetricRegistry metrics,
+                                                 BodyProcessingMetricsConfiguration metricsConfiguration) {
         this.documentStoreApiClient = documentStoreApiClient;
         this.videoMatcher = videoMatcher;
         this.interactiveGraphicsMatcher = interactiveGraphicsMatcher;
@@ -48,43 +106,102 @@ public class BodyProcessingFieldTransformerFactory implements FieldTransformerFa
         this.apiHost = apiHost;
         xpathHandlers = ImmutableMap.of("//company", new TearSheetLinksTransformer(concordanceApiClient));
         this.canonicalUrlTemplate = canonicalUrlTemplate;
+        this.xmlInfrastructure = xmlInfrastructure;
+        this.xsltConfiguration = xsltConfiguration;
+        this.metrics = metrics;
+        this.metricsConfiguration = metricsConfiguration;
     }
 
     @Override
     public FieldTransformer newInstance() {
-        BodyProcessorChain bodyProcessorChain = new BodyProcessorChain(bodyProcessors());
+        BodyProcessorChain bodyProcessorChain;
+        if (metrics == null || metricsConfiguration == null || metricsConfiguration.getSampleRate() <= 0) {
+            bodyProcessorChain = new BodyProcessorChain(bodyProcessors());
+        } else {
+            bodyProcessorChain = new InstrumentedBodyProcessorChain(namedBodyProcessors(),
+                    metricsConfiguration.getSampleRate(), metricsConfiguration.isThreadAllocation(), metrics);
+        }
         return new BodyProcessingFieldTransformer(bodyProcessorChain);
     }
 
-    private List<BodyProcessor> bodyProcessors() {
-        return asList(
-                stripByAttributesAndValuesBodyProcessor(),
-                new RegexRemoverBodyProcessor("<em>\\s*</em>"),
-                new RegexRemoverBodyProcessor("<strong>\\s*</strong>"),
-                new RegexRemoverBodyProcessor("<span>\\s*</span>"),
-                new RegexRemoverBodyProcessor("<b>\\s*</b>"),
-                new RegexRemoverBodyProcessor("<(p|li|h[1-6])[^/>]*>(\\s|(<br\\s*/>))*</(p|li|h[1-6])>"),
-                new RegexRemoverBodyProcessor("<ul[^/]*>\\s*</ul>"),
-                new RegexRemoverBodyProcessor("<caption>\\s*</caption>"),
-                new DOMTransformingBodyProcessor(xpathHandlers),
-                new ImageExtractorBodyProcessor(),
-                new PromoBoxExtractorBodyProcessor(),
-                new DynamicContentExtractorBodyProcessor(),
-                stAXTransformingBodyProcessor(),
-                new MethodeLinksBodyProcessor(documentStoreApiClient, canonicalUrlTemplate),
-                new ModularXsltBodyProcessor(xslts()),
-                ftTagsLinksRewriteBodyProcessor(),
-                new RegexReplacerBodyProcessor("\\.\\s*\\.\\s*\\.\\s*", "\u2026"),
-                new RegexReplacerBodyProcessor("---", "\u2014"),
-                new RegexReplacerBodyProcessor("--", "\u2013"),
-                new RegexReplacerBodyProcessor("</p>(\\s*<br\\s*/>\\s*)*<p>", "</p><p>"),
-                new RegexRemoverBodyProcessor("(<p>)(\\s|(<br\\s*/>))*(</p>)"),
-                new RegexReplacerBodyProcessor("</p>(\\r?\\n)+<p>", "</p>" + System.lineSeparator() + "<p>"),
-                new RegexReplacerBodyProcessor("</p> +<p>", "</p><p>"),
-                new Html5SelfClosingTagBodyProcessor()
+    /**
+     * @return a new set of the body processors, in the order {@link #newInstance()} chains them.
+     */
+    public List<BodyProcessor> bodyProcessors() {
+        return new ArrayList<>(namedBodyProcessors().values());
+    }
+
+    /**
+     * @return a new set of the body processors by the name of the stage they are in the metrics, in the order
+     * {@link #newInstance()} chains them.
+     */
+    public Map<String, BodyProcessor> namedBodyProcessors() {
+        Map<String, BodyProcessor> bodyProcessors = new LinkedHashMap<>();
+        bodyProcessors.put("strip-by-attributes-and-values", stripByAttributesAndValuesBodyProcessor());
+        bodyProcessors.put("empty-elements-remover", emptyElementsRemover());
+        bodyProcessors.put("dom-stage", domStageBodyProcessor());
+        bodyProcessors.put("methode-body-transformation", stAXTransformingBodyProcessor());
+        bodyProcessors.put("methode-links", new MethodeLinksBodyProcessor(documentStoreApiClient, canonicalUrlTemplate));
+        bodyProcessors.put("modular-xslt", modularXsltBodyProcessor());
+        bodyProcessors.put("ft-tags-links-rewrite", ftTagsLinksRewriteBodyProcessor());
+        bodyProcessors.put("typography-and-paragraphs-rewriter", typographyAndParagraphsRewriter());
+        bodyProcessors.put("html5-self-closing-tags", new Html5SelfClosingTagBodyProcessor());
+        return bodyProcessors;
+    }
+
+    private DOMStageBodyProcessor domStageBodyProcessor() {
+        Map<String, DOMProcessingStage> stages = new LinkedHashMap<>();
+        stages.put("xpath-handlers", new XPathHandlingDOMStage(xmlInfrastructure, xpathHandlers));
+        stages.put("image-extractor", new ImageExtractorBodyProcessor(xmlInfrastructure));
+        stages.put("promo-box-extractor", new PromoBoxExtractorBodyProcessor(xmlInfrastructure));
+        stages.put("dynamic-content-extractor", new DynamicContentExtractorBodyProcessor(xmlInfrastructure));
+        return new DOMStageBodyProcessor(xmlInfrastructure, stages);
+    }
+
+    /**
+     * Removes empty inline elements, paragraphs, list items, headings, lists and captions before the DOM stage.
+     */
+    public static FusedRegexBodyProcessor emptyElementsRemover() {
+        return new FusedRegexBodyProcessor(
+                Rule.remove("<em>\\s*</em>", "</em>").named("em"),
+                Rule.remove("<strong>\\s*</strong>", "</strong>").named("strong"),
+                Rule.remove("<span>\\s*</span>", "</span>").named("span"),
+                Rule.remove("<b>\\s*</b>", "</b>").named("b"),
+                Rule.remove("<(p|li|h[1-6])[^/>]*>(\\s|(<br\\s*/>))*</(p|li|h[1-6])>",
+                        "</p>", "</li>", "</h1>", "</h2>", "</h3>", "</h4>", "</h5>", "</h6>").named("p-li-headings"),
+                Rule.remove("<ul[^/]*>\\s*</ul>", "</ul>").named("ul"),
+                Rule.remove("<caption>\\s*</caption>", "</caption>").named("caption")
+        );
+    }
+
+    /**
+     * Replaces ellipses and dashes with their typographic characters and tidies up the space between paragraphs
+     * after the XSLT stage.
+     */
+    public static FusedRegexBodyProcessor typographyAndParagraphsRewriter() {
+        return new FusedRegexBodyProcessor(
+                Rule.replace("\\.\\s*\\.\\s*\\.\\s*", "\u2026", ".").named("ellipsis"),
+                Rule.replace("---", "\u2014", "---").named("em-dash"),
+                Rule.replace("--", "\u2013", "--").named("en-dash"),
+                Rule.replace("</p>(\\s*<br\\s*/>\\s*)*<p>", "</p><p>", "</p>").named("breaks-between-paragraphs"),
+                Rule.remove("(<p>)(\\s|(<br\\s*/>))*(</p>)", "</p>").named("empty-paragraphs"),
+                Rule.replace("</p>(\\r?\\n)+<p>", "</p>" + System.lineSeparator() + "<p>", "</p>\n", "</p>\r")
+                        .named("newlines-between-paragraphs"),
+                Rule.replace("</p> +<p>", "</p><p>", "</p> ").named("spaces-between-paragraphs")
         );
     }
 
+    private BodyProcessor modularXsltBodyProcessor() {
+        if (xsltConfiguration == null || xsltConfiguration.getDirectory() == null) {
+            return new ModularXsltBodyProcessor(xslts());
+        }
+
+        Path directory = Paths.get(xsltConfiguration.getDirectory());
+        Duration reloadInterval = xsltConfiguration.getReloadInterval();
+        return new ModularXsltBodyProcessor(reloadInterval == null ? 0 : reloadInterval.toMilliseconds(),
+                XsltFile.fromPath("related", directory.resolve("related.xslt")));
+    }
+
     private XsltFile[] xslts() {
         try {
             String related = loadResource("xslt/related.xslt");
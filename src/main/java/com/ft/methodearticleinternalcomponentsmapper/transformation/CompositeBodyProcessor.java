@@ -0,0 +1,49 @@
+package com.ft.methodearticleinternalcomponentsmapper.transformation;
+
+import com.ft.bodyprocessing.BodyProcessingContext;
+import com.ft.bodyprocessing.BodyProcessingException;
+import com.ft.bodyprocessing.BodyProcessor;
+
+import java.util.List;
+
+/**
+ * A {@link BodyProcessor} which runs several stages of its own, and can tell when each of them starts and ends so that
+ * {@link InstrumentedBodyProcessorChain} records them one by one.
+ */
+public interface CompositeBodyProcessor extends BodyProcessor {
+
+    /**
+     * @return the names of the stages, in the order they run.
+     */
+    List<String> getStageNames();
+
+    /**
+     * Processes the body as {@link #process(String, BodyProcessingContext)} does, telling <code>listener</code> when
+     * each stage starts and ends.
+     */
+    String process(String body, BodyProcessingContext bodyProcessingContext, StageListener listener)
+            throws BodyProcessingException;
+
+    interface StageListener {
+
+        StageListener NONE = new StageListener() {
+            @Override
+            public void stageStarted(int stage) {
+            }
+
+            @Override
+            public void stageEnded(int stage) {
+            }
+        };
+
+        /**
+         * @param stage the index of the stage in {@link #getStageNames()}.
+         */
+        void stageStarted(int stage);
+
+        /**
+         * @param stage the index of the stage in {@link #getStageNames()}.
+         */
+        void stageEnded(int stage);
+    }
+}
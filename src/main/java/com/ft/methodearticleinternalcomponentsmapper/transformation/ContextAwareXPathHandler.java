@@ -0,0 +1,14 @@
+package com.ft.methodearticleinternalcomponentsmapper.transformation;
+
+import com.ft.bodyprocessing.BodyProcessingContext;
+import com.ft.bodyprocessing.xml.dom.XPathHandler;
+import org.w3c.dom.Document;
+import org.w3c.dom.NodeList;
+
+/**
+ * An {@link XPathHandler} which {@link XPathHandlingDOMStage} also gives the body processing context.
+ */
+public interface ContextAwareXPathHandler extends XPathHandler {
+
+    void handle(Document document, NodeList nodes, BodyProcessingContext bodyProcessingContext);
+}
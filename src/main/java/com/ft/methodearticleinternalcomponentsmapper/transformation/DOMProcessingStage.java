@@ -0,0 +1,15 @@
+package com.ft.methodearticleinternalcomponentsmapper.transformation;
+
+import com.ft.bodyprocessing.BodyProcessingContext;
+import com.ft.bodyprocessing.BodyProcessingException;
+import org.w3c.dom.Document;
+
+/**
+ * A body processing step that mutates an already parsed body <code>Document</code> in place.
+ * Adjacent stages are run by a single {@link DOMStageBodyProcessor}, so the body is only
+ * parsed and serialized once for all of them.
+ */
+public interface DOMProcessingStage {
+
+    void process(Document document, BodyProcessingContext bodyProcessingContext) throws BodyProcessingException;
+}
@@ -0,0 +1,114 @@
+package com.ft.methodearticleinternalcomponentsmapper.transformation;
+
+import com.codahale.metrics.MetricRegistry;
+import com.ft.bodyprocessing.BodyProcessingContext;
+import com.ft.bodyprocessing.BodyProcessingException;
+import com.ft.methodearticleinternalcomponentsmapper.xml.XmlInfrastructure;
+import org.apache.commons.lang.StringUtils;
+import org.w3c.dom.Document;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Parses the body once, runs every {@link DOMProcessingStage} against the same <code>Document</code>
+ * and serializes the result once.
+ * <p>
+ * The document is normalized between stages, so that each stage sees the same tree it would have got
+ * from re-parsing the output of the previous one (i.e. no adjacent or empty text nodes).
+ * <p>
+ * As a {@link CompositeBodyProcessor}, each stage is reported on its own; parsing, normalizing and serializing are
+ * not part of any stage.
+ */
+public class DOMStageBodyProcessor implements CompositeBodyProcessor {
+
+    private final XmlInfrastructure xmlInfrastructure;
+    private final List<String> stageNames = new ArrayList<>();
+    private final List<DOMProcessingStage> stages = new ArrayList<>();
+
+    public DOMStageBodyProcessor(DOMProcessingStage... stages) {
+        this(new XmlInfrastructure(new MetricRegistry()), stages);
+    }
+
+    /**
+     * Names the stages <code>stage-1</code>, <code>stage-2</code>, ... in order.
+     */
+    public DOMStageBodyProcessor(XmlInfrastructure xmlInfrastructure, DOMProcessingStage... stages) {
+        this.xmlInfrastructure = xmlInfrastructure;
+        for (DOMProcessingStage stage : stages) {
+            this.stageNames.add("stage-" + (this.stages.size() + 1));
+            this.stages.add(stage);
+        }
+    }
+
+    /**
+     * @param namedStages the stages by name, in order.
+     */
+    public DOMStageBodyProcessor(XmlInfrastructure xmlInfrastructure, Map<String, DOMProcessingStage> namedStages) {
+        this.xmlInfrastructure = xmlInfrastructure;
+        this.stageNames.addAll(namedStages.keySet());
+        this.stages.addAll(namedStages.values());
+    }
+
+    @Override
+    public List<String> getStageNames() {
+        return stageNames;
+    }
+
+    @Override
+    public String process(String body, BodyProcessingContext bodyProcessingContext) throws BodyProcessingException {
+        return process(body, bodyProcessingContext, StageListener.NONE);
+    }
+
+    @Override
+    public String process(String body, BodyProcessingContext bodyProcessingContext, StageListener listener)
+            throws BodyProcessingException {
+        if (StringUtils.isBlank(body)) {
+            return body;
+        }
+
+        try {
+            Document document = xmlInfrastructure.documentBuilder().parse(new InputSource(new StringReader(body)));
+
+            for (int i = 0; i < stages.size(); i++) {
+                if (i > 0) {
+                    document.normalize();
+                }
+                listener.stageStarted(i);
+                stages.get(i).process(document, bodyProcessingContext);
+                listener.stageEnded(i);
+            }
+
+            return serializeBody(document);
+        } catch (ParserConfigurationException | SAXException | IOException | TransformerException e) {
+            throw new BodyProcessingException(e);
+        }
+    }
+
+    private String serializeBody(Document document) throws TransformerException {
+        Transformer transformer = xmlInfrastructure.transformer();
+        transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "yes");
+        transformer.setOutputProperty(OutputKeys.STANDALONE, "yes");
+
+        DOMSource domSource = new DOMSource(document);
+        StringWriter writer = new StringWriter();
+        StreamResult result = new StreamResult(writer);
+
+        transformer.transform(domSource, result);
+
+        writer.flush();
+        return writer.toString();
+    }
+}
@@ -0,0 +1,174 @@
+package com.ft.methodearticleinternalcomponentsmapper.transformation;
+
+import com.ft.methodearticleinternalcomponentsmapper.xml.StreamingFieldExtractor;
+import org.w3c.dom.Element;
+
+import java.util.List;
+
+/**
+ * The fields of an <code>EomFile</code> used by the mapper, as read by {@link EomFileMetadataExtractor}.
+ * <p>
+ * String fields are never <code>null</code>: a missing field is the empty string, as it would be from XPath.
+ */
+public class EomFileMetadata {
+
+    static final String SOURCE_CODE = "source-code";
+    static final String OVERRIDE_ORIGINAL = "override-original";
+    static final String CONTENT_PACKAGE = "content-package";
+    static final String ARTICLE_IMAGE = "article-image";
+    static final String DESIGN_THEME = "design-theme";
+    static final String DESIGN_LAYOUT = "design-layout";
+    static final String PUSH_NOTIFICATION_COHORT = "push-notification-cohort";
+    static final String ORIGINAL_UUID = "original-uuid";
+    static final String SERVICE_ID = "service-id";
+    static final String REF_FIELD = "ref-field";
+    static final String LIST_ITEM_TYPE = "list-item-type";
+
+    static final String DESIGN_THEME_OLD = "design-theme-old";
+    static final String PUSH_NOTIFICATION_TEXT = "push-notification-text";
+    static final String SUMMARY = "summary";
+    static final String SUMMARY_DISPLAY_POSITION = "summary-display-position";
+    static final String SHORT_TEASER = "short-teaser";
+    static final String PROMOTIONAL_TITLE_VARIANT = "promotional-title-variant";
+    static final String PROMOTIONAL_STANDFIRST_VARIANT = "promotional-standfirst-variant";
+    static final String BODY = "body";
+    static final String MAIN_IMAGE = "main-image";
+    static final String LEAD_IMAGE = "lead-image-";
+    static final String CONTENT_PACKAGE_SEQUENCE = "content-package-sequence";
+    static final String CONTENT_PACKAGE_LABEL = "content-package-label";
+    static final String CONTENT_PACKAGE_NEXT = "content-package-next";
+    static final String TOPPER_LAYOUT = "topper-layout";
+    static final String TOPPER_HEADLINE = "topper-headline";
+    static final String TOPPER_STANDFIRST = "topper-standfirst";
+    static final String TOPPER_BACKGROUND_COLOUR = "topper-background-colour";
+    static final String BLOCKS = "blocks";
+
+    static final String[] LEAD_IMAGE_LABELS = new String[]{"square", "standard", "wide"};
+
+    private final StreamingFieldExtractor.Fields attributes;
+    private final StreamingFieldExtractor.Fields value;
+
+    EomFileMetadata(StreamingFieldExtractor.Fields attributes, StreamingFieldExtractor.Fields value) {
+        this.attributes = attributes;
+        this.value = value;
+    }
+
+    public String getSourceCode() {
+        return attributes.text(SOURCE_CODE);
+    }
+
+    public String getOverrideOriginal() {
+        return attributes.text(OVERRIDE_ORIGINAL);
+    }
+
+    public String getIsContentPackage() {
+        return attributes.text(CONTENT_PACKAGE);
+    }
+
+    public String getArticleImage() {
+        return attributes.text(ARTICLE_IMAGE);
+    }
+
+    public String getDesignTheme() {
+        return attributes.text(DESIGN_THEME);
+    }
+
+    public String getDesignLayout() {
+        return attributes.text(DESIGN_LAYOUT);
+    }
+
+    public String getPushNotificationCohort() {
+        return attributes.text(PUSH_NOTIFICATION_COHORT);
+    }
+
+    public String getOriginalUuid() {
+        return attributes.text(ORIGINAL_UUID);
+    }
+
+    public String getServiceId() {
+        return attributes.text(SERVICE_ID);
+    }
+
+    public String getRefField() {
+        return attributes.text(REF_FIELD);
+    }
+
+    public String getListItemType() {
+        return attributes.text(LIST_ITEM_TYPE);
+    }
+
+    public String getDesignThemeOld() {
+        return value.text(DESIGN_THEME_OLD);
+    }
+
+    public String getPushNotificationText() {
+        return value.text(PUSH_NOTIFICATION_TEXT);
+    }
+
+    public Element getSummary() {
+        return value.element(SUMMARY);
+    }
+
+    public String getSummaryDisplayPosition() {
+        return value.text(SUMMARY_DISPLAY_POSITION);
+    }
+
+    public String getShortTeaser() {
+        return value.text(SHORT_TEASER);
+    }
+
+    public String getPromotionalTitleVariant() {
+        return value.text(PROMOTIONAL_TITLE_VARIANT);
+    }
+
+    public String getPromotionalStandfirstVariant() {
+        return value.text(PROMOTIONAL_STANDFIRST_VARIANT);
+    }
+
+    public Element getBody() {
+        return value.element(BODY);
+    }
+
+    public String getMainImageFileRef() {
+        return value.text(MAIN_IMAGE);
+    }
+
+    /**
+     * @param label one of <code>square</code>, <code>standard</code> or <code>wide</code>.
+     */
+    public String getLeadImageFileRef(String label) {
+        return value.text(LEAD_IMAGE + label);
+    }
+
+    public String getContentPackageSequence() {
+        return value.text(CONTENT_PACKAGE_SEQUENCE);
+    }
+
+    public String getContentPackageLabel() {
+        return value.text(CONTENT_PACKAGE_LABEL);
+    }
+
+    public Element getContentPackageNext() {
+        return value.element(CONTENT_PACKAGE_NEXT);
+    }
+
+    public String getTopperLayout() {
+        return value.text(TOPPER_LAYOUT);
+    }
+
+    public String getTopperHeadline() {
+        return value.text(TOPPER_HEADLINE);
+    }
+
+    public String getTopperStandfirst() {
+        return value.text(TOPPER_STANDFIRST);
+    }
+
+    public String getTopperBackgroundColour() {
+        return value.text(TOPPER_BACKGROUND_COLOUR);
+    }
+
+    public List<Element> getBlocks() {
+        return value.elements(BLOCKS);
+    }
+}
@@ -0,0 +1,143 @@
+package com.ft.methodearticleinternalcomponentsmapper.transformation;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.ft.methodearticleinternalcomponentsmapper.model.EomFile;
+import com.ft.methodearticleinternalcomponentsmapper.xml.StreamingFieldExtractor;
+import com.ft.methodearticleinternalcomponentsmapper.xml.XmlInfrastructure;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamException;
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+
+import static com.ft.methodearticleinternalcomponentsmapper.model.EomFile.OVERRIDE_ORIGINAL_ATTR_XPATH;
+import static com.ft.methodearticleinternalcomponentsmapper.model.EomFile.SOURCE_ATTR_XPATH;
+
+/**
+ * Reads everything the mapper needs from an <code>EomFile</code> with one streaming pass over its attributes and one
+ * over its value. Only the body, summary, content package description and blocks are copied into DOM elements.
+ * <p>
+ * Each pass is timed under <code>EomFileMetadataExtractor.attributes</code> or <code>EomFileMetadataExtractor.value</code>,
+ * and the reading of each of its fields under <code>&lt;pass&gt;.&lt;field&gt;</code>.
+ */
+public class EomFileMetadataExtractor {
+
+    private static final String SUMMARY_TAG_XPATH = "/doc/lead/lead-components/lead-summary";
+    private static final String SHORT_TEASER_TAG_XPATH = "/doc/lead/lead-headline/skybox-headline";
+    private static final String PROMOTIONAL_TITLE_VARIANT_TAG_XPATH = "/doc/lead/web-index-headline-variant/ln";
+    private static final String PROMOTIONAL_STANDFIRST_VARIANT_TAG_XPATH = "/doc/lead/web-stand-first-variant/p";
+    private static final String XPATH_GUID = "/ObjectMetadata/WiresIndexing/serviceid";
+    private static final String XPATH_POST_ID = "/ObjectMetadata/WiresIndexing/ref_field";
+    private static final String XPATH_LIST_ITEM_TYPE = "/ObjectMetadata/WiresIndexing/category";
+    private static final String XPATH_CONTENT_PACKAGE = "/ObjectMetadata/OutputChannels/DIFTcom/isContentPackage";
+    private static final String XPATH_ARTICLE_IMAGE = "/ObjectMetadata/OutputChannels/DIFTcom/DIFTcomArticleImage";
+    private static final String XPATH_DESIGN_THEME_OLD = "/doc/lead/lead-components/content-package/@design-theme";
+    private static final String XPATH_DESIGN_THEME = "/ObjectMetadata/OutputChannels/DIFTcom/DesignTheme";
+    private static final String XPATH_DESIGN_LAYOUT = "/ObjectMetadata/OutputChannels/DIFTcom/DesignLayout";
+    private static final String XPATH_PUSH_NOTIFICATION_COHORT = "/ObjectMetadata/OutputChannels/DIFTcom/pushNotification";
+    private static final String XPATH_PUSH_NOTIFICATION_TEXT = "/doc/lead/push-notification-text/ln";
+    private static final String BLOCKS_XPATH = "/doc/blocks//block";
+    private static final String XPATH_ORIGINAL_UUID = "/ObjectMetadata/EditorialNotes/OriginalUUID";
+    private static final String XPATH_SUMMARY_DISPLAY_POSITION = SUMMARY_TAG_XPATH + "/@display-position";
+    private static final String XPATH_MAIN_IMAGE = "/doc/lead/lead-images/web-master/@fileref";
+    private static final String XPATH_LEAD_IMAGES = "/doc/lead/lead-image-set/lead-image-";
+    private static final String XPATH_CONTENT_PACKAGE_SEQUENCE = "/doc/lead/lead-components/content-package/@sequence";
+    private static final String XPATH_CONTENT_PACKAGE_LABEL = "/doc/lead/lead-components/content-package/@label";
+    private static final String XPATH_CONTENT_PACKAGE_NEXT = "/doc/lead/lead-components/content-package/content-package-next";
+    private static final String XPATH_TOPPER = "/doc/lead/lead-components/topper";
+    private static final String XPATH_TOPPER_LAYOUT = XPATH_TOPPER + "/@layout";
+    private static final String XPATH_TOPPER_HEADLINE = XPATH_TOPPER + "/topper-headline";
+    private static final String XPATH_TOPPER_STANDFIRST = XPATH_TOPPER + "/topper-standfirst";
+    private static final String XPATH_TOPPER_BACKGROUND_COLOUR = XPATH_TOPPER + "/@background-colour";
+    private static final String BODY_TAG_XPATH = "/doc/story/text/body";
+
+    private final StreamingFieldExtractor attributesExtractor;
+    private final StreamingFieldExtractor valueExtractor;
+    private final Timer attributesTimer;
+    private final Timer valueTimer;
+    private final Counter attributesReused;
+
+    public EomFileMetadataExtractor(XmlInfrastructure xmlInfrastructure, MetricRegistry metrics) {
+        attributesExtractor = StreamingFieldExtractor.builder(xmlInfrastructure)
+                .withText(EomFileMetadata.SOURCE_CODE, SOURCE_ATTR_XPATH)
+                .withText(EomFileMetadata.OVERRIDE_ORIGINAL, OVERRIDE_ORIGINAL_ATTR_XPATH)
+                .withText(EomFileMetadata.CONTENT_PACKAGE, XPATH_CONTENT_PACKAGE)
+                .withText(EomFileMetadata.ARTICLE_IMAGE, XPATH_ARTICLE_IMAGE)
+                .withText(EomFileMetadata.DESIGN_THEME, XPATH_DESIGN_THEME)
+                .withText(EomFileMetadata.DESIGN_LAYOUT, XPATH_DESIGN_LAYOUT)
+                .withText(EomFileMetadata.PUSH_NOTIFICATION_COHORT, XPATH_PUSH_NOTIFICATION_COHORT)
+                .withText(EomFileMetadata.ORIGINAL_UUID, XPATH_ORIGINAL_UUID)
+                .withText(EomFileMetadata.SERVICE_ID, XPATH_GUID)
+                .withText(EomFileMetadata.REF_FIELD, XPATH_POST_ID)
+                .withText(EomFileMetadata.LIST_ITEM_TYPE, XPATH_LIST_ITEM_TYPE)
+                .withFieldTimers(metrics, MetricRegistry.name(EomFileMetadataExtractor.class, "attributes"))
+                .build();
+
+        StreamingFieldExtractor.Builder valueExtractorBuilder = StreamingFieldExtractor.builder(xmlInfrastructure)
+                .withText(EomFileMetadata.DESIGN_THEME_OLD, XPATH_DESIGN_THEME_OLD)
+                .withText(EomFileMetadata.PUSH_NOTIFICATION_TEXT, XPATH_PUSH_NOTIFICATION_TEXT)
+                .withElement(EomFileMetadata.SUMMARY, SUMMARY_TAG_XPATH)
+                .withText(EomFileMetadata.SUMMARY_DISPLAY_POSITION, XPATH_SUMMARY_DISPLAY_POSITION)
+                .withText(EomFileMetadata.SHORT_TEASER, SHORT_TEASER_TAG_XPATH)
+                .withText(EomFileMetadata.PROMOTIONAL_TITLE_VARIANT, PROMOTIONAL_TITLE_VARIANT_TAG_XPATH)
+                .withText(EomFileMetadata.PROMOTIONAL_STANDFIRST_VARIANT, PROMOTIONAL_STANDFIRST_VARIANT_TAG_XPATH)
+                .withElement(EomFileMetadata.BODY, BODY_TAG_XPATH)
+                .withText(EomFileMetadata.MAIN_IMAGE, XPATH_MAIN_IMAGE)
+                .withText(EomFileMetadata.CONTENT_PACKAGE_SEQUENCE, XPATH_CONTENT_PACKAGE_SEQUENCE)
+                .withText(EomFileMetadata.CONTENT_PACKAGE_LABEL, XPATH_CONTENT_PACKAGE_LABEL)
+                .withElement(EomFileMetadata.CONTENT_PACKAGE_NEXT, XPATH_CONTENT_PACKAGE_NEXT)
+                .withText(EomFileMetadata.TOPPER_LAYOUT, XPATH_TOPPER_LAYOUT)
+                .withText(EomFileMetadata.TOPPER_HEADLINE, XPATH_TOPPER_HEADLINE)
+                .withText(EomFileMetadata.TOPPER_STANDFIRST, XPATH_TOPPER_STANDFIRST)
+                .withText(EomFileMetadata.TOPPER_BACKGROUND_COLOUR, XPATH_TOPPER_BACKGROUND_COLOUR)
+                .withElements(EomFileMetadata.BLOCKS, BLOCKS_XPATH)
+                .withFieldTimers(metrics, MetricRegistry.name(EomFileMetadataExtractor.class, "value"));
+        for (String label : EomFileMetadata.LEAD_IMAGE_LABELS) {
+            valueExtractorBuilder.withText(EomFileMetadata.LEAD_IMAGE + label, XPATH_LEAD_IMAGES + label + "/@fileref");
+        }
+        valueExtractor = valueExtractorBuilder.build();
+
+        attributesTimer = metrics.timer(MetricRegistry.name(EomFileMetadataExtractor.class, "attributes"));
+        valueTimer = metrics.timer(MetricRegistry.name(EomFileMetadataExtractor.class, "value"));
+        attributesReused = metrics.counter(MetricRegistry.name(EomFileMetadataExtractor.class, "attributes", "reused"));
+    }
+
+    public EomFileMetadata extract(EomFile eomFile) throws XMLStreamException, ParserConfigurationException {
+        return extract(new ParsedEomFile(eomFile));
+    }
+
+    /**
+     * Reads the value of the file, and its attributes unless they have already been read.
+     */
+    public EomFileMetadata extract(ParsedEomFile parsedEomFile) throws XMLStreamException, ParserConfigurationException {
+        StreamingFieldExtractor.Fields attributes = attributes(parsedEomFile);
+
+        StreamingFieldExtractor.Fields value;
+        try (Timer.Context timer = valueTimer.time()) {
+            value = valueExtractor.extract(new ByteArrayInputStream(parsedEomFile.getEomFile().getValue()));
+        }
+
+        return new EomFileMetadata(attributes, value);
+    }
+
+    /**
+     * @return the source code from the attributes of the file, which are kept for {@link #extract(ParsedEomFile)}.
+     */
+    public String extractSourceCode(ParsedEomFile parsedEomFile) throws XMLStreamException, ParserConfigurationException {
+        return attributes(parsedEomFile).text(EomFileMetadata.SOURCE_CODE);
+    }
+
+    private StreamingFieldExtractor.Fields attributes(ParsedEomFile parsedEomFile) throws XMLStreamException, ParserConfigurationException {
+        if (parsedEomFile.getAttributes() != null) {
+            attributesReused.inc();
+            return parsedEomFile.getAttributes();
+        }
+
+        try (Timer.Context timer = attributesTimer.time()) {
+            parsedEomFile.setAttributes(attributesExtractor.extract(new StringReader(parsedEomFile.getEomFile().getAttributes())));
+        }
+        return parsedEomFile.getAttributes();
+    }
+}
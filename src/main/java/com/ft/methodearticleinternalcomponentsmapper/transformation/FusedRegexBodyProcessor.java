@@ -0,0 +1,142 @@
+package com.ft.methodearticleinternalcomponentsmapper.transformation;
+
+import com.ft.bodyprocessing.BodyProcessingContext;
+import com.ft.bodyprocessing.BodyProcessingException;
+import com.ft.bodyprocessing.BodyProcessor;
+import com.ft.bodyprocessing.regex.RegexRemoverBodyProcessor;
+import com.ft.bodyprocessing.regex.RegexReplacerBodyProcessor;
+import com.google.common.base.Strings;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Applies an ordered list of regex rules in a single body processor, giving the same result as a chain of
+ * <code>RegexRemoverBodyProcessor</code>s and <code>RegexReplacerBodyProcessor</code>s.
+ * <p>
+ * Each rule still replaces all of its matches in the output of the rule before it, because a removal can create a
+ * match for a later rule (<code>&lt;p&gt;&lt;em&gt; &lt;/em&gt;&lt;/p&gt;</code> only becomes an empty paragraph once
+ * the empty <code>em</code> has gone), so the rules cannot share a single scan of the body. What is saved is the regex
+ * scan for every rule which cannot match: each rule names literals, one of which must appear in any match, and is
+ * skipped when none of them is in the body. The body is only copied when a rule actually matches.
+ * <p>
+ * As a {@link CompositeBodyProcessor}, each rule is reported as a stage, under its name or else
+ * <code>rule-1</code>, <code>rule-2</code>, ... in order.
+ */
+public class FusedRegexBodyProcessor implements CompositeBodyProcessor {
+
+    private final List<Rule> rules;
+    private final List<String> ruleNames = new ArrayList<>();
+
+    public FusedRegexBodyProcessor(Rule... rules) {
+        this.rules = Arrays.asList(rules);
+        for (Rule rule : rules) {
+            ruleNames.add(rule.name == null ? "rule-" + (ruleNames.size() + 1) : rule.name);
+        }
+    }
+
+    @Override
+    public List<String> getStageNames() {
+        return ruleNames;
+    }
+
+    @Override
+    public String process(String body, BodyProcessingContext bodyProcessingContext) throws BodyProcessingException {
+        return process(body, bodyProcessingContext, StageListener.NONE);
+    }
+
+    @Override
+    public String process(String body, BodyProcessingContext bodyProcessingContext, StageListener listener)
+            throws BodyProcessingException {
+        if (Strings.isNullOrEmpty(body)) {
+            return body;
+        }
+
+        String result = body;
+        for (int i = 0; i < rules.size(); i++) {
+            listener.stageStarted(i);
+            result = rules.get(i).apply(result);
+            listener.stageEnded(i);
+        }
+        return result;
+    }
+
+    /**
+     * @return the equivalent chain of one processor per rule.
+     */
+    public List<BodyProcessor> asSeparateProcessors() {
+        List<BodyProcessor> processors = new ArrayList<>();
+        for (Rule rule : rules) {
+            processors.add(rule.replacement.isEmpty()
+                    ? new RegexRemoverBodyProcessor(rule.regex)
+                    : new RegexReplacerBodyProcessor(rule.regex, rule.replacement));
+        }
+        return processors;
+    }
+
+    public static class Rule {
+
+        private final String name;
+        private final String regex;
+        private final Pattern pattern;
+        private final String replacement;
+        private final String[] anchors;
+
+        private Rule(String name, String regex, String replacement, String... anchors) {
+            if (anchors.length == 0) {
+                throw new IllegalArgumentException("At least one anchor is needed for " + regex);
+            }
+
+            this.name = name;
+            this.regex = regex;
+            this.pattern = Pattern.compile(regex);
+            this.replacement = replacement;
+            this.anchors = anchors;
+        }
+
+        /**
+         * @param anchors literals, at least one of which is contained in every match of <code>regex</code>.
+         */
+        public static Rule remove(String regex, String... anchors) {
+            return new Rule(null, regex, "", anchors);
+        }
+
+        /**
+         * @param anchors literals, at least one of which is contained in every match of <code>regex</code>.
+         */
+        public static Rule replace(String regex, String replacement, String... anchors) {
+            return new Rule(null, regex, replacement, anchors);
+        }
+
+        /**
+         * @return the same rule, reported as the stage <code>name</code>.
+         */
+        public Rule named(String name) {
+            return new Rule(name, regex, replacement, anchors);
+        }
+
+        String apply(String text) {
+            if (!isAnchored(text)) {
+                return text;
+            }
+
+            Matcher matcher = pattern.matcher(text);
+            if (!matcher.find()) {
+                return text;
+            }
+            return matcher.replaceAll(replacement);
+        }
+
+        private boolean isAnchored(String text) {
+            for (String anchor : anchors) {
+                if (text.contains(anchor)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -1,36 +1,22 @@
 package com.ft.methodearticleinternalcomponentsmapper.transformation;
 
+import com.codahale.metrics.MetricRegistry;
 import com.ft.bodyprocessing.BodyProcessingContext;
 import com.ft.bodyprocessing.BodyProcessingException;
 import com.ft.bodyprocessing.BodyProcessor;
-import org.apache.commons.lang.StringUtils;
+import com.ft.methodearticleinternalcomponentsmapper.xml.XmlInfrastructure;
 import org.w3c.dom.Document;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
-import org.xml.sax.InputSource;
-import org.xml.sax.SAXException;
-
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.transform.OutputKeys;
-import javax.xml.transform.Transformer;
-import javax.xml.transform.TransformerException;
-import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.dom.DOMSource;
-import javax.xml.transform.stream.StreamResult;
+
 import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathExpression;
 import javax.xml.xpath.XPathExpressionException;
-import javax.xml.xpath.XPathFactory;
-import java.io.IOException;
-import java.io.StringReader;
-import java.io.StringWriter;
 import java.util.HashSet;
 import java.util.Set;
 
-public class ImageExtractorBodyProcessor implements BodyProcessor {
+public class ImageExtractorBodyProcessor implements BodyProcessor, DOMProcessingStage {
 
     private static final String A_TAG = "a";
     private static final String IMAGE_SET = "//p/image-set";
@@ -41,16 +27,25 @@ public class ImageExtractorBodyProcessor implements BodyProcessor {
     private static final String IMG_INSIDE_A_TAG = "//p/a/img";
     private static final String IMG = "//p/img";
 
+    private final XmlInfrastructure xmlInfrastructure;
+
+    public ImageExtractorBodyProcessor() {
+        this(new XmlInfrastructure(new MetricRegistry()));
+    }
+
+    public ImageExtractorBodyProcessor(XmlInfrastructure xmlInfrastructure) {
+        this.xmlInfrastructure = xmlInfrastructure;
+    }
+
     @Override
     public String process(String body, BodyProcessingContext bodyProcessingContext) throws BodyProcessingException {
-        if (StringUtils.isBlank(body)) {
-            return body;
-        }
+        return new DOMStageBodyProcessor(xmlInfrastructure, this).process(body, bodyProcessingContext);
+    }
 
+    @Override
+    public void process(Document document, BodyProcessingContext bodyProcessingContext) throws BodyProcessingException {
         try {
-            DocumentBuilder documentBuilder = getDocumentBuilder();
-            Document document = documentBuilder.parse(new InputSource(new StringReader(body)));
-            XPath xPath = XPathFactory.newInstance().newXPath();
+            XPath xPath = xmlInfrastructure.xPath();
 
             simpleParagraphImageExtract(IMAGE_SET, xPath, document);
             simpleParagraphImageExtract(WEB_MASTER, xPath, document);
@@ -59,12 +54,9 @@ public class ImageExtractorBodyProcessor implements BodyProcessor {
             deleteNodeIncludingParentATag(IMG_MISSING_SRC, xPath, document);
             simpleParagraphImageExtract(IMG, xPath, document);
             paragraphImageExtractWithATagDeletion(xPath, document);
-
-            body = serializeBody(document);
-        } catch (ParserConfigurationException | SAXException | IOException | TransformerException | XPathExpressionException e) {
+        } catch (XPathExpressionException e) {
             throw new BodyProcessingException(e);
         }
-        return body;
     }
 
     private void simpleParagraphImageExtract(String expression, XPath xPath, Document document) throws XPathExpressionException {
@@ -125,25 +117,4 @@ public class ImageExtractorBodyProcessor implements BodyProcessor {
             emptyTextNode.getParentNode().removeChild(emptyTextNode);
         }
     }
-
-    private DocumentBuilder getDocumentBuilder() throws ParserConfigurationException {
-        DocumentBuilderFactory builderFactory = DocumentBuilderFactory.newInstance();
-        return builderFactory.newDocumentBuilder();
-    }
-
-    private String serializeBody(Document document) throws TransformerException {
-        TransformerFactory transformerFactory = TransformerFactory.newInstance();
-        Transformer transformer = transformerFactory.newTransformer();
-        transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "yes");
-        transformer.setOutputProperty(OutputKeys.STANDALONE, "yes");
-
-        DOMSource domSource = new DOMSource(document);
-        StringWriter writer = new StringWriter();
-        StreamResult result = new StreamResult(writer);
-
-        transformer.transform(domSource, result);
-
-        writer.flush();
-        return writer.toString();
-    }
 }
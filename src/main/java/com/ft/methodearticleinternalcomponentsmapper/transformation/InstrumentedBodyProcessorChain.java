@@ -0,0 +1,172 @@
+package com.ft.methodearticleinternalcomponentsmapper.transformation;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.ft.bodyprocessing.BodyProcessingContext;
+import com.ft.bodyprocessing.BodyProcessingException;
+import com.ft.bodyprocessing.BodyProcessor;
+import com.ft.bodyprocessing.BodyProcessorChain;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A {@link BodyProcessorChain} which, for a sample of the bodies it processes, records for each of its named stages
+ * how long the stage takes, the sizes in characters of the body it is given and of the one it returns and,
+ * optionally, the bytes it allocates on the calling thread. They are the metrics
+ * <code>InstrumentedBodyProcessorChain.&lt;stage&gt;.time</code>, <code>.input-size</code>, <code>.output-size</code>
+ * and <code>.allocated-bytes</code>, and <code>InstrumentedBodyProcessorChain.sampled</code> counts the bodies
+ * sampled.
+ * <p>
+ * The stages of a {@link CompositeBodyProcessor} stage are also recorded one by one, as
+ * <code>InstrumentedBodyProcessorChain.&lt;stage&gt;.&lt;inner stage&gt;.time</code> and <code>.allocated-bytes</code>.
+ */
+public class InstrumentedBodyProcessorChain extends BodyProcessorChain {
+
+    private final List<Stage> stages = new ArrayList<>();
+    private final double sampleRate;
+    private final Meter sampled;
+
+    /**
+     * @param bodyProcessors the stages of the chain by name, in order.
+     * @param sampleRate     the fraction of bodies whose processing is recorded.
+     * @param threadAllocation whether the bytes each stage allocates are recorded; ignored where the JVM cannot
+     *                         measure them.
+     */
+    public InstrumentedBodyProcessorChain(Map<String, BodyProcessor> bodyProcessors, double sampleRate,
+                                          boolean threadAllocation, MetricRegistry metrics) {
+        super(new ArrayList<>(bodyProcessors.values()));
+        this.sampleRate = sampleRate;
+        this.sampled = metrics.meter(MetricRegistry.name(InstrumentedBodyProcessorChain.class, "sampled"));
+
+        com.sun.management.ThreadMXBean threadMXBean = threadAllocation ? allocationMeasuringThreadMXBean() : null;
+        bodyProcessors.forEach((name, bodyProcessor) -> stages.add(new Stage(name, bodyProcessor, threadMXBean, metrics)));
+    }
+
+    @Override
+    public String process(String body, BodyProcessingContext bodyProcessingContext) throws BodyProcessingException {
+        if (sampleRate <= 0 || (sampleRate < 1 && ThreadLocalRandom.current().nextDouble() >= sampleRate)) {
+            return super.process(body, bodyProcessingContext);
+        }
+
+        sampled.mark();
+        String result = body;
+        for (Stage stage : stages) {
+            result = stage.process(result, bodyProcessingContext);
+        }
+        return result;
+    }
+
+    private static com.sun.management.ThreadMXBean allocationMeasuringThreadMXBean() {
+        java.lang.management.ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        if (!(threadMXBean instanceof com.sun.management.ThreadMXBean)) {
+            return null;
+        }
+
+        com.sun.management.ThreadMXBean allocationMeasuring = (com.sun.management.ThreadMXBean) threadMXBean;
+        if (!allocationMeasuring.isThreadAllocatedMemorySupported()) {
+            return null;
+        }
+        if (!allocationMeasuring.isThreadAllocatedMemoryEnabled()) {
+            allocationMeasuring.setThreadAllocatedMemoryEnabled(true);
+        }
+        return allocationMeasuring;
+    }
+
+    private static class Stage {
+        private final BodyProcessor bodyProcessor;
+        private final com.sun.management.ThreadMXBean threadMXBean;
+        private final Timer time;
+        private final Histogram inputSize;
+        private final Histogram outputSize;
+        private final Histogram allocatedBytes;
+        private final List<InnerStage> innerStages = new ArrayList<>();
+
+        private Stage(String name, BodyProcessor bodyProcessor, com.sun.management.ThreadMXBean threadMXBean, MetricRegistry metrics) {
+            this.bodyProcessor = bodyProcessor;
+            this.threadMXBean = threadMXBean;
+            this.time = metrics.timer(MetricRegistry.name(InstrumentedBodyProcessorChain.class, name, "time"));
+            this.inputSize = metrics.histogram(MetricRegistry.name(InstrumentedBodyProcessorChain.class, name, "input-size"));
+            this.outputSize = metrics.histogram(MetricRegistry.name(InstrumentedBodyProcessorChain.class, name, "output-size"));
+            this.allocatedBytes = threadMXBean == null ? null
+                    : metrics.histogram(MetricRegistry.name(InstrumentedBodyProcessorChain.class, name, "allocated-bytes"));
+
+            if (bodyProcessor instanceof CompositeBodyProcessor) {
+                for (String innerName : ((CompositeBodyProcessor) bodyProcessor).getStageNames()) {
+                    innerStages.add(new InnerStage(name, innerName, threadMXBean, metrics));
+                }
+            }
+        }
+
+        private String process(String body, BodyProcessingContext bodyProcessingContext) {
+            inputSize.update(body == null ? 0 : body.length());
+            long threadId = Thread.currentThread().getId();
+            long allocatedBefore = threadMXBean == null ? 0 : threadMXBean.getThreadAllocatedBytes(threadId);
+
+            String result;
+            Timer.Context timing = time.time();
+            try {
+                if (innerStages.isEmpty()) {
+                    result = bodyProcessor.process(body, bodyProcessingContext);
+                } else {
+                    result = ((CompositeBodyProcessor) bodyProcessor).process(body, bodyProcessingContext,
+                            new InnerStageListener(innerStages, threadMXBean));
+                }
+            } finally {
+                timing.stop();
+            }
+
+            if (threadMXBean != null) {
+                allocatedBytes.update(threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBefore);
+            }
+            outputSize.update(result == null ? 0 : result.length());
+            return result;
+        }
+    }
+
+    private static class InnerStage {
+        private final Timer time;
+        private final Histogram allocatedBytes;
+
+        private InnerStage(String stageName, String name, com.sun.management.ThreadMXBean threadMXBean, MetricRegistry metrics) {
+            this.time = metrics.timer(MetricRegistry.name(InstrumentedBodyProcessorChain.class, stageName, name, "time"));
+            this.allocatedBytes = threadMXBean == null ? null
+                    : metrics.histogram(MetricRegistry.name(InstrumentedBodyProcessorChain.class, stageName, name, "allocated-bytes"));
+        }
+    }
+
+    /**
+     * Records the inner stages of one body as they run.
+     */
+    private static class InnerStageListener implements CompositeBodyProcessor.StageListener {
+        private final List<InnerStage> innerStages;
+        private final com.sun.management.ThreadMXBean threadMXBean;
+        private final long threadId = Thread.currentThread().getId();
+        private Timer.Context timing;
+        private long allocatedBefore;
+
+        private InnerStageListener(List<InnerStage> innerStages, com.sun.management.ThreadMXBean threadMXBean) {
+            this.innerStages = innerStages;
+            this.threadMXBean = threadMXBean;
+        }
+
+        @Override
+        public void stageStarted(int stage) {
+            allocatedBefore = threadMXBean == null ? 0 : threadMXBean.getThreadAllocatedBytes(threadId);
+            timing = innerStages.get(stage).time.time();
+        }
+
+        @Override
+        public void stageEnded(int stage) {
+            timing.stop();
+            if (threadMXBean != null) {
+                innerStages.get(stage).allocatedBytes.update(threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBefore);
+            }
+        }
+    }
+}
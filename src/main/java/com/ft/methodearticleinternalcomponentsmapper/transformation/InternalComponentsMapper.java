@@ -1,5 +1,6 @@
 package com.ft.methodearticleinternalcomponentsmapper.transformation;
 
+import com.codahale.metrics.MetricRegistry;
 import com.ft.bodyprocessing.BodyProcessor;
 import com.ft.methodearticleinternalcomponentsmapper.clients.DocumentStoreApiClient;
 import com.ft.methodearticleinternalcomponentsmapper.exception.DocumentStoreApiException;
@@ -22,47 +23,48 @@ import com.ft.methodearticleinternalcomponentsmapper.model.TableOfContents;
 import com.ft.methodearticleinternalcomponentsmapper.model.Topper;
 import com.ft.methodearticleinternalcomponentsmapper.validation.MethodeArticleValidator;
 import com.ft.methodearticleinternalcomponentsmapper.validation.PublishingStatus;
+import com.ft.methodearticleinternalcomponentsmapper.xml.XPathExpressionRegistry;
+import com.ft.methodearticleinternalcomponentsmapper.xml.XmlInfrastructure;
 import com.ft.uuidutils.DeriveUUID;
 import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.MoreExecutors;
 import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
 import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 
 import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamException;
 import javax.xml.transform.OutputKeys;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerException;
-import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamResult;
-import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathExpressionException;
-import javax.xml.xpath.XPathFactory;
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.StringReader;
 import java.io.StringWriter;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import java.util.regex.Pattern;
 
-import static com.ft.methodearticleinternalcomponentsmapper.model.EomFile.SOURCE_ATTR_XPATH;
-import static com.ft.methodearticleinternalcomponentsmapper.model.EomFile.OVERRIDE_ORIGINAL_ATTR_XPATH ;
 import static com.ft.methodearticleinternalcomponentsmapper.transformation.InternalComponentsMapper.Type.CONTENT_PACKAGE;
 import static com.ft.uuidutils.DeriveUUID.Salts.IMAGE_SET;
 
@@ -70,27 +72,12 @@ public class InternalComponentsMapper {
 
     private static final Logger LOG = LoggerFactory.getLogger(InternalComponentsMapper.class);
 
-    private static final String SUMMARY_TAG_XPATH = "/doc/lead/lead-components/lead-summary";
-    private static final String SHORT_TEASER_TAG_XPATH = "/doc/lead/lead-headline/skybox-headline";
-    private static final String PROMOTIONAL_TITLE_VARIANT_TAG_XPATH = "/doc/lead/web-index-headline-variant/ln";
-    private static final String PROMOTIONAL_STANDFIRST_VARIANT_TAG_XPATH = "/doc/lead/web-stand-first-variant/p";
-    private static final String XPATH_GUID = "ObjectMetadata/WiresIndexing/serviceid";
-    private static final String XPATH_POST_ID = "ObjectMetadata/WiresIndexing/ref_field";
-    private static final String XPATH_LIST_ITEM_TYPE = "ObjectMetadata/WiresIndexing/category";
-    private static final String XPATH_CONTENT_PACKAGE = "/ObjectMetadata/OutputChannels/DIFTcom/isContentPackage";
-    private static final String XPATH_ARTICLE_IMAGE = "/ObjectMetadata/OutputChannels/DIFTcom/DIFTcomArticleImage";
-    private static final String XPATH_DESIGN_THEME_OLD = "/doc/lead/lead-components/content-package/@design-theme";
-    private static final String XPATH_DESIGN_THEME = "/ObjectMetadata/OutputChannels/DIFTcom/DesignTheme";
-    private static final String XPATH_DESIGN_LAYOUT = "/ObjectMetadata/OutputChannels/DIFTcom/DesignLayout";
-    private static final String XPATH_PUSH_NOTIFICATION_COHORT = "/ObjectMetadata/OutputChannels/DIFTcom/pushNotification";
-    private static final String XPATH_PUSH_NOTIFICATION_TEXT = "/doc/lead/push-notification-text/ln";
-    private static final String BLOCKS_XPATH = "/doc/blocks//block";
-    private static final String XPATH_ORIGINAL_UUID = "ObjectMetadata/EditorialNotes/OriginalUUID";
+    private static final String XPATH_BLOCK_NAME = "block-name";
+    private static final String XPATH_BLOCK_HTML_VALUE = "block-html-value";
 
     private static final String NO_PICTURE_FLAG = "No picture";
     private static final String DEFAULT_IMAGE_ATTRIBUTE_DATA_EMBEDDED = "data-embedded";
     private static final String IMAGE_SET_TYPE = "http://www.ft.com/ontology/content/ImageSet";
-    private static final String BODY_TAG_XPATH = "/doc/story/text/body";
     private static final String DEFAULT_DESIGN_THEME = "basic";
     private static final String DEFAULT_DESIGN_LAYOUT = "default";
     private static final String START_BODY = "<body";
@@ -105,12 +92,21 @@ public class InternalComponentsMapper {
     private static final String UUID_REGEX = "^[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}$";
     private static final Pattern UUID_PATTERN = Pattern.compile(UUID_REGEX);
 
+    private static final Map<String, String> BLOCK_FIELD_XPATHS = ImmutableMap.of(
+            "block-name", XPATH_BLOCK_NAME,
+            "block-html-value", XPATH_BLOCK_HTML_VALUE);
+
     private final FieldTransformer bodyTransformer;
     private final BodyProcessor htmlFieldProcessor;
     private final BlogUuidResolver blogUuidResolver;
     private final DocumentStoreApiClient documentStoreApiClient;
     private final Map<String, MethodeArticleValidator> articleValidators;
     private final String apiHost;
+    private final XmlInfrastructure xmlInfrastructure;
+    private final XPathExpressionRegistry xPaths;
+    private final EomFileMetadataExtractor metadataExtractor;
+    private final Executor remoteCallExecutor;
+    private final RemoteLookupsPrefetcher remoteLookupsPrefetcher;
 
     public InternalComponentsMapper(FieldTransformer bodyTransformer,
                                     BodyProcessor htmlFieldProcessor,
@@ -118,37 +114,102 @@ public class InternalComponentsMapper {
                                     DocumentStoreApiClient documentStoreApiClient,
                                     Map<String, MethodeArticleValidator> articleValidators,
                                     String apiHost) {
+        this(bodyTransformer, htmlFieldProcessor, blogUuidResolver, documentStoreApiClient, articleValidators, apiHost,
+                new XmlInfrastructure(new MetricRegistry()), new MetricRegistry());
+    }
+
+    public InternalComponentsMapper(FieldTransformer bodyTransformer,
+                                    BodyProcessor htmlFieldProcessor,
+                                    BlogUuidResolver blogUuidResolver,
+                                    DocumentStoreApiClient documentStoreApiClient,
+                                    Map<String, MethodeArticleValidator> articleValidators,
+                                    String apiHost,
+                                    XmlInfrastructure xmlInfrastructure,
+                                    MetricRegistry metrics) {
+        this(bodyTransformer, htmlFieldProcessor, blogUuidResolver, documentStoreApiClient, articleValidators, apiHost,
+                xmlInfrastructure, metrics, MoreExecutors.sameThreadExecutor(), null);
+    }
+
+    /**
+     * @param remoteCallExecutor runs the publishing status check, and the placeholder lookup for a CPH, alongside the
+     *                           body lookups.
+     * @param remoteLookupsPrefetcher starts the body lookups while the publishing status is checked; may be
+     *                                <code>null</code>, in which case the body processors make their own calls.
+     */
+    public InternalComponentsMapper(FieldTransformer bodyTransformer,
+                                    BodyProcessor htmlFieldProcessor,
+                                    BlogUuidResolver blogUuidResolver,
+                                    DocumentStoreApiClient documentStoreApiClient,
+                                    Map<String, MethodeArticleValidator> articleValidators,
+                                    String apiHost,
+                                    XmlInfrastructure xmlInfrastructure,
+                                    MetricRegistry metrics,
+                                    Executor remoteCallExecutor,
+                                    RemoteLookupsPrefetcher remoteLookupsPrefetcher) {
         this.bodyTransformer = bodyTransformer;
         this.htmlFieldProcessor = htmlFieldProcessor;
         this.blogUuidResolver = blogUuidResolver;
         this.documentStoreApiClient = documentStoreApiClient;
         this.articleValidators = articleValidators;
         this.apiHost = apiHost;
+        this.xmlInfrastructure = xmlInfrastructure;
+        this.xPaths = new XPathExpressionRegistry(xmlInfrastructure, metrics, InternalComponentsMapper.class, BLOCK_FIELD_XPATHS);
+        this.metadataExtractor = new EomFileMetadataExtractor(xmlInfrastructure, metrics);
+        this.remoteCallExecutor = remoteCallExecutor;
+        this.remoteLookupsPrefetcher = remoteLookupsPrefetcher;
     }
 
     public InternalComponents map(EomFile eomFile, String transactionId, Date lastModified, boolean preview) {
+        return map(new ParsedEomFile(eomFile), transactionId, lastModified, preview);
+    }
+
+    /**
+     * Maps a file whose attributes may already have been read, for example to filter the message it came in.
+     */
+    public InternalComponents map(ParsedEomFile parsedEomFile, String transactionId, Date lastModified, boolean preview) {
+        final EomFile eomFile = parsedEomFile.getEomFile();
+        RemoteLookups remoteLookups = null;
+        CompletableFuture<String> replacementUuid = null;
         try {
             UUID uuid = UUID.fromString(eomFile.getUuid());
-            final XPath xPath = XPathFactory.newInstance().newXPath();
-            final Document attributesDocument = getAttributesDocument(eomFile);
-            final Document valueDocument = getValueDocument(eomFile);
+            final EomFileMetadata metadata = metadataExtractor.extract(parsedEomFile);
 
-            String sourceCode = xPath.evaluate(SOURCE_ATTR_XPATH, attributesDocument);
+            String sourceCode = metadata.getSourceCode();
             if (!SourceCode.FT.equals(sourceCode) && !SourceCode.CONTENT_PLACEHOLDER.equals(sourceCode) && !SourceCode.DYNAMIC_CONTENT.equals(sourceCode)) {
                 throw new MethodeArticleNotEligibleForPublishException(uuid);
             }
 
-            String overrideOriginalStr = xPath.evaluate(OVERRIDE_ORIGINAL_ATTR_XPATH, attributesDocument);
+            String overrideOriginalStr = metadata.getOverrideOriginal();
             if (sourceCode.equals(SourceCode.CONTENT_PLACEHOLDER) && overrideOriginalStr != null
                     && (overrideOriginalStr.equals("false") || overrideOriginalStr.equals("False"))) {
                 throw new MethodeArticleInternalComponentsMapperException("Could not override internal content for CPH because OverrideOriginal is not set to true");
             }
 
 
-            final String type = determineType(xPath, attributesDocument, sourceCode);
+            final String type = determineType(metadata, sourceCode);
 
             Boolean previewParam = SourceCode.FT.equals(sourceCode) || SourceCode.DYNAMIC_CONTENT.equals(sourceCode) ? preview : null;
-            PublishingStatus status = articleValidators.get(sourceCode).getPublishingStatus(eomFile, transactionId, previewParam);
+            MethodeArticleValidator validator = articleValidators.get(sourceCode);
+            CompletableFuture<PublishingStatus> publishingStatus = CompletableFuture.supplyAsync(
+                    () -> validator.getPublishingStatus(eomFile, transactionId, previewParam), remoteCallExecutor);
+
+            if (isContentPlaceholder(sourceCode)) {
+                // only content which is to be published is looked up, while the rest of it is read
+                replacementUuid = publishingStatus.thenApplyAsync(status -> status == PublishingStatus.VALID
+                        ? getReplacementUuidForContentPlaceholder(uuid.toString(), transactionId, metadata)
+                        : null, remoteCallExecutor);
+            } else if (remoteLookupsPrefetcher != null) {
+                // dynamic content keeps its body untransformed, but each of its blocks is transformed as a body
+                List<Element> fields = new ArrayList<>(Collections.singletonList(metadata.getSummary()));
+                if (Type.DYNAMIC_CONTENT.equals(type)) {
+                    fields.addAll(metadata.getBlocks());
+                } else {
+                    fields.add(metadata.getBody());
+                }
+                remoteLookups = remoteLookupsPrefetcher.prefetch(fields, transactionId);
+            }
+
+            PublishingStatus status = join(publishingStatus);
             switch (status) {
                 case INELIGIBLE:
                     throw new MethodeArticleNotEligibleForPublishException(uuid);
@@ -156,22 +217,22 @@ public class InternalComponentsMapper {
                     throw new MethodeMarkedDeletedException(uuid, type);
             }
 
-            final Design design = extractDesign(xPath, valueDocument, attributesDocument);
-            final TableOfContents tableOfContents = extractTableOfContents(xPath, valueDocument);
-            final List<Image> leadImages = extractImages(xPath, valueDocument, "/doc/lead/lead-image-set/lead-image-");
-            final Topper topper = extractTopper(xPath, valueDocument);
-            final String unpublishedContentDescription = extractUnpublishedContentDescription(xPath, valueDocument);
+            final Design design = extractDesign(metadata);
+            final TableOfContents tableOfContents = extractTableOfContents(metadata);
+            final List<Image> leadImages = extractImages(metadata);
+            final Topper topper = extractTopper(metadata);
+            final String unpublishedContentDescription = extractUnpublishedContentDescription(metadata);
             final AlternativeTitles alternativeTitles = AlternativeTitles.builder()
-                    .withShortTeaser(Strings.nullToEmpty(xPath.evaluate(SHORT_TEASER_TAG_XPATH, valueDocument)).trim())
-                    .withPromotionalTitleVariant(Strings.nullToEmpty(xPath.evaluate(PROMOTIONAL_TITLE_VARIANT_TAG_XPATH, valueDocument)).trim())
+                    .withShortTeaser(Strings.nullToEmpty(metadata.getShortTeaser()).trim())
+                    .withPromotionalTitleVariant(Strings.nullToEmpty(metadata.getPromotionalTitleVariant()).trim())
                     .build();
             final AlternativeStandfirsts alternativeStandfirsts = AlternativeStandfirsts.builder()
-                    .withPromotionalStandfirstVariant(Strings.nullToEmpty(xPath.evaluate(PROMOTIONAL_STANDFIRST_VARIANT_TAG_XPATH, valueDocument)).trim())
+                    .withPromotionalStandfirstVariant(Strings.nullToEmpty(metadata.getPromotionalStandfirstVariant()).trim())
                     .build();
-            final Summary summary = extractSummary(xPath, valueDocument, transactionId, uuid.toString());
-            final String pushNotificationsCohort = extractPushNotificationsCohort(xPath, attributesDocument);
-            final String pushNotificationsText = extractPushNotificationsText(xPath, valueDocument);
-            final List<Block> blocks = getBlocks(xPath, valueDocument, type, transactionId);
+            final Summary summary = extractSummary(metadata, transactionId, uuid.toString(), remoteLookups);
+            final String pushNotificationsCohort = extractPushNotificationsCohort(metadata);
+            final String pushNotificationsText = extractPushNotificationsText(metadata);
+            final List<Block> blocks = getBlocks(metadata, type, transactionId, remoteLookups);
 
             InternalComponents.Builder internalComponentsBuilder = InternalComponents.builder()
                     .withUuid(uuid.toString())
@@ -190,7 +251,7 @@ public class InternalComponentsMapper {
                     .withBlocks(blocks);
 
             if (isContentPlaceholder(sourceCode)) {
-                String replacedUuid = getReplacementUuidForContentPlaceholder(uuid.toString(), transactionId, xPath, attributesDocument);
+                String replacedUuid = join(replacementUuid);
                 return internalComponentsBuilder.withUuid(replacedUuid).build();
             }
 
@@ -198,28 +259,54 @@ public class InternalComponentsMapper {
                 return internalComponentsBuilder.build();
             }
 
-            String sourceBodyXML = retrieveField(xPath, BODY_TAG_XPATH, valueDocument);
-            final String transformedBodyXML = transformBody(xPath, sourceBodyXML, attributesDocument, valueDocument, transactionId, uuid, preview);
+            String sourceBodyXML = getNodeAsString(metadata.getBody());
+            final String transformedBodyXML = transformBody(metadata, sourceBodyXML, transactionId, uuid, preview, remoteLookups);
 
             return internalComponentsBuilder
                     .withXMLBody(transformedBodyXML)
                     .build();
-        } catch (ParserConfigurationException | SAXException | XPathExpressionException | TransformerException | IOException e) {
+        } catch (ParserConfigurationException | SAXException | XPathExpressionException | XMLStreamException | TransformerException | IOException e) {
             throw new TransformationException(e);
+        } finally {
+            if (remoteLookups != null) {
+                remoteLookups.cancel();
+            }
+        }
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    @SafeVarargs
+    private static Map.Entry<String, Object>[] withRemoteLookups(RemoteLookups remoteLookups,
+                                                                 Map.Entry<String, Object>... contextData) {
+        if (remoteLookups == null) {
+            return contextData;
         }
+        Map.Entry<String, Object>[] withLookups = Arrays.copyOf(contextData, contextData.length + 1);
+        withLookups[contextData.length] = Maps.<String, Object>immutableEntry(RemoteLookups.CONTEXT_KEY, remoteLookups);
+        return withLookups;
     }
 
     private boolean isContentPlaceholder(String source) {
         return SourceCode.CONTENT_PLACEHOLDER.equals(source);
     }
 
-    private String getReplacementUuidForContentPlaceholder(String cphUuid, String transactionId, XPath xPath,
-                                                           Document attributesDocument) throws XPathExpressionException {
-        String originalUuid = extractOriginalUuid(cphUuid, xPath, attributesDocument);
+    private String getReplacementUuidForContentPlaceholder(String cphUuid, String transactionId,
+                                                           EomFileMetadata metadata) {
+        String originalUuid = extractOriginalUuid(cphUuid, metadata);
 
         if (Strings.isNullOrEmpty(originalUuid)) {
-            if (isBlog(xPath, attributesDocument)) {
-                return resolveBlogPlaceholderUuid(attributesDocument, transactionId, cphUuid, xPath);
+            if (isBlog(metadata)) {
+                return resolveBlogPlaceholderUuid(metadata, transactionId, cphUuid);
             }
             //if it's not a blog it means that we are dealing with an external CPH and we keep the provided uuid
         } else {
@@ -228,8 +315,8 @@ public class InternalComponentsMapper {
         return cphUuid;
     }
 
-    private String extractOriginalUuid(String cphUuid, XPath xPath, Document attributesDocument) throws XPathExpressionException {
-        String originalUuid = xPath.evaluate(XPATH_ORIGINAL_UUID, attributesDocument);
+    private String extractOriginalUuid(String cphUuid, EomFileMetadata metadata) {
+        String originalUuid = metadata.getOriginalUuid();
         if (!Strings.isNullOrEmpty(originalUuid)) {
             if (!UUID_PATTERN.matcher(originalUuid).matches()) {
                 String errMsg = String.format("CPH with uuid: %s doesn't contain a valid OriginalUUID: %s.", cphUuid, originalUuid);
@@ -240,13 +327,13 @@ public class InternalComponentsMapper {
         return originalUuid;
     }
 
-    private boolean isBlog(XPath xPath, Document attributesDocument) throws XPathExpressionException {
-        return BLOG_CATEGORIES.contains(extractListItemWiredIndexType(xPath, attributesDocument));
+    private boolean isBlog(EomFileMetadata metadata) {
+        return BLOG_CATEGORIES.contains(extractListItemWiredIndexType(metadata));
     }
 
-    private String resolveBlogPlaceholderUuid(Document attributesDocument, String transactionId, String uuid, XPath xPath) throws XPathExpressionException {
-        String referenceId = extractRefField(xPath, attributesDocument, uuid);
-        String guid = extractServiceId(xPath, attributesDocument, uuid);
+    private String resolveBlogPlaceholderUuid(EomFileMetadata metadata, String transactionId, String uuid) {
+        String referenceId = extractRefField(metadata, uuid);
+        String guid = extractServiceId(metadata, uuid);
         return blogUuidResolver.resolveUuid(guid, referenceId, transactionId);
     }
 
@@ -265,38 +352,34 @@ public class InternalComponentsMapper {
         }
     }
 
-    private String retrieveField(XPath xpath, String expression, Document eomFileDocument) throws TransformerException, XPathExpressionException {
-        final Node node = (Node) xpath.evaluate(expression, eomFileDocument, XPathConstants.NODE);
-        return getNodeAsString(node);
-    }
-
     private String getNodeAsString(Node node) throws TransformerException {
         return convertNodeToStringReturningEmptyIfNull(node);
     }
 
     private String convertNodeToStringReturningEmptyIfNull(Node node) throws TransformerException {
         StringWriter writer = new StringWriter();
-        final TransformerFactory transformerFactory = TransformerFactory.newInstance();
-        Transformer transformer = transformerFactory.newTransformer();
+        Transformer transformer = xmlInfrastructure.transformer();
         transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "yes");
         transformer.transform(new DOMSource(node), new StreamResult(writer));
         return writer.toString();
     }
 
-    private String transformBody(XPath xpath, String sourceBodyXML, Document attributesDocument, Document valueDocument, String transactionId, UUID uuid, boolean preview) throws ParserConfigurationException, IOException, SAXException, XPathExpressionException, TransformerException {
+    private String transformBody(EomFileMetadata metadata, String sourceBodyXML, String transactionId, UUID uuid, boolean preview,
+                                 RemoteLookups remoteLookups) throws ParserConfigurationException, IOException, SAXException, TransformerException {
         TransformationMode mode = preview ? TransformationMode.PREVIEW : TransformationMode.PUBLISH;
-        String sourceCode = xpath.evaluate(SOURCE_ATTR_XPATH, attributesDocument);
-        final String type = determineType(xpath, attributesDocument, sourceCode);
+        String sourceCode = metadata.getSourceCode();
+        final String type = determineType(metadata, sourceCode);
 
-        final String transformedBody = transformField(sourceBodyXML, bodyTransformer, transactionId, Maps.immutableEntry("uuid", uuid.toString()), Maps.immutableEntry("apiHost", apiHost));
+        final String transformedBody = transformField(sourceBodyXML, bodyTransformer, transactionId,
+                withRemoteLookups(remoteLookups, Maps.immutableEntry("uuid", uuid.toString()), Maps.immutableEntry("apiHost", apiHost)));
         final String validatedTransformedBody = validateBody(mode, type, transformedBody, uuid);
-        final String postProcessedTransformedBody = putMainImageReferenceInBodyXml(xpath, attributesDocument, generateMainImageUuid(xpath, valueDocument), validatedTransformedBody);
+        final String postProcessedTransformedBody = putMainImageReferenceInBodyXml(metadata, generateMainImageUuid(metadata), validatedTransformedBody);
 
         return postProcessedTransformedBody;
     }
 
-    private String determineType(final XPath xpath, final Document attributesDocument, String sourceCode) throws XPathExpressionException {
-        final String isContentPackage = xpath.evaluate(XPATH_CONTENT_PACKAGE, attributesDocument);
+    private String determineType(final EomFileMetadata metadata, String sourceCode) {
+        final String isContentPackage = metadata.getIsContentPackage();
         if (Boolean.TRUE.toString().equalsIgnoreCase(isContentPackage)) {
             return CONTENT_PACKAGE;
         }
@@ -348,16 +431,16 @@ public class InternalComponentsMapper {
         return wrappedBody.substring(index, wrappedBody.length() - END_BODY.length()).trim();
     }
 
-    private String generateMainImageUuid(XPath xpath, Document eomFileDocument) throws XPathExpressionException {
-        final String imageUuid = StringUtils.substringAfter(xpath.evaluate("/doc/lead/lead-images/web-master/@fileref", eomFileDocument), "uuid=");
+    private String generateMainImageUuid(EomFileMetadata metadata) {
+        final String imageUuid = StringUtils.substringAfter(metadata.getMainImageFileRef(), "uuid=");
         if (!Strings.isNullOrEmpty(imageUuid)) {
             return DeriveUUID.with(IMAGE_SET).from(UUID.fromString(imageUuid)).toString();
         }
         return null;
     }
 
-    private String putMainImageReferenceInBodyXml(XPath xpath, Document attributesDocument, String mainImageUUID, String body) throws XPathExpressionException,
-            TransformerException, ParserConfigurationException, SAXException, IOException {
+    private String putMainImageReferenceInBodyXml(EomFileMetadata metadata, String mainImageUUID, String body) throws TransformerException,
+            ParserConfigurationException, SAXException, IOException {
 
         if (mainImageUUID != null) {
 
@@ -367,7 +450,7 @@ public class InternalComponentsMapper {
             Element bodyNode = getDocumentBuilder()
                     .parse(inputSource)
                     .getDocumentElement();
-            final String flag = xpath.evaluate(XPATH_ARTICLE_IMAGE, attributesDocument);
+            final String flag = metadata.getArticleImage();
             if (!NO_PICTURE_FLAG.equalsIgnoreCase(flag)) {
                 return putMainImageReferenceInBodyNode(bodyNode, mainImageUUID);
             }
@@ -376,10 +459,7 @@ public class InternalComponentsMapper {
     }
 
     private DocumentBuilder getDocumentBuilder() throws ParserConfigurationException {
-        final DocumentBuilderFactory documentBuilderFactory = DocumentBuilderFactory.newInstance();
-        documentBuilderFactory.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
-
-        return documentBuilderFactory.newDocumentBuilder();
+        return xmlInfrastructure.documentBuilder();
     }
 
     private String putMainImageReferenceInBodyNode(Node bodyNode, String mainImageUUID) throws TransformerException {
@@ -391,25 +471,25 @@ public class InternalComponentsMapper {
         return getNodeAsHTML5String(bodyNode);
     }
 
-    private Design extractDesign(final XPath xPath, final Document valueDoc, final Document attributesDoc) throws XPathExpressionException {
-        final String designThemeOld = Strings.nullToEmpty(xPath.evaluate(XPATH_DESIGN_THEME_OLD, valueDoc)).trim().toLowerCase();
-        String designTheme = Strings.nullToEmpty(xPath.evaluate(XPATH_DESIGN_THEME, attributesDoc)).trim().toLowerCase();
+    private Design extractDesign(final EomFileMetadata metadata) {
+        final String designThemeOld = Strings.nullToEmpty(metadata.getDesignThemeOld()).trim().toLowerCase();
+        String designTheme = Strings.nullToEmpty(metadata.getDesignTheme()).trim().toLowerCase();
         if (designTheme.isEmpty()) {
             designTheme = designThemeOld;
         }
         if (designTheme.isEmpty()) {
             designTheme = DEFAULT_DESIGN_THEME;
         }
-        String designLayout = Strings.nullToEmpty(xPath.evaluate(XPATH_DESIGN_LAYOUT, attributesDoc)).trim().toLowerCase();
+        String designLayout = Strings.nullToEmpty(metadata.getDesignLayout()).trim().toLowerCase();
         if (designLayout.isEmpty()) {
             designLayout = DEFAULT_DESIGN_LAYOUT;
         }
         return new Design(designTheme, designLayout);
     }
 
-    private TableOfContents extractTableOfContents(final XPath xPath, final Document eomFileDoc) throws XPathExpressionException {
-        final String sequence = Strings.nullToEmpty(xPath.evaluate("/doc/lead/lead-components/content-package/@sequence", eomFileDoc)).trim();
-        final String labelType = Strings.nullToEmpty(xPath.evaluate("/doc/lead/lead-components/content-package/@label", eomFileDoc)).trim();
+    private TableOfContents extractTableOfContents(final EomFileMetadata metadata) {
+        final String sequence = Strings.nullToEmpty(metadata.getContentPackageSequence()).trim();
+        final String labelType = Strings.nullToEmpty(metadata.getContentPackageLabel()).trim();
 
         if (Strings.isNullOrEmpty(sequence) && Strings.isNullOrEmpty(labelType)) {
             return null;
@@ -418,20 +498,18 @@ public class InternalComponentsMapper {
         return new TableOfContents(sequence, labelType);
     }
 
-    private Topper extractTopper(final XPath xpath, final Document eomFileDoc) throws XPathExpressionException {
-        final String topperBasePath = "/doc/lead/lead-components/topper";
-
-        final String layout = Strings.nullToEmpty(xpath.evaluate(topperBasePath + "/@layout", eomFileDoc)).trim();
+    private Topper extractTopper(final EomFileMetadata metadata) {
+        final String layout = Strings.nullToEmpty(metadata.getTopperLayout()).trim();
 
         //a topper is valid only if the theme attribute is present. Since layout is the new value for theme, we need to check both
         if (Strings.isNullOrEmpty(layout)) {
             return null;
         }
 
-        final String headline = Strings.nullToEmpty(xpath.evaluate(topperBasePath + "/topper-headline", eomFileDoc)).trim();
-        final String standfirst = Strings.nullToEmpty(xpath.evaluate(topperBasePath + "/topper-standfirst", eomFileDoc)).trim();
+        final String headline = Strings.nullToEmpty(metadata.getTopperHeadline()).trim();
+        final String standfirst = Strings.nullToEmpty(metadata.getTopperStandfirst()).trim();
 
-        final String backgroundColour = Strings.nullToEmpty(xpath.evaluate(topperBasePath + "/@background-colour", eomFileDoc)).trim();
+        final String backgroundColour = Strings.nullToEmpty(metadata.getTopperBackgroundColour()).trim();
 
         return new Topper(
                 headline,
@@ -440,8 +518,8 @@ public class InternalComponentsMapper {
                 layout);
     }
 
-    private String extractUnpublishedContentDescription(final XPath xpath, final Document eomFileDoc) throws XPathExpressionException, TransformerException {
-        final Node contentPackageNextNode = (Node) xpath.evaluate("/doc/lead/lead-components/content-package/content-package-next", eomFileDoc, XPathConstants.NODE);
+    private String extractUnpublishedContentDescription(final EomFileMetadata metadata) throws TransformerException {
+        final Node contentPackageNextNode = metadata.getContentPackageNext();
         if (contentPackageNextNode == null) {
             return null;
         }
@@ -455,12 +533,11 @@ public class InternalComponentsMapper {
         return Strings.isNullOrEmpty(unpublishedContentDescription) ? null : unpublishedContentDescription;
     }
 
-    private List<Image> extractImages(XPath xpath, Document doc, String basePath) throws XPathExpressionException {
-        String[] labels = new String[]{"square", "standard", "wide"};
+    private List<Image> extractImages(EomFileMetadata metadata) {
         List<Image> images = new ArrayList<>();
 
-        for (String label : labels) {
-            String id = getImageId(xpath, doc, basePath + label);
+        for (String label : EomFileMetadata.LEAD_IMAGE_LABELS) {
+            String id = getImageId(metadata.getLeadImageFileRef(label));
             if (Strings.isNullOrEmpty(id)) {
                 continue;
             }
@@ -470,9 +547,9 @@ public class InternalComponentsMapper {
         return images;
     }
 
-    private String getImageId(XPath xpath, Document doc, String topperImgBasePath) throws XPathExpressionException {
+    private String getImageId(String fileRef) {
         String topperImageId = null;
-        String imageFileRef = Strings.nullToEmpty(xpath.evaluate(topperImgBasePath + "/@fileref", doc)).trim();
+        String imageFileRef = Strings.nullToEmpty(fileRef).trim();
         if (imageFileRef.contains("uuid=")) {
             topperImageId = imageFileRef.substring(imageFileRef.lastIndexOf("uuid=") + "uuid=".length());
         }
@@ -486,54 +563,40 @@ public class InternalComponentsMapper {
 
     private String convertNodeToString(final Node node) throws TransformerException {
         final StringWriter writer = new StringWriter();
-        final Transformer transformer = TransformerFactory.newInstance().newTransformer();
+        final Transformer transformer = xmlInfrastructure.transformer();
         transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "yes");
         transformer.transform(new DOMSource(node), new StreamResult(writer));
         return writer.toString();
     }
 
-    private Document getValueDocument(EomFile eomFile) throws ParserConfigurationException, SAXException, IOException {
-        final DocumentBuilderFactory documentBuilderFactory = DocumentBuilderFactory.newInstance();
-        documentBuilderFactory.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
-        final DocumentBuilder documentBuilder = documentBuilderFactory.newDocumentBuilder();
-        return documentBuilder.parse(new ByteArrayInputStream(eomFile.getValue()));
-    }
-
-    private Document getAttributesDocument(EomFile eomFile) throws ParserConfigurationException, SAXException, IOException {
-        final DocumentBuilderFactory documentBuilderFactory = DocumentBuilderFactory.newInstance();
-        documentBuilderFactory.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
-        final DocumentBuilder documentBuilder = documentBuilderFactory.newDocumentBuilder();
-        return documentBuilder.parse(new InputSource(new StringReader(eomFile.getAttributes())));
-    }
-
     private String getNodeValueAsString(Node node) throws TransformerException {
         String nodeAsString = convertNodeToStringReturningEmptyIfNull(node);
         return nodeAsString.replace("<" + node.getNodeName() + ">", "").replace("</" + node.getNodeName() + ">", "")
                 .replace("<" + node.getNodeName() + "/>", "");
     }
 
-    private String extractListItemWiredIndexType(XPath xPath, Document attributesDocument) throws XPathExpressionException {
-        return xPath.evaluate(XPATH_LIST_ITEM_TYPE, attributesDocument);
+    private String extractListItemWiredIndexType(EomFileMetadata metadata) {
+        return metadata.getListItemType();
     }
 
-    private String extractServiceId(XPath xPath, Document attributesDocument, String uuid) throws XPathExpressionException {
-        final String serviceId = xPath.evaluate(XPATH_GUID, attributesDocument);
+    private String extractServiceId(EomFileMetadata metadata, String uuid) {
+        final String serviceId = metadata.getServiceId();
         if (Strings.isNullOrEmpty(serviceId)) {
             throw new MethodeMissingFieldException(uuid, "serviceid");
         }
         return serviceId;
     }
 
-    private String extractRefField(XPath xPath, Document attributesDocument, String uuid) throws XPathExpressionException {
-        final String refField = xPath.evaluate(XPATH_POST_ID, attributesDocument);
+    private String extractRefField(EomFileMetadata metadata, String uuid) {
+        final String refField = metadata.getRefField();
         if (Strings.isNullOrEmpty(refField)) {
             throw new MethodeMissingFieldException(uuid, "ref_field");
         }
         return refField;
     }
 
-    private String extractPushNotificationsCohort(XPath xpath, Document attributesDocument) throws XPathExpressionException {
-        String pushNotificationsCohort = Strings.nullToEmpty(xpath.evaluate(XPATH_PUSH_NOTIFICATION_COHORT, attributesDocument));
+    private String extractPushNotificationsCohort(EomFileMetadata metadata) {
+        String pushNotificationsCohort = Strings.nullToEmpty(metadata.getPushNotificationCohort());
         if (Strings.isNullOrEmpty(pushNotificationsCohort) || pushNotificationsCohort.equals(PUSH_NOTIFICATION_COHORT_NONE)) {
             return null;
         }
@@ -541,19 +604,20 @@ public class InternalComponentsMapper {
         return pushNotificationsCohort.toLowerCase().replace("_", "-");
     }
 
-    private Summary extractSummary(XPath xpath, Document eomFile, String transactionId, String uuid) throws TransformerException, XPathExpressionException {
-        final String bodyXML = retrieveField(xpath, SUMMARY_TAG_XPATH, eomFile);
+    private Summary extractSummary(EomFileMetadata metadata, String transactionId, String uuid, RemoteLookups remoteLookups) throws TransformerException {
+        final String bodyXML = getNodeAsString(metadata.getSummary());
         if (Strings.isNullOrEmpty(bodyXML)) {
             return null;
         }
-        final String transformedBodyXML = transformField("<body>" + bodyXML + "</body>", bodyTransformer, transactionId, Maps.immutableEntry("uuid", uuid));
-        String displayPosition = Strings.emptyToNull(xpath.evaluate(SUMMARY_TAG_XPATH + "/@display-position", eomFile).trim());
+        final String transformedBodyXML = transformField("<body>" + bodyXML + "</body>", bodyTransformer, transactionId,
+                withRemoteLookups(remoteLookups, Maps.immutableEntry("uuid", uuid)));
+        String displayPosition = Strings.emptyToNull(metadata.getSummaryDisplayPosition().trim());
 
         return Summary.builder().withBodyXML(transformedBodyXML).withDisplayPosition(displayPosition).build();
     }
 
-    private String extractPushNotificationsText(XPath xPath, Document valueDocument) throws XPathExpressionException {
-        String pushNotificationsText = Strings.nullToEmpty(xPath.evaluate(XPATH_PUSH_NOTIFICATION_TEXT, valueDocument)).trim();
+    private String extractPushNotificationsText(EomFileMetadata metadata) {
+        String pushNotificationsText = Strings.nullToEmpty(metadata.getPushNotificationText()).trim();
         if (Strings.isNullOrEmpty(pushNotificationsText)) {
             return null;
         }
@@ -561,21 +625,19 @@ public class InternalComponentsMapper {
         return pushNotificationsText;
     }
 
-    private List<Block> getBlocks(XPath xpath, Document value, String type, String txID) throws XPathExpressionException, TransformerException {
+    private List<Block> getBlocks(EomFileMetadata metadata, String type, String txID, RemoteLookups remoteLookups) throws XPathExpressionException, TransformerException {
         if (!Type.DYNAMIC_CONTENT.equals(type)) {
             return null;
         }
         List<Block> resultedBlocks = new ArrayList<>();
 
-        NodeList xmlBlocks = (NodeList) xpath.compile(BLOCKS_XPATH).evaluate(value, XPathConstants.NODESET);
-        for (int i = 0; i < xmlBlocks.getLength(); i++) {
-            Node currentBlock = xmlBlocks.item(i);
-            Node keyNode = (Node) xpath.evaluate("block-name", currentBlock, XPathConstants.NODE);
-            Node valueXMLNode = (Node) xpath.evaluate("block-html-value", currentBlock, XPathConstants.NODE);
+        for (Element currentBlock : metadata.getBlocks()) {
+            Node keyNode = (Node) xPaths.evaluate(XPATH_BLOCK_NAME, currentBlock, XPathConstants.NODE);
+            Node valueXMLNode = (Node) xPaths.evaluate(XPATH_BLOCK_HTML_VALUE, currentBlock, XPathConstants.NODE);
 
             String key = getNodeValueAsString(keyNode);
             String valueXML = getNodeValueAsString(valueXMLNode);
-            String transformedValueXML = bodyTransformer.transform("<body>" + valueXML + "</body>", txID);
+            String transformedValueXML = bodyTransformer.transform("<body>" + valueXML + "</body>", txID, withRemoteLookups(remoteLookups));
             String valueXMLWithoutBodyTags = transformedValueXML.replace("<body>", "").replace("</body>", "");
 
             resultedBlocks.add(new Block(key, valueXMLWithoutBodyTags, BLOCK_TYPE));
@@ -5,43 +5,53 @@ import com.ft.bodyprocessing.BodyProcessingException;
 import com.ft.bodyprocessing.BodyProcessor;
 import com.ft.bodyprocessing.TransactionIdBodyProcessingContext;
 import com.ft.methodearticleinternalcomponentsmapper.clients.DocumentStoreApiClient;
-import com.ft.methodearticleinternalcomponentsmapper.exception.TransformationException;
 import com.ft.methodearticleinternalcomponentsmapper.model.Content;
 import org.apache.commons.lang.StringUtils;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.NamedNodeMap;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
-import org.xml.sax.InputSource;
-
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.transform.Transformer;
-import javax.xml.transform.TransformerException;
-import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.dom.DOMSource;
-import javax.xml.transform.stream.StreamResult;
-import javax.xml.xpath.XPath;
-import javax.xml.xpath.XPathConstants;
-import javax.xml.xpath.XPathFactory;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
 import java.io.StringReader;
 import java.io.StringWriter;
 import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+/**
+ * Rewrites the <code>&lt;a&gt;</code> tags of a body which are not within a <code>&lt;promo-link&gt;</code>, in two
+ * StAX passes over the body rather than through a DOM of it.
+ * <p>
+ * The first pass decides which tags are removed and collects the UUIDs the others link to. Once the Document Store
+ * has been asked about those UUIDs, the second pass writes the body out, with the links to content it knows of
+ * replaced by <code>&lt;content&gt;</code> elements and the other links to FT content made canonical.
+ * <p>
+ * The body is written out as the DOM implementation serialized it: an element without children is written as an
+ * empty element, e.g. <code>&lt;br/&gt;</code>, and the attributes of each element are written in order of their
+ * names. An undeclared entity is still rejected.
+ */
 public class MethodeLinksBodyProcessor implements BodyProcessor {
 
     static final String BASE_CONTENT_TYPE = "http://www.ft.com/ontology/content/";
     static final String DEFAULT_CONTENT_TYPE = "http://www.ft.com/ontology/content/Content";
 
     private static final String CONTENT_TAG = "content";
+    private static final String A_TAG = "a";
+    private static final String PROMO_LINK_TAG = "promo-link";
     private static final String ANCHOR_PREFIX = "#";
     private static final String TYPE = "type";
     private static final String UUID_REGEX = ".*?([0-9a-f]{8}\\-[0-9a-f]{4}\\-[0-9a-f]{4}\\-[0-9a-f]{4}\\-[0-9a-f]{12}).*";
@@ -50,13 +60,25 @@ public class MethodeLinksBodyProcessor implements BodyProcessor {
     private static final Pattern UUID_PARAM_REGEX_PATTERN = Pattern.compile(UUID_PARAM_REGEX);
     private static final String FT_COM_URL_REGEX = "^https*:\\/\\/www.ft.com\\/.*";
     private static final Pattern FT_COM_URL_REGEX_PATTERN = Pattern.compile(FT_COM_URL_REGEX);
+    private static final String CDATA_EVENTS = "http://java.sun.com/xml/stream/properties/report-cdata-event";
 
     private DocumentStoreApiClient documentStoreApiClient;
     private String canonicalUrlTemplate;
+    private final XMLInputFactory inputFactory;
+    private final XMLOutputFactory outputFactory;
 
     public MethodeLinksBodyProcessor(DocumentStoreApiClient documentStoreApiClient, String canonicalUrlTemplate) {
         this.documentStoreApiClient = documentStoreApiClient;
         this.canonicalUrlTemplate = canonicalUrlTemplate;
+
+        inputFactory = XMLInputFactory.newInstance();
+        inputFactory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
+        inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        inputFactory.setProperty(XMLInputFactory.IS_COALESCING, false);
+        if (inputFactory.isPropertySupported(CDATA_EVENTS)) {
+            inputFactory.setProperty(CDATA_EVENTS, true);
+        }
+        outputFactory = XMLOutputFactory.newInstance();
     }
 
     @Override
@@ -64,23 +86,9 @@ public class MethodeLinksBodyProcessor implements BodyProcessor {
         if (StringUtils.isBlank(body)) {
             return body;
         }
+
         try {
-            final DocumentBuilder documentBuilder = getDocumentBuilder();
-            final Document document = documentBuilder.parse(new InputSource(new StringReader(body)));
-
-            final Map<Node, String> aTagsToCheck = new HashMap<>();
-            final XPath xpath = XPathFactory.newInstance().newXPath();
-            final NodeList aTags = (NodeList) xpath.evaluate("//a[count(ancestor::promo-link)=0]", document, XPathConstants.NODESET);
-            for (int i = 0; i < aTags.getLength(); i++) {
-                final Element aTag = (Element) aTags.item(i);
-
-                if (isRemovable(aTag)) {
-                    removeATag(aTag);
-                } else {
-                    Optional<String> optionalUuid = extractUuid(aTag);
-                    optionalUuid.ifPresent(uuid -> aTagsToCheck.put(aTag, uuid));
-                }
-            }
+            final List<ATag> aTags = scanATags(body);
 
             if (!(bodyProcessingContext instanceof TransactionIdBodyProcessingContext)) {
                 throw new IllegalStateException("bodyProcessingContext should provide transaction id.");
@@ -91,127 +99,297 @@ public class MethodeLinksBodyProcessor implements BodyProcessor {
             if (StringUtils.isBlank(transactionId)) {
                 throw new IllegalStateException("bodyProcessingContext should provide transaction id.");
             }
-            final List<Content> content = documentStoreApiClient.getContentForUuids(aTagsToCheck.values(), transactionId);
-            processATags(aTagsToCheck, content);
-            return serializeBody(document);
+
+            final Set<String> uuidsToCheck = new LinkedHashSet<>();
+            for (ATag aTag : aTags) {
+                if (aTag.uuid != null) {
+                    uuidsToCheck.add(aTag.uuid);
+                }
+            }
+            final List<Content> content = getContent(uuidsToCheck, transactionId, RemoteLookups.from(bodyProcessingContext));
+            return rewriteATags(body, aTags, indexByUuid(content));
         } catch (Exception e) {
             throw new BodyProcessingException(e);
         }
     }
 
-    /**
-     * We remove <code>&lt;a&gt;</code> tags
-     * <ul>
-     * <li>with blank hrefs (which are either invalid, or refer to the current document);</li>
-     * <li>with hrefs that contain only a fragment identifier (a part of the current document);</li>
-     * <li>with no non-whitespace content <i>and</i> no <code>data-*</code> attributes.</li>
-     * </ul>
-     *
-     * @param aTag the tag
-     * @return true if removable, otherwise false.
-     */
-    private boolean isRemovable(final Node aTag) {
-        final String href = getHref(aTag);
-
-        if (href.isEmpty() || href.startsWith(ANCHOR_PREFIX)) {
-            return true;
-        }
-
-        NodeList children = aTag.getChildNodes();
-        int len = children.getLength();
-
-        StringBuilder textContent = new StringBuilder();
-        for (int i = 0; i < len; i++) {
-            Node n = children.item(i);
-
-            switch (n.getNodeType()) {
-                case Node.TEXT_NODE:
-                case Node.CDATA_SECTION_NODE:
-                    textContent.append(n.getTextContent());
-                    break;
-
-                case Node.COMMENT_NODE:
-                    break;
-
-                default: // any other node type
-                    return false;
+    private List<Content> getContent(Collection<String> uuids, String transactionId, RemoteLookups remoteLookups) {
+        if (remoteLookups != null) {
+            Optional<List<Content>> prefetched = remoteLookups.contentFor(uuids);
+            if (prefetched.isPresent()) {
+                return prefetched.get();
             }
         }
+        return documentStoreApiClient.getContentForUuids(uuids, transactionId);
+    }
 
-        if (!textContent.toString().trim().isEmpty()) {
-            return false;
+    private Map<String, Content> indexByUuid(List<Content> content) {
+        Map<String, Content> contentByUuid = new HashMap<>();
+        for (Content c : content) {
+            // the first content found for a UUID is the one linked to
+            contentByUuid.putIfAbsent(c.getUuid(), c);
         }
+        return contentByUuid;
+    }
 
-        NamedNodeMap attributes = aTag.getAttributes();
-        len = attributes.getLength();
+    /**
+     * The first pass: finds, in document order, the <code>&lt;a&gt;</code> tags which are not within a
+     * <code>&lt;promo-link&gt;</code>, and which of them are removed.
+     */
+    private List<ATag> scanATags(String body) throws XMLStreamException {
+        List<ATag> aTags = new ArrayList<>();
+        Deque<ATag> openElements = new ArrayDeque<>();
+        Deque<ATag> openATags = new ArrayDeque<>();
+        int promoLinkDepth = 0;
 
-        for (int i = 0; i < len; i++) {
-            if (attributes.item(i).getNodeName().startsWith("data-")) {
-                return false;
+        XMLStreamReader reader = inputFactory.createXMLStreamReader(new StringReader(body));
+        try {
+            while (reader.hasNext()) {
+                switch (reader.next()) {
+                    case XMLStreamConstants.START_ELEMENT:
+                        markNonTextChild(openElements);
+                        String name = reader.getLocalName();
+                        if (PROMO_LINK_TAG.equals(name)) {
+                            promoLinkDepth++;
+                        }
+                        if (A_TAG.equals(name) && promoLinkDepth == 0) {
+                            ATag aTag = new ATag(attributeValue(reader, "href"), hasDataAttribute(reader));
+                            aTags.add(aTag);
+                            openATags.push(aTag);
+                            openElements.push(aTag);
+                        } else {
+                            openElements.push(ATag.NONE);
+                        }
+                        break;
+
+                    case XMLStreamConstants.END_ELEMENT:
+                        if (PROMO_LINK_TAG.equals(reader.getLocalName())) {
+                            promoLinkDepth--;
+                        }
+                        if (openElements.pop() != ATag.NONE) {
+                            openATags.pop().decide();
+                        }
+                        break;
+
+                    case XMLStreamConstants.CHARACTERS:
+                    case XMLStreamConstants.SPACE:
+                    case XMLStreamConstants.CDATA:
+                        if (!isWhitespace(reader.getText())) {
+                            // the text content of a tag is that of all its descendants
+                            openATags.forEach(aTag -> aTag.hasText = true);
+                        }
+                        break;
+
+                    case XMLStreamConstants.COMMENT:
+                        break;
+
+                    case XMLStreamConstants.ENTITY_REFERENCE:
+                    case XMLStreamConstants.PROCESSING_INSTRUCTION:
+                        markNonTextChild(openElements);
+                        break;
+
+                    default:
+                        break;
+                }
             }
+        } finally {
+            reader.close();
         }
-
-        return true;
+        return aTags;
     }
 
-    private String serializeBody(Document document) {
-        final DOMSource domSource = new DOMSource(document);
-        final StringWriter writer = new StringWriter();
-        final StreamResult result = new StreamResult(writer);
-        final TransformerFactory tf = TransformerFactory.newInstance();
-        try {
-            final Transformer transformer = tf.newTransformer();
-            transformer.setOutputProperty("omit-xml-declaration", "yes");
-            transformer.setOutputProperty("standalone", "yes");
-            transformer.transform(domSource, result);
-            writer.flush();
-            return writer.toString();
-        } catch (TransformationException | TransformerException e) {
-            throw new BodyProcessingException(e);
+    private void markNonTextChild(Deque<ATag> openElements) {
+        ATag parent = openElements.peek();
+        if (parent != null && parent != ATag.NONE) {
+            parent.hasNonTextChild = true;
         }
     }
 
-    private void processATags(Map<Node, String> aTags, List<Content> content) {
-        for (Node aTag : aTags.keySet()) {
-            Optional<Content> matchingContent = getMatchingContent(content, aTags.get(aTag));
-            if (matchingContent.isPresent()) {
-                replaceLinkToContentPresentInDocumentStore(aTag, matchingContent.get());
-            } else if (isConvertibleToAssetOnFtCom(aTag)) {
-                transformLinkToAssetOnFtCom(aTag, aTags.get(aTag));
+    /**
+     * The second pass: writes the body out with the <code>&lt;a&gt;</code> tags found by the first pass rewritten.
+     */
+    private String rewriteATags(String body, List<ATag> aTags, Map<String, Content> contentByUuid) throws XMLStreamException {
+        StringWriter output = new StringWriter(body.length());
+        Deque<Rewrite> openElements = new ArrayDeque<>();
+        int nextATag = 0;
+        int promoLinkDepth = 0;
+        // within a removed tag nothing is written, and within a tag replaced by content only its text is
+        int removedDepth = 0;
+        int contentDepth = 0;
+        // the start tag last read is only written once it is known whether the element is empty
+        StartTag pending = null;
+
+        XMLStreamReader reader = inputFactory.createXMLStreamReader(new StringReader(body));
+        XMLStreamWriter writer = outputFactory.createXMLStreamWriter(output);
+        try {
+            while (reader.hasNext()) {
+                switch (reader.next()) {
+                    case XMLStreamConstants.START_ELEMENT:
+                        String name = reader.getLocalName();
+                        if (PROMO_LINK_TAG.equals(name)) {
+                            promoLinkDepth++;
+                        }
+                        ATag aTag = A_TAG.equals(name) && promoLinkDepth == 0 ? aTags.get(nextATag++) : null;
+
+                        if (removedDepth > 0) {
+                            openElements.push(Rewrite.NOT_WRITTEN);
+                        } else if (aTag != null && aTag.removal == Removal.WITH_CONTENT) {
+                            removedDepth++;
+                            openElements.push(Rewrite.REMOVED);
+                        } else if (contentDepth > 0 || (aTag != null && aTag.removal == Removal.KEEPING_CONTENT)) {
+                            openElements.push(Rewrite.NOT_WRITTEN);
+                        } else if (aTag != null && aTag.uuid != null && contentByUuid.containsKey(aTag.uuid)) {
+                            writeStart(writer, pending);
+                            pending = contentStartTag(reader, contentByUuid.get(aTag.uuid));
+                            contentDepth++;
+                            openElements.push(Rewrite.CONTENT);
+                        } else if (aTag != null && aTag.uuid != null && isConvertibleToAssetOnFtCom(aTag.href)) {
+                            writeStart(writer, pending);
+                            pending = startTag(reader, transformLinkToAssetOnFtCom(aTag.href, aTag.uuid));
+                            openElements.push(Rewrite.WRITTEN);
+                        } else {
+                            writeStart(writer, pending);
+                            pending = startTag(reader, null);
+                            openElements.push(Rewrite.WRITTEN);
+                        }
+                        break;
+
+                    case XMLStreamConstants.END_ELEMENT:
+                        if (PROMO_LINK_TAG.equals(reader.getLocalName())) {
+                            promoLinkDepth--;
+                        }
+                        switch (openElements.pop()) {
+                            case REMOVED:
+                                removedDepth--;
+                                break;
+                            case CONTENT:
+                                contentDepth--;
+                                pending = writeEnd(writer, pending);
+                                break;
+                            case WRITTEN:
+                                pending = writeEnd(writer, pending);
+                                break;
+                            default:
+                                break;
+                        }
+                        break;
+
+                    case XMLStreamConstants.CHARACTERS:
+                    case XMLStreamConstants.SPACE:
+                        if (removedDepth == 0) {
+                            pending = writeStart(writer, pending);
+                            writer.writeCharacters(reader.getText());
+                        }
+                        break;
+
+                    case XMLStreamConstants.CDATA:
+                        if (removedDepth == 0) {
+                            pending = writeStart(writer, pending);
+                            if (contentDepth > 0) {
+                                writer.writeCharacters(reader.getText());
+                            } else {
+                                writer.writeCData(reader.getText());
+                            }
+                        }
+                        break;
+
+                    case XMLStreamConstants.COMMENT:
+                        if (removedDepth == 0 && contentDepth == 0) {
+                            pending = writeStart(writer, pending);
+                            writer.writeComment(reader.getText());
+                        }
+                        break;
+
+                    case XMLStreamConstants.PROCESSING_INSTRUCTION:
+                        if (removedDepth == 0 && contentDepth == 0) {
+                            pending = writeStart(writer, pending);
+                            writer.writeProcessingInstruction(reader.getPITarget(), reader.getPIData());
+                        }
+                        break;
+
+                    case XMLStreamConstants.ENTITY_REFERENCE:
+                        if (removedDepth == 0 && contentDepth == 0) {
+                            pending = writeStart(writer, pending);
+                            writer.writeEntityRef(reader.getLocalName());
+                        }
+                        break;
+
+                    default:
+                        break;
+                }
             }
+            // closes an empty root element
+            writer.writeEndDocument();
+            writer.flush();
+        } finally {
+            writer.close();
+            reader.close();
         }
+        return output.toString();
     }
 
-    private Optional<Content> getMatchingContent(List<Content> content, String uuid) {
-        return content.stream().filter(c -> c.getUuid().equals(uuid)).findFirst();
-    }
-
-    private void replaceLinkToContentPresentInDocumentStore(Node node, Content content) {
-        Element newElement = node.getOwnerDocument().createElement(CONTENT_TAG);
-        newElement.setAttribute("id", content.getUuid());
+    private StartTag contentStartTag(XMLStreamReader reader, Content content) {
+        StartTag startTag = new StartTag(CONTENT_TAG);
+        startTag.attributes.put("id", content.getUuid());
 
         if (!StringUtils.isBlank(content.getType())) {
-            newElement.setAttribute("type", BASE_CONTENT_TYPE + content.getType());
+            startTag.attributes.put("type", BASE_CONTENT_TYPE + content.getType());
         } else {
-            newElement.setAttribute("type", DEFAULT_CONTENT_TYPE);
+            startTag.attributes.put("type", DEFAULT_CONTENT_TYPE);
         }
 
-        Optional<String> nodeValue = getTitleAttributeIfExists(node);
-        nodeValue.ifPresent(s -> newElement.setAttribute("title", s));
-        newElement.setTextContent(node.getTextContent());
-        node.getParentNode().replaceChild(newElement, node);
+        String title = attributeValue(reader, "title");
+        if (title != null) {
+            startTag.attributes.put("title", title);
+        }
+        return startTag;
     }
 
-    private Optional<String> getTitleAttributeIfExists(Node node) {
-        if (getAttribute(node, "title") != null) {
-            String nodeValue = getAttribute(node, "title").getNodeValue();
-            return Optional.ofNullable(nodeValue);
+    /**
+     * @param newHref replaces the <code>href</code> of the element and drops its <code>type</code>, unless it is
+     *                <code>null</code>.
+     */
+    private StartTag startTag(XMLStreamReader reader, String newHref) {
+        StartTag startTag = new StartTag(reader.getLocalName());
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            String attributeName = reader.getAttributeLocalName(i);
+            if (newHref == null) {
+                startTag.attributes.put(attributeName, reader.getAttributeValue(i));
+            } else if ("href".equals(attributeName)) {
+                startTag.attributes.put(attributeName, newHref);
+            } else if (!TYPE.equals(attributeName)) {
+                // We might have added a type attribute to identify the type of content this links to.
+                // If so, it should be removed, because it is not HTML5 compliant.
+                startTag.attributes.put(attributeName, reader.getAttributeValue(i));
+            }
         }
-        return Optional.empty();
+        return startTag;
+    }
+
+    /**
+     * Writes the pending start tag, if any, before something is written within its element.
+     *
+     * @return <code>null</code>, as no start tag is pending any more.
+     */
+    private static StartTag writeStart(XMLStreamWriter writer, StartTag pending) throws XMLStreamException {
+        return pending == null ? null : pending.writeStart(writer);
     }
 
-    private boolean isConvertibleToAssetOnFtCom(Node node) {
-        String href = getHref(node);
+    /**
+     * Ends the element last written, as an empty element if its start tag is still pending.
+     *
+     * @return <code>null</code>, as no start tag is pending any more.
+     */
+    private static StartTag writeEnd(XMLStreamWriter writer, StartTag pending) throws XMLStreamException {
+        if (pending == null) {
+            writer.writeEndElement();
+        } else {
+            pending.writeEmpty(writer);
+        }
+        return null;
+    }
+
+    private boolean isConvertibleToAssetOnFtCom(String href) {
         Matcher matcher = FT_COM_URL_REGEX_PATTERN.matcher(href);
         if (matcher.matches()) {
             return true;
@@ -222,85 +400,133 @@ public class MethodeLinksBodyProcessor implements BodyProcessor {
         return false;
     }
 
-    private void transformLinkToAssetOnFtCom(Node aTag, String uuid) {
-        String oldHref = getHref(aTag);
-        String newHref;
-
+    private String transformLinkToAssetOnFtCom(String oldHref, String uuid) {
         Matcher matcher = FT_COM_URL_REGEX_PATTERN.matcher(oldHref);
         if (matcher.matches()) {
             URI ftAssetUri = URI.create(oldHref);
             String path = ftAssetUri.getPath();
 
             if (path.startsWith("/intl") || path.startsWith("/cms/s") || path.startsWith("/video") || path.startsWith("/content")) {
-                newHref = String.format(canonicalUrlTemplate, uuid);
-            } else {
-                newHref = oldHref;
+                return String.format(canonicalUrlTemplate, uuid);
             }
-        } else {
-            newHref = String.format(canonicalUrlTemplate, uuid);
+            return oldHref;
         }
-
-        getAttribute(aTag, "href").setNodeValue(newHref);
-
-        // We might have added a type attribute to identify the type of content this links to.
-        // If so, it should be removed, because it is not HTML5 compliant.
-        removeTypeAttributeIfPresent(aTag);
+        return String.format(canonicalUrlTemplate, uuid);
     }
 
-    private void removeTypeAttributeIfPresent(Node aTag) {
-        if (getAttribute(aTag, TYPE) != null) {
-            aTag.getAttributes().removeNamedItem(TYPE);
+    static Optional<String> extractUuid(String href) {
+        Matcher matcher = UUID_REGEX_PATTERN.matcher(href);
+        if (matcher.matches()) {
+            return Optional.ofNullable(matcher.group(1));
         }
+        return Optional.empty();
     }
 
-    private Node getAttribute(Node aTag, String attributeName) {
-        return aTag.getAttributes().getNamedItem(attributeName);
+    private static String attributeValue(XMLStreamReader reader, String attributeName) {
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            if (attributeName.equals(reader.getAttributeLocalName(i))) {
+                return reader.getAttributeValue(i);
+            }
+        }
+        return null;
     }
 
-    private Optional<String> extractUuid(Node node) {
-        return extractUuid(getHref(node));
+    private static boolean hasDataAttribute(XMLStreamReader reader) {
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            if (reader.getAttributeLocalName(i).startsWith("data-")) {
+                return true;
+            }
+        }
+        return false;
     }
 
-    private Optional<String> extractUuid(String href) {
-        Matcher matcher = UUID_REGEX_PATTERN.matcher(href);
-        if (matcher.matches()) {
-            return Optional.ofNullable(matcher.group(1));
+    private static boolean isWhitespace(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            // as String.trim() sees it
+            if (text.charAt(i) > ' ') {
+                return false;
+            }
         }
-        return Optional.empty();
+        return true;
     }
 
-    private String getHref(Node aTag) {
-        final NamedNodeMap attributes = aTag.getAttributes();
-        final Node hrefAttr = attributes.getNamedItem("href");
-        return hrefAttr == null ? "" : hrefAttr.getNodeValue();
-    }
+    private static class StartTag {
+        private final String name;
+        // in order of their names, as the DOM keeps them
+        private final SortedMap<String, String> attributes = new TreeMap<>();
 
-    /**
-     * Strips out a tag.
-     * If the child content of the tag is empty or only whitespace, it is removed;
-     * any other child content of the tag is preserved in place.
-     *
-     * @param aTag the tag
-     */
-    private void removeATag(Element aTag) {
-        Node parentNode = aTag.getParentNode();
-
-        if (!aTag.getTextContent().trim().isEmpty()) {
-            NodeList children = aTag.getChildNodes();
-            Node n = children.item(0);
-            while (n != null) {
-                aTag.removeChild(n);
-                parentNode.insertBefore(n, aTag);
-                n = children.item(0);
+        private StartTag(String name) {
+            this.name = name;
+        }
+
+        private StartTag writeStart(XMLStreamWriter writer) throws XMLStreamException {
+            writer.writeStartElement(name);
+            writeAttributes(writer);
+            return null;
+        }
+
+        private void writeEmpty(XMLStreamWriter writer) throws XMLStreamException {
+            writer.writeEmptyElement(name);
+            writeAttributes(writer);
+        }
+
+        private void writeAttributes(XMLStreamWriter writer) throws XMLStreamException {
+            for (Map.Entry<String, String> attribute : attributes.entrySet()) {
+                writer.writeAttribute(attribute.getKey(), attribute.getValue());
             }
         }
-        parentNode.removeChild(aTag);
     }
 
-    private DocumentBuilder getDocumentBuilder() throws ParserConfigurationException {
-        final DocumentBuilderFactory documentBuilderFactory = DocumentBuilderFactory.newInstance();
-        documentBuilderFactory.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
+    private enum Removal {
+        NONE,
+        /**
+         * The tag is stripped, its child content being preserved in place.
+         */
+        KEEPING_CONTENT,
+        /**
+         * The tag is removed along with its child content, which is empty or only whitespace.
+         */
+        WITH_CONTENT
+    }
+
+    private enum Rewrite {
+        WRITTEN, NOT_WRITTEN, REMOVED, CONTENT
+    }
+
+    private static class ATag {
+        private static final ATag NONE = new ATag("", false);
+
+        private final String href;
+        private final boolean hasDataAttribute;
+        private boolean hasText;
+        private boolean hasNonTextChild;
 
-        return documentBuilderFactory.newDocumentBuilder();
+        private Removal removal = Removal.NONE;
+        private String uuid;
+
+        private ATag(String href, boolean hasDataAttribute) {
+            this.href = href == null ? "" : href;
+            this.hasDataAttribute = hasDataAttribute;
+        }
+
+        /**
+         * We remove <code>&lt;a&gt;</code> tags
+         * <ul>
+         * <li>with blank hrefs (which are either invalid, or refer to the current document);</li>
+         * <li>with hrefs that contain only a fragment identifier (a part of the current document);</li>
+         * <li>with no non-whitespace content <i>and</i> no <code>data-*</code> attributes.</li>
+         * </ul>
+         * If the child content of a removed tag is empty or only whitespace, it is removed; any other child content
+         * of the tag is preserved in place. The others may link to content, by UUID.
+         */
+        private void decide() {
+            boolean removable = href.isEmpty() || href.startsWith(ANCHOR_PREFIX)
+                    || (!hasNonTextChild && !hasText && !hasDataAttribute);
+            if (removable) {
+                removal = hasText ? Removal.KEEPING_CONTENT : Removal.WITH_CONTENT;
+            } else {
+                uuid = extractUuid(href).orElse(null);
+            }
+        }
     }
 }
@@ -0,0 +1,33 @@
+package com.ft.methodearticleinternalcomponentsmapper.transformation;
+
+import com.ft.methodearticleinternalcomponentsmapper.model.EomFile;
+import com.ft.methodearticleinternalcomponentsmapper.xml.StreamingFieldExtractor;
+
+/**
+ * An <code>EomFile</code> together with its attributes once {@link EomFileMetadataExtractor} has read them, so that a
+ * message is deserialized once and its attributes parsed once, however many times its source code is checked on the
+ * way to the mapper.
+ * <p>
+ * Not thread-safe: hand it to another thread only through a happens-before edge, such as an executor.
+ */
+public class ParsedEomFile {
+
+    private final EomFile eomFile;
+    private StreamingFieldExtractor.Fields attributes;
+
+    public ParsedEomFile(EomFile eomFile) {
+        this.eomFile = eomFile;
+    }
+
+    public EomFile getEomFile() {
+        return eomFile;
+    }
+
+    StreamingFieldExtractor.Fields getAttributes() {
+        return attributes;
+    }
+
+    void setAttributes(StreamingFieldExtractor.Fields attributes) {
+        this.attributes = attributes;
+    }
+}
@@ -1,55 +1,56 @@
 package com.ft.methodearticleinternalcomponentsmapper.transformation;
 
+import com.codahale.metrics.MetricRegistry;
 import com.ft.bodyprocessing.BodyProcessingContext;
 import com.ft.bodyprocessing.BodyProcessingException;
 import com.ft.bodyprocessing.BodyProcessor;
-import org.apache.commons.lang.StringUtils;
+import com.ft.methodearticleinternalcomponentsmapper.xml.XmlInfrastructure;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.w3c.dom.Document;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
-import org.xml.sax.InputSource;
-import org.xml.sax.SAXException;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.transform.OutputKeys;
-import javax.xml.transform.Transformer;
-import javax.xml.transform.TransformerException;
-import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.dom.DOMSource;
-import javax.xml.transform.stream.StreamResult;
 import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathExpressionException;
-import javax.xml.xpath.XPathFactory;
-import java.io.IOException;
-import java.io.StringReader;
-import java.io.StringWriter;
 
-public class PromoBoxExtractorBodyProcessor implements BodyProcessor {
+public class PromoBoxExtractorBodyProcessor implements BodyProcessor, DOMProcessingStage {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PromoBoxExtractorBodyProcessor.class);
 
     private static final String PROMO_BOX = "//promo-box[ancestor::p]";
 
+    private final XmlInfrastructure xmlInfrastructure;
+
+    public PromoBoxExtractorBodyProcessor() {
+        this(new XmlInfrastructure(new MetricRegistry()));
+    }
+
+    public PromoBoxExtractorBodyProcessor(XmlInfrastructure xmlInfrastructure) {
+        this.xmlInfrastructure = xmlInfrastructure;
+    }
+
     @Override
     public String process(String body, BodyProcessingContext bodyProcessingContext) throws BodyProcessingException {
-        if (StringUtils.isBlank(body)) {
-            return body;
+        try {
+            return new DOMStageBodyProcessor(xmlInfrastructure, this).process(body, bodyProcessingContext);
+        } catch (BodyProcessingException e) {
+            LOG.warn("Unable to extract promo boxes, leaving the body unchanged", e);
         }
 
+        return body;
+    }
+
+    @Override
+    public void process(Document document, BodyProcessingContext bodyProcessingContext) throws BodyProcessingException {
         try {
-            DocumentBuilder documentBuilder = getDocumentBuilder();
-            Document document = documentBuilder.parse(new InputSource(new StringReader(body)));
-            XPath xPath = XPathFactory.newInstance().newXPath();
+            XPath xPath = xmlInfrastructure.xPath();
 
             paragraphPromoBoxExtract(document, xPath);
-
-            body = serializeBody(document);
-        } catch (ParserConfigurationException | IOException | SAXException | TransformerException | XPathExpressionException e) {
-            e.printStackTrace();
+        } catch (XPathExpressionException e) {
+            LOG.warn("Unable to extract promo boxes, leaving the body unchanged", e);
         }
-
-        return body;
     }
 
     private void paragraphPromoBoxExtract(Document document, XPath xPath) throws XPathExpressionException {
@@ -73,25 +74,4 @@ public class PromoBoxExtractorBodyProcessor implements BodyProcessor {
             promoBoxParentNode.removeChild(promoBoxNode);
         }
     }
-
-    private DocumentBuilder getDocumentBuilder() throws ParserConfigurationException {
-        DocumentBuilderFactory builderFactory = DocumentBuilderFactory.newInstance();
-        return builderFactory.newDocumentBuilder();
-    }
-
-    private String serializeBody(Document document) throws TransformerException {
-        TransformerFactory transformerFactory = TransformerFactory.newInstance();
-        Transformer transformer = transformerFactory.newTransformer();
-        transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "yes");
-        transformer.setOutputProperty(OutputKeys.STANDALONE, "yes");
-
-        DOMSource domSource = new DOMSource(document);
-        StringWriter writer = new StringWriter();
-        StreamResult result = new StreamResult(writer);
-
-        transformer.transform(domSource, result);
-
-        writer.flush();
-        return writer.toString();
-    }
 }
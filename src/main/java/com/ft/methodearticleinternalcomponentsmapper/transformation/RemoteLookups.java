@@ -0,0 +1,109 @@
+package com.ft.methodearticleinternalcomponentsmapper.transformation;
+
+import com.ft.bodyprocessing.BodyProcessingContext;
+import com.ft.methodearticleinternalcomponentsmapper.model.Content;
+import com.ft.methodearticleinternalcomponentsmapper.model.concordance.Concordance;
+import com.ft.methodearticleinternalcomponentsmapper.model.concordance.Concordances;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+/**
+ * The Concordance and Document Store lookups for the companies and links of one article, started by
+ * {@link RemoteLookupsPrefetcher} before the article is validated and handed to the body processors in their
+ * {@link MappedDataBodyProcessingContext}.
+ * <p>
+ * A lookup is only used when it was started for every identifier a processor asks for; otherwise the processor calls
+ * the client itself, as it would without the prefetch. A lookup which failed fails the processor as the client would
+ * have, rather than being made again.
+ */
+public class RemoteLookups {
+
+    public static final String CONTEXT_KEY = "remoteLookups";
+
+    private final Set<String> compositeIds;
+    private final Future<Concordances> concordances;
+    private final Set<String> contentUuids;
+    private final Future<List<Content>> content;
+
+    RemoteLookups(Set<String> compositeIds, Future<Concordances> concordances,
+                  Set<String> contentUuids, Future<List<Content>> content) {
+        this.compositeIds = compositeIds;
+        this.concordances = concordances;
+        this.contentUuids = contentUuids;
+        this.content = content;
+    }
+
+    /**
+     * @return the lookups in the context, or <code>null</code> if there are none.
+     */
+    public static RemoteLookups from(BodyProcessingContext bodyProcessingContext) {
+        if (bodyProcessingContext instanceof MappedDataBodyProcessingContext) {
+            return ((MappedDataBodyProcessingContext) bodyProcessingContext).get(CONTEXT_KEY, RemoteLookups.class);
+        }
+        return null;
+    }
+
+    /**
+     * @return the concordances of the given TME identifier values, if they were prefetched.
+     */
+    public Optional<Concordances> concordancesFor(Collection<String> identifierValues) {
+        if (identifierValues.isEmpty() || !compositeIds.containsAll(identifierValues)) {
+            return Optional.empty();
+        }
+
+        return result(concordances).map(prefetched -> {
+            if (prefetched.getConcordances() == null) {
+                return new Concordances(Collections.<Concordance>emptyList());
+            }
+            return new Concordances(prefetched.getConcordances().stream()
+                    .filter(concordance -> identifierValues.contains(concordance.getIdentifier().getIdentifierValue()))
+                    .collect(Collectors.toList()));
+        });
+    }
+
+    /**
+     * @return the content the Document Store has for the given UUIDs, if it was prefetched.
+     */
+    public Optional<List<Content>> contentFor(Collection<String> uuids) {
+        if (!contentUuids.containsAll(uuids)) {
+            return Optional.empty();
+        }
+        if (uuids.isEmpty()) {
+            return Optional.of(Collections.emptyList());
+        }
+
+        return result(content).map(prefetched -> prefetched.stream()
+                .filter(item -> uuids.contains(item.getUuid()))
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * Gives up on any lookup still in progress, interrupting it. Lookups not yet started are not made.
+     */
+    public void cancel() {
+        concordances.cancel(true);
+        content.cancel(true);
+    }
+
+    private static <T> Optional<T> result(Future<T> future) {
+        try {
+            return Optional.ofNullable(Uninterruptibles.getUninterruptibly(future));
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.ft.methodearticleinternalcomponentsmapper.transformation;
+
+import com.ft.methodearticleinternalcomponentsmapper.clients.ConcordanceApiClient;
+import com.ft.methodearticleinternalcomponentsmapper.clients.DocumentStoreApiClient;
+import com.ft.methodearticleinternalcomponentsmapper.model.Content;
+import com.ft.methodearticleinternalcomponentsmapper.model.concordance.Concordances;
+import org.apache.commons.lang.StringUtils;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Scans the raw body fields of an article for the companies {@link TearSheetLinksTransformer} and the links
+ * {@link MethodeLinksBodyProcessor} will look up, and starts both lookups on the executor as tasks which
+ * {@link RemoteLookups#cancel()} can interrupt.
+ */
+public class RemoteLookupsPrefetcher {
+
+    private final DocumentStoreApiClient documentStoreApiClient;
+    private final ConcordanceApiClient concordanceApiClient;
+    private final Executor executor;
+
+    public RemoteLookupsPrefetcher(DocumentStoreApiClient documentStoreApiClient,
+                                   ConcordanceApiClient concordanceApiClient,
+                                   Executor executor) {
+        this.documentStoreApiClient = documentStoreApiClient;
+        this.concordanceApiClient = concordanceApiClient;
+        this.executor = executor;
+    }
+
+    /**
+     * @param fields the body, summary and block elements of the article; <code>null</code>s are ignored.
+     */
+    public RemoteLookups prefetch(List<Element> fields, String transactionId) {
+        Set<String> compositeIds = new LinkedHashSet<>();
+        Set<String> contentUuids = new LinkedHashSet<>();
+        for (Element field : fields) {
+            if (field != null) {
+                collectCompositeIds(field, compositeIds);
+                collectContentUuids(field, contentUuids);
+            }
+        }
+
+        Future<Concordances> concordances = compositeIds.isEmpty()
+                ? CompletableFuture.<Concordances>completedFuture(null)
+                : start(() -> concordanceApiClient.getConcordancesByIdentifierValues(new ArrayList<>(compositeIds)));
+        Future<List<Content>> content = contentUuids.isEmpty()
+                ? CompletableFuture.completedFuture(Collections.<Content>emptyList())
+                : start(() -> documentStoreApiClient.getContentForUuids(contentUuids, transactionId));
+
+        return new RemoteLookups(compositeIds, concordances, contentUuids, content);
+    }
+
+    private <T> Future<T> start(Callable<T> lookup) {
+        FutureTask<T> task = new FutureTask<>(lookup);
+        executor.execute(task);
+        return task;
+    }
+
+    private void collectCompositeIds(Element field, Set<String> compositeIds) {
+        NodeList companies = field.getElementsByTagName("company");
+        for (int i = 0; i < companies.getLength(); i++) {
+            Element company = (Element) companies.item(i);
+            addIfNotBlank(compositeIds, company.getAttribute("CompositeId"));
+            addIfNotBlank(compositeIds, company.getAttribute("compositeid"));
+        }
+    }
+
+    private void collectContentUuids(Element field, Set<String> contentUuids) {
+        NodeList links = field.getElementsByTagName("a");
+        for (int i = 0; i < links.getLength(); i++) {
+            MethodeLinksBodyProcessor.extractUuid(((Element) links.item(i)).getAttribute("href"))
+                    .ifPresent(contentUuids::add);
+        }
+    }
+
+    private static void addIfNotBlank(Set<String> values, String value) {
+        if (StringUtils.isNotBlank(value)) {
+            values.add(value);
+        }
+    }
+}
@@ -1,6 +1,6 @@
 package com.ft.methodearticleinternalcomponentsmapper.transformation;
 
-import com.ft.bodyprocessing.xml.dom.XPathHandler;
+import com.ft.bodyprocessing.BodyProcessingContext;
 import com.ft.methodearticleinternalcomponentsmapper.clients.ConcordanceApiClient;
 import com.ft.methodearticleinternalcomponentsmapper.exception.ConcordanceApiException;
 import com.ft.methodearticleinternalcomponentsmapper.model.concordance.Concordance;
@@ -13,12 +13,16 @@ import org.w3c.dom.Element;
 import org.w3c.dom.NodeList;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-public class TearSheetLinksTransformer implements XPathHandler {
+public class TearSheetLinksTransformer implements ContextAwareXPathHandler {
     private static final Logger LOG = LoggerFactory.getLogger(TearSheetLinksTransformer.class);
 
     private static final String TME_AUTHORITY = "http://api.ft.com/system/FT-TME";
@@ -36,7 +40,13 @@ public class TearSheetLinksTransformer implements XPathHandler {
 
     @Override
     public void handle(Document document, NodeList nodes) {
-        List<String> identifierValues = new ArrayList<>();
+        handle(document, nodes, null);
+    }
+
+    @Override
+    public void handle(Document document, NodeList nodes, BodyProcessingContext bodyProcessingContext) {
+        // a company mentioned several times is asked for once
+        Set<String> identifierValues = new LinkedHashSet<>();
         int len = nodes.getLength();
         if (len > 0) {
             for (int i = len - 1; i >= 0; i--) {
@@ -51,7 +61,7 @@ public class TearSheetLinksTransformer implements XPathHandler {
                 }
             }
             try {
-                Concordances concordances = client.getConcordancesByIdentifierValues(identifierValues);
+                Concordances concordances = getConcordances(new ArrayList<>(identifierValues), RemoteLookups.from(bodyProcessingContext));
                 if (concordancesArePresent(concordances)) {
                     transformTearSheetLink(concordances.getConcordances(), nodes);
                 } else {
@@ -63,11 +73,22 @@ public class TearSheetLinksTransformer implements XPathHandler {
         }
     }
 
+    private Concordances getConcordances(List<String> identifierValues, RemoteLookups remoteLookups) {
+        if (remoteLookups != null) {
+            Optional<Concordances> prefetched = remoteLookups.concordancesFor(identifierValues);
+            if (prefetched.isPresent()) {
+                return prefetched.get();
+            }
+        }
+        return client.getConcordancesByIdentifierValues(identifierValues);
+    }
+
     private boolean concordancesArePresent(Concordances concordances) {
         return concordances != null && concordances.getConcordances() != null && !concordances.getConcordances().isEmpty();
     }
 
     private void transformTearSheetLink(List<Concordance> concordances, NodeList nodes) {
+        Map<String, String> conceptApiUrlsByTMEId = indexByTMEId(concordances);
         int len = nodes.getLength();
         for (int i = len - 1; i >= 0; i--) {
             Element el = (Element) nodes.item(i);
@@ -76,7 +97,7 @@ public class TearSheetLinksTransformer implements XPathHandler {
             String id = StringUtils.isNotBlank(el.getAttribute("CompositeId")) ? el.getAttribute("CompositeId")
                     : el.getAttribute("compositeid");
             if (StringUtils.isNotBlank(id)) {
-                String conceptApiUrl = getConcordanceByTMEId(concordances, id);
+                String conceptApiUrl = conceptApiUrlsByTMEId.get(id);
                 if (StringUtils.isNotBlank(conceptApiUrl)) {
                     Element newElement = el.getOwnerDocument().createElement(CONCEPT_TAG);
                     newElement.setAttribute("id", getConceptIdFromUrl(conceptApiUrl));
@@ -90,15 +111,16 @@ public class TearSheetLinksTransformer implements XPathHandler {
         }
     }
 
-    private String getConcordanceByTMEId(List<Concordance> concordances, String TMEId) {
-        Optional<Concordance> concordance = concordances.stream()
-                .filter(item -> item.getIdentifier().getAuthority().equals(TME_AUTHORITY)
-                        && TMEId.equals(item.getIdentifier().getIdentifierValue()))
-                .findFirst();
-        if (concordance.isPresent()) {
-            return concordance.get().getConcept().getApiUrl();
+    private Map<String, String> indexByTMEId(List<Concordance> concordances) {
+        Map<String, String> conceptApiUrlsByTMEId = new HashMap<>();
+        for (Concordance concordance : concordances) {
+            if (TME_AUTHORITY.equals(concordance.getIdentifier().getAuthority())) {
+                // the first concordance of a TME id is the one linked to
+                conceptApiUrlsByTMEId.putIfAbsent(concordance.getIdentifier().getIdentifierValue(),
+                        concordance.getConcept().getApiUrl());
+            }
         }
-        return null;
+        return conceptApiUrlsByTMEId;
     }
 
     private String getConceptIdFromUrl(String apiUrl) {
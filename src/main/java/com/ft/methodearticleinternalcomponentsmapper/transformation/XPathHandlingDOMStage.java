@@ -0,0 +1,45 @@
+package com.ft.methodearticleinternalcomponentsmapper.transformation;
+
+import com.ft.bodyprocessing.BodyProcessingContext;
+import com.ft.bodyprocessing.BodyProcessingException;
+import com.ft.bodyprocessing.xml.dom.XPathHandler;
+import com.ft.methodearticleinternalcomponentsmapper.xml.XmlInfrastructure;
+import org.w3c.dom.Document;
+import org.w3c.dom.NodeList;
+
+import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpressionException;
+import java.util.Map;
+
+/**
+ * Hands the nodes matched by each xpath to its {@link XPathHandler}, in the same way as
+ * <code>DOMTransformingBodyProcessor</code>, but against a document shared with other DOM stages.
+ */
+public class XPathHandlingDOMStage implements DOMProcessingStage {
+
+    private final XmlInfrastructure xmlInfrastructure;
+    private final Map<String, XPathHandler> handlers;
+
+    public XPathHandlingDOMStage(XmlInfrastructure xmlInfrastructure, Map<String, XPathHandler> handlers) {
+        this.xmlInfrastructure = xmlInfrastructure;
+        this.handlers = handlers;
+    }
+
+    @Override
+    public void process(Document document, BodyProcessingContext bodyProcessingContext) throws BodyProcessingException {
+        XPath xPath = xmlInfrastructure.xPath();
+        try {
+            for (Map.Entry<String, XPathHandler> handler : handlers.entrySet()) {
+                NodeList nodes = (NodeList) xPath.compile(handler.getKey()).evaluate(document, XPathConstants.NODESET);
+                if (handler.getValue() instanceof ContextAwareXPathHandler) {
+                    ((ContextAwareXPathHandler) handler.getValue()).handle(document, nodes, bodyProcessingContext);
+                } else {
+                    handler.getValue().handle(document, nodes);
+                }
+            }
+        } catch (XPathExpressionException e) {
+            throw new BodyProcessingException(e);
+        }
+    }
+}
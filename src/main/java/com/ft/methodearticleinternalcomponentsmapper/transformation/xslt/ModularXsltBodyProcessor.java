@@ -4,8 +4,11 @@ import com.ft.bodyprocessing.BodyProcessingContext;
 import com.ft.bodyprocessing.BodyProcessingException;
 import com.ft.bodyprocessing.BodyProcessor;
 import com.google.common.base.Charsets;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import javax.xml.transform.Source;
+import javax.xml.transform.Templates;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerConfigurationException;
 import javax.xml.transform.TransformerException;
@@ -15,6 +18,7 @@ import javax.xml.transform.stream.StreamResult;
 import javax.xml.transform.stream.StreamSource;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
@@ -34,47 +38,70 @@ import java.util.Map;
  * <p>The identity transform is added first.</p>
  * <p>
  * <p>Imports are resolved through the {@link URIResolver} interface.</p>
+ * <p>
+ * <p>The composite stylesheet is compiled once into {@link Templates}, and each call only creates a
+ * {@link Transformer} from it. Optionally, the files are checked for changes at a fixed interval and recompiled
+ * when one of them has been modified, so that a file created with {@link XsltFile#fromPath} can be swapped at runtime.</p>
  *
  * @author Simon Gibbs
  */
 public class ModularXsltBodyProcessor implements BodyProcessor {
 
-    private final Map<String, String> files;
+    private static final Logger LOG = LoggerFactory.getLogger(ModularXsltBodyProcessor.class);
+
+    private final Map<String, XsltFile> files;
+    private final String compositeXslt;
+    private final long reloadIntervalMillis;
+
+    private volatile CompiledXslt compiled;
+    private volatile long nextReloadCheck;
 
     public ModularXsltBodyProcessor(XsltFile... xslts) {
+        this(0, xslts);
+    }
+
+    /**
+     * @param reloadIntervalMillis how often to check the XSLT files for changes, recompiling them if any have been
+     *                             modified. Zero or less never reloads.
+     */
+    public ModularXsltBodyProcessor(long reloadIntervalMillis, XsltFile... xslts) {
         files = new LinkedHashMap<>();
 
         // It is important that this goes first (lowest priority) as it provides the default "echo the input to output" behaviour
-        files.put(XsltFile.IDENTITY_TRANSFORM.getName(), XsltFile.IDENTITY_TRANSFORM.getContent());
+        files.put(XsltFile.IDENTITY_TRANSFORM.getName(), XsltFile.IDENTITY_TRANSFORM);
 
         for (XsltFile file : xslts) {
-            files.put(file.getName(), file.getContent());
+            files.put(file.getName(), file);
         }
 
-    }
-
-    @Override
-    public String process(String body, BodyProcessingContext bodyProcessingContext) throws BodyProcessingException {
-
         StringBuilder compositeXslt = new StringBuilder("<xsl:transform xmlns:xsl=\"http://www.w3.org/1999/XSL/Transform\" version=\"1.0\">");
 
-        for (Map.Entry<String, String> file : files.entrySet()) {
-            String xslImport = String.format("<xsl:import href=\"%s\" />", file.getKey());
+        for (String name : files.keySet()) {
+            String xslImport = String.format("<xsl:import href=\"%s\" />", name);
             compositeXslt.append(xslImport);
         }
         // switch off boilerplate and pretty printing
         compositeXslt.append("<xsl:output method=\"xml\" indent=\"no\" omit-xml-declaration=\"yes\" />");
         compositeXslt.append("</xsl:transform>");
+        this.compositeXslt = compositeXslt.toString();
 
+        this.reloadIntervalMillis = reloadIntervalMillis;
         try {
+            compiled = compile(lastModified());
+        } catch (TransformerConfigurationException e) {
+            throw new BodyProcessingException("Failed to set up XSLT", e);
+        }
+        nextReloadCheck = System.currentTimeMillis() + reloadIntervalMillis;
+    }
 
+    @Override
+    public String process(String body, BodyProcessingContext bodyProcessingContext) throws BodyProcessingException {
 
-            TransformerFactory factory = TransformerFactory.newInstance();
-            factory.setURIResolver(new ModuleUriResolver(files));
+        reloadIfModified();
 
-            Source xsltSource = asSource(compositeXslt.toString());
+        try {
 
-            Transformer transformer = factory.newTransformer(xsltSource);
+            Transformer transformer = compiled.templates.newTransformer();
 
             ByteArrayOutputStream resultBuffer = new ByteArrayOutputStream();
             StreamResult result = new StreamResult(resultBuffer);
@@ -92,6 +119,64 @@ public class ModularXsltBodyProcessor implements BodyProcessor {
 
     }
 
+    private void reloadIfModified() {
+        if (reloadIntervalMillis <= 0 || System.currentTimeMillis() < nextReloadCheck) {
+            return;
+        }
+
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+            if (now < nextReloadCheck) {
+                return;
+            }
+            nextReloadCheck = now + reloadIntervalMillis;
+
+            try {
+                Map<String, Long> lastModified = lastModified();
+                if (!lastModified.equals(compiled.lastModified)) {
+                    compiled = compile(lastModified);
+                    LOG.info("Reloaded XSLT files {}", files.keySet());
+                }
+            } catch (TransformerConfigurationException | RuntimeException e) {
+                // keep applying the previous stylesheets until the files are fixed
+                LOG.warn("Failed to reload XSLT files, keeping the previous ones", e);
+            }
+        }
+    }
+
+    private Map<String, Long> lastModified() {
+        Map<String, Long> lastModified = new HashMap<>();
+        for (XsltFile file : files.values()) {
+            lastModified.put(file.getName(), file.getLastModified());
+        }
+        return lastModified;
+    }
+
+    private CompiledXslt compile(Map<String, Long> lastModified) throws TransformerConfigurationException {
+        Map<String, String> contents = new HashMap<>();
+        for (XsltFile file : files.values()) {
+            contents.put(file.getName(), file.getContent());
+        }
+
+        TransformerFactory factory = TransformerFactory.newInstance();
+        factory.setURIResolver(new ModuleUriResolver(contents));
+
+        return new CompiledXslt(factory.newTemplates(asSource(compositeXslt)), lastModified);
+    }
+
+    /**
+     * The composite stylesheet, and the modification times of the files it was compiled from.
+     */
+    private static class CompiledXslt {
+
+        private final Templates templates;
+        private final Map<String, Long> lastModified;
+
+        CompiledXslt(Templates templates, Map<String, Long> lastModified) {
+            this.templates = templates;
+            this.lastModified = lastModified;
+        }
+    }
 
     /**
      * Resolves keys from the map of "XSLT files" to the text of those files.
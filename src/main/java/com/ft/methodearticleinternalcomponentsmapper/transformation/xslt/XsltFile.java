@@ -1,11 +1,17 @@
 package com.ft.methodearticleinternalcomponentsmapper.transformation.xslt;
 
+import com.google.common.base.Charsets;
 import com.google.common.base.Preconditions;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
 public class XsltFile {
 
     private String name;
     private String content;
+    private Path path;
 
     /**
      * Implements the <a href="http://en.wikipedia.org/wiki/Identity_transform">identity transform</a>
@@ -28,11 +34,51 @@ public class XsltFile {
         this.content = content;
     }
 
+    private XsltFile(String name, Path path) {
+
+        Preconditions.checkNotNull(path);
+        Preconditions.checkNotNull(name);
+
+        this.name = name;
+        this.path = path;
+    }
+
+    /**
+     * An XSLT file read from disk whenever its content is asked for, so that it can be replaced while the
+     * application is running.
+     */
+    public static XsltFile fromPath(String name, Path path) {
+        return new XsltFile(name, path);
+    }
+
     public String getName() {
         return name;
     }
 
     public String getContent() {
-        return content;
+        if (path == null) {
+            return content;
+        }
+
+        try {
+            return new String(Files.readAllBytes(path), Charsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to read XSLT file " + path, e);
+        }
+    }
+
+    /**
+     * @return the modification time of the file on disk, or <code>0</code> if the content is fixed.
+     */
+    public long getLastModified() {
+        if (path == null) {
+            return 0;
+        }
+
+        try {
+            return Files.getLastModifiedTime(path).toMillis();
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to read XSLT file " + path, e);
+        }
     }
 }
@@ -0,0 +1,99 @@
+package com.ft.methodearticleinternalcomponentsmapper.validation;
+
+import com.ft.methodearticleinternalcomponentsmapper.model.EomFile;
+import com.ft.methodearticleinternalcomponentsmapper.xml.StreamingFieldExtractor;
+import com.ft.methodearticleinternalcomponentsmapper.xml.XmlInfrastructure;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamException;
+import java.io.StringReader;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Decides the publishing status of an article from its type, attributes and workflow status, as the Methode article
+ * mappers do, without sending them the article. An article marked deleted from the web is deleted. Otherwise it is
+ * ineligible unless it is a compound story which, outside previews, is in one of the publishable workflow statuses and
+ * is not embargoed until later.
+ * <p>
+ * What the rules cannot read, such as attributes which are not XML or an embargo date in another format, is left
+ * undecided. Nor do they check, as the mappers also do, the channel of the article or that its body can be
+ * transformed, so an article they find valid may still be rejected by the mappers.
+ */
+public class PublishingStatusRules {
+
+    private static final String MARK_DELETED = "markDeleted";
+    private static final String EMBARGO_DATE = "embargoDate";
+    private static final String XPATH_MARK_DELETED = "/ObjectMetadata/OutputChannels/DIFTcom/DIFTcomMarkDeleted";
+    private static final String XPATH_EMBARGO_DATE = "/ObjectMetadata/EditorialNotes/EmbargoDate";
+    private static final String COMPOUND_STORY_TYPE = "EOM::CompoundStory";
+    private static final DateTimeFormatter EMBARGO_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyyMMddHHmmss").withZone(ZoneOffset.UTC);
+
+    private final StreamingFieldExtractor attributesExtractor;
+    private final Set<String> workflowStatuses;
+    private final Clock clock;
+
+    public PublishingStatusRules(XmlInfrastructure xmlInfrastructure, Collection<String> workflowStatuses) {
+        this(xmlInfrastructure, workflowStatuses, Clock.systemUTC());
+    }
+
+    PublishingStatusRules(XmlInfrastructure xmlInfrastructure, Collection<String> workflowStatuses, Clock clock) {
+        this.attributesExtractor = StreamingFieldExtractor.builder(xmlInfrastructure)
+                .withText(MARK_DELETED, XPATH_MARK_DELETED)
+                .withText(EMBARGO_DATE, XPATH_EMBARGO_DATE)
+                .build();
+        this.workflowStatuses = new HashSet<>(workflowStatuses);
+        this.clock = clock;
+    }
+
+    /**
+     * @param preview whether the article is being previewed; <code>null</code>, as for content placeholders, is taken
+     *                as a publish.
+     * @return the publishing status, or <code>null</code> if the rules cannot decide it.
+     */
+    public PublishingStatus decide(EomFile eomFile, Boolean preview) {
+        if (!COMPOUND_STORY_TYPE.equals(eomFile.getType())) {
+            return PublishingStatus.INELIGIBLE;
+        }
+        if (eomFile.getAttributes() == null) {
+            return null;
+        }
+
+        StreamingFieldExtractor.Fields attributes;
+        try {
+            attributes = attributesExtractor.extract(new StringReader(eomFile.getAttributes()));
+        } catch (XMLStreamException | ParserConfigurationException e) {
+            return null;
+        }
+
+        if ("true".equalsIgnoreCase(attributes.text(MARK_DELETED).trim())) {
+            return PublishingStatus.DELETED;
+        }
+        if (Boolean.TRUE.equals(preview)) {
+            return PublishingStatus.VALID;
+        }
+        if (!workflowStatuses.contains(eomFile.getWorkflowStatus())) {
+            return PublishingStatus.INELIGIBLE;
+        }
+
+        String embargoDate = attributes.text(EMBARGO_DATE).trim();
+        if (!embargoDate.isEmpty()) {
+            Instant embargoedUntil;
+            try {
+                embargoedUntil = EMBARGO_DATE_FORMAT.parse(embargoDate, Instant::from);
+            } catch (DateTimeParseException e) {
+                return null;
+            }
+            if (embargoedUntil.isAfter(clock.instant())) {
+                return PublishingStatus.INELIGIBLE;
+            }
+        }
+        return PublishingStatus.VALID;
+    }
+}
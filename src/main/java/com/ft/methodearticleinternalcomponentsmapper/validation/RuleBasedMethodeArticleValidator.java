@@ -0,0 +1,82 @@
+package com.ft.methodearticleinternalcomponentsmapper.validation;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.ft.methodearticleinternalcomponentsmapper.configuration.PublishingStatusConfiguration;
+import com.ft.methodearticleinternalcomponentsmapper.model.EomFile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Decides the publishing status of articles with {@link PublishingStatusRules} instead of, or as well as, asking a
+ * Methode article mapper. In shadow mode the mapper still decides, and its answers are compared with those of the
+ * rules: disagreements are counted by what each answered, and logged. In local mode the articles the rules reject, as
+ * deleted or ineligible, are not sent to the mapper; it is still asked about every other article, since the rules do not
+ * check all that it does, such as the channel of the article or whether its body can be transformed.
+ */
+public class RuleBasedMethodeArticleValidator extends MethodeArticleValidator {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RuleBasedMethodeArticleValidator.class);
+
+    private final MethodeArticleValidator validator;
+    private final PublishingStatusRules rules;
+    private final PublishingStatusConfiguration.Mode mode;
+    private final String sourceCode;
+    private final MetricRegistry metrics;
+
+    private final Meter decidedLocally;
+    private final Meter askedRemotely;
+    private final Meter agreed;
+    private final Meter disagreed;
+    private final Meter undecided;
+
+    public RuleBasedMethodeArticleValidator(MethodeArticleValidator validator, PublishingStatusRules rules,
+                                            PublishingStatusConfiguration.Mode mode, String sourceCode, MetricRegistry metrics) {
+        super(null, null, null);
+        this.validator = validator;
+        this.rules = rules;
+        this.mode = mode;
+        this.sourceCode = sourceCode;
+        this.metrics = metrics;
+
+        this.decidedLocally = metrics.meter(MetricRegistry.name(RuleBasedMethodeArticleValidator.class, sourceCode, "local"));
+        this.askedRemotely = metrics.meter(MetricRegistry.name(RuleBasedMethodeArticleValidator.class, sourceCode, "remote"));
+        this.agreed = metrics.meter(MetricRegistry.name(RuleBasedMethodeArticleValidator.class, sourceCode, "shadow", "agreed"));
+        this.disagreed = metrics.meter(MetricRegistry.name(RuleBasedMethodeArticleValidator.class, sourceCode, "shadow", "disagreed"));
+        this.undecided = metrics.meter(MetricRegistry.name(RuleBasedMethodeArticleValidator.class, sourceCode, "shadow", "undecided"));
+    }
+
+    @Override
+    public PublishingStatus getPublishingStatus(EomFile eomFile, String transactionId, Boolean preview) {
+        PublishingStatus local = rules.decide(eomFile, preview);
+        if (mode == PublishingStatusConfiguration.Mode.LOCAL && isRejection(local)) {
+            decidedLocally.mark();
+            return local;
+        }
+
+        PublishingStatus remote = validator.getPublishingStatus(eomFile, transactionId, preview);
+        askedRemotely.mark();
+        if (mode == PublishingStatusConfiguration.Mode.SHADOW) {
+            compare(eomFile, transactionId, preview, local, remote);
+        }
+        return remote;
+    }
+
+    private static boolean isRejection(PublishingStatus status) {
+        return status == PublishingStatus.DELETED || status == PublishingStatus.INELIGIBLE;
+    }
+
+    private void compare(EomFile eomFile, String transactionId, Boolean preview, PublishingStatus local, PublishingStatus remote) {
+        if (local == null) {
+            undecided.mark();
+        } else if (local == remote) {
+            agreed.mark();
+        } else {
+            disagreed.mark();
+            metrics.meter(MetricRegistry.name(RuleBasedMethodeArticleValidator.class, sourceCode, "shadow", "disagreed",
+                    local.name().toLowerCase(), remote.name().toLowerCase())).mark();
+            LOG.info("Local rules decided {} but the mapper answered {} for uuid={} preview={} workflowStatus={} transaction_id={}",
+                    local, remote, eomFile.getUuid(), preview, eomFile.getWorkflowStatus(), transactionId);
+        }
+    }
+}
@@ -0,0 +1,459 @@
+package com.ft.methodearticleinternalcomponentsmapper.xml;
+
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads a fixed set of fields from an XML document in a single StAX pass, without building a DOM for the whole document.
+ * <p>
+ * Fields are located by absolute paths of the form <code>/a/b</code>, <code>/a/b/@attr</code> or <code>/a//b/c</code>,
+ * and hold what the equivalent XPath would return against a DOM built by {@link XmlInfrastructure#documentBuilder()}:
+ * text fields hold the string value of the first match (or the empty string if nothing matches), while element fields
+ * hold DOM copies of the matching elements only.
+ * <p>
+ * Like that document builder, the extractor does not read external DTDs, so entity references which are not
+ * predefined by XML are dropped.
+ * <p>
+ * When built {@link Builder#withFieldTimers(MetricRegistry, String) with field timers}, the part of the pass spent
+ * within each element matched by a field is timed, so that the cost of a pass can be told apart by field.
+ */
+public class StreamingFieldExtractor {
+
+    private static final String CDATA_EVENTS = "http://java.sun.com/xml/stream/properties/report-cdata-event";
+
+    private final XmlInfrastructure xmlInfrastructure;
+    private final XMLInputFactory inputFactory;
+    private final List<Field> fields;
+    private final Map<String, Timer> fieldTimers;
+
+    public static Builder builder(XmlInfrastructure xmlInfrastructure) {
+        return new Builder(xmlInfrastructure);
+    }
+
+    private StreamingFieldExtractor(XmlInfrastructure xmlInfrastructure, List<Field> fields, Map<String, Timer> fieldTimers) {
+        this.xmlInfrastructure = xmlInfrastructure;
+        this.fields = fields;
+        this.fieldTimers = fieldTimers;
+
+        inputFactory = XMLInputFactory.newInstance();
+        inputFactory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
+        inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        inputFactory.setProperty(XMLInputFactory.IS_REPLACING_ENTITY_REFERENCES, false);
+        inputFactory.setProperty(XMLInputFactory.IS_COALESCING, false);
+        if (inputFactory.isPropertySupported(CDATA_EVENTS)) {
+            inputFactory.setProperty(CDATA_EVENTS, true);
+        }
+    }
+
+    public Fields extract(InputStream inputStream) throws XMLStreamException, ParserConfigurationException {
+        return extract(inputFactory.createXMLStreamReader(inputStream));
+    }
+
+    public Fields extract(Reader reader) throws XMLStreamException, ParserConfigurationException {
+        return extract(inputFactory.createXMLStreamReader(reader));
+    }
+
+    private Fields extract(XMLStreamReader reader) throws XMLStreamException, ParserConfigurationException {
+        Extraction extraction = new Extraction();
+        try {
+            while (reader.hasNext()) {
+                switch (reader.next()) {
+                    case XMLStreamConstants.START_ELEMENT:
+                        extraction.startElement(reader);
+                        break;
+                    case XMLStreamConstants.END_ELEMENT:
+                        extraction.endElement();
+                        break;
+                    case XMLStreamConstants.CHARACTERS:
+                    case XMLStreamConstants.SPACE:
+                        extraction.characters(reader.getText(), false);
+                        break;
+                    case XMLStreamConstants.CDATA:
+                        extraction.characters(reader.getText(), true);
+                        break;
+                    case XMLStreamConstants.COMMENT:
+                        extraction.comment(reader.getText());
+                        break;
+                    case XMLStreamConstants.PROCESSING_INSTRUCTION:
+                        extraction.processingInstruction(reader.getPITarget(), reader.getPIData());
+                        break;
+                    default:
+                        // entity references are undeclared without the external DTD, and are dropped as the DOM parser does
+                        break;
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        return new Fields(extraction.texts, extraction.elements);
+    }
+
+    private static String qualifiedName(String prefix, String localName) {
+        return prefix == null || prefix.isEmpty() ? localName : prefix + ":" + localName;
+    }
+
+    /**
+     * The state of a single pass over a document.
+     */
+    private class Extraction {
+
+        private final StringBuilder path = new StringBuilder();
+        private final List<Integer> pathLengths = new ArrayList<>();
+        private final List<TextCapture> openTexts = new ArrayList<>();
+        private final List<ElementCapture> openElements = new ArrayList<>();
+        private final Map<String, String> texts = new HashMap<>();
+        private final Map<String, List<Element>> elements = new HashMap<>();
+        private Document document;
+
+        void startElement(XMLStreamReader reader) throws ParserConfigurationException {
+            String name = qualifiedName(reader.getPrefix(), reader.getLocalName());
+            pathLengths.add(path.length());
+            path.append('/').append(name);
+            int depth = pathLengths.size();
+
+            for (ElementCapture capture : openElements) {
+                capture.startElement(reader, name);
+            }
+
+            String elementPath = path.toString();
+            for (Field field : fields) {
+                if (!field.matches(elementPath)) {
+                    continue;
+                }
+
+                if (field.attribute != null) {
+                    String value = attribute(reader, field.attribute);
+                    if (value != null && !texts.containsKey(field.name)) {
+                        texts.put(field.name, value);
+                    }
+                } else if (field.kind == Kind.TEXT) {
+                    if (!texts.containsKey(field.name) && !isOpen(field)) {
+                        openTexts.add(new TextCapture(field, depth, time(field)));
+                    }
+                } else if (field.kind == Kind.ELEMENTS || !elements.containsKey(field.name)) {
+                    ElementCapture capture = new ElementCapture(depth, time(field));
+                    capture.startElement(reader, name);
+                    openElements.add(capture);
+
+                    List<Element> matches = elements.get(field.name);
+                    if (matches == null) {
+                        matches = new ArrayList<>();
+                        elements.put(field.name, matches);
+                    }
+                    matches.add(capture.root);
+                }
+            }
+        }
+
+        void endElement() {
+            int depth = pathLengths.size();
+
+            for (Iterator<ElementCapture> captures = openElements.iterator(); captures.hasNext(); ) {
+                ElementCapture capture = captures.next();
+                capture.endElement();
+                if (capture.depth == depth) {
+                    stop(capture.timer);
+                    captures.remove();
+                }
+            }
+
+            for (Iterator<TextCapture> captures = openTexts.iterator(); captures.hasNext(); ) {
+                TextCapture capture = captures.next();
+                if (capture.depth == depth) {
+                    texts.put(capture.field.name, capture.text.toString());
+                    stop(capture.timer);
+                    captures.remove();
+                }
+            }
+
+            path.setLength(pathLengths.remove(depth - 1));
+        }
+
+        void characters(String text, boolean cdata) {
+            for (TextCapture capture : openTexts) {
+                capture.text.append(text);
+            }
+            for (ElementCapture capture : openElements) {
+                capture.characters(text, cdata);
+            }
+        }
+
+        void comment(String text) {
+            for (ElementCapture capture : openElements) {
+                capture.current.appendChild(document.createComment(text));
+            }
+        }
+
+        void processingInstruction(String target, String data) {
+            for (ElementCapture capture : openElements) {
+                capture.current.appendChild(document.createProcessingInstruction(target, data));
+            }
+        }
+
+        private Timer.Context time(Field field) {
+            Timer timer = fieldTimers.get(field.name);
+            return timer == null ? null : timer.time();
+        }
+
+        private void stop(Timer.Context timer) {
+            if (timer != null) {
+                timer.stop();
+            }
+        }
+
+        private boolean isOpen(Field field) {
+            for (TextCapture capture : openTexts) {
+                if (capture.field == field) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private String attribute(XMLStreamReader reader, String name) {
+            for (int i = 0; i < reader.getAttributeCount(); i++) {
+                if (name.equals(qualifiedName(reader.getAttributePrefix(i), reader.getAttributeLocalName(i)))) {
+                    return reader.getAttributeValue(i);
+                }
+            }
+            return null;
+        }
+
+        private Document document() throws ParserConfigurationException {
+            if (document == null) {
+                document = xmlInfrastructure.documentBuilder().newDocument();
+            }
+            return document;
+        }
+
+        private class TextCapture {
+
+            private final Field field;
+            private final int depth;
+            private final Timer.Context timer;
+            private final StringBuilder text = new StringBuilder();
+
+            TextCapture(Field field, int depth, Timer.Context timer) {
+                this.field = field;
+                this.depth = depth;
+                this.timer = timer;
+            }
+        }
+
+        /**
+         * Copies a matched element into a detached DOM element, merging adjacent text as the DOM parser does.
+         */
+        private class ElementCapture {
+
+            private final int depth;
+            private final Timer.Context timer;
+            private Element root;
+            private Node current;
+
+            ElementCapture(int depth, Timer.Context timer) {
+                this.depth = depth;
+                this.timer = timer;
+            }
+
+            void startElement(XMLStreamReader reader, String name) throws ParserConfigurationException {
+                Element element = document().createElement(name);
+                for (int i = 0; i < reader.getAttributeCount(); i++) {
+                    element.setAttribute(qualifiedName(reader.getAttributePrefix(i), reader.getAttributeLocalName(i)),
+                            reader.getAttributeValue(i));
+                }
+
+                if (root == null) {
+                    root = element;
+                } else {
+                    current.appendChild(element);
+                }
+                current = element;
+            }
+
+            void endElement() {
+                current = current.getParentNode();
+            }
+
+            void characters(String text, boolean cdata) {
+                Node last = current.getLastChild();
+                if (cdata) {
+                    current.appendChild(document.createCDATASection(text));
+                } else if (last != null && last.getNodeType() == Node.TEXT_NODE) {
+                    last.setNodeValue(last.getNodeValue() + text);
+                } else {
+                    current.appendChild(document.createTextNode(text));
+                }
+            }
+        }
+    }
+
+    /**
+     * The fields read from one document.
+     */
+    public static class Fields {
+
+        private final Map<String, String> texts;
+        private final Map<String, List<Element>> elements;
+
+        private Fields(Map<String, String> texts, Map<String, List<Element>> elements) {
+            this.texts = texts;
+            this.elements = elements;
+        }
+
+        /**
+         * @return the string value of the first match, or the empty string if nothing matched.
+         */
+        public String text(String name) {
+            String text = texts.get(name);
+            return text == null ? "" : text;
+        }
+
+        /**
+         * @return a copy of the first matching element, or <code>null</code> if nothing matched.
+         */
+        public Element element(String name) {
+            List<Element> matches = elements.get(name);
+            return matches == null ? null : matches.get(0);
+        }
+
+        /**
+         * @return copies of every matching element, in document order.
+         */
+        public List<Element> elements(String name) {
+            List<Element> matches = elements.get(name);
+            return matches == null ? Collections.<Element>emptyList() : matches;
+        }
+    }
+
+    private enum Kind {
+        TEXT,
+        ELEMENT,
+        ELEMENTS
+    }
+
+    private static class Field {
+
+        private final String name;
+        private final Kind kind;
+        private final String prefix;
+        private final String suffix;
+        private final String attribute;
+
+        Field(String name, Kind kind, String path) {
+            if (!path.startsWith("/")) {
+                throw new IllegalArgumentException("Only absolute paths are supported: " + path);
+            }
+
+            this.name = name;
+            this.kind = kind;
+
+            String elementPath = path;
+            int attributeStep = path.lastIndexOf("/@");
+            if (attributeStep >= 0) {
+                if (kind != Kind.TEXT) {
+                    throw new IllegalArgumentException("Attributes can only be read as text: " + path);
+                }
+                attribute = path.substring(attributeStep + 2);
+                elementPath = path.substring(0, attributeStep);
+            } else {
+                attribute = null;
+            }
+
+            int descendantStep = elementPath.indexOf("//");
+            if (descendantStep >= 0) {
+                prefix = elementPath.substring(0, descendantStep + 1);
+                suffix = elementPath.substring(descendantStep + 1);
+                if (suffix.contains("//")) {
+                    throw new IllegalArgumentException("Only one descendant step is supported: " + path);
+                }
+            } else {
+                prefix = elementPath;
+                suffix = null;
+            }
+        }
+
+        boolean matches(String elementPath) {
+            if (suffix == null) {
+                return elementPath.equals(prefix);
+            }
+            return elementPath.length() >= prefix.length() - 1 + suffix.length()
+                    && elementPath.startsWith(prefix)
+                    && elementPath.endsWith(suffix);
+        }
+    }
+
+    public static class Builder {
+
+        private final XmlInfrastructure xmlInfrastructure;
+        private final List<Field> fields = new ArrayList<>();
+        private MetricRegistry metrics;
+        private String timerName;
+
+        private Builder(XmlInfrastructure xmlInfrastructure) {
+            this.xmlInfrastructure = xmlInfrastructure;
+        }
+
+        /**
+         * Reads the string value of the first element or attribute matching <code>path</code>.
+         */
+        public Builder withText(String name, String path) {
+            fields.add(new Field(name, Kind.TEXT, path));
+            return this;
+        }
+
+        /**
+         * Copies the first element matching <code>path</code>.
+         */
+        public Builder withElement(String name, String path) {
+            fields.add(new Field(name, Kind.ELEMENT, path));
+            return this;
+        }
+
+        /**
+         * Copies every element matching <code>path</code>.
+         */
+        public Builder withElements(String name, String path) {
+            fields.add(new Field(name, Kind.ELEMENTS, path));
+            return this;
+        }
+
+        /**
+         * Times the reading of each field, from the start of a matching element to its end, under
+         * <code>&lt;name&gt;.&lt;field&gt;</code>. Attributes are read from the start of their element, and are not timed.
+         */
+        public Builder withFieldTimers(MetricRegistry metrics, String name) {
+            this.metrics = metrics;
+            this.timerName = name;
+            return this;
+        }
+
+        public StreamingFieldExtractor build() {
+            Map<String, Timer> fieldTimers = new HashMap<>();
+            if (metrics != null) {
+                for (Field field : fields) {
+                    if (field.attribute == null) {
+                        fieldTimers.put(field.name, metrics.timer(MetricRegistry.name(timerName, field.name)));
+                    }
+                }
+            }
+            return new StreamingFieldExtractor(xmlInfrastructure, new ArrayList<>(fields), fieldTimers);
+        }
+    }
+}
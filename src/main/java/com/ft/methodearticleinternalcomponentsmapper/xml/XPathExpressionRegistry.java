@@ -0,0 +1,80 @@
+package com.ft.methodearticleinternalcomponentsmapper.xml;
+
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+
+import javax.xml.namespace.QName;
+import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathExpression;
+import javax.xml.xpath.XPathExpressionException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A fixed set of XPath expressions, compiled once per thread and looked up by the expression itself.
+ * <p>
+ * All expressions are compiled when the registry is created, so that a broken expression fails at startup.
+ * Each evaluation is timed under <code>&lt;owner&gt;.xpath.&lt;name&gt;</code>.
+ */
+public class XPathExpressionRegistry {
+
+    private final XmlInfrastructure xmlInfrastructure;
+    private final Map<String, Timer> timers = new HashMap<>();
+    private final ThreadLocal<Map<String, XPathExpression>> compiledExpressions = new ThreadLocal<>();
+
+    /**
+     * @param namedExpressions the expressions to register, keyed by the name used for their timer.
+     */
+    public XPathExpressionRegistry(XmlInfrastructure xmlInfrastructure,
+                                   MetricRegistry metrics,
+                                   Class<?> owner,
+                                   Map<String, String> namedExpressions) {
+        this.xmlInfrastructure = xmlInfrastructure;
+        for (Map.Entry<String, String> namedExpression : namedExpressions.entrySet()) {
+            timers.put(namedExpression.getValue(), metrics.timer(MetricRegistry.name(owner, "xpath", namedExpression.getKey())));
+        }
+
+        try {
+            compiledExpressions.set(compileAll());
+        } catch (XPathExpressionException e) {
+            throw new IllegalArgumentException("Unable to compile XPath expressions", e);
+        }
+    }
+
+    public String evaluate(String expression, Object item) throws XPathExpressionException {
+        XPathExpression compiledExpression = compiled(expression);
+        try (Timer.Context timer = timers.get(expression).time()) {
+            return compiledExpression.evaluate(item);
+        }
+    }
+
+    public Object evaluate(String expression, Object item, QName returnType) throws XPathExpressionException {
+        XPathExpression compiledExpression = compiled(expression);
+        try (Timer.Context timer = timers.get(expression).time()) {
+            return compiledExpression.evaluate(item, returnType);
+        }
+    }
+
+    private XPathExpression compiled(String expression) throws XPathExpressionException {
+        Map<String, XPathExpression> expressions = compiledExpressions.get();
+        if (expressions == null) {
+            expressions = compileAll();
+            compiledExpressions.set(expressions);
+        }
+
+        XPathExpression compiledExpression = expressions.get(expression);
+        if (compiledExpression == null) {
+            throw new IllegalArgumentException("Unregistered XPath expression: " + expression);
+        }
+        return compiledExpression;
+    }
+
+    private Map<String, XPathExpression> compileAll() throws XPathExpressionException {
+        XPath xPath = xmlInfrastructure.xPath();
+        Map<String, XPathExpression> expressions = new HashMap<>();
+        for (String expression : timers.keySet()) {
+            expressions.put(expression, xPath.compile(expression));
+        }
+        return expressions;
+    }
+}
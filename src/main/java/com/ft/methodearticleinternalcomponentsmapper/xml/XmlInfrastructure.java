@@ -0,0 +1,109 @@
+package com.ft.methodearticleinternalcomponentsmapper.xml;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.MetricRegistry;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerConfigurationException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathFactory;
+
+/**
+ * Hands out per-thread <code>DocumentBuilder</code>, <code>Transformer</code> and <code>XPath</code> instances,
+ * so that the factory lookups (which scan the classpath) happen once per thread rather than once per call.
+ * <p>
+ * Every instance is reset before it is handed out, so callers get the same state they would have got from
+ * the factory. They are not thread-safe and should not be kept beyond the call that asked for them.
+ */
+public class XmlInfrastructure {
+
+    private static final String LOAD_EXTERNAL_DTD = "http://apache.org/xml/features/nonvalidating/load-external-dtd";
+
+    private final DocumentBuilderFactory documentBuilderFactory;
+    private final TransformerFactory transformerFactory;
+    private final XPathFactory xPathFactory;
+
+    private final ThreadLocal<DocumentBuilder> documentBuilders = new ThreadLocal<>();
+    private final ThreadLocal<Transformer> transformers = new ThreadLocal<>();
+    private final ThreadLocal<XPath> xPaths = new ThreadLocal<>();
+
+    private final Counter documentBuildersCreated;
+    private final Counter documentBuildersReused;
+    private final Counter transformersCreated;
+    private final Counter transformersReused;
+    private final Counter xPathsCreated;
+    private final Counter xPathsReused;
+
+    public XmlInfrastructure(MetricRegistry metrics) {
+        try {
+            documentBuilderFactory = DocumentBuilderFactory.newInstance();
+            documentBuilderFactory.setFeature(LOAD_EXTERNAL_DTD, false);
+        } catch (ParserConfigurationException e) {
+            throw new IllegalStateException("Unable to configure the document builder factory", e);
+        }
+        transformerFactory = TransformerFactory.newInstance();
+        xPathFactory = XPathFactory.newInstance();
+
+        documentBuildersCreated = metrics.counter(MetricRegistry.name(XmlInfrastructure.class, "document-builder", "created"));
+        documentBuildersReused = metrics.counter(MetricRegistry.name(XmlInfrastructure.class, "document-builder", "reused"));
+        transformersCreated = metrics.counter(MetricRegistry.name(XmlInfrastructure.class, "transformer", "created"));
+        transformersReused = metrics.counter(MetricRegistry.name(XmlInfrastructure.class, "transformer", "reused"));
+        xPathsCreated = metrics.counter(MetricRegistry.name(XmlInfrastructure.class, "xpath", "created"));
+        xPathsReused = metrics.counter(MetricRegistry.name(XmlInfrastructure.class, "xpath", "reused"));
+    }
+
+    /**
+     * @return a non-validating document builder which does not load external DTDs.
+     */
+    public DocumentBuilder documentBuilder() throws ParserConfigurationException {
+        DocumentBuilder documentBuilder = documentBuilders.get();
+        if (documentBuilder == null) {
+            synchronized (documentBuilderFactory) {
+                documentBuilder = documentBuilderFactory.newDocumentBuilder();
+            }
+            documentBuilders.set(documentBuilder);
+            documentBuildersCreated.inc();
+        } else {
+            documentBuilder.reset();
+            documentBuildersReused.inc();
+        }
+        return documentBuilder;
+    }
+
+    /**
+     * @return an identity transformer with the default output properties.
+     */
+    public Transformer transformer() throws TransformerConfigurationException {
+        Transformer transformer = transformers.get();
+        if (transformer == null) {
+            synchronized (transformerFactory) {
+                transformer = transformerFactory.newTransformer();
+            }
+            transformers.set(transformer);
+            transformersCreated.inc();
+        } else {
+            transformer.reset();
+            transformersReused.inc();
+        }
+        return transformer;
+    }
+
+    public XPath xPath() {
+        XPath xPath = xPaths.get();
+        if (xPath == null) {
+            synchronized (xPathFactory) {
+                xPath = xPathFactory.newXPath();
+            }
+            xPaths.set(xPath);
+            xPathsCreated.inc();
+        } else {
+            xPath.reset();
+            xPathsReused.inc();
+        }
+        return xPath;
+    }
+}
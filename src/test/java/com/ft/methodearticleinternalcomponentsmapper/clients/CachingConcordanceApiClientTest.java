@@ -0,0 +1,106 @@
+package com.ft.methodearticleinternalcomponentsmapper.clients;
+
+import com.codahale.metrics.MetricRegistry;
+import com.ft.methodearticleinternalcomponentsmapper.configuration.LookupCacheConfiguration;
+import com.ft.methodearticleinternalcomponentsmapper.model.concordance.ConceptView;
+import com.ft.methodearticleinternalcomponentsmapper.model.concordance.Concordance;
+import com.ft.methodearticleinternalcomponentsmapper.model.concordance.Concordances;
+import com.ft.methodearticleinternalcomponentsmapper.model.concordance.Identifier;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.sun.jersey.api.client.Client;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class CachingConcordanceApiClientTest {
+
+    private static final String TME_AUTHORITY = "http://api.ft.com/system/FT-TME";
+    private static final String TME_ID_1 = "TnN0ZWluX09OX0ZvcnR1bmVDb21wYW55X0M=-T04=";
+    private static final String TME_ID_2 = "TnN0ZWluX09OX0ZvcnR1bmVDb21wYW55X0FBUEw=-T04=";
+
+    @Mock
+    private ConcordanceApiClient client;
+    @Mock
+    private Client jerseyClient;
+
+    private CachingConcordanceApiClient cachingClient;
+
+    @Before
+    public void setUp() {
+        when(client.getJerseyClient()).thenReturn(jerseyClient);
+        cachingClient = new CachingConcordanceApiClient(client, new LookupCacheConfiguration(null, null, null, null),
+                new MetricRegistry(), MoreExecutors.sameThreadExecutor());
+    }
+
+    @Test
+    public void thatConcordancesAreCached() {
+        Concordance concordance = concordance(TME_ID_1, "1");
+        when(client.getConcordancesByIdentifierValues(Collections.singletonList(TME_ID_1)))
+                .thenReturn(new Concordances(Collections.singletonList(concordance)));
+
+        cachingClient.getConcordancesByIdentifierValues(Collections.singletonList(TME_ID_1));
+        Concordances concordances = cachingClient.getConcordancesByIdentifierValues(Collections.singletonList(TME_ID_1));
+
+        assertThat(concordances.getConcordances(), contains(concordance));
+        verify(client, times(1)).getConcordancesByIdentifierValues(anyListOf(String.class));
+    }
+
+    @Test
+    public void thatIdentifierValuesWhichAreNotConcordedAreRemembered() {
+        when(client.getConcordancesByIdentifierValues(Collections.singletonList(TME_ID_1)))
+                .thenReturn(new Concordances(Collections.<Concordance>emptyList()));
+
+        cachingClient.getConcordancesByIdentifierValues(Collections.singletonList(TME_ID_1));
+        Concordances concordances = cachingClient.getConcordancesByIdentifierValues(Collections.singletonList(TME_ID_1));
+
+        assertThat(concordances.getConcordances(), empty());
+        verify(client, times(1)).getConcordancesByIdentifierValues(anyListOf(String.class));
+    }
+
+    @Test
+    public void thatOnlyIdentifierValuesNotCachedAreAskedFor() {
+        Concordance first = concordance(TME_ID_1, "1");
+        Concordance second = concordance(TME_ID_2, "2");
+        when(client.getConcordancesByIdentifierValues(Collections.singletonList(TME_ID_1)))
+                .thenReturn(new Concordances(Collections.singletonList(first)));
+        when(client.getConcordancesByIdentifierValues(Collections.singletonList(TME_ID_2)))
+                .thenReturn(new Concordances(Collections.singletonList(second)));
+
+        cachingClient.getConcordancesByIdentifierValues(Collections.singletonList(TME_ID_1));
+        Concordances concordances = cachingClient.getConcordancesByIdentifierValues(Arrays.asList(TME_ID_1, TME_ID_2));
+
+        assertThat(concordances.getConcordances(), contains(first, second));
+        verify(client, times(1)).getConcordancesByIdentifierValues(Collections.singletonList(TME_ID_2));
+    }
+
+    @Test
+    public void thatInvalidatedIdentifierValuesAreAskedForAgain() {
+        when(client.getConcordancesByIdentifierValues(Collections.singletonList(TME_ID_1)))
+                .thenReturn(new Concordances(Collections.singletonList(concordance(TME_ID_1, "1"))));
+
+        cachingClient.getConcordancesByIdentifierValues(Collections.singletonList(TME_ID_1));
+        cachingClient.invalidate(TME_ID_1);
+        cachingClient.getConcordancesByIdentifierValues(Collections.singletonList(TME_ID_1));
+
+        verify(client, times(2)).getConcordancesByIdentifierValues(Collections.singletonList(TME_ID_1));
+    }
+
+    private static Concordance concordance(String identifierValue, String conceptId) {
+        return new Concordance(new ConceptView("http://api.ft.com/things/" + conceptId, "http://api.ft.com/organisations/" + conceptId),
+                new Identifier(TME_AUTHORITY, identifierValue));
+    }
+}
@@ -0,0 +1,117 @@
+package com.ft.methodearticleinternalcomponentsmapper.clients;
+
+import com.codahale.metrics.MetricRegistry;
+import com.ft.methodearticleinternalcomponentsmapper.configuration.LookupCacheConfiguration;
+import com.ft.methodearticleinternalcomponentsmapper.exception.TransientUuidResolverException;
+import com.ft.methodearticleinternalcomponentsmapper.model.Content;
+import com.sun.jersey.api.client.Client;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.anyCollectionOf;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class CachingDocumentStoreApiClientTest {
+
+    private static final String TX_ID = "tid_test";
+    private static final String AUTHORITY = "http://api.ft.com/system/FT-LABS-WP1234";
+    private static final String IDENTIFIER = "http://blogs.ft.com/the-world/?p=1";
+    private static final String UUID_1 = "fbbee07f-5054-4a42-b596-64e0625d19a6";
+    private static final String UUID_2 = "3a9ab3e4-bd02-4c6b-a6b4-ce3bd6b3ee60";
+
+    @Mock
+    private DocumentStoreApiClient client;
+    @Mock
+    private Client jerseyClient;
+
+    private CachingDocumentStoreApiClient cachingClient;
+
+    @Before
+    public void setUp() {
+        when(client.getJerseyClient()).thenReturn(jerseyClient);
+        cachingClient = new CachingDocumentStoreApiClient(client, new LookupCacheConfiguration(null, null, null, null), new MetricRegistry());
+    }
+
+    @Test
+    public void thatResolvedUuidsAreCached() {
+        when(client.resolveUUID(AUTHORITY, IDENTIFIER, TX_ID)).thenReturn(UUID_1);
+
+        assertThat(cachingClient.resolveUUID(AUTHORITY, IDENTIFIER, TX_ID), equalTo(UUID_1));
+        assertThat(cachingClient.resolveUUID(AUTHORITY, IDENTIFIER, TX_ID), equalTo(UUID_1));
+
+        verify(client, times(1)).resolveUUID(AUTHORITY, IDENTIFIER, TX_ID);
+    }
+
+    @Test
+    public void thatIdentifiersWithoutUuidAreAskedAboutAgain() {
+        TransientUuidResolverException notFound = new TransientUuidResolverException("not found", null, IDENTIFIER);
+        when(client.resolveUUID(AUTHORITY, IDENTIFIER, TX_ID)).thenThrow(notFound).thenReturn(UUID_1);
+
+        try {
+            cachingClient.resolveUUID(AUTHORITY, IDENTIFIER, TX_ID);
+            fail("expected the identifier to be reported as not found");
+        } catch (TransientUuidResolverException e) {
+            assertThat(e, sameInstance(notFound));
+        }
+        assertThat(cachingClient.resolveUUID(AUTHORITY, IDENTIFIER, TX_ID), equalTo(UUID_1));
+
+        verify(client, times(2)).resolveUUID(AUTHORITY, IDENTIFIER, TX_ID);
+    }
+
+    @Test
+    public void thatOnlyPresenceIsCached() {
+        when(client.isUUIDPresent(UUID_1, TX_ID)).thenReturn(true);
+        when(client.isUUIDPresent(UUID_2, TX_ID)).thenReturn(false);
+
+        assertThat(cachingClient.isUUIDPresent(UUID_1, TX_ID), is(true));
+        assertThat(cachingClient.isUUIDPresent(UUID_1, TX_ID), is(true));
+        assertThat(cachingClient.isUUIDPresent(UUID_2, TX_ID), is(false));
+        assertThat(cachingClient.isUUIDPresent(UUID_2, TX_ID), is(false));
+
+        verify(client, times(1)).isUUIDPresent(UUID_1, TX_ID);
+        verify(client, times(2)).isUUIDPresent(UUID_2, TX_ID);
+    }
+
+    @Test
+    public void thatContentIsOnlyAskedForUuidsNotCached() {
+        Content first = new Content(UUID_1, "Article");
+        Content second = new Content(UUID_2, "Article");
+        when(client.getContentForUuids(Collections.singleton(UUID_1), TX_ID)).thenReturn(Collections.singletonList(first));
+        when(client.getContentForUuids(Collections.singleton(UUID_2), TX_ID)).thenReturn(Collections.singletonList(second));
+
+        cachingClient.getContentForUuids(Collections.singletonList(UUID_1), TX_ID);
+        List<Content> contents = cachingClient.getContentForUuids(Arrays.asList(UUID_1, UUID_2), TX_ID);
+
+        assertThat(contents, contains(first, second));
+        verify(client, times(2)).getContentForUuids(anyCollectionOf(String.class), anyString());
+    }
+
+    @Test
+    public void thatInvalidatedContentIsAskedForAgain() {
+        Content content = new Content(UUID_1, "Article");
+        when(client.getContentForUuids(Collections.singleton(UUID_1), TX_ID)).thenReturn(Collections.singletonList(content));
+
+        cachingClient.getContentForUuids(Collections.singletonList(UUID_1), TX_ID);
+        cachingClient.invalidate(UUID_1);
+        cachingClient.getContentForUuids(Collections.singletonList(UUID_1), TX_ID);
+
+        verify(client, times(2)).getContentForUuids(Collections.singleton(UUID_1), TX_ID);
+    }
+}
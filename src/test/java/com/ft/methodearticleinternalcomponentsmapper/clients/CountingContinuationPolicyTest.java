@@ -0,0 +1,59 @@
+package com.ft.methodearticleinternalcomponentsmapper.clients;
+
+import com.codahale.metrics.Counter;
+import com.ft.jerseyhttpwrapper.continuation.ContinuationSession;
+import com.google.common.net.HostAndPort;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class CountingContinuationPolicyTest {
+
+    private static final HostAndPort FIRST = HostAndPort.fromParts("localhost", 8080);
+    private static final HostAndPort SECOND = HostAndPort.fromParts("localhost", 8081);
+
+    @Mock
+    private ContinuationSession session;
+
+    private Counter retries;
+    private ContinuationSession countingSession;
+
+    @Before
+    public void setUp() {
+        retries = new Counter();
+        countingSession = new CountingContinuationPolicy.CountingSession(session, retries);
+    }
+
+    @Test
+    public void thatTheFirstAttemptIsNotARetry() {
+        when(session.nextHost()).thenReturn(FIRST);
+
+        assertThat(countingSession.nextHost(), equalTo(FIRST));
+
+        assertThat(retries.getCount(), is(0L));
+    }
+
+    @Test
+    public void thatEachFurtherAttemptIsCountedAsARetry() {
+        when(session.shouldContinue()).thenReturn(true);
+        when(session.nextHost()).thenReturn(FIRST, SECOND, FIRST);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(countingSession.shouldContinue(), is(true));
+            HostAndPort host = countingSession.nextHost();
+            countingSession.handleFailedHost(host);
+        }
+
+        assertThat(retries.getCount(), is(2L));
+        verify(session).handleFailedHost(SECOND);
+    }
+}
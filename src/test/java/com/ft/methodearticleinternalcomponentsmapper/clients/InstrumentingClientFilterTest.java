@@ -0,0 +1,114 @@
+package com.ft.methodearticleinternalcomponentsmapper.clients;
+
+import com.codahale.metrics.MetricRegistry;
+import com.sun.jersey.api.client.Client;
+import com.sun.jersey.api.client.ClientHandlerException;
+import com.sun.jersey.api.client.ClientResponse;
+import com.sun.jersey.core.header.InBoundHeaders;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class InstrumentingClientFilterTest {
+
+    private static final String PREFIX = "com.ft.methodearticleinternalcomponentsmapper.clients.InstrumentingClientFilter.document-store-api.";
+    private static final URI CONTENT_URI = URI.create("http://localhost:8080/content/fbbee07f-5054-4a42-b596-64e0625d19a6");
+
+    private MetricRegistry metrics;
+
+    @Before
+    public void setUp() {
+        metrics = new MetricRegistry();
+    }
+
+    @Test
+    public void thatRequestsAreTimedAndCountedByEndpointAndStatus() {
+        Client client = clientAnswering(404);
+
+        client.resource(CONTENT_URI).get(ClientResponse.class);
+        client.resource(URI.create("http://localhost:8080/content/3a9ab3e4-bd02-4c6b-a6b4-ce3bd6b3ee60")).get(ClientResponse.class);
+
+        assertThat(metrics.timer(PREFIX + "GET.content.uuid.time").getCount(), is(2L));
+        assertThat(metrics.meter(PREFIX + "GET.content.uuid.responses.404").getCount(), is(2L));
+    }
+
+    @Test
+    public void thatRequestsForDifferentUuidsShareOneEndpoint() {
+        InstrumentingClientFilter filter = new InstrumentingClientFilter("document-store-api", metrics);
+        Client client = new Client(request -> response(200));
+        client.addFilter(filter);
+
+        for (int i = 0; i < 100; i++) {
+            client.resource(URI.create("http://localhost:8080/content/" + UUID.randomUUID())).get(ClientResponse.class);
+        }
+
+        assertThat(filter.endpointCount(), is(1));
+        assertThat(metrics.timer(PREFIX + "GET.content.uuid.time").getCount(), is(100L));
+    }
+
+    @Test
+    public void thatRequestsWithoutResponseAreCountedAsFailures() {
+        Client client = new Client(request -> {
+            throw new ClientHandlerException("connection refused");
+        });
+        client.addFilter(new InstrumentingClientFilter("document-store-api", metrics));
+
+        try {
+            client.resource(CONTENT_URI).get(ClientResponse.class);
+            fail("expected the failure to be thrown");
+        } catch (ClientHandlerException e) {
+            assertThat(e.getMessage(), equalTo("connection refused"));
+        }
+
+        assertThat(metrics.meter(PREFIX + "GET.content.uuid.failures").getCount(), is(1L));
+        assertThat(metrics.timer(PREFIX + "GET.content.uuid.time").getCount(), is(1L));
+    }
+
+    @Test
+    public void thatRequestTimeCountsTowardsTheRemoteWaitOfTheMessage() {
+        Client client = new Client(request -> {
+            sleep(5);
+            return response(200);
+        });
+        client.addFilter(new InstrumentingClientFilter("document-store-api", metrics));
+
+        RemoteWaitTime.Measurement measurement = RemoteWaitTime.start();
+        client.resource(CONTENT_URI).get(ClientResponse.class);
+
+        assertThat(measurement.stop(), greaterThan(4000000L));
+    }
+
+    @Test
+    public void thatEndpointNamesLeaveOutUuidsAndEmptySegments() {
+        assertThat(InstrumentingClientFilter.endpointName("POST", "/map/"), equalTo("POST.map"));
+        assertThat(InstrumentingClientFilter.endpointName("GET", "/content/fbbee07f-5054-4a42-b596-64e0625d19a6/annotations"),
+                equalTo("GET.content.uuid.annotations"));
+    }
+
+    private Client clientAnswering(int status) {
+        Client client = new Client(request -> response(status));
+        client.addFilter(new InstrumentingClientFilter("document-store-api", metrics));
+        return client;
+    }
+
+    private static ClientResponse response(int status) {
+        return new ClientResponse(status, new InBoundHeaders(), new ByteArrayInputStream(new byte[0]), null);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
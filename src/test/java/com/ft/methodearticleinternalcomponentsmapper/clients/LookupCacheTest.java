@@ -0,0 +1,193 @@
+package com.ft.methodearticleinternalcomponentsmapper.clients;
+
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.MoreExecutors;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class LookupCacheTest {
+
+    private static final String METRIC_PREFIX = "com.ft.methodearticleinternalcomponentsmapper.clients.LookupCache.test.";
+
+    private final FakeTicker ticker = new FakeTicker();
+    private MetricRegistry metrics;
+    private LookupCache<String> cache;
+
+    @Before
+    public void setUp() {
+        metrics = new MetricRegistry();
+        cache = new LookupCache<>("test", 100, 60000, 1000, 0, MoreExecutors.sameThreadExecutor(), metrics, ticker);
+    }
+
+    @Test
+    public void thatAnswersAreKeptForThePositiveTtl() {
+        AtomicInteger lookups = new AtomicInteger();
+
+        assertThat(cache.get("key", () -> "value" + lookups.incrementAndGet()), equalTo("value1"));
+        ticker.advance(59, TimeUnit.SECONDS);
+        assertThat(cache.get("key", () -> "value" + lookups.incrementAndGet()), equalTo("value1"));
+        ticker.advance(2, TimeUnit.SECONDS);
+        assertThat(cache.get("key", () -> "value" + lookups.incrementAndGet()), equalTo("value2"));
+
+        assertThat(metrics.meter(METRIC_PREFIX + "hits").getCount(), is(1L));
+        assertThat(metrics.meter(METRIC_PREFIX + "misses").getCount(), is(2L));
+    }
+
+    @Test
+    public void thatAnswersWhichFoundNothingAreKeptForTheNegativeTtl() {
+        AtomicInteger lookups = new AtomicInteger();
+
+        assertThat(cache.get("key", () -> {
+            lookups.incrementAndGet();
+            return null;
+        }), is(nullValue()));
+        assertThat(cache.get("key", () -> "found"), is(nullValue()));
+        ticker.advance(2, TimeUnit.SECONDS);
+        assertThat(cache.get("key", () -> "found"), equalTo("found"));
+        assertThat(lookups.get(), is(1));
+    }
+
+    @Test
+    public void thatOnlyTheKeysNotCachedAreLookedUp() {
+        List<Set<String>> asked = new ArrayList<>();
+        cache.getAll(Arrays.asList("a", "b"), keys -> {
+            asked.add(keys);
+            return ImmutableMap.of("a", "A");
+        });
+
+        Map<String, String> found = cache.getAll(Arrays.asList("a", "b", "c"), keys -> {
+            asked.add(ImmutableSet.copyOf(keys));
+            return ImmutableMap.of("c", "C");
+        });
+
+        assertThat(asked.get(1), equalTo(Collections.singleton("c")));
+        assertThat(found, equalTo(ImmutableMap.of("a", "A", "c", "C")));
+    }
+
+    @Test
+    public void thatFailuresAreNotCached() {
+        try {
+            cache.get("key", () -> {
+                throw new IllegalStateException("unavailable");
+            });
+            fail("expected the failure of the lookup to be thrown");
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), equalTo("unavailable"));
+        }
+
+        assertThat(cache.get("key", () -> "value"), equalTo("value"));
+    }
+
+    @Test
+    public void thatConcurrentMissesOnTheSameKeyMakeOneLookup() throws Exception {
+        CountDownLatch lookingUp = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger lookups = new AtomicInteger();
+
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> cache.get("key", () -> {
+            lookups.incrementAndGet();
+            lookingUp.countDown();
+            await(release);
+            return "value";
+        }));
+        assertThat(lookingUp.await(5, TimeUnit.SECONDS), is(true));
+        CompletableFuture<String> second = CompletableFuture.supplyAsync(() -> cache.get("key", () -> {
+            lookups.incrementAndGet();
+            return "other";
+        }));
+
+        Thread.sleep(50);
+        release.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS), equalTo("value"));
+        assertThat(second.get(5, TimeUnit.SECONDS), equalTo("value"));
+        assertThat(lookups.get(), is(1));
+    }
+
+    @Test
+    public void thatLongListsOfKeysAreLookedUpInParts() {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            cache = new LookupCache<>("parts", 100, 60000, 1000, 2, executor, metrics, ticker);
+            List<Set<String>> asked = new CopyOnWriteArrayList<>();
+
+            Map<String, String> found = cache.getAll(Arrays.asList("a", "b", "c", "d", "e"), keys -> {
+                asked.add(ImmutableSet.copyOf(keys));
+                return keys.stream().collect(Collectors.toMap(Function.identity(), String::toUpperCase));
+            });
+
+            assertThat(asked.size(), is(3));
+            assertThat(asked.stream().mapToInt(Set::size).max().getAsInt(), is(2));
+            assertThat(found, equalTo(ImmutableMap.of("a", "A", "b", "B", "c", "C", "d", "D", "e", "E")));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void thatPartsAreLookedUpByTheCallerWhenTheExecutorIsBusy() {
+        cache = new LookupCache<>("parts", 100, 60000, 1000, 1, command -> {
+            // never runs what it is given, like a saturated pool
+        }, metrics, ticker);
+
+        Map<String, String> found = cache.getAll(Arrays.asList("a", "b"),
+                keys -> keys.stream().collect(Collectors.toMap(Function.identity(), String::toUpperCase)));
+
+        assertThat(found, equalTo(ImmutableMap.of("a", "A", "b", "B")));
+    }
+
+    @Test
+    public void thatInvalidatedKeysAreLookedUpAgain() {
+        cache.get("key", () -> "old");
+
+        cache.invalidate("key");
+
+        assertThat(cache.get("key", () -> "new"), equalTo("new"));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class FakeTicker extends Ticker {
+        private long nanos;
+
+        @Override
+        public long read() {
+            return nanos;
+        }
+
+        void advance(long duration, TimeUnit unit) {
+            nanos += unit.toNanos(duration);
+        }
+    }
+}
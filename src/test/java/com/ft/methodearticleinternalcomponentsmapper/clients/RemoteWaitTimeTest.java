@@ -0,0 +1,53 @@
+package com.ft.methodearticleinternalcomponentsmapper.clients;
+
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class RemoteWaitTimeTest {
+
+    @Test
+    public void thatCallsMadeOnTheMeasuringThreadAreAddedUp() {
+        RemoteWaitTime.Measurement measurement = RemoteWaitTime.start();
+        RemoteWaitTime.add(100);
+        RemoteWaitTime.add(50);
+
+        assertThat(measurement.stop(), is(150L));
+    }
+
+    @Test
+    public void thatCallsMadeOutsideAMeasurementAreNotCounted() {
+        RemoteWaitTime.add(100);
+
+        RemoteWaitTime.Measurement measurement = RemoteWaitTime.start();
+        long total = measurement.stop();
+        RemoteWaitTime.add(100);
+
+        assertThat(total, is(0L));
+    }
+
+    @Test
+    public void thatCallsMadeByTasksGivenToAPropagatingExecutorCountTowardsTheMeasurement() throws Exception {
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            RemoteWaitTime.Measurement measurement = RemoteWaitTime.start();
+            RemoteWaitTime.add(10);
+            CompletableFuture.runAsync(() -> RemoteWaitTime.add(200), RemoteWaitTime.propagating(pool))
+                    .get(5, TimeUnit.SECONDS);
+            assertThat(measurement.stop(), is(210L));
+
+            // the pool thread no longer counts towards the finished measurement
+            RemoteWaitTime.Measurement next = RemoteWaitTime.start();
+            pool.submit(() -> RemoteWaitTime.add(300)).get(5, TimeUnit.SECONDS);
+            assertThat(next.stop(), is(0L));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.ft.methodearticleinternalcomponentsmapper.messaging;
+
+import com.codahale.metrics.MetricRegistry;
+import com.ft.messaging.standards.message.v1.Message;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class BatchingMessageProducerTest {
+
+    private static final long LONG_INTERVAL = TimeUnit.MINUTES.toMillis(1);
+
+    private final List<List<Message>> sent = new CopyOnWriteArrayList<>();
+    private MetricRegistry metrics;
+    private BatchingMessageProducer producer;
+    private final ExecutorService senders = Executors.newCachedThreadPool();
+
+    @Before
+    public void setUp() {
+        metrics = new MetricRegistry();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (producer != null) {
+            producer.stop();
+        }
+        senders.shutdownNow();
+    }
+
+    @Test
+    public void thatMessagesAreSentOnceTheBatchIsFull() throws Exception {
+        producer = new BatchingMessageProducer(sent::add, 3, LONG_INTERVAL, metrics);
+        producer.start();
+        Message first = message("1");
+        Message second = message("2");
+        Message third = message("3");
+
+        Future<?> firstSent = sendInBackground(first);
+        Future<?> secondSent = sendInBackground(second);
+        Thread.sleep(50);
+        assertThat(sent, is(empty()));
+        assertThat(firstSent.isDone(), is(false));
+
+        producer.send(Collections.singletonList(third));
+        firstSent.get(5, TimeUnit.SECONDS);
+        secondSent.get(5, TimeUnit.SECONDS);
+        assertThat(sent.size(), is(1));
+        assertThat(sent.get(0), containsInAnyOrder(first, second, third));
+        assertThat(metrics.histogram("com.ft.methodearticleinternalcomponentsmapper.messaging.BatchingMessageProducer.batch-size").getCount(), is(1L));
+    }
+
+    @Test
+    public void thatAPartialBatchIsSentAfterTheInterval() {
+        producer = new BatchingMessageProducer(sent::add, 100, 20, metrics);
+        producer.start();
+        Message message = message("1");
+
+        producer.send(Collections.singletonList(message));
+
+        assertThat(sent, equalTo(Collections.singletonList(Collections.singletonList(message))));
+    }
+
+    @Test
+    public void thatMessagesAreSentInTheOrderTheyArrived() {
+        producer = new BatchingMessageProducer(sent::add, 2, 5, metrics);
+        producer.start();
+        List<Message> expected = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            Message message = message(Integer.toString(i));
+            expected.add(message);
+            producer.send(Collections.singletonList(message));
+        }
+
+        List<Message> actual = new ArrayList<>();
+        sent.forEach(actual::addAll);
+        assertThat(actual, equalTo(expected));
+    }
+
+    @Test
+    public void thatWaitingMessagesAreSentOnStop() throws Exception {
+        producer = new BatchingMessageProducer(sent::add, 10, LONG_INTERVAL, metrics);
+        producer.start();
+        Message message = message("1");
+        Future<?> messageSent = sendInBackground(message);
+        Thread.sleep(50);
+
+        producer.stop();
+
+        messageSent.get(5, TimeUnit.SECONDS);
+        assertThat(sent, equalTo(Collections.singletonList(Collections.singletonList(message))));
+    }
+
+    @Test
+    public void thatAFailedBatchIsReportedToEverySenderInIt() throws Exception {
+        producer = new BatchingMessageProducer(messages -> {
+            throw new IllegalStateException("proxy unavailable");
+        }, 2, LONG_INTERVAL, metrics);
+        producer.start();
+
+        Future<?> firstSent = sendInBackground(message("1"));
+        try {
+            producer.send(Collections.singletonList(message("2")));
+            fail("expected the failure of the batch to be thrown");
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), equalTo("proxy unavailable"));
+        }
+        try {
+            firstSent.get(5, TimeUnit.SECONDS);
+            fail("expected the failure of the batch to be thrown");
+        } catch (ExecutionException e) {
+            assertThat(e.getCause().getMessage(), equalTo("proxy unavailable"));
+        }
+        assertThat(metrics.meter("com.ft.methodearticleinternalcomponentsmapper.messaging.BatchingMessageProducer.failed-messages").getCount(), is(2L));
+    }
+
+    @Test
+    public void thatABatchFailingOnScheduleIsReportedToItsSender() {
+        producer = new BatchingMessageProducer(messages -> {
+            throw new IllegalStateException("proxy unavailable");
+        }, 100, 20, metrics);
+        producer.start();
+
+        try {
+            producer.send(Collections.singletonList(message("1")));
+            fail("expected the failure of the batch to be thrown");
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), equalTo("proxy unavailable"));
+        }
+    }
+
+    @Test
+    public void thatMessagesAreSentAtOnceUntilTheProducerIsStarted() {
+        producer = new BatchingMessageProducer(sent::add, 100, LONG_INTERVAL, metrics);
+        Message message = message("1");
+
+        producer.send(Collections.singletonList(message));
+
+        assertThat(sent, equalTo(Collections.singletonList(Collections.singletonList(message))));
+    }
+
+    @Test
+    public void thatAnErrorSendingOnScheduleIsThrownToTheSenderAndLaterBatchesAreStillSent() {
+        List<Error> errors = new ArrayList<>(Collections.singletonList(new NoClassDefFoundError("proxy client")));
+        producer = new BatchingMessageProducer(messages -> {
+            if (!errors.isEmpty()) {
+                throw errors.remove(0);
+            }
+            sent.add(messages);
+        }, 100, 20, metrics);
+        producer.start();
+
+        try {
+            producer.send(Collections.singletonList(message("1")));
+            fail("expected the error of the batch to be thrown");
+        } catch (NoClassDefFoundError e) {
+            assertThat(e.getMessage(), equalTo("proxy client"));
+        }
+        Message message = message("2");
+        producer.send(Collections.singletonList(message));
+
+        assertThat(sent, equalTo(Collections.singletonList(Collections.singletonList(message))));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void thatAnEmptyBatchSizeIsRejected() {
+        new BatchingMessageProducer(sent::add, 0, LONG_INTERVAL, metrics);
+    }
+
+    private Future<?> sendInBackground(Message message) {
+        return senders.submit(() -> producer.send(Collections.singletonList(message)));
+    }
+
+    private static Message message(String body) {
+        Message message = new Message();
+        message.setMessageBody(body);
+        return message;
+    }
+}
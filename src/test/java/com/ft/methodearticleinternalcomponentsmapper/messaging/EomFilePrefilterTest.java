@@ -0,0 +1,89 @@
+package com.ft.methodearticleinternalcomponentsmapper.messaging;
+
+import com.codahale.metrics.MetricRegistry;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class EomFilePrefilterTest {
+
+    private static final String ATTRIBUTES_TEMPLATE = "<?xml version=\\\"1.0\\\" encoding=\\\"UTF-8\\\"?>"
+            + "<ObjectMetadata><EditorialNotes><Sources><Source><SourceCode>%s</SourceCode></Source></Sources></EditorialNotes></ObjectMetadata>";
+    private static final String MESSAGE_TEMPLATE = "{\"uuid\":\"e8b0d7a2-1fa4-11e8-9efa-4d4a9b7a1f2b\",\"type\":\"%s\",\"value\":\"%s\",\"attributes\":\"%s\"}";
+    private static final String VALUE = "PGRvYz48L2RvYz4=";
+
+    private MetricRegistry metrics;
+    private EomFilePrefilter prefilter;
+
+    @Before
+    public void setUp() {
+        metrics = new MetricRegistry();
+        prefilter = new EomFilePrefilter(metrics);
+    }
+
+    @Test
+    public void thatCompoundStoriesFromSupportedSourcesAreAccepted() {
+        assertThat(prefilter.accept(message("EOM::CompoundStory", "FT")), is(true));
+        assertThat(prefilter.accept(message("EOM::CompoundStory", "ContentPlaceholder")), is(true));
+        assertThat(prefilter.accept(message("EOM::CompoundStory", "DynamicContent")), is(true));
+        assertThat(meter("accepted"), is(3L));
+    }
+
+    @Test
+    public void thatOtherTypesAreSkippedWithoutReadingTheValue() {
+        String body = String.format(MESSAGE_TEMPLATE, "Image", "not base64 !", attributes("FT"));
+
+        assertThat(prefilter.accept(body), is(false));
+        assertThat(meter("skipped.type"), is(1L));
+    }
+
+    @Test
+    public void thatUnsupportedSourcesAreSkipped() {
+        assertThat(prefilter.accept(message("EOM::CompoundStory", "wibble")), is(false));
+        assertThat(prefilter.accept(message("EOM::CompoundStory", "FT ")), is(false));
+        assertThat(meter("skipped.source-code"), is(2L));
+    }
+
+    @Test
+    public void thatTypeIsFoundAfterTheValue() {
+        String body = "{\"value\":\"" + VALUE + "\",\"attributes\":\"" + attributes("FT") + "\",\"type\":\"EOM::Story\"}";
+
+        assertThat(prefilter.accept(body), is(false));
+        assertThat(meter("skipped.type"), is(1L));
+    }
+
+    @Test
+    public void thatMessagesWithoutTypeOrAttributesAreSkipped() {
+        assertThat(prefilter.accept("{\"attributes\":\"" + attributes("FT") + "\"}"), is(false));
+        assertThat(prefilter.accept("{\"type\":\"EOM::CompoundStory\"}"), is(false));
+    }
+
+    @Test
+    public void thatSourceCodesWhichCannotBeReadAsPlainTextAreLeftToTheFullFilter() {
+        assertThat(prefilter.accept(message("EOM::CompoundStory", "F&#84;")), is(true));
+        assertThat(prefilter.accept(message("EOM::CompoundStory", "<![CDATA[FT]]>")), is(true));
+        assertThat(prefilter.accept(String.format(MESSAGE_TEMPLATE, "EOM::CompoundStory", VALUE,
+                "<ObjectMetadata><SourceCode type=\\\"x\\\">wibble</SourceCode></ObjectMetadata>")), is(true));
+    }
+
+    @Test
+    public void thatMalformedMessagesAreLeftToTheFullFilter() {
+        assertThat(prefilter.accept("{\"type\":"), is(true));
+        assertThat(prefilter.accept("[]"), is(true));
+        assertThat(prefilter.accept(null), is(true));
+    }
+
+    private static String message(String type, String sourceCode) {
+        return String.format(MESSAGE_TEMPLATE, type, VALUE, attributes(sourceCode));
+    }
+
+    private static String attributes(String sourceCode) {
+        return String.format(ATTRIBUTES_TEMPLATE, sourceCode);
+    }
+
+    private long meter(String name) {
+        return metrics.meter("com.ft.methodearticleinternalcomponentsmapper.messaging.EomFilePrefilter." + name).getCount();
+    }
+}
@@ -1,14 +1,17 @@
 package com.ft.methodearticleinternalcomponentsmapper.messaging;
 
+import com.codahale.metrics.MetricRegistry;
 import com.ft.messagequeueproducer.MessageProducer;
 import com.ft.messaging.standards.message.v1.Message;
 import com.ft.methodearticleinternalcomponentsmapper.exception.MethodeMarkedDeletedException;
 import com.ft.methodearticleinternalcomponentsmapper.model.EomFile;
 import com.ft.methodearticleinternalcomponentsmapper.model.InternalComponents;
 import com.ft.methodearticleinternalcomponentsmapper.transformation.InternalComponentsMapper;
+import com.ft.methodearticleinternalcomponentsmapper.transformation.ParsedEomFile;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
@@ -16,11 +19,14 @@ import java.util.Collections;
 import java.util.Date;
 import java.util.UUID;
 
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyBoolean;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -51,9 +57,9 @@ public class MessageProducingInternalComponentsMapperTest {
         InternalComponents mappedArticle = new InternalComponents.Builder()
                 .withUuid(UUID.randomUUID().toString())
                 .build();
-        when(mapper.map(any(), eq("tid"), eq(lastModified), anyBoolean())).thenReturn(mappedArticle);
+        when(mapper.map(any(ParsedEomFile.class), eq("tid"), eq(lastModified), anyBoolean())).thenReturn(mappedArticle);
 
-        msgProducingArticleMapper.mapInternalComponents(new EomFile.Builder().build(), "tid", lastModified);
+        msgProducingArticleMapper.mapInternalComponents(new ParsedEomFile(new EomFile.Builder().build()), "tid", lastModified);
 
         verify(messageBuilder).buildMessage(mappedArticle);
     }
@@ -62,10 +68,10 @@ public class MessageProducingInternalComponentsMapperTest {
     public void thatMessageWithContentIsSentToQueue() {
         InternalComponents mockedContent = mock(InternalComponents.class);
         Message mockedMessage = mock(Message.class);
-        when(mapper.map(any(), anyString(), any(), eq(false))).thenReturn(mockedContent);
+        when(mapper.map(any(ParsedEomFile.class), anyString(), any(), eq(false))).thenReturn(mockedContent);
         when(messageBuilder.buildMessage(mockedContent)).thenReturn(mockedMessage);
 
-        msgProducingArticleMapper.mapInternalComponents(new EomFile.Builder().build(), "tid", new Date());
+        msgProducingArticleMapper.mapInternalComponents(new ParsedEomFile(new EomFile.Builder().build()), "tid", new Date());
 
         verify(producer).send(Collections.singletonList(mockedMessage));
     }
@@ -78,11 +84,104 @@ public class MessageProducingInternalComponentsMapperTest {
         Message deletedContentMsg = mock(Message.class);
         MethodeMarkedDeletedException mockException = mock(MethodeMarkedDeletedException.class);
 
-        when(mapper.map(any(), anyString(), any(), eq(false))).thenThrow(mockException);
+        when(mapper.map(any(ParsedEomFile.class), anyString(), any(), eq(false))).thenThrow(mockException);
         when(messageBuilder.buildDeletedInternalComponentsMessage(uuid, tid, date)).thenReturn(deletedContentMsg);
 
-        msgProducingArticleMapper.mapInternalComponents(new EomFile.Builder().withUuid(uuid).build(), tid, date);
+        msgProducingArticleMapper.mapInternalComponents(new ParsedEomFile(new EomFile.Builder().withUuid(uuid).build()), tid, date);
 
         verify(producer).send(Collections.singletonList(deletedContentMsg));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void thatUnchangedRepublishIsSentAgainWithoutBeingMapped() {
+        msgProducingArticleMapper = new MessageProducingInternalComponentsMapper(messageBuilder, producer, mapper,
+                new UnchangedContentCache(10, 60000, new MetricRegistry()), true);
+        String uuid = UUID.randomUUID().toString();
+        InternalComponents mappedArticle = new InternalComponents.Builder()
+                .withUuid(uuid)
+                .withPublishReference("tid1")
+                .withXMLBody("<body>text</body>")
+                .build();
+        Message message = mock(Message.class);
+        when(message.getMessageBody()).thenReturn("{}");
+        when(mapper.map(any(ParsedEomFile.class), eq("tid1"), any(), eq(false))).thenReturn(mappedArticle);
+        when(messageBuilder.buildMessage(any(InternalComponents.class))).thenReturn(message);
+        Date republished = new Date();
+
+        msgProducingArticleMapper.mapInternalComponents(new ParsedEomFile(eomFile(uuid, "value")), "tid1", new Date(0));
+        msgProducingArticleMapper.mapInternalComponents(new ParsedEomFile(eomFile(uuid, "value")), "tid2", republished);
+
+        verify(mapper, times(1)).map(any(ParsedEomFile.class), anyString(), any(), anyBoolean());
+        ArgumentCaptor<InternalComponents> sent = ArgumentCaptor.forClass(InternalComponents.class);
+        verify(messageBuilder, times(2)).buildMessage(sent.capture());
+        InternalComponents reemitted = sent.getAllValues().get(1);
+        assertThat(reemitted.getPublishReference(), equalTo("tid2"));
+        assertThat(reemitted.getLastModified(), equalTo(republished));
+        assertThat(reemitted.getBodyXML(), equalTo("<body>text</body>"));
+        verify(producer, times(2)).send(Collections.singletonList(message));
+    }
+
+    @Test
+    public void thatUnchangedRepublishIsSkippedWhenNotReemitted() {
+        msgProducingArticleMapper = new MessageProducingInternalComponentsMapper(messageBuilder, producer, mapper,
+                new UnchangedContentCache(10, 60000, new MetricRegistry()), false);
+        String uuid = UUID.randomUUID().toString();
+        Message message = mock(Message.class);
+        when(message.getMessageBody()).thenReturn("{}");
+        when(mapper.map(any(ParsedEomFile.class), anyString(), any(), eq(false)))
+                .thenReturn(new InternalComponents.Builder().withUuid(uuid).build());
+        when(messageBuilder.buildMessage(any(InternalComponents.class))).thenReturn(message);
+
+        msgProducingArticleMapper.mapInternalComponents(new ParsedEomFile(eomFile(uuid, "value")), "tid1", new Date());
+        msgProducingArticleMapper.mapInternalComponents(new ParsedEomFile(eomFile(uuid, "value")), "tid2", new Date());
+
+        verify(mapper, times(1)).map(any(ParsedEomFile.class), anyString(), any(), anyBoolean());
+        verify(producer, times(1)).send(Collections.singletonList(message));
+    }
+
+    @Test
+    public void thatChangedRepublishIsMappedAgain() {
+        msgProducingArticleMapper = new MessageProducingInternalComponentsMapper(messageBuilder, producer, mapper,
+                new UnchangedContentCache(10, 60000, new MetricRegistry()), true);
+        String uuid = UUID.randomUUID().toString();
+        Message message = mock(Message.class);
+        when(message.getMessageBody()).thenReturn("{}");
+        when(mapper.map(any(ParsedEomFile.class), anyString(), any(), eq(false)))
+                .thenReturn(new InternalComponents.Builder().withUuid(uuid).build());
+        when(messageBuilder.buildMessage(any(InternalComponents.class))).thenReturn(message);
+
+        msgProducingArticleMapper.mapInternalComponents(new ParsedEomFile(eomFile(uuid, "value")), "tid1", new Date());
+        msgProducingArticleMapper.mapInternalComponents(new ParsedEomFile(eomFile(uuid, "changed value")), "tid2", new Date());
+
+        verify(mapper, times(2)).map(any(ParsedEomFile.class), anyString(), any(), anyBoolean());
+        verify(producer, times(2)).send(Collections.singletonList(message));
+    }
+
+    @Test
+    public void thatRepublishWithOnlyAChangedWorkflowStatusIsMappedAgain() {
+        msgProducingArticleMapper = new MessageProducingInternalComponentsMapper(messageBuilder, producer, mapper,
+                new UnchangedContentCache(10, 60000, new MetricRegistry()), true);
+        String uuid = UUID.randomUUID().toString();
+        Message message = mock(Message.class);
+        when(message.getMessageBody()).thenReturn("{}");
+        when(mapper.map(any(ParsedEomFile.class), anyString(), any(), eq(false)))
+                .thenReturn(new InternalComponents.Builder().withUuid(uuid).build());
+        when(messageBuilder.buildMessage(any(InternalComponents.class))).thenReturn(message);
+        EomFile webReady = new EomFile.Builder().withValuesFrom(eomFile(uuid, "value")).withWorkflowStatus("Stories/WebReady").build();
+        EomFile ready = new EomFile.Builder().withValuesFrom(eomFile(uuid, "value")).withWorkflowStatus("Stories/Ready").build();
+
+        msgProducingArticleMapper.mapInternalComponents(new ParsedEomFile(webReady), "tid1", new Date());
+        msgProducingArticleMapper.mapInternalComponents(new ParsedEomFile(ready), "tid2", new Date());
+
+        verify(mapper, times(2)).map(any(ParsedEomFile.class), anyString(), any(), anyBoolean());
+    }
+
+    private static EomFile eomFile(String uuid, String value) {
+        return new EomFile.Builder()
+                .withUuid(uuid)
+                .withType("EOM::CompoundStory")
+                .withValue(value.getBytes())
+                .withAttributes("<ObjectMetadata/>")
+                .build();
+    }
+}
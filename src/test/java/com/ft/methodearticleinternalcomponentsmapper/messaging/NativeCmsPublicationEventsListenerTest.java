@@ -1,15 +1,20 @@
 package com.ft.methodearticleinternalcomponentsmapper.messaging;
 
+import com.codahale.metrics.MetricRegistry;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectReader;
 import com.ft.messaging.standards.message.v1.Message;
 import com.ft.messaging.standards.message.v1.SystemId;
 import com.ft.methodearticleinternalcomponentsmapper.exception.MethodeArticleInternalComponentsMapperException;
 import com.ft.methodearticleinternalcomponentsmapper.model.EomFile;
+import com.ft.methodearticleinternalcomponentsmapper.transformation.EomFileMetadataExtractor;
+import com.ft.methodearticleinternalcomponentsmapper.transformation.ParsedEomFile;
+import com.ft.methodearticleinternalcomponentsmapper.xml.XmlInfrastructure;
 
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Matchers;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
@@ -19,10 +24,16 @@ import java.util.Date;
 
 import javax.ws.rs.core.UriBuilder;
 
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -107,12 +118,12 @@ public class NativeCmsPublicationEventsListenerTest {
         verify(mapper, never()).mapInternalComponents(Matchers.any(), anyString(), Matchers.any());
     }
 
-    @Test (expected = MethodeArticleInternalComponentsMapperException.class)
-    public void thatServiceExceptionIsThrownIfIOExceptionIsThrownDuringPreMapping() throws Exception {
+    @Test
+    public void thatMessageBodyIsDeserializedOnlyOnce() throws Exception {
         EomFile mockEomFile = mock(EomFile.class);
         when(mockEomFile.getType()).thenReturn("EOM::CompoundStory");
         when(mockEomFile.getAttributes()).thenReturn(ATTRIBUTES_WITH_FT_SOURCE);
-        
+
         Message mockMsg = mock(Message.class);
         when(mockMsg.getOriginSystemId()).thenReturn(SystemId.systemIdFromCode(SYSTEM_CODE));
 
@@ -127,7 +138,23 @@ public class NativeCmsPublicationEventsListenerTest {
 
         listener.onMessage(mockMsg, TX_ID);
 
-        verify(mapper, never()).mapInternalComponents(Matchers.any(), anyString(), Matchers.any());
+        verify(mockReader, times(1)).readValue(mockMsg.getMessageBody());
+        verify(mapper).mapInternalComponents(Matchers.any(), eq(TX_ID), Matchers.any());
+    }
+
+    @Test
+    public void thatAttributesReadByTheFilterAreHandedToTheMapper() throws Exception {
+        MetricRegistry metrics = new MetricRegistry();
+        NativeCmsPublicationEventsListener listener = new NativeCmsPublicationEventsListener(
+                objectMapper, mapper, SYSTEM_CODE, new XmlInfrastructure(metrics), metrics);
+        ArgumentCaptor<ParsedEomFile> parsedEomFile = ArgumentCaptor.forClass(ParsedEomFile.class);
+
+        listener.onMessage(compoundStoryMessage(), TX_ID);
+
+        verify(mapper).mapInternalComponents(parsedEomFile.capture(), eq(TX_ID), Matchers.any());
+        new EomFileMetadataExtractor(new XmlInfrastructure(metrics), metrics).extractSourceCode(parsedEomFile.getValue());
+        assertThat(metrics.counter(MetricRegistry.name(EomFileMetadataExtractor.class, "attributes", "reused")).getCount(), is(1L));
+        assertThat(metrics.timer(MetricRegistry.name(EomFileMetadataExtractor.class, "attributes")).getCount(), is(1L));
     }
 
     @Test
@@ -149,6 +176,19 @@ public class NativeCmsPublicationEventsListenerTest {
         verify(mapper).mapInternalComponents(Matchers.any(), eq(TX_ID), Matchers.any());
     }
 
+    @Test
+    public void thatMappingFailureIsPropagatedToTheConsumer() throws Exception {
+        MethodeArticleInternalComponentsMapperException failure = new MethodeArticleInternalComponentsMapperException("mapping failed");
+        doThrow(failure).when(mapper).mapInternalComponents(Matchers.any(), anyString(), Matchers.any());
+
+        try {
+            listener.onMessage(compoundStoryMessage(), TX_ID);
+            fail("expected the mapping failure to be propagated");
+        } catch (MethodeArticleInternalComponentsMapperException e) {
+            assertThat(e, sameInstance(failure));
+        }
+    }
+
     @Test
     public void thatMessageIsIgnoredIfNotSupportedSourceCode() throws Exception {
       Message msg = new Message();
@@ -167,4 +207,20 @@ public class NativeCmsPublicationEventsListenerTest {
       
       verify(mapper, never()).mapInternalComponents(Matchers.any(), anyString(), Matchers.any());
     }
+
+    private Message compoundStoryMessage() throws Exception {
+        Message msg = new Message();
+        msg.setOriginSystemId(SystemId.systemIdFromCode(SYSTEM_CODE));
+        msg.setMessageTimestamp(new Date());
+        msg.setMessageBody(
+                objectMapper.writeValueAsString(
+                        new EomFile.Builder()
+                                .withUuid("a1b2c3d4-0000-4000-8000-000000000001")
+                                .withType("EOM::CompoundStory")
+                                .withAttributes(ATTRIBUTES_WITH_FT_SOURCE)
+                                .build()
+                )
+        );
+        return msg;
+    }
 }
@@ -0,0 +1,116 @@
+package com.ft.methodearticleinternalcomponentsmapper.messaging;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.ft.methodearticleinternalcomponentsmapper.model.EomFile;
+import com.ft.methodearticleinternalcomponentsmapper.model.InternalComponents;
+import com.google.common.hash.HashCode;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class UnchangedContentCacheTest {
+
+    private static final String UUID = "e8b0d7a2-1fa4-11e8-9efa-4d4a9b7a1f2b";
+    private static final String METRIC_PREFIX = "com.ft.methodearticleinternalcomponentsmapper.messaging.UnchangedContentCache.";
+
+    private MetricRegistry metrics;
+    private UnchangedContentCache cache;
+
+    @Before
+    public void setUp() {
+        metrics = new MetricRegistry();
+        cache = new UnchangedContentCache(2, 60000, metrics);
+    }
+
+    @Test
+    public void thatTheHashCoversEverythingTheMappingReads() {
+        HashCode hash = UnchangedContentCache.hash(eomFile("value", "<ObjectMetadata/>").build());
+
+        assertThat(UnchangedContentCache.hash(eomFile("value", "<ObjectMetadata/>").build()), equalTo(hash));
+        assertThat(UnchangedContentCache.hash(eomFile("value", "<ObjectMetadata/>").withUsageTickets("<UsageTickets/>").build()), equalTo(hash));
+        assertThat(UnchangedContentCache.hash(eomFile("other", "<ObjectMetadata/>").build()), not(equalTo(hash)));
+        assertThat(UnchangedContentCache.hash(eomFile("value", "<ObjectMetadata></ObjectMetadata>").build()), not(equalTo(hash)));
+        assertThat(UnchangedContentCache.hash(eomFile("value", "<ObjectMetadata/>").withType("EOM::Story").build()), not(equalTo(hash)));
+        assertThat(UnchangedContentCache.hash(eomFile("value", "<ObjectMetadata/>").withSystemAttributes("<props><productInfo><name>Other</name></productInfo></props>").build()),
+                not(equalTo(hash)));
+    }
+
+    @Test
+    public void thatTheHashChangesWhenOnlyTheWorkflowStatusChanges() {
+        HashCode webReady = UnchangedContentCache.hash(eomFile("value", "<ObjectMetadata/>").withWorkflowStatus("Stories/WebReady").build());
+        cache.put(UUID, webReady, InternalComponents.builder().withUuid(UUID).build(), 100);
+
+        HashCode ready = UnchangedContentCache.hash(eomFile("value", "<ObjectMetadata/>").withWorkflowStatus("Stories/Ready").build());
+
+        assertThat(ready, not(equalTo(webReady)));
+        assertThat(cache.getIfUnchanged(UUID, ready), is(nullValue()));
+    }
+
+    @Test
+    public void thatFieldsAreNotConfusedWithTheirNeighbours() {
+        HashCode hash = UnchangedContentCache.hash(eomFile("value", "<ObjectMetadata/>").withWorkflowStatus("Stories/WebReady").build());
+
+        assertThat(UnchangedContentCache.hash(eomFile("value", "<ObjectMetadata/>Stories/").withWorkflowStatus("WebReady").build()),
+                not(equalTo(hash)));
+    }
+
+    @Test
+    public void thatComponentsAreReturnedWhileTheHashIsUnchanged() {
+        HashCode hash = UnchangedContentCache.hash(eomFile("value", "<ObjectMetadata/>").build());
+        InternalComponents components = InternalComponents.builder().withUuid(UUID).build();
+
+        assertThat(cache.getIfUnchanged(UUID, hash), is(nullValue()));
+        cache.put(UUID, hash, components, 100);
+
+        assertThat(cache.getIfUnchanged(UUID, hash), is(sameInstance(components)));
+        assertThat(metrics.meter(METRIC_PREFIX + "hits").getCount(), is(1L));
+        assertThat(metrics.meter(METRIC_PREFIX + "misses").getCount(), is(1L));
+    }
+
+    @Test
+    public void thatAChangedHashForgetsTheComponents() {
+        HashCode hash = UnchangedContentCache.hash(eomFile("value", "<ObjectMetadata/>").build());
+        HashCode changed = UnchangedContentCache.hash(eomFile("changed", "<ObjectMetadata/>").build());
+        cache.put(UUID, hash, InternalComponents.builder().withUuid(UUID).build(), 100);
+
+        assertThat(cache.getIfUnchanged(UUID, changed), is(nullValue()));
+        assertThat(cache.getIfUnchanged(UUID, hash), is(nullValue()));
+        assertThat(gauge("entries"), is(0L));
+        assertThat(gauge("estimated-bytes"), is(0L));
+    }
+
+    @Test
+    public void thatTheLeastRecentlyUsedEntriesAreEvictedAndTheirMemoryReleased() {
+        HashCode hash = UnchangedContentCache.hash(eomFile("value", "<ObjectMetadata/>").build());
+        cache.put("1", hash, InternalComponents.builder().withUuid("1").build(), 100);
+        cache.put("2", hash, InternalComponents.builder().withUuid("2").build(), 100);
+        cache.getIfUnchanged("1", hash);
+        cache.put("3", hash, InternalComponents.builder().withUuid("3").build(), 100);
+
+        assertThat(cache.getIfUnchanged("2", hash), is(nullValue()));
+        assertThat(cache.getIfUnchanged("1", hash), is(not(nullValue())));
+        assertThat(gauge("entries"), is(2L));
+        assertThat(gauge("estimated-bytes"), is(400L));
+    }
+
+    private static EomFile.Builder eomFile(String value, String attributes) {
+        return new EomFile.Builder()
+                .withUuid(UUID)
+                .withType("EOM::CompoundStory")
+                .withValue(value.getBytes())
+                .withAttributes(attributes)
+                .withSystemAttributes("<props><productInfo><name>FTcom</name></productInfo></props>");
+    }
+
+    @SuppressWarnings("unchecked")
+    private long gauge(String name) {
+        return ((Gauge<Long>) metrics.getGauges().get(METRIC_PREFIX + name)).getValue();
+    }
+}
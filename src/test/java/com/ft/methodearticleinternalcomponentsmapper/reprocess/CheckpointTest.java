@@ -0,0 +1,73 @@
+package com.ft.methodearticleinternalcomponentsmapper.reprocess;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class CheckpointTest {
+
+    private static final String INPUT = "/archive/articles.ndjson.gz";
+
+    private Path directory;
+    private Path path;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("checkpoint");
+        path = directory.resolve("results.checkpoint");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(path);
+        Files.deleteIfExists(directory);
+    }
+
+    @Test
+    public void thatOnlyArticlesCompletedFromTheStartAreCovered() {
+        Checkpoint checkpoint = Checkpoint.start(path, INPUT);
+
+        checkpoint.complete(1);
+        checkpoint.complete(3);
+        assertThat(checkpoint.getCompleted(), equalTo(0));
+
+        checkpoint.complete(0);
+        assertThat(checkpoint.getCompleted(), equalTo(2));
+
+        checkpoint.complete(2);
+        assertThat(checkpoint.getCompleted(), equalTo(4));
+    }
+
+    @Test
+    public void thatASavedCheckpointIsResumed() throws IOException {
+        Checkpoint.start(path, INPUT).save(1234);
+
+        assertThat(Checkpoint.resume(path, INPUT).getCompleted(), equalTo(1234));
+    }
+
+    @Test
+    public void thatResumingWithoutACheckpointStartsAtTheBeginning() throws IOException {
+        assertThat(Checkpoint.resume(path, INPUT).getCompleted(), equalTo(0));
+    }
+
+    @Test
+    public void thatACheckpointOfAnotherArchiveIsNotResumed() throws IOException {
+        Checkpoint.start(path, "/archive/other.ndjson").save(10);
+
+        try {
+            Checkpoint.resume(path, INPUT);
+            fail("expected the checkpoint of another archive to be refused");
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), containsString("/archive/other.ndjson"));
+        }
+    }
+}
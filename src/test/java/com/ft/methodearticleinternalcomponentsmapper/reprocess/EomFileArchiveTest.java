@@ -0,0 +1,140 @@
+package com.ft.methodearticleinternalcomponentsmapper.reprocess;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class EomFileArchiveTest {
+
+    private static final String UUID_1 = "fbbee07f-5054-4a42-b596-64e0625d19a6";
+    private static final String UUID_2 = "3a9ab3e4-bd02-4c6b-a6b4-ce3bd6b3ee60";
+    private static final String UUID_3 = "b1f14cd8-6ad4-11e7-1740-72a7a34381e5";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private Path directory;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("archive");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Test
+    public void thatTheFilesOfADirectoryAreReadInOrderOfTheirNames() throws IOException {
+        write(directory.resolve("b.json"), eomFileJson(UUID_2));
+        write(directory.resolve("a.json"), eomFileJson(UUID_1));
+        write(directory.resolve("c.json"), "{\"uuid\": ");
+        write(directory.resolve("notes.txt"), "not an article");
+
+        try (EomFileArchive archive = EomFileArchive.open(directory, objectMapper)) {
+            assertThat(archive.next().getEomFile().getUuid(), equalTo(UUID_1));
+            assertThat(archive.next().getEomFile().getUuid(), equalTo(UUID_2));
+
+            ArchivedEomFile unreadable = archive.next();
+            assertThat(unreadable.getIndex(), equalTo(2));
+            assertThat(unreadable.getEomFile(), nullValue());
+            assertThat(unreadable.getName(), equalTo("c.json"));
+            assertThat(unreadable.getUnreadable(), notNullValue());
+
+            assertThat(archive.next(), nullValue());
+        }
+    }
+
+    @Test
+    public void thatGzippedNewlineDelimitedArticlesAreReadAfterThoseSkipped() throws IOException {
+        Path file = directory.resolve("articles.ndjson.gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(file))) {
+            out.write((eomFileJson(UUID_1) + "\n" + eomFileJson(UUID_2) + "\n" + eomFileJson(UUID_3) + "\n").getBytes(StandardCharsets.UTF_8));
+        }
+
+        try (EomFileArchive archive = EomFileArchive.open(file, objectMapper)) {
+            archive.skip(2);
+
+            ArchivedEomFile article = archive.next();
+            assertThat(article.getIndex(), equalTo(2));
+            assertThat(article.getEomFile().getUuid(), equalTo(UUID_3));
+            assertThat(new String(article.getEomFile().getValue(), StandardCharsets.UTF_8), equalTo("<doc/>"));
+            assertThat(archive.next(), nullValue());
+        }
+    }
+
+    @Test
+    public void thatAMalformedLineIsUnreadableAndTheNextLineIsRead() throws IOException {
+        Path file = directory.resolve("articles.ndjson");
+        write(file, eomFileJson(UUID_1) + "\n{\"uuid\": \"" + UUID_2 + "\", \"type\n\n" + eomFileJson(UUID_3) + "\n");
+
+        try (EomFileArchive archive = EomFileArchive.open(file, objectMapper)) {
+            assertThat(archive.next().getEomFile().getUuid(), equalTo(UUID_1));
+
+            ArchivedEomFile unreadable = archive.next();
+            assertThat(unreadable.getIndex(), equalTo(1));
+            assertThat(unreadable.getEomFile(), nullValue());
+            assertThat(unreadable.getName(), equalTo("articles.ndjson:1"));
+            assertThat(unreadable.getUnreadable(), notNullValue());
+
+            ArchivedEomFile article = archive.next();
+            assertThat(article.getIndex(), equalTo(2));
+            assertThat(article.getEomFile().getUuid(), equalTo(UUID_3));
+            assertThat(archive.next(), nullValue());
+        }
+    }
+
+    @Test
+    public void thatFilesAreReadAcrossMappedWindows() throws IOException {
+        Path file = directory.resolve("articles.ndjson");
+        String content = eomFileJson(UUID_1) + "\n" + eomFileJson(UUID_2) + "\n";
+        write(file, content);
+
+        List<Byte> read = new ArrayList<>();
+        byte[] buffer = new byte[5];
+        try (InputStream in = new MappedInputStream(file, 7)) {
+            int count;
+            while ((count = in.read(buffer, 0, buffer.length)) != -1) {
+                for (int i = 0; i < count; i++) {
+                    read.add(buffer[i]);
+                }
+            }
+        }
+
+        byte[] bytes = new byte[read.size()];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = read.get(i);
+        }
+        assertThat(new String(bytes, StandardCharsets.UTF_8), equalTo(content));
+    }
+
+    private static void write(Path file, String content) throws IOException {
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String eomFileJson(String uuid) {
+        // the value is "<doc/>" in base64
+        return "{\"uuid\": \"" + uuid + "\", \"type\": \"EOM::CompoundStory\", \"value\": \"PGRvYy8+\"}";
+    }
+}
@@ -0,0 +1,82 @@
+package com.ft.methodearticleinternalcomponentsmapper.reprocess;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ft.methodearticleinternalcomponentsmapper.resources.BatchMappingResult;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Scanner;
+import java.util.zip.GZIPInputStream;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+public class FileReprocessOutputTest {
+
+    private static final String UUID_1 = "fbbee07f-5054-4a42-b596-64e0625d19a6";
+    private static final String UUID_2 = "3a9ab3e4-bd02-4c6b-a6b4-ce3bd6b3ee60";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private Path directory;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("output");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Test
+    public void thatAResumedRunWritesToTheNextNumberedFile() throws IOException {
+        Path path = directory.resolve("results.ndjson.gz");
+        write(path, false, UUID_1);
+        // a run which stopped part way through a gzip block
+        Files.write(path, new byte[] {1, 2, 3}, StandardOpenOption.APPEND);
+
+        Path resumed = write(path, true, UUID_2);
+        Path resumedAgain = write(path, true, UUID_2);
+
+        assertThat(resumed, equalTo(directory.resolve("results.1.ndjson.gz")));
+        assertThat(resumedAgain, equalTo(directory.resolve("results.2.ndjson.gz")));
+        assertThat(read(resumed), containsString(UUID_2));
+    }
+
+    @Test
+    public void thatANameWithoutExtensionIsNumberedAtTheEnd() {
+        assertThat(FileReprocessOutput.nextPart(directory.resolve("results")), equalTo(directory.resolve("results.1")));
+    }
+
+    private Path write(Path path, boolean resume, String uuid) throws IOException {
+        FileReprocessOutput output = new FileReprocessOutput(path, resume, objectMapper);
+        try {
+            output.write(new BatchMappingResult(0, uuid, 404, null, "not found"));
+        } finally {
+            output.close();
+        }
+        return output.getPath();
+    }
+
+    private static String read(Path path) throws IOException {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(path));
+             Scanner scanner = new Scanner(in, StandardCharsets.UTF_8.name())) {
+            return scanner.useDelimiter("\\A").next();
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.ft.methodearticleinternalcomponentsmapper.reprocess;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ft.methodearticleinternalcomponentsmapper.exception.MethodeArticleNotEligibleForPublishException;
+import com.ft.methodearticleinternalcomponentsmapper.model.EomFile;
+import com.ft.methodearticleinternalcomponentsmapper.model.InternalComponents;
+import com.ft.methodearticleinternalcomponentsmapper.resources.BatchMappingResult;
+import com.ft.methodearticleinternalcomponentsmapper.transformation.InternalComponentsMapper;
+import org.apache.http.HttpStatus;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentMatcher;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.argThat;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ReprocessorTest {
+
+    private static final String TRANSACTION_ID = "tid_reprocess_test";
+    private static final String UUID_1 = "fbbee07f-5054-4a42-b596-64e0625d19a6";
+    private static final String UUID_2 = "3a9ab3e4-bd02-4c6b-a6b4-ce3bd6b3ee60";
+    private static final String UUID_3 = "b1f14cd8-6ad4-11e7-1740-72a7a34381e5";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final InternalComponentsMapper internalComponentsMapper = mock(InternalComponentsMapper.class);
+    private final InternalComponents internalComponents = mock(InternalComponents.class);
+    private final CollectingOutput output = new CollectingOutput();
+
+    private Path directory;
+    private Path archive;
+    private Path checkpointPath;
+    private Reprocessor reprocessor;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("reprocess");
+        archive = Files.createDirectory(directory.resolve("archive"));
+        checkpointPath = directory.resolve("results.checkpoint");
+        write(archive.resolve("1.json"), UUID_1);
+        write(archive.resolve("2.json"), UUID_2);
+        write(archive.resolve("3.json"), UUID_3);
+
+        when(internalComponentsMapper.map(any(EomFile.class), eq(TRANSACTION_ID), any(), eq(false))).thenReturn(internalComponents);
+        when(internalComponentsMapper.map(eomFileWithUuid(UUID_2), eq(TRANSACTION_ID), any(), eq(false)))
+                .thenThrow(new MethodeArticleNotEligibleForPublishException(UUID.fromString(UUID_2)));
+
+        reprocessor = new Reprocessor(internalComponentsMapper, 2, TRANSACTION_ID, 10000, 30000);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        for (Path dir : new Path[]{archive, directory}) {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+                for (Path file : files) {
+                    if (!Files.isDirectory(file)) {
+                        Files.delete(file);
+                    }
+                }
+            }
+        }
+        Files.delete(archive);
+        Files.delete(directory);
+    }
+
+    @Test
+    public void thatEveryArticleIsWrittenWithTheStatusMapWouldAnswer() throws Exception {
+        int completed = reprocess(Checkpoint.start(checkpointPath, archive.toString()));
+
+        assertThat(completed, equalTo(3));
+        List<BatchMappingResult> results = output.sorted();
+        assertThat(results.size(), equalTo(3));
+        assertThat(results.get(0).getUuid(), equalTo(UUID_1));
+        assertThat(results.get(0).getStatus(), equalTo(HttpStatus.SC_OK));
+        assertThat(results.get(1).getUuid(), equalTo(UUID_2));
+        assertThat(results.get(1).getStatus(), equalTo(HttpStatus.SC_UNPROCESSABLE_ENTITY));
+        assertThat(results.get(2).getStatus(), equalTo(HttpStatus.SC_OK));
+        assertThat(Checkpoint.resume(checkpointPath, archive.toString()).getCompleted(), equalTo(3));
+    }
+
+    @Test
+    public void thatAResumedRunMapsOnlyTheArticlesAfterTheCheckpoint() throws Exception {
+        Checkpoint.start(checkpointPath, archive.toString()).save(2);
+
+        int completed = reprocess(Checkpoint.resume(checkpointPath, archive.toString()));
+
+        assertThat(completed, equalTo(3));
+        assertThat(output.sorted().size(), equalTo(1));
+        assertThat(output.sorted().get(0).getUuid(), equalTo(UUID_3));
+        verify(internalComponentsMapper, times(1)).map(any(EomFile.class), eq(TRANSACTION_ID), any(), eq(false));
+    }
+
+    @Test
+    public void thatAFailureToWriteStopsTheRunWithoutCheckpointingTheArticle() throws Exception {
+        output.failing = true;
+
+        try {
+            reprocess(Checkpoint.start(checkpointPath, archive.toString()));
+            fail("expected the failure to write to be thrown");
+        } catch (IOException e) {
+            assertThat(e.getMessage(), equalTo("disk full"));
+        }
+
+        assertThat(Checkpoint.resume(checkpointPath, archive.toString()).getCompleted(), equalTo(0));
+    }
+
+    @Test
+    public void thatAnArticleWhoseProcessingThrowsFailsTheRunWithoutCheckpointingIt() throws Exception {
+        output.crash = new IllegalArgumentException("unwritable result");
+
+        try {
+            reprocess(Checkpoint.start(checkpointPath, archive.toString()));
+            fail("expected the run to fail");
+        } catch (IllegalStateException e) {
+            assertThat(e.getCause(), sameInstance((Throwable) output.crash));
+        }
+
+        assertThat(Checkpoint.resume(checkpointPath, archive.toString()).getCompleted(), equalTo(0));
+    }
+
+    private int reprocess(Checkpoint checkpoint) throws IOException, InterruptedException {
+        try (EomFileArchive articles = EomFileArchive.open(archive, objectMapper)) {
+            return reprocessor.reprocess(articles, output, checkpoint);
+        }
+    }
+
+    private static EomFile eomFileWithUuid(String uuid) {
+        return argThat(new ArgumentMatcher<EomFile>() {
+            @Override
+            public boolean matches(Object argument) {
+                return argument instanceof EomFile && uuid.equals(((EomFile) argument).getUuid());
+            }
+        });
+    }
+
+    private static void write(Path file, String uuid) throws IOException {
+        String json = "{\"uuid\": \"" + uuid + "\", \"type\": \"EOM::CompoundStory\", \"value\": \"PGRvYy8+\"}";
+        Files.write(file, json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static class CollectingOutput implements ReprocessOutput {
+        private final List<BatchMappingResult> results = Collections.synchronizedList(new ArrayList<>());
+        private volatile boolean failing;
+        private volatile RuntimeException crash;
+
+        @Override
+        public void write(BatchMappingResult result) throws IOException {
+            if (failing) {
+                throw new IOException("disk full");
+            }
+            if (crash != null) {
+                throw crash;
+            }
+            results.add(result);
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+
+        private List<BatchMappingResult> sorted() {
+            List<BatchMappingResult> sorted = new ArrayList<>(results);
+            sorted.sort(Comparator.comparingInt(BatchMappingResult::getIndex));
+            return sorted;
+        }
+    }
+}
@@ -1,9 +1,13 @@
 package com.ft.methodearticleinternalcomponentsmapper.resources;
 
+import com.codahale.metrics.MetricRegistry;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ft.api.util.transactionid.TransactionIdUtils;
 import com.ft.methodearticleinternalcomponentsmapper.exception.MethodeMarkedDeletedException;
 import com.ft.methodearticleinternalcomponentsmapper.exception.MethodeArticleNotEligibleForPublishException;
 import com.ft.methodearticleinternalcomponentsmapper.model.EomFile;
+import com.ft.methodearticleinternalcomponentsmapper.model.InternalComponents;
 import com.ft.methodearticleinternalcomponentsmapper.transformation.InternalComponentsMapper;
 import org.apache.http.HttpStatus;
 import org.junit.Before;
@@ -11,15 +15,31 @@ import org.junit.Test;
 
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyBoolean;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Matchers.startsWith;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -81,4 +101,121 @@ public class MapResourceTest {
             assertThat(wace.getResponse().getStatus(), equalTo(HttpStatus.SC_UNPROCESSABLE_ENTITY));
         }
     }
+
+    @Test
+    public void thatBatchItemsAreMappedWithTheirOwnStatus() throws Exception {
+        String deletedUuid = UUID.randomUUID().toString();
+        when(internalComponentsMapper.map(any(EomFile.class), startsWith(TRANSACTION_ID + "-"), any(), eq(false))).thenAnswer(invocation -> {
+            EomFile item = (EomFile) invocation.getArguments()[0];
+            if (deletedUuid.equals(item.getUuid())) {
+                throw new MethodeMarkedDeletedException(UUID.fromString(deletedUuid), type);
+            }
+            return InternalComponents.builder().withUuid(item.getUuid()).build();
+        });
+
+        List<JsonNode> results = mapBatch(mapResource, "[" + eomFileJson(uuid.toString()) + "," + eomFileJson(deletedUuid) + "]");
+
+        assertThat(results.size(), equalTo(2));
+        assertThat(results.get(0).get("index").asInt(), equalTo(0));
+        assertThat(results.get(0).get("status").asInt(), equalTo(HttpStatus.SC_OK));
+        assertThat(results.get(0).get("internalComponents").get("uuid").asText(), equalTo(uuid.toString()));
+        assertThat(results.get(1).get("index").asInt(), equalTo(1));
+        assertThat(results.get(1).get("uuid").asText(), equalTo(deletedUuid));
+        assertThat(results.get(1).get("status").asInt(), equalTo(HttpStatus.SC_NOT_FOUND));
+    }
+
+    @Test
+    public void thatEachBatchItemIsMappedUnderItsOwnTransactionId() throws Exception {
+        when(internalComponentsMapper.map(any(EomFile.class), startsWith(TRANSACTION_ID + "-"), any(), eq(false)))
+                .thenReturn(InternalComponents.builder().withUuid(uuid.toString()).build());
+
+        mapBatch(mapResource, "[" + eomFileJson(uuid.toString()) + "," + eomFileJson(uuid.toString()) + "]");
+
+        verify(internalComponentsMapper).map(any(EomFile.class), eq(TRANSACTION_ID + "-0"), any(), eq(false));
+        verify(internalComponentsMapper).map(any(EomFile.class), eq(TRANSACTION_ID + "-1"), any(), eq(false));
+    }
+
+    @Test
+    public void thatNewlineDelimitedBatchesAreMappedConcurrently() throws Exception {
+        when(internalComponentsMapper.map(any(EomFile.class), startsWith(TRANSACTION_ID + "-"), any(), eq(true))).thenAnswer(invocation ->
+                InternalComponents.builder().withUuid(((EomFile) invocation.getArguments()[0]).getUuid()).build());
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            MapResource concurrentResource = new MapResource(internalComponentsMapper, new ObjectMapper(), executor, 4, new MetricRegistry());
+            StringBuilder batch = new StringBuilder();
+            Set<String> uuids = new HashSet<>();
+            for (int i = 0; i < 20; i++) {
+                String itemUuid = UUID.randomUUID().toString();
+                uuids.add(itemUuid);
+                batch.append(eomFileJson(itemUuid)).append('\n');
+            }
+
+            Response response = concurrentResource.mapBatch(true, new ByteArrayInputStream(batch.toString().getBytes(UTF_8)), httpHeaders);
+            List<JsonNode> results = read(response);
+
+            assertThat(results.size(), equalTo(20));
+            Set<String> mapped = new HashSet<>();
+            results.forEach(result -> mapped.add(result.get("internalComponents").get("uuid").asText()));
+            assertThat(mapped, equalTo(uuids));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void thatTheLastLineOfABatchWhichStopsBeingReadableIsABadRequest() throws Exception {
+        when(internalComponentsMapper.map(any(EomFile.class), startsWith(TRANSACTION_ID + "-"), any(), eq(false)))
+                .thenReturn(InternalComponents.builder().withUuid(uuid.toString()).build());
+
+        List<JsonNode> results = mapBatch(mapResource, "[" + eomFileJson(uuid.toString()) + ", {\"uuid\": ");
+
+        assertThat(results.size(), equalTo(2));
+        assertThat(results.get(0).get("status").asInt(), equalTo(HttpStatus.SC_OK));
+        assertThat(results.get(1).get("index").asInt(), equalTo(1));
+        assertThat(results.get(1).get("status").asInt(), equalTo(HttpStatus.SC_BAD_REQUEST));
+    }
+
+    @Test
+    public void thatEachBatchResultIsFlushedBeforeTheNextArticleIsRead() throws Exception {
+        AtomicInteger mapped = new AtomicInteger();
+        when(internalComponentsMapper.map(any(EomFile.class), startsWith(TRANSACTION_ID + "-"), any(), eq(false))).thenAnswer(invocation -> {
+            mapped.incrementAndGet();
+            return InternalComponents.builder().withUuid(((EomFile) invocation.getArguments()[0]).getUuid()).build();
+        });
+        String batch = eomFileJson(UUID.randomUUID().toString()) + "\n" + eomFileJson(UUID.randomUUID().toString()) + "\n"
+                + eomFileJson(UUID.randomUUID().toString());
+        List<Integer> mappedAtFlush = new ArrayList<>();
+        OutputStream output = new ByteArrayOutputStream() {
+            @Override
+            public void flush() {
+                mappedAtFlush.add(mapped.get());
+            }
+        };
+
+        Response response = mapResource.mapBatch(false, new ByteArrayInputStream(batch.getBytes(UTF_8)), httpHeaders);
+        ((StreamingOutput) response.getEntity()).write(output);
+
+        assertThat(mappedAtFlush.subList(0, 3), equalTo(Arrays.asList(1, 2, 3)));
+    }
+
+    private List<JsonNode> mapBatch(MapResource resource, String batch) throws IOException {
+        return read(resource.mapBatch(false, new ByteArrayInputStream(batch.getBytes(UTF_8)), httpHeaders));
+    }
+
+    private static List<JsonNode> read(Response response) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ((StreamingOutput) response.getEntity()).write(output);
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        List<JsonNode> results = new ArrayList<>();
+        for (String line : new String(output.toByteArray(), UTF_8).split("\n")) {
+            results.add(objectMapper.readTree(line));
+        }
+        results.sort(Comparator.comparingInt(result -> result.get("index").asInt()));
+        return results;
+    }
+
+    private static String eomFileJson(String uuid) {
+        return "{\"uuid\": \"" + uuid + "\", \"type\": \"EOM::CompoundStory\"}";
+    }
 }
@@ -0,0 +1,248 @@
+package com.ft.methodearticleinternalcomponentsmapper.standins;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ft.methodearticleinternalcomponentsmapper.RemoteDependencies;
+import com.ft.methodearticleinternalcomponentsmapper.clients.DocumentStoreApiClient;
+import com.ft.methodearticleinternalcomponentsmapper.exception.TransientUuidResolverException;
+import com.ft.methodearticleinternalcomponentsmapper.model.Content;
+import com.ft.methodearticleinternalcomponentsmapper.model.EomFile;
+import com.ft.methodearticleinternalcomponentsmapper.model.concordance.ConceptView;
+import com.ft.methodearticleinternalcomponentsmapper.model.concordance.Concordance;
+import com.ft.methodearticleinternalcomponentsmapper.model.concordance.Concordances;
+import com.ft.methodearticleinternalcomponentsmapper.model.concordance.Identifier;
+import com.ft.methodearticleinternalcomponentsmapper.transformation.InternalComponentsMapper;
+import com.ft.methodearticleinternalcomponentsmapper.validation.MethodeArticleValidator;
+import com.ft.methodearticleinternalcomponentsmapper.validation.PublishingStatus;
+import com.sun.jersey.api.client.Client;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class RecordAndReplayTest {
+
+    private static final String TRANSACTION_ID = "tid_test";
+    private static final String ARTICLE_UUID = "fbbee07f-5054-4a42-b596-64e0625d19a6";
+    private static final String DELETED_UUID = "3a9ab3e4-bd02-4c6b-a6b4-ce3bd6b3ee60";
+    private static final String LINKED_UUID = "b1f14cd8-6ad4-11e7-1740-72a7a34381e5";
+    private static final String MISSING_UUID = "e7f2eed0-ef92-11e6-abbc-ee7d9c5b3b90";
+    private static final String AUTHORITY = "http://api.ft.com/system/FT-LABS-WP-1-24";
+    private static final String TME_ID = "TnN0ZWluX09OX0ZvcnR1bmVDb21wYW55X0FBUEw=-T04=";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Client client = Client.create();
+    private final Concordance concordance = new Concordance(
+            new ConceptView("http://api.ft.com/things/aaa", "http://api.ft.com/organisations/aaa"),
+            new Identifier("http://api.ft.com/system/FT-TME", TME_ID));
+
+    private Path directory;
+    private Path recording;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("recording");
+        recording = directory.resolve("recording.ndjson.gz");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(recording);
+        Files.delete(directory);
+    }
+
+    @Test
+    public void thatTheAnswersOfTheServicesAreReplayedAsRecorded() throws IOException {
+        RecordedExchanges recorded = new RecordedExchanges(objectMapper);
+        RemoteDependencies recording = LocalStandIns.recording(live(), recorded);
+        ask(recording);
+        recorded.save(this.recording);
+
+        RecordedExchanges loaded = RecordedExchanges.load(this.recording, objectMapper);
+        RemoteDependencies replaying = LocalStandIns.replaying(client, loaded, 0L, false);
+
+        assertThat(loaded.size(), equalTo(recorded.size()));
+        MethodeArticleValidator validator = replaying.getArticleValidators().get(InternalComponentsMapper.SourceCode.FT);
+        assertThat(validator.getPublishingStatus(eomFile(ARTICLE_UUID), TRANSACTION_ID, false), equalTo(PublishingStatus.VALID));
+        assertThat(validator.getPublishingStatus(eomFile(DELETED_UUID), TRANSACTION_ID, false), equalTo(PublishingStatus.DELETED));
+        assertThat(replaying.getDocumentStoreApiClient().resolveUUID(AUTHORITY, "1234", TRANSACTION_ID), equalTo(LINKED_UUID));
+        assertThat(replaying.getDocumentStoreApiClient().isUUIDPresent(MISSING_UUID, TRANSACTION_ID), equalTo(false));
+        assertThat(replaying.getDocumentStoreApiClient().getContentForUuids(Arrays.asList(LINKED_UUID, MISSING_UUID), TRANSACTION_ID),
+                equalTo(Collections.singletonList(new Content(LINKED_UUID, "Content"))));
+        assertThat(replaying.getConcordanceApiClient().getConcordancesByIdentifierValues(Arrays.asList(TME_ID, "unknown"))
+                .getConcordances().get(0).getIdentifier(), equalTo(concordance.getIdentifier()));
+        assertThat(loaded.getUnrecorded(), equalTo(0L));
+    }
+
+    @Test
+    public void thatAnIdentifierWithNoUuidWhenRecordedIsNotResolved() {
+        RecordedExchanges recorded = new RecordedExchanges(objectMapper);
+        try {
+            LocalStandIns.recording(live(), recorded).getDocumentStoreApiClient().resolveUUID(AUTHORITY, "5678", TRANSACTION_ID);
+            fail("expected the live answer to be thrown");
+        } catch (TransientUuidResolverException e) {
+            // recorded
+        }
+
+        try {
+            LocalStandIns.replaying(client, recorded, 0L, false).getDocumentStoreApiClient()
+                    .resolveUUID(AUTHORITY, "5678", TRANSACTION_ID);
+            fail("expected the recorded answer to be thrown");
+        } catch (TransientUuidResolverException e) {
+            assertThat(e.getIdentifierValue(), equalTo("5678"));
+        }
+    }
+
+    @Test
+    public void thatQuestionsNotRecordedFailTheCallAndAreCounted() {
+        RecordedExchanges recorded = new RecordedExchanges(objectMapper);
+        RemoteDependencies replaying = LocalStandIns.replaying(client, recorded, 0L, false);
+
+        try {
+            replaying.getArticleValidators().get(InternalComponentsMapper.SourceCode.FT)
+                    .getPublishingStatus(eomFile(ARTICLE_UUID), TRANSACTION_ID, false);
+            fail("expected the question not recorded to fail the call");
+        } catch (UnrecordedExchangeException e) {
+            assertThat(e.getMessage(), containsString(ARTICLE_UUID));
+        }
+        try {
+            replaying.getDocumentStoreApiClient().getContentForUuids(Collections.singletonList(LINKED_UUID), TRANSACTION_ID);
+            fail("expected the question not recorded to fail the call");
+        } catch (UnrecordedExchangeException e) {
+            assertThat(e.getMessage(), containsString(LINKED_UUID));
+        }
+        assertThat(recorded.getUnrecorded(), equalTo(2L));
+    }
+
+    @Test
+    public void thatQuestionsNotRecordedAreAnsweredLocallyWhenAskedTo() {
+        RecordedExchanges recorded = new RecordedExchanges(objectMapper);
+        RemoteDependencies replaying = LocalStandIns.replaying(client, recorded, 0L, true);
+
+        assertThat(replaying.getArticleValidators().get(InternalComponentsMapper.SourceCode.FT)
+                .getPublishingStatus(eomFile(ARTICLE_UUID), TRANSACTION_ID, false), equalTo(PublishingStatus.VALID));
+        assertThat(replaying.getConcordanceApiClient().getConcordancesByIdentifierValues(Collections.singletonList(TME_ID))
+                .getConcordances().size(), equalTo(0));
+        assertThat(recorded.getUnrecorded(), equalTo(2L));
+    }
+
+    @Test
+    public void thatAnArticleChangedSinceItWasRecordedIsNotAnsweredFromTheRecording() {
+        RecordedExchanges recorded = new RecordedExchanges(objectMapper);
+        ask(LocalStandIns.recording(live(), recorded));
+        MethodeArticleValidator validator = LocalStandIns.replaying(client, recorded, 0L, false).getArticleValidators()
+                .get(InternalComponentsMapper.SourceCode.FT);
+
+        EomFile changed = new EomFile.Builder().withValuesFrom(eomFile(DELETED_UUID)).withWorkflowStatus("Stories/WebReady").build();
+        try {
+            validator.getPublishingStatus(changed, TRANSACTION_ID, false);
+            fail("expected the changed article not to be answered from the recording");
+        } catch (UnrecordedExchangeException e) {
+            assertThat(e.getMessage(), containsString(DELETED_UUID));
+        }
+        assertThat(validator.getPublishingStatus(eomFile(DELETED_UUID), TRANSACTION_ID, false), equalTo(PublishingStatus.DELETED));
+    }
+
+    @Test
+    public void thatReplayedCallsTakeTheLatencyGiven() {
+        RecordedExchanges recorded = new RecordedExchanges(objectMapper);
+        ask(LocalStandIns.recording(live(), recorded));
+        DocumentStoreApiClient replaying = LocalStandIns.replaying(client, recorded, 50L, false).getDocumentStoreApiClient();
+
+        long start = System.nanoTime();
+        replaying.isUUIDPresent(LINKED_UUID, TRANSACTION_ID);
+
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), greaterThanOrEqualTo(50L));
+    }
+
+    @Test
+    public void thatReplayedCallsTakeAsLongAsWhenRecordedByDefault() {
+        RecordedExchanges recorded = new RecordedExchanges(objectMapper);
+        ask(LocalStandIns.recording(live(), recorded));
+
+        long start = System.nanoTime();
+        LocalStandIns.replaying(client, recorded, null, false).getArticleValidators().get(InternalComponentsMapper.SourceCode.FT)
+                .getPublishingStatus(eomFile(ARTICLE_UUID), TRANSACTION_ID, false);
+
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), greaterThanOrEqualTo(20L));
+    }
+
+    private void ask(RemoteDependencies dependencies) {
+        MethodeArticleValidator validator = dependencies.getArticleValidators().get(InternalComponentsMapper.SourceCode.FT);
+        validator.getPublishingStatus(eomFile(ARTICLE_UUID), TRANSACTION_ID, false);
+        validator.getPublishingStatus(eomFile(DELETED_UUID), TRANSACTION_ID, false);
+        dependencies.getDocumentStoreApiClient().resolveUUID(AUTHORITY, "1234", TRANSACTION_ID);
+        dependencies.getDocumentStoreApiClient().isUUIDPresent(LINKED_UUID, TRANSACTION_ID);
+        dependencies.getDocumentStoreApiClient().isUUIDPresent(MISSING_UUID, TRANSACTION_ID);
+        dependencies.getDocumentStoreApiClient().getContentForUuids(Arrays.asList(LINKED_UUID, MISSING_UUID), TRANSACTION_ID);
+        dependencies.getConcordanceApiClient().getConcordancesByIdentifierValues(Arrays.asList(TME_ID, "unknown"));
+    }
+
+    private RemoteDependencies live() {
+        Map<String, MethodeArticleValidator> articleValidators = new HashMap<>();
+        articleValidators.put(InternalComponentsMapper.SourceCode.FT, new LocalMethodeArticleValidator(client) {
+            @Override
+            public PublishingStatus getPublishingStatus(EomFile eomFile, String transactionId, Boolean preview) {
+                sleep(20);
+                return DELETED_UUID.equals(eomFile.getUuid()) ? PublishingStatus.DELETED : PublishingStatus.VALID;
+            }
+        });
+
+        LocalDocumentStoreApiClient documentStore = new LocalDocumentStoreApiClient(client) {
+            @Override
+            public String resolveUUID(String identifierAuthority, String identifierValue, String transactionId) {
+                if ("1234".equals(identifierValue)) {
+                    return LINKED_UUID;
+                }
+                throw new TransientUuidResolverException("not found", null, identifierValue);
+            }
+
+            @Override
+            public boolean isUUIDPresent(String uuid, String transactionId) {
+                return LINKED_UUID.equals(uuid);
+            }
+
+            @Override
+            public List<Content> getContentForUuids(Collection<String> uuids, String transactionId) {
+                return uuids.stream().filter(LINKED_UUID::equals).map(uuid -> new Content(uuid, "Content")).collect(Collectors.toList());
+            }
+        };
+
+        LocalConcordanceApiClient concordances = new LocalConcordanceApiClient(client) {
+            @Override
+            public Concordances getConcordancesByIdentifierValues(List<String> identifierValues) {
+                return new Concordances(identifierValues.contains(TME_ID) ? Collections.singletonList(concordance) : Collections.emptyList());
+            }
+        };
+
+        return new RemoteDependencies(articleValidators, documentStore, concordances);
+    }
+
+    private static EomFile eomFile(String uuid) {
+        return new EomFile.Builder().withUuid(uuid).build();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
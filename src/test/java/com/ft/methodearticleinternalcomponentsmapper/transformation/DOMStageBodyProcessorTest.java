@@ -0,0 +1,100 @@
+package com.ft.methodearticleinternalcomponentsmapper.transformation;
+
+import com.ft.bodyprocessing.BodyProcessingContext;
+import com.ft.bodyprocessing.BodyProcessor;
+import com.ft.bodyprocessing.BodyProcessorChain;
+import com.ft.common.FileUtils;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class DOMStageBodyProcessorTest {
+
+    private BodyProcessingContext bodyProcessingContext;
+
+    @Before
+    public void setUp() {
+        bodyProcessingContext = new BodyProcessingContext() {
+        };
+    }
+
+    @Test
+    public void testProcess_BlankBodyIsReturnedUnchanged() {
+        DOMStageBodyProcessor processor = new DOMStageBodyProcessor(new ImageExtractorBodyProcessor());
+
+        assertThat(processor.process(" ", bodyProcessingContext), is(" "));
+    }
+
+    @Test
+    public void testProcess_ListenerIsToldWhenEachStageStartsAndEnds() {
+        List<String> events = new ArrayList<>();
+        DOMStageBodyProcessor processor = new DOMStageBodyProcessor(
+                (document, ctx) -> events.add("first"),
+                (document, ctx) -> events.add("second"));
+
+        processor.process("<body><p>Lorem ipsum</p></body>", bodyProcessingContext, new CompositeBodyProcessor.StageListener() {
+            @Override
+            public void stageStarted(int stage) {
+                events.add("started:" + processor.getStageNames().get(stage));
+            }
+
+            @Override
+            public void stageEnded(int stage) {
+                events.add("ended:" + processor.getStageNames().get(stage));
+            }
+        });
+
+        assertThat(events, contains("started:stage-1", "first", "ended:stage-1", "started:stage-2", "second", "ended:stage-2"));
+    }
+
+    @Test
+    public void testProcess_StagesAreRunInOrderAgainstTheSameDocument() {
+        List<String> visited = new ArrayList<>();
+        DOMStageBodyProcessor processor = new DOMStageBodyProcessor(
+                (document, ctx) -> {
+                    visited.add("first");
+                    document.getDocumentElement().appendChild(document.createElement("first"));
+                },
+                (document, ctx) -> {
+                    visited.add("second:" + document.getElementsByTagName("first").getLength());
+                    document.getDocumentElement().appendChild(document.createElement("second"));
+                });
+
+        String result = processor.process("<body><p>Lorem ipsum</p></body>", bodyProcessingContext);
+
+        assertThat(visited, contains("first", "second:1"));
+        assertThat(result, is("<body><p>Lorem ipsum</p><first/><second/></body>"));
+    }
+
+    @Test
+    public void testProcess_OutputIsIdenticalToTheSeparateProcessors() {
+        String body = "<body><p>Some <promo-box><p>promo</p></promo-box> text <image-set id=\"1\"/> after</p>" +
+                "<p>A <a href=\"http://www.ft.com/\"><img src=\"a.jpg\"/></a> b " +
+                "<a type=\"DynamicContent\" href=\"/FT/Content/test.xml?uuid=d02886fc-58ff-11e8-9859-6668838a4c10\">Dynamic</a> c</p>" +
+                "<p><img/>text<img src=\"\"/></p></body>";
+
+        assertSameOutputAsSeparateProcessors(body);
+        assertSameOutputAsSeparateProcessors(FileUtils.readFile("body/kitchen_sink_article_body.xml"));
+    }
+
+    private void assertSameOutputAsSeparateProcessors(String body) {
+        BodyProcessorChain separate = new BodyProcessorChain(asList(
+                (BodyProcessor) new ImageExtractorBodyProcessor(),
+                new PromoBoxExtractorBodyProcessor(),
+                new DynamicContentExtractorBodyProcessor()));
+        DOMStageBodyProcessor combined = new DOMStageBodyProcessor(
+                new ImageExtractorBodyProcessor(),
+                new PromoBoxExtractorBodyProcessor(),
+                new DynamicContentExtractorBodyProcessor());
+
+        assertThat(combined.process(body, bodyProcessingContext), equalTo(separate.process(body, bodyProcessingContext)));
+    }
+}
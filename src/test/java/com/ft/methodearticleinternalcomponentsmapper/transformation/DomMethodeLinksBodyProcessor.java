@@ -0,0 +1,325 @@
+package com.ft.methodearticleinternalcomponentsmapper.transformation;
+
+import com.codahale.metrics.MetricRegistry;
+import com.ft.bodyprocessing.BodyProcessingContext;
+import com.ft.bodyprocessing.BodyProcessingException;
+import com.ft.bodyprocessing.BodyProcessor;
+import com.ft.bodyprocessing.TransactionIdBodyProcessingContext;
+import com.ft.methodearticleinternalcomponentsmapper.clients.DocumentStoreApiClient;
+import com.ft.methodearticleinternalcomponentsmapper.model.Content;
+import com.ft.methodearticleinternalcomponentsmapper.xml.XmlInfrastructure;
+import org.apache.commons.lang.StringUtils;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The DOM implementation of {@link MethodeLinksBodyProcessor} from before it rewrote links in StAX passes, kept to
+ * check that the two rewrite bodies alike.
+ */
+class DomMethodeLinksBodyProcessor implements BodyProcessor, DOMProcessingStage {
+
+    static final String BASE_CONTENT_TYPE = "http://www.ft.com/ontology/content/";
+    static final String DEFAULT_CONTENT_TYPE = "http://www.ft.com/ontology/content/Content";
+
+    private static final String CONTENT_TAG = "content";
+    private static final String A_TAG = "a";
+    private static final String PROMO_LINK_TAG = "promo-link";
+    private static final String ANCHOR_PREFIX = "#";
+    private static final String TYPE = "type";
+    private static final String UUID_REGEX = ".*?([0-9a-f]{8}\\-[0-9a-f]{4}\\-[0-9a-f]{4}\\-[0-9a-f]{4}\\-[0-9a-f]{12}).*";
+    private static final Pattern UUID_REGEX_PATTERN = Pattern.compile(UUID_REGEX);
+    private static final String UUID_PARAM_REGEX = ".*uuid=" + UUID_REGEX;
+    private static final Pattern UUID_PARAM_REGEX_PATTERN = Pattern.compile(UUID_PARAM_REGEX);
+    private static final String FT_COM_URL_REGEX = "^https*:\\/\\/www.ft.com\\/.*";
+    private static final Pattern FT_COM_URL_REGEX_PATTERN = Pattern.compile(FT_COM_URL_REGEX);
+
+    private DocumentStoreApiClient documentStoreApiClient;
+    private String canonicalUrlTemplate;
+    private final XmlInfrastructure xmlInfrastructure;
+
+    DomMethodeLinksBodyProcessor(DocumentStoreApiClient documentStoreApiClient, String canonicalUrlTemplate) {
+        this(documentStoreApiClient, canonicalUrlTemplate, new XmlInfrastructure(new MetricRegistry()));
+    }
+
+    DomMethodeLinksBodyProcessor(DocumentStoreApiClient documentStoreApiClient, String canonicalUrlTemplate, XmlInfrastructure xmlInfrastructure) {
+        this.documentStoreApiClient = documentStoreApiClient;
+        this.canonicalUrlTemplate = canonicalUrlTemplate;
+        this.xmlInfrastructure = xmlInfrastructure;
+    }
+
+    @Override
+    public String process(String body, BodyProcessingContext bodyProcessingContext) throws BodyProcessingException {
+        return new DOMStageBodyProcessor(xmlInfrastructure, this).process(body, bodyProcessingContext);
+    }
+
+    @Override
+    public void process(Document document, BodyProcessingContext bodyProcessingContext) throws BodyProcessingException {
+        try {
+            final Map<Node, String> aTagsToCheck = new HashMap<>();
+            for (Element aTag : collectATags(document)) {
+                if (isRemovable(aTag)) {
+                    removeATag(aTag);
+                } else {
+                    Optional<String> optionalUuid = extractUuid(aTag);
+                    optionalUuid.ifPresent(uuid -> aTagsToCheck.put(aTag, uuid));
+                }
+            }
+
+            if (!(bodyProcessingContext instanceof TransactionIdBodyProcessingContext)) {
+                throw new IllegalStateException("bodyProcessingContext should provide transaction id.");
+            }
+
+            TransactionIdBodyProcessingContext transactionIdBodyProcessingContext = (TransactionIdBodyProcessingContext) bodyProcessingContext;
+            String transactionId = transactionIdBodyProcessingContext.getTransactionId();
+            if (StringUtils.isBlank(transactionId)) {
+                throw new IllegalStateException("bodyProcessingContext should provide transaction id.");
+            }
+            final List<Content> content = getContent(aTagsToCheck.values(), transactionId, RemoteLookups.from(bodyProcessingContext));
+            processATags(aTagsToCheck, content);
+        } catch (Exception e) {
+            throw new BodyProcessingException(e);
+        }
+    }
+
+    /**
+     * Collects, in document order, the <code>&lt;a&gt;</code> tags which are not within a
+     * <code>&lt;promo-link&gt;</code>, in one walk of the tree which does not descend into promo links.
+     */
+    private List<Element> collectATags(Document document) {
+        List<Element> aTags = new ArrayList<>();
+        Node node = document;
+        while (node != null) {
+            boolean descend = true;
+            if (node.getNodeType() == Node.ELEMENT_NODE) {
+                String name = node.getNodeName();
+                if (PROMO_LINK_TAG.equals(name)) {
+                    descend = false;
+                } else if (A_TAG.equals(name)) {
+                    aTags.add((Element) node);
+                }
+            }
+            node = next(node, descend);
+        }
+        return aTags;
+    }
+
+    private Node next(Node node, boolean descend) {
+        if (descend && node.getFirstChild() != null) {
+            return node.getFirstChild();
+        }
+        while (node != null && node.getNextSibling() == null) {
+            node = node.getParentNode();
+        }
+        return node == null ? null : node.getNextSibling();
+    }
+
+    private List<Content> getContent(Collection<String> uuids, String transactionId, RemoteLookups remoteLookups) {
+        if (remoteLookups != null) {
+            Optional<List<Content>> prefetched = remoteLookups.contentFor(uuids);
+            if (prefetched.isPresent()) {
+                return prefetched.get();
+            }
+        }
+        return documentStoreApiClient.getContentForUuids(uuids, transactionId);
+    }
+
+    /**
+     * We remove <code>&lt;a&gt;</code> tags
+     * <ul>
+     * <li>with blank hrefs (which are either invalid, or refer to the current document);</li>
+     * <li>with hrefs that contain only a fragment identifier (a part of the current document);</li>
+     * <li>with no non-whitespace content <i>and</i> no <code>data-*</code> attributes.</li>
+     * </ul>
+     *
+     * @param aTag the tag
+     * @return true if removable, otherwise false.
+     */
+    private boolean isRemovable(final Node aTag) {
+        final String href = getHref(aTag);
+
+        if (href.isEmpty() || href.startsWith(ANCHOR_PREFIX)) {
+            return true;
+        }
+
+        NodeList children = aTag.getChildNodes();
+        int len = children.getLength();
+
+        StringBuilder textContent = new StringBuilder();
+        for (int i = 0; i < len; i++) {
+            Node n = children.item(i);
+
+            switch (n.getNodeType()) {
+                case Node.TEXT_NODE:
+                case Node.CDATA_SECTION_NODE:
+                    textContent.append(n.getTextContent());
+                    break;
+
+                case Node.COMMENT_NODE:
+                    break;
+
+                default: // any other node type
+                    return false;
+            }
+        }
+
+        if (!textContent.toString().trim().isEmpty()) {
+            return false;
+        }
+
+        NamedNodeMap attributes = aTag.getAttributes();
+        len = attributes.getLength();
+
+        for (int i = 0; i < len; i++) {
+            if (attributes.item(i).getNodeName().startsWith("data-")) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private void processATags(Map<Node, String> aTags, List<Content> content) {
+        Map<String, Content> contentByUuid = indexByUuid(content);
+        for (Map.Entry<Node, String> aTag : aTags.entrySet()) {
+            Content matchingContent = contentByUuid.get(aTag.getValue());
+            if (matchingContent != null) {
+                replaceLinkToContentPresentInDocumentStore(aTag.getKey(), matchingContent);
+            } else if (isConvertibleToAssetOnFtCom(aTag.getKey())) {
+                transformLinkToAssetOnFtCom(aTag.getKey(), aTag.getValue());
+            }
+        }
+    }
+
+    private Map<String, Content> indexByUuid(List<Content> content) {
+        Map<String, Content> contentByUuid = new HashMap<>();
+        for (Content c : content) {
+            // the first content found for a UUID is the one linked to
+            contentByUuid.putIfAbsent(c.getUuid(), c);
+        }
+        return contentByUuid;
+    }
+
+    private void replaceLinkToContentPresentInDocumentStore(Node node, Content content) {
+        Element newElement = node.getOwnerDocument().createElement(CONTENT_TAG);
+        newElement.setAttribute("id", content.getUuid());
+
+        if (!StringUtils.isBlank(content.getType())) {
+            newElement.setAttribute("type", BASE_CONTENT_TYPE + content.getType());
+        } else {
+            newElement.setAttribute("type", DEFAULT_CONTENT_TYPE);
+        }
+
+        Optional<String> nodeValue = getTitleAttributeIfExists(node);
+        nodeValue.ifPresent(s -> newElement.setAttribute("title", s));
+        newElement.setTextContent(node.getTextContent());
+        node.getParentNode().replaceChild(newElement, node);
+    }
+
+    private Optional<String> getTitleAttributeIfExists(Node node) {
+        if (getAttribute(node, "title") != null) {
+            String nodeValue = getAttribute(node, "title").getNodeValue();
+            return Optional.ofNullable(nodeValue);
+        }
+        return Optional.empty();
+    }
+
+    private boolean isConvertibleToAssetOnFtCom(Node node) {
+        String href = getHref(node);
+        Matcher matcher = FT_COM_URL_REGEX_PATTERN.matcher(href);
+        if (matcher.matches()) {
+            return true;
+        } else if (href.startsWith("/")) { // i.e. it's a relative path in Methode with a UUID param
+            matcher = UUID_PARAM_REGEX_PATTERN.matcher(href);
+            return matcher.matches();
+        }
+        return false;
+    }
+
+    private void transformLinkToAssetOnFtCom(Node aTag, String uuid) {
+        String oldHref = getHref(aTag);
+        String newHref;
+
+        Matcher matcher = FT_COM_URL_REGEX_PATTERN.matcher(oldHref);
+        if (matcher.matches()) {
+            URI ftAssetUri = URI.create(oldHref);
+            String path = ftAssetUri.getPath();
+
+            if (path.startsWith("/intl") || path.startsWith("/cms/s") || path.startsWith("/video") || path.startsWith("/content")) {
+                newHref = String.format(canonicalUrlTemplate, uuid);
+            } else {
+                newHref = oldHref;
+            }
+        } else {
+            newHref = String.format(canonicalUrlTemplate, uuid);
+        }
+
+        getAttribute(aTag, "href").setNodeValue(newHref);
+
+        // We might have added a type attribute to identify the type of content this links to.
+        // If so, it should be removed, because it is not HTML5 compliant.
+        removeTypeAttributeIfPresent(aTag);
+    }
+
+    private void removeTypeAttributeIfPresent(Node aTag) {
+        if (getAttribute(aTag, TYPE) != null) {
+            aTag.getAttributes().removeNamedItem(TYPE);
+        }
+    }
+
+    private Node getAttribute(Node aTag, String attributeName) {
+        return aTag.getAttributes().getNamedItem(attributeName);
+    }
+
+    private Optional<String> extractUuid(Node node) {
+        return extractUuid(getHref(node));
+    }
+
+    static Optional<String> extractUuid(String href) {
+        Matcher matcher = UUID_REGEX_PATTERN.matcher(href);
+        if (matcher.matches()) {
+            return Optional.ofNullable(matcher.group(1));
+        }
+        return Optional.empty();
+    }
+
+    private String getHref(Node aTag) {
+        final NamedNodeMap attributes = aTag.getAttributes();
+        final Node hrefAttr = attributes.getNamedItem("href");
+        return hrefAttr == null ? "" : hrefAttr.getNodeValue();
+    }
+
+    /**
+     * Strips out a tag.
+     * If the child content of the tag is empty or only whitespace, it is removed;
+     * any other child content of the tag is preserved in place.
+     *
+     * @param aTag the tag
+     */
+    private void removeATag(Element aTag) {
+        Node parentNode = aTag.getParentNode();
+
+        if (!aTag.getTextContent().trim().isEmpty()) {
+            NodeList children = aTag.getChildNodes();
+            Node n = children.item(0);
+            while (n != null) {
+                aTag.removeChild(n);
+                parentNode.insertBefore(n, aTag);
+                n = children.item(0);
+            }
+        }
+        parentNode.removeChild(aTag);
+    }
+}
@@ -0,0 +1,83 @@
+package com.ft.methodearticleinternalcomponentsmapper.transformation;
+
+import com.ft.bodyprocessing.BodyProcessingContext;
+import com.ft.bodyprocessing.BodyProcessorChain;
+import com.ft.common.FileUtils;
+import com.ft.methodearticleinternalcomponentsmapper.transformation.FusedRegexBodyProcessor.Rule;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class FusedRegexBodyProcessorTest {
+
+    private BodyProcessingContext bodyProcessingContext;
+
+    @Before
+    public void setUp() {
+        bodyProcessingContext = new BodyProcessingContext() {
+        };
+    }
+
+    @Test
+    public void testProcess_NullAndEmptyBodiesAreReturnedUnchanged() {
+        FusedRegexBodyProcessor processor = BodyProcessingFieldTransformerFactory.emptyElementsRemover();
+
+        assertThat(processor.process(null, bodyProcessingContext), nullValue());
+        assertThat(processor.process("", bodyProcessingContext), is(""));
+    }
+
+    @Test
+    public void testProcess_BodyIsNotCopiedWhenNoRuleMatches() {
+        String body = "<body><p>Lorem ipsum</p></body>";
+
+        assertThat(BodyProcessingFieldTransformerFactory.emptyElementsRemover().process(body, bodyProcessingContext),
+                sameInstance(body));
+    }
+
+    @Test
+    public void testProcess_EachRuleSeesTheOutputOfThePreviousOne() {
+        FusedRegexBodyProcessor processor = new FusedRegexBodyProcessor(
+                Rule.remove("<em>\\s*</em>", "</em>"),
+                Rule.remove("<p>\\s*</p>", "</p>"));
+
+        assertThat(processor.process("<body><p><em> </em></p><em><em></em></em></body>", bodyProcessingContext),
+                is("<body><em></em></body>"));
+    }
+
+    @Test
+    public void testProcess_EmptyElementsRemoverIsIdenticalToTheSeparateProcessors() {
+        String body = "<body><p><em> </em><strong>\n</strong></p><h2 class=\"x\"><br/> </h2>" +
+                "<ul class=\"a\"><li><span></span><b> </b></li></ul><table><caption> </caption></table>" +
+                "<pre> </p><strong><em></em></strong><em><em></em></em><p>Text</p></body>";
+
+        assertSameOutputAsSeparateProcessors(BodyProcessingFieldTransformerFactory.emptyElementsRemover(), body);
+        assertSameOutputAsSeparateProcessors(BodyProcessingFieldTransformerFactory.emptyElementsRemover(),
+                FileUtils.readFile("body/kitchen_sink_article_body.xml"));
+    }
+
+    @Test
+    public void testProcess_TypographyAndParagraphsRewriterIsIdenticalToTheSeparateProcessors() {
+        String body = "<body><p>Wait. . .for it...</p>\n\n<p>a---b--c----d</p> <p> <br/> </p>" +
+                "<p>x</p><br/> <br /><p>y</p>\r\n<p><br/></p>  <p>z</p></body>";
+
+        assertSameOutputAsSeparateProcessors(BodyProcessingFieldTransformerFactory.typographyAndParagraphsRewriter(), body);
+        assertSameOutputAsSeparateProcessors(BodyProcessingFieldTransformerFactory.typographyAndParagraphsRewriter(),
+                FileUtils.readFile("body/expected_transformed_kitchen_sink_article_body.xml"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRule_AnchorIsRequired() {
+        Rule.remove("<em>\\s*</em>");
+    }
+
+    private void assertSameOutputAsSeparateProcessors(FusedRegexBodyProcessor processor, String body) {
+        BodyProcessorChain separate = new BodyProcessorChain(processor.asSeparateProcessors());
+
+        assertThat(processor.process(body, bodyProcessingContext), equalTo(separate.process(body, bodyProcessingContext)));
+    }
+}
@@ -0,0 +1,83 @@
+package com.ft.methodearticleinternalcomponentsmapper.transformation;
+
+import com.codahale.metrics.MetricRegistry;
+import com.ft.bodyprocessing.BodyProcessor;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assume.assumeTrue;
+
+public class InstrumentedBodyProcessorChainTest {
+
+    private static final String METRIC_PREFIX = "com.ft.methodearticleinternalcomponentsmapper.transformation.InstrumentedBodyProcessorChain.";
+
+    private final Map<String, BodyProcessor> bodyProcessors = new LinkedHashMap<>();
+    private MetricRegistry metrics;
+
+    @Before
+    public void setUp() {
+        metrics = new MetricRegistry();
+        bodyProcessors.put("wrap", (body, bodyProcessingContext) -> "<body>" + body + "</body>");
+        bodyProcessors.put("upper-case", (body, bodyProcessingContext) -> body.toUpperCase());
+    }
+
+    @Test
+    public void thatEveryStageOfASampledBodyIsRecorded() {
+        InstrumentedBodyProcessorChain chain = new InstrumentedBodyProcessorChain(bodyProcessors, 1, false, metrics);
+
+        assertThat(chain.process("text", null), equalTo("<BODY>TEXT</BODY>"));
+
+        assertThat(metrics.meter(METRIC_PREFIX + "sampled").getCount(), is(1L));
+        assertThat(metrics.timer(METRIC_PREFIX + "wrap.time").getCount(), is(1L));
+        assertThat(metrics.histogram(METRIC_PREFIX + "wrap.input-size").getSnapshot().getMax(), is(4L));
+        assertThat(metrics.histogram(METRIC_PREFIX + "wrap.output-size").getSnapshot().getMax(), is(17L));
+        assertThat(metrics.timer(METRIC_PREFIX + "upper-case.time").getCount(), is(1L));
+        assertThat(metrics.histogram(METRIC_PREFIX + "upper-case.input-size").getSnapshot().getMax(), is(17L));
+        assertThat(metrics.getHistograms().containsKey(METRIC_PREFIX + "wrap.allocated-bytes"), is(false));
+    }
+
+    @Test
+    public void thatEachInnerStageOfACompositeStageIsRecorded() {
+        bodyProcessors.put("rewrite", new FusedRegexBodyProcessor(
+                FusedRegexBodyProcessor.Rule.replace("TEXT", "WORDS", "TEXT").named("text"),
+                FusedRegexBodyProcessor.Rule.remove("<BODY>", "<BODY>")));
+        InstrumentedBodyProcessorChain chain = new InstrumentedBodyProcessorChain(bodyProcessors, 1, false, metrics);
+
+        assertThat(chain.process("text", null), equalTo("WORDS</BODY>"));
+
+        assertThat(metrics.timer(METRIC_PREFIX + "rewrite.time").getCount(), is(1L));
+        assertThat(metrics.timer(METRIC_PREFIX + "rewrite.text.time").getCount(), is(1L));
+        assertThat(metrics.timer(METRIC_PREFIX + "rewrite.rule-2.time").getCount(), is(1L));
+        assertThat(metrics.getHistograms().containsKey(METRIC_PREFIX + "rewrite.text.allocated-bytes"), is(false));
+    }
+
+    @Test
+    public void thatBodiesWhichAreNotSampledAreProcessedWithoutBeingRecorded() {
+        InstrumentedBodyProcessorChain chain = new InstrumentedBodyProcessorChain(bodyProcessors, 0, false, metrics);
+
+        assertThat(chain.process("text", null), equalTo("<BODY>TEXT</BODY>"));
+
+        assertThat(metrics.meter(METRIC_PREFIX + "sampled").getCount(), is(0L));
+        assertThat(metrics.timer(METRIC_PREFIX + "wrap.time").getCount(), is(0L));
+    }
+
+    @Test
+    public void thatTheBytesAllocatedByEachStageAreRecordedWhereTheJvmMeasuresThem() {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).isThreadAllocatedMemorySupported());
+        InstrumentedBodyProcessorChain chain = new InstrumentedBodyProcessorChain(bodyProcessors, 1, true, metrics);
+
+        chain.process("text", null);
+
+        assertThat(metrics.histogram(METRIC_PREFIX + "wrap.allocated-bytes").getCount(), is(1L));
+        assertThat(metrics.histogram(METRIC_PREFIX + "wrap.allocated-bytes").getSnapshot().getMax(), greaterThan(0L));
+    }
+}
@@ -37,11 +37,13 @@ import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.Matchers.equalTo;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyBoolean;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.anyVararg;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -150,6 +152,26 @@ public class InternalComponentsMapperTest {
         verify(documentStoreApiClient).isUUIDPresent(BLOG_UUID, TX_ID);
     }
 
+    @Test
+    public void thatContentPlaceholderWhichIsNotEligibleIsNotLookedUp() {
+        attributesPlaceholdersValues.put("originalUUID", BLOG_UUID);
+        attributesPlaceholdersValues.put("sourceCode", InternalComponentsMapper.SourceCode.CONTENT_PLACEHOLDER);
+        MethodeArticleValidator ineligible = mock(MethodeArticleValidator.class);
+        when(ineligible.getPublishingStatus(any(), any(), anyBoolean())).thenReturn(PublishingStatus.INELIGIBLE);
+        Map<String, MethodeArticleValidator> articleValidators = new HashMap<>();
+        articleValidators.put(InternalComponentsMapper.SourceCode.CONTENT_PLACEHOLDER, ineligible);
+        internalComponentsMapper = new InternalComponentsMapper(bodyTransformer, new Html5SelfClosingTagBodyProcessor(),
+                blogUuidResolver, documentStoreApiClient, articleValidators, API_HOST);
+
+        eomFile = createEomFile(valuePlaceholdersValues, attributesPlaceholdersValues);
+        try {
+            internalComponentsMapper.map(eomFile, TX_ID, LAST_MODIFIED, false);
+            fail("expected the content placeholder not to be eligible");
+        } catch (MethodeArticleNotEligibleForPublishException e) {
+            verify(documentStoreApiClient, never()).isUUIDPresent(anyString(), anyString());
+        }
+    }
+
     @Test(expected = TransformationException.class)
     public void thatContentPlaceholderWithInvalidOriginalUUIDThrowsException() {
         attributesPlaceholdersValues.put("originalUUID", "invalidUUID");
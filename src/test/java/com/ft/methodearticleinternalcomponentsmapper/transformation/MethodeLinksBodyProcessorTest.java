@@ -2,7 +2,9 @@ package com.ft.methodearticleinternalcomponentsmapper.transformation;
 
 import com.ft.bodyprocessing.BodyProcessingContext;
 import com.ft.bodyprocessing.BodyProcessingException;
+import com.ft.bodyprocessing.BodyProcessor;
 import com.ft.bodyprocessing.DefaultTransactionIdBodyProcessingContext;
+import com.ft.common.FileUtils;
 import com.ft.methodearticleinternalcomponentsmapper.clients.DocumentStoreApiClient;
 import com.ft.methodearticleinternalcomponentsmapper.exception.DocumentStoreApiInvalidRequestException;
 import com.ft.methodearticleinternalcomponentsmapper.exception.DocumentStoreApiUnavailableException;
@@ -15,13 +17,20 @@ import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
+import java.util.Random;
 import java.util.UUID;
 
 import static com.ft.methodetesting.xml.XmlMatcher.identicalXmlTo;
+import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
 import static org.mockito.Matchers.anyCollection;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.when;
@@ -335,4 +344,190 @@ public class MethodeLinksBodyProcessorTest {
 
         assertThat(processedBody, is(identicalXmlTo(expectedBody)));
     }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void thatLinksWithinPromoLinksAreLeftAsTheyAre() {
+        when(documentStoreApiClient.getContentForUuids(anyCollection(), anyString())).thenReturn(Collections.singletonList(new Content(uuid, "Article")));
+
+        String promoLink = "<promo-link><p><a href=\"http://www.ft.com/cms/s/0/" + uuid + ".html\">Promo</a></p></promo-link>";
+        String body = "<body><p><a href=\"http://www.ft.com/cms/s/0/" + uuid + ".html\">Link Text</a></p>" + promoLink + "</body>";
+        String processedBody = bodyProcessor.process(body, new DefaultTransactionIdBodyProcessingContext(TRANSACTION_ID));
+
+        String expectedBody = "<body><p><content id=\"" + uuid + "\" type=\"" + MethodeLinksBodyProcessor.BASE_CONTENT_TYPE + "Article\">Link Text</content></p>" + promoLink + "</body>";
+        assertThat(processedBody, is(identicalXmlTo(expectedBody)));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void thatEveryLinkToTheSameContentIsReplaced() {
+        when(documentStoreApiClient.getContentForUuids(anyCollection(), anyString())).thenReturn(Collections.singletonList(new Content(uuid, "Article")));
+
+        String body = "<body><p><a href=\"http://www.ft.com/cms/s/0/" + uuid + ".html\">First</a></p>"
+                + "<p><a href=\"/FT/Content/Story.xml?uuid=" + uuid + "\">Second</a></p></body>";
+        String processedBody = bodyProcessor.process(body, new DefaultTransactionIdBodyProcessingContext(TRANSACTION_ID));
+
+        String content = "<content id=\"" + uuid + "\" type=\"" + MethodeLinksBodyProcessor.BASE_CONTENT_TYPE + "Article\">";
+        String expectedBody = "<body><p>" + content + "First</content></p><p>" + content + "Second</content></p></body>";
+        assertThat(processedBody, is(identicalXmlTo(expectedBody)));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void thatLinksReplacedByContentKeepOnlyTheirText() {
+        when(documentStoreApiClient.getContentForUuids(anyCollection(), anyString())).thenReturn(Collections.singletonList(new Content(uuid, "Article")));
+
+        String body = "<body><p><a href=\"http://www.ft.com/cms/s/0/" + uuid + ".html\"><strong>Bold</strong> and <!-- note --><![CDATA[plain]]></a></p></body>";
+        String processedBody = bodyProcessor.process(body, new DefaultTransactionIdBodyProcessingContext(TRANSACTION_ID));
+
+        String expectedBody = "<body><p><content id=\"" + uuid + "\" type=\"" + MethodeLinksBodyProcessor.BASE_CONTENT_TYPE + "Article\">Bold and plain</content></p></body>";
+        assertThat(processedBody, is(identicalXmlTo(expectedBody)));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void thatBodiesAreRewrittenAsTheDomImplementationRewroteThem() {
+        // the Document Store knows of some of the UUIDs linked to, one of them without a type
+        when(documentStoreApiClient.getContentForUuids(anyCollection(), anyString())).thenAnswer(invocation -> {
+            List<Content> found = new ArrayList<>();
+            for (String linked : (Collection<String>) invocation.getArguments()[0]) {
+                if (linked.charAt(0) < 'b') {
+                    found.add(new Content(linked, "Article"));
+                } else if (linked.startsWith("e")) {
+                    found.add(new Content(linked, ""));
+                }
+            }
+            return found;
+        });
+        DomMethodeLinksBodyProcessor domProcessor = new DomMethodeLinksBodyProcessor(documentStoreApiClient, CANONICAL_URL_TEMPLATE);
+
+        assertSameBodyAsDomImplementation(domProcessor, FileUtils.readFile("body/kitchen_sink_article_body.xml"));
+        assertSameBodyAsDomImplementation(domProcessor, FileUtils.readFile("body/embedded_image_set_body.xml"));
+        Random random = new Random(42);
+        for (int i = 0; i < 2000; i++) {
+            StringBuilder body = new StringBuilder("<body>");
+            appendRandomContent(random, body, 0);
+            assertSameBodyAsDomImplementation(domProcessor, body.append("</body>").toString());
+        }
+    }
+
+    @Test
+    public void thatElementsWithoutChildrenAreWrittenAsEmptyElements() {
+        String body = "<body><p>Line<br></br>break</p><p/><a href=\"http://example.com/\"><span><a href=\"#top\"> </a></span></a></body>";
+
+        String processedBody = bodyProcessor.process(body, new DefaultTransactionIdBodyProcessingContext(TRANSACTION_ID));
+
+        assertThat(processedBody, is("<body><p>Line<br/>break</p><p/><a href=\"http://example.com/\"><span/></a></body>"));
+    }
+
+    @Test
+    public void thatAttributesAreWrittenInOrderOfTheirNames() {
+        String body = "<body><p title=\"x\" class=\"y\">Text</p></body>";
+
+        String processedBody = bodyProcessor.process(body, new DefaultTransactionIdBodyProcessingContext(TRANSACTION_ID));
+
+        assertThat(processedBody, is("<body><p class=\"y\" title=\"x\">Text</p></body>"));
+    }
+
+    @Test
+    public void thatTheAttributesOfContentAreWrittenInOrderOfTheirNames() {
+        String uuid = UUID.randomUUID().toString();
+        when(documentStoreApiClient.getContentForUuids(anyCollection(), anyString()))
+                .thenReturn(Collections.singletonList(new Content(uuid, "Article")));
+        String body = "<body><p><a href=\"http://www.ft.com/cms/s/" + uuid + ".html\" title=\"Title\">Link</a></p></body>";
+
+        String processedBody = bodyProcessor.process(body, new DefaultTransactionIdBodyProcessingContext(TRANSACTION_ID));
+
+        assertThat(processedBody, is("<body><p><content id=\"" + uuid + "\" title=\"Title\" type=\""
+                + MethodeLinksBodyProcessor.BASE_CONTENT_TYPE + "Article\">Link</content></p></body>"));
+    }
+
+    @Test
+    public void thatUndeclaredEntitiesAreRejectedAsByTheDomImplementation() {
+        String body = "<body><p>Non&nbsp;breaking</p></body>";
+        DomMethodeLinksBodyProcessor domProcessor = new DomMethodeLinksBodyProcessor(documentStoreApiClient, CANONICAL_URL_TEMPLATE);
+
+        for (BodyProcessor processor : Arrays.asList(bodyProcessor, domProcessor)) {
+            try {
+                processor.process(body, new DefaultTransactionIdBodyProcessingContext(TRANSACTION_ID));
+                fail("expected the undeclared entity to be rejected");
+            } catch (BodyProcessingException e) {
+                // as expected
+            }
+        }
+    }
+
+    /**
+     * The bodies are compared as they are written, so that they must be serialized the same way too.
+     */
+    private void assertSameBodyAsDomImplementation(DomMethodeLinksBodyProcessor domProcessor, String body) {
+        BodyProcessingContext context = new DefaultTransactionIdBodyProcessingContext(TRANSACTION_ID);
+
+        String processedBody = bodyProcessor.process(body, context);
+        String domProcessedBody = domProcessor.process(body, context);
+
+        assertThat(body, processedBody, equalTo(domProcessedBody));
+    }
+
+    /**
+     * Appends text, comments, CDATA, line breaks, paragraphs, promo links and links of every kind the processor tells
+     * apart, nested up to a few levels deep.
+     */
+    private static void appendRandomContent(Random random, StringBuilder body, int depth) {
+        String[] uuids = {"9b9fed88-d986-11e2-bce1-002128161462", "e78a8668-c997-11e1-aae2-002128161462",
+                "a04cb831-6373-4548-ad77-2c43431d6552", "f3b60ad0-acda-11e2-a7c4-002128161462"};
+        int children = random.nextInt(4);
+        for (int i = 0; i < children; i++) {
+            String linked = uuids[random.nextInt(uuids.length)];
+            switch (random.nextInt(depth > 3 ? 3 : 9)) {
+                case 0:
+                    body.append(random.nextBoolean() ? " " : "text");
+                    break;
+                case 1:
+                    body.append("<!--comment-->");
+                    break;
+                case 2:
+                    body.append(random.nextBoolean() ? "<![CDATA[text]]>" : "<![CDATA[ ]]>");
+                    break;
+                case 3:
+                case 4:
+                case 5:
+                    String[] hrefs = {"", " ", "#fragment", "http://www.ft.com/cms/s/2/" + linked + ".html",
+                            "https://www.ft.com/other/" + linked, "http://www.ft.com/video/" + linked,
+                            "/FT/Content/Story.xml?uuid=" + linked, linked, "http://example.com/"};
+                    body.append("<a");
+                    int href = random.nextInt(hrefs.length + 1);
+                    if (href < hrefs.length) {
+                        body.append(" href=\"").append(hrefs[href]).append('"');
+                    }
+                    if (random.nextInt(3) == 0) {
+                        body.append(" title=\"Title\"");
+                    }
+                    if (random.nextInt(4) == 0) {
+                        body.append(" data-embedded=\"true\"");
+                    }
+                    if (random.nextInt(4) == 0) {
+                        body.append(" type=\"slideshow\"");
+                    }
+                    body.append('>');
+                    appendRandomContent(random, body, depth + 1);
+                    body.append("</a>");
+                    break;
+                case 6:
+                    body.append("<promo-link>");
+                    appendRandomContent(random, body, depth + 1);
+                    body.append("</promo-link>");
+                    break;
+                case 7:
+                    body.append("<br/>");
+                    break;
+                default:
+                    String tag = random.nextBoolean() ? "p" : "span";
+                    body.append('<').append(tag).append('>');
+                    appendRandomContent(random, body, depth + 1);
+                    body.append("</").append(tag).append('>');
+                    break;
+            }
+        }
+    }
 }
@@ -216,4 +216,17 @@ public class PromoBoxExtractorBodyProcessorTest {
         String result = promoBoxExtractorBodyProcessor.process(body, bodyProcessingContext);
         assertThat(result, is(identicalXmlTo(expected)));
     }
+
+    @Test
+    public void testProcess_LeaveBodyUnchangedWhenPromoBoxIsMalformed() {
+        String body = "<body>" +
+                "<p>" +
+                "<promo-box align=\"left\"><promo-title>In depth</promo-box>" +
+                "Who wins and who loses?" +
+                "</p>" +
+                "</body>";
+
+        String result = promoBoxExtractorBodyProcessor.process(body, bodyProcessingContext);
+        assertThat(result, is(body));
+    }
 }
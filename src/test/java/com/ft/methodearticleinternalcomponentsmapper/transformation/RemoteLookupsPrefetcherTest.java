@@ -0,0 +1,177 @@
+package com.ft.methodearticleinternalcomponentsmapper.transformation;
+
+import com.ft.methodearticleinternalcomponentsmapper.clients.ConcordanceApiClient;
+import com.ft.methodearticleinternalcomponentsmapper.clients.DocumentStoreApiClient;
+import com.ft.methodearticleinternalcomponentsmapper.exception.DocumentStoreApiUnavailableException;
+import com.ft.methodearticleinternalcomponentsmapper.model.Content;
+import com.ft.methodearticleinternalcomponentsmapper.model.concordance.ConceptView;
+import com.ft.methodearticleinternalcomponentsmapper.model.concordance.Concordance;
+import com.ft.methodearticleinternalcomponentsmapper.model.concordance.Concordances;
+import com.ft.methodearticleinternalcomponentsmapper.model.concordance.Identifier;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.MoreExecutors;
+import org.junit.Before;
+import org.junit.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.xml.sax.InputSource;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.anyCollectionOf;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+public class RemoteLookupsPrefetcherTest {
+
+    private static final String TRANSACTION_ID = "tid_test";
+    private static final String TME_AUTHORITY = "http://api.ft.com/system/FT-TME";
+    private static final String TME_ID_1 = "tmeid1";
+    private static final String TME_ID_2 = "tmeid2";
+    private static final String UUID_1 = "fbbee07f-5054-4a42-b596-64e0625d19a6";
+    private static final String UUID_2 = "2d5f0ec0-3d81-11e6-9a2c-7d5e6f6d8b3c";
+    private static final String ORG_ID = "0cd1a4d5-7a0d-3b7a-a0b1-2b0c7f4e1a6d";
+
+    private static final String BODY = "<body><p>Shares in <company CompositeId=\"" + TME_ID_1 + "\">Acme</company> rose."
+            + " <a href=\"http://www.ft.com/cms/s/0/" + UUID_1 + ".html\">Read more</a></p></body>";
+    private static final String SUMMARY = "<summary><p><company compositeid=\"" + TME_ID_2 + "\">Globex</company>"
+            + " <a href=\"https://www.ft.com/content/" + UUID_2 + "\">Related</a></p></summary>";
+
+    private ConcordanceApiClient concordanceApiClient = mock(ConcordanceApiClient.class);
+    private DocumentStoreApiClient documentStoreApiClient = mock(DocumentStoreApiClient.class);
+    private RemoteLookupsPrefetcher prefetcher;
+
+    @Before
+    public void setUp() {
+        prefetcher = new RemoteLookupsPrefetcher(documentStoreApiClient, concordanceApiClient, MoreExecutors.sameThreadExecutor());
+    }
+
+    @Test
+    public void thatCompaniesAndLinksOfAllFieldsAreLookedUpOnce() throws Exception {
+        when(concordanceApiClient.getConcordancesByIdentifierValues(Arrays.asList(TME_ID_1, TME_ID_2)))
+                .thenReturn(new Concordances(Arrays.asList(concordance(TME_ID_1), concordance(TME_ID_2))));
+        when(documentStoreApiClient.getContentForUuids(anyCollectionOf(String.class), anyString()))
+                .thenReturn(Arrays.asList(new Content(UUID_1, "Article"), new Content(UUID_2, "Article")));
+
+        RemoteLookups lookups = prefetcher.prefetch(Arrays.asList(element(BODY), null, element(SUMMARY)), TRANSACTION_ID);
+
+        Optional<Concordances> concordances = lookups.concordancesFor(Collections.singletonList(TME_ID_2));
+        assertThat(concordances.isPresent(), is(true));
+        assertThat(concordances.get().getConcordances().size(), is(1));
+        assertThat(concordances.get().getConcordances().get(0).getIdentifier().getIdentifierValue(), is(TME_ID_2));
+        Optional<List<Content>> content = lookups.contentFor(Collections.singletonList(UUID_1));
+        assertThat(content.isPresent(), is(true));
+        assertThat(content.get(), contains(new Content(UUID_1, "Article")));
+        verify(documentStoreApiClient).getContentForUuids(new LinkedHashSet<>(Arrays.asList(UUID_1, UUID_2)), TRANSACTION_ID);
+    }
+
+    @Test
+    public void thatIdentifiersWhichWereNotPrefetchedAreLeftToTheProcessor() throws Exception {
+        when(concordanceApiClient.getConcordancesByIdentifierValues(Collections.singletonList(TME_ID_1)))
+                .thenReturn(new Concordances(Collections.singletonList(concordance(TME_ID_1))));
+
+        RemoteLookups lookups = prefetcher.prefetch(Collections.singletonList(element(BODY)), TRANSACTION_ID);
+
+        assertThat(lookups.concordancesFor(Arrays.asList(TME_ID_1, TME_ID_2)).isPresent(), is(false));
+        assertThat(lookups.contentFor(Collections.singletonList(UUID_2)).isPresent(), is(false));
+    }
+
+    @Test
+    public void thatFailedLookupsFailTheProcessorWithoutBeingMadeAgain() throws Exception {
+        DocumentStoreApiUnavailableException failure = new DocumentStoreApiUnavailableException("Document Store is unavailable");
+        when(documentStoreApiClient.getContentForUuids(anyCollectionOf(String.class), anyString())).thenThrow(failure);
+
+        RemoteLookups lookups = prefetcher.prefetch(Collections.singletonList(element(BODY)), TRANSACTION_ID);
+
+        try {
+            lookups.contentFor(Collections.singletonList(UUID_1));
+            fail("expected the failure of the lookup");
+        } catch (DocumentStoreApiUnavailableException e) {
+            assertThat(e, is(sameInstance(failure)));
+        }
+        verify(documentStoreApiClient, times(1)).getContentForUuids(anyCollectionOf(String.class), anyString());
+    }
+
+    @Test
+    public void thatCancellingInterruptsALookupInProgress() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        when(documentStoreApiClient.getContentForUuids(anyCollectionOf(String.class), anyString())).thenAnswer(invocation -> {
+            started.countDown();
+            try {
+                Thread.sleep(TimeUnit.SECONDS.toMillis(30));
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return Collections.emptyList();
+        });
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            RemoteLookups lookups = new RemoteLookupsPrefetcher(documentStoreApiClient, concordanceApiClient, executor)
+                    .prefetch(Collections.singletonList(element("<body><a href=\"http://www.ft.com/cms/s/0/" + UUID_1 + ".html\">Link</a></body>")), TRANSACTION_ID);
+            started.await(5, TimeUnit.SECONDS);
+
+            lookups.cancel();
+
+            assertThat(interrupted.await(5, TimeUnit.SECONDS), is(true));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void thatNoCallsAreMadeForFieldsWithoutCompaniesOrLinks() throws Exception {
+        RemoteLookups lookups = prefetcher.prefetch(Collections.singletonList(element("<body><p>Text</p></body>")), TRANSACTION_ID);
+
+        assertThat(lookups.contentFor(Collections.<String>emptyList()).get(), is(empty()));
+        verifyZeroInteractions(concordanceApiClient);
+        verifyZeroInteractions(documentStoreApiClient);
+    }
+
+    @Test
+    public void thatTearSheetLinksTransformerUsesThePrefetchedConcordances() throws Exception {
+        when(concordanceApiClient.getConcordancesByIdentifierValues(anyListOf(String.class)))
+                .thenReturn(new Concordances(Collections.singletonList(concordance(TME_ID_1))));
+        Document document = element(BODY).getOwnerDocument();
+        RemoteLookups lookups = prefetcher.prefetch(Collections.singletonList(document.getDocumentElement()), TRANSACTION_ID);
+        ConcordanceApiClient unusedClient = mock(ConcordanceApiClient.class);
+
+        new TearSheetLinksTransformer(unusedClient).handle(document, document.getElementsByTagName("company"),
+                new MappedDataBodyProcessingContext(TRANSACTION_ID, Maps.<String, Object>immutableEntry(RemoteLookups.CONTEXT_KEY, lookups)));
+
+        Element concept = (Element) document.getElementsByTagName("concept").item(0);
+        assertThat(concept.getAttribute("id"), is(ORG_ID));
+        verifyZeroInteractions(unusedClient);
+    }
+
+    private static Concordance concordance(String tmeId) {
+        String apiUrl = "http://api.ft.com/organisations/" + ORG_ID;
+        return new Concordance(new ConceptView(apiUrl, apiUrl), new Identifier(TME_AUTHORITY, tmeId));
+    }
+
+    private static Element element(String xml) throws Exception {
+        return DocumentBuilderFactory.newInstance().newDocumentBuilder()
+                .parse(new InputSource(new StringReader(xml))).getDocumentElement();
+    }
+}
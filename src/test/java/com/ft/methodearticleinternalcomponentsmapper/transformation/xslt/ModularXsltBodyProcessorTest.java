@@ -0,0 +1,91 @@
+package com.ft.methodearticleinternalcomponentsmapper.transformation.xslt;
+
+import com.google.common.base.Charsets;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+public class ModularXsltBodyProcessorTest {
+
+    private static final String BODY = "<body><p>Text</p><b>Bold</b></body>";
+
+    private Path xsltFile;
+
+    @Before
+    public void setUp() throws Exception {
+        xsltFile = Files.createTempFile("rename", ".xslt");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(xsltFile);
+    }
+
+    @Test
+    public void thatMarkupIsRetainedByTheIdentityTransform() {
+        ModularXsltBodyProcessor processor = new ModularXsltBodyProcessor();
+
+        assertThat(processor.process(BODY, null), equalTo(BODY));
+    }
+
+    @Test
+    public void thatLaterFilesTakePriority() {
+        ModularXsltBodyProcessor processor = new ModularXsltBodyProcessor(
+                new XsltFile("rename", renaming("b", "strong")),
+                new XsltFile("rename-again", renaming("b", "em")));
+
+        assertThat(processor.process(BODY, null), equalTo("<body><p>Text</p><em>Bold</em></body>"));
+        assertThat(processor.process(BODY, null), equalTo("<body><p>Text</p><em>Bold</em></body>"));
+    }
+
+    @Test
+    public void thatFilesAreNotReloadedByDefault() throws Exception {
+        write(renaming("b", "strong"), 1000);
+        ModularXsltBodyProcessor processor = new ModularXsltBodyProcessor(XsltFile.fromPath("rename", xsltFile));
+
+        write(renaming("b", "em"), 2000);
+
+        assertThat(processor.process(BODY, null), equalTo("<body><p>Text</p><strong>Bold</strong></body>"));
+    }
+
+    @Test
+    public void thatModifiedFilesAreReloaded() throws Exception {
+        write(renaming("b", "strong"), 1000);
+        ModularXsltBodyProcessor processor = new ModularXsltBodyProcessor(1, XsltFile.fromPath("rename", xsltFile));
+        assertThat(processor.process(BODY, null), equalTo("<body><p>Text</p><strong>Bold</strong></body>"));
+
+        write(renaming("b", "em"), 2000);
+        Thread.sleep(5);
+
+        assertThat(processor.process(BODY, null), equalTo("<body><p>Text</p><em>Bold</em></body>"));
+    }
+
+    @Test
+    public void thatBrokenFilesAreNotReloaded() throws Exception {
+        write(renaming("b", "strong"), 1000);
+        ModularXsltBodyProcessor processor = new ModularXsltBodyProcessor(1, XsltFile.fromPath("rename", xsltFile));
+
+        write("<xsl:stylesheet", 2000);
+        Thread.sleep(5);
+
+        assertThat(processor.process(BODY, null), equalTo("<body><p>Text</p><strong>Bold</strong></body>"));
+    }
+
+    private void write(String content, long lastModified) throws Exception {
+        Files.write(xsltFile, content.getBytes(Charsets.UTF_8));
+        Files.setLastModifiedTime(xsltFile, FileTime.fromMillis(lastModified));
+    }
+
+    private String renaming(String from, String to) {
+        return "<xsl:stylesheet version=\"1.0\" xmlns:xsl=\"http://www.w3.org/1999/XSL/Transform\">" +
+                "<xsl:template match=\"" + from + "\"><" + to + "><xsl:apply-templates/></" + to + "></xsl:template>" +
+                "</xsl:stylesheet>";
+    }
+}
@@ -0,0 +1,85 @@
+package com.ft.methodearticleinternalcomponentsmapper.validation;
+
+import com.codahale.metrics.MetricRegistry;
+import com.ft.methodearticleinternalcomponentsmapper.model.EomFile;
+import com.ft.methodearticleinternalcomponentsmapper.xml.XmlInfrastructure;
+import org.junit.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Collections;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class PublishingStatusRulesTest {
+
+    private static final String UUID = "fbbee07f-5054-4a42-b596-64e0625d19a6";
+    private static final String WEB_READY = "Stories/WebReady";
+
+    private final PublishingStatusRules rules = new PublishingStatusRules(new XmlInfrastructure(new MetricRegistry()),
+            Collections.singletonList(WEB_READY), Clock.fixed(Instant.parse("2017-03-16T13:00:00Z"), ZoneOffset.UTC));
+
+    @Test
+    public void thatAStoryInAPublishableWorkflowStatusIsValid() {
+        assertThat(rules.decide(eomFile("EOM::CompoundStory", attributes(""), WEB_READY), false), equalTo(PublishingStatus.VALID));
+    }
+
+    @Test
+    public void thatAStoryMarkedDeletedIsDeleted() {
+        String attributes = attributes("<OutputChannels><DIFTcom><DIFTcomMarkDeleted>True</DIFTcomMarkDeleted></DIFTcom></OutputChannels>");
+
+        assertThat(rules.decide(eomFile("EOM::CompoundStory", attributes, "Stories/Ready"), false), equalTo(PublishingStatus.DELETED));
+        assertThat(rules.decide(eomFile("EOM::CompoundStory", attributes, WEB_READY), true), equalTo(PublishingStatus.DELETED));
+    }
+
+    @Test
+    public void thatAStoryInAnotherWorkflowStatusIsIneligibleUnlessPreviewed() {
+        EomFile eomFile = eomFile("EOM::CompoundStory", attributes(""), "Stories/Ready");
+
+        assertThat(rules.decide(eomFile, false), equalTo(PublishingStatus.INELIGIBLE));
+        assertThat(rules.decide(eomFile, null), equalTo(PublishingStatus.INELIGIBLE));
+        assertThat(rules.decide(eomFile, true), equalTo(PublishingStatus.VALID));
+    }
+
+    @Test
+    public void thatOtherTypesAreIneligible() {
+        assertThat(rules.decide(eomFile("EOM::Story", attributes(""), WEB_READY), false), equalTo(PublishingStatus.INELIGIBLE));
+    }
+
+    @Test
+    public void thatAStoryEmbargoedUntilLaterIsIneligible() {
+        EomFile embargoed = eomFile("EOM::CompoundStory", attributes("<EditorialNotes><EmbargoDate>20170316140000</EmbargoDate></EditorialNotes>"), WEB_READY);
+        EomFile released = eomFile("EOM::CompoundStory", attributes("<EditorialNotes><EmbargoDate>20170316120000</EmbargoDate></EditorialNotes>"), WEB_READY);
+
+        assertThat(rules.decide(embargoed, false), equalTo(PublishingStatus.INELIGIBLE));
+        assertThat(rules.decide(released, false), equalTo(PublishingStatus.VALID));
+    }
+
+    @Test
+    public void thatWhatCannotBeReadIsLeftUndecided() {
+        EomFile unreadableEmbargoDate = eomFile("EOM::CompoundStory", attributes("<EditorialNotes><EmbargoDate>tomorrow</EmbargoDate></EditorialNotes>"), WEB_READY);
+
+        assertThat(rules.decide(eomFile("EOM::CompoundStory", "<ObjectMetadata>", WEB_READY), false), nullValue());
+        assertThat(rules.decide(eomFile("EOM::CompoundStory", null, WEB_READY), false), nullValue());
+        assertThat(rules.decide(unreadableEmbargoDate, false), nullValue());
+    }
+
+    private static EomFile eomFile(String type, String attributes, String workflowStatus) {
+        return new EomFile.Builder()
+                .withUuid(UUID)
+                .withType(type)
+                .withValue(new byte[0])
+                .withAttributes(attributes)
+                .withWorkflowStatus(workflowStatus)
+                .build();
+    }
+
+    private static String attributes(String metadata) {
+        return "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                + "<!DOCTYPE ObjectMetadata SYSTEM \"/SysConfig/Classify/FTStories/classify.dtd\">\n"
+                + "<ObjectMetadata>" + metadata + "</ObjectMetadata>";
+    }
+}
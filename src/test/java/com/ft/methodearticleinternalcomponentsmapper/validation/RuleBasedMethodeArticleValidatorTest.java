@@ -0,0 +1,102 @@
+package com.ft.methodearticleinternalcomponentsmapper.validation;
+
+import com.codahale.metrics.MetricRegistry;
+import com.ft.methodearticleinternalcomponentsmapper.configuration.PublishingStatusConfiguration;
+import com.ft.methodearticleinternalcomponentsmapper.model.EomFile;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class RuleBasedMethodeArticleValidatorTest {
+
+    private static final String TRANSACTION_ID = "tid_test";
+    private static final String METRIC_PREFIX = "com.ft.methodearticleinternalcomponentsmapper.validation.RuleBasedMethodeArticleValidator.FT.";
+
+    private final MethodeArticleValidator remoteValidator = mock(MethodeArticleValidator.class);
+    private final PublishingStatusRules rules = mock(PublishingStatusRules.class);
+    private final EomFile eomFile = new EomFile.Builder().withUuid("fbbee07f-5054-4a42-b596-64e0625d19a6").build();
+    private MetricRegistry metrics;
+
+    @Before
+    public void setUp() {
+        metrics = new MetricRegistry();
+        when(remoteValidator.getPublishingStatus(eomFile, TRANSACTION_ID, false)).thenReturn(PublishingStatus.VALID);
+    }
+
+    @Test
+    public void thatTheMapperIsNotAskedAboutAnArticleTheRulesDecide() {
+        when(rules.decide(eomFile, false)).thenReturn(PublishingStatus.DELETED);
+
+        assertThat(validator(PublishingStatusConfiguration.Mode.LOCAL).getPublishingStatus(eomFile, TRANSACTION_ID, false),
+                equalTo(PublishingStatus.DELETED));
+
+        verify(remoteValidator, never()).getPublishingStatus(any(EomFile.class), anyString(), any(Boolean.class));
+        assertThat(metrics.meter(METRIC_PREFIX + "local").getCount(), equalTo(1L));
+    }
+
+    @Test
+    public void thatTheMapperIsNotAskedAboutAnArticleTheRulesFindIneligible() {
+        when(rules.decide(eomFile, false)).thenReturn(PublishingStatus.INELIGIBLE);
+
+        assertThat(validator(PublishingStatusConfiguration.Mode.LOCAL).getPublishingStatus(eomFile, TRANSACTION_ID, false),
+                equalTo(PublishingStatus.INELIGIBLE));
+
+        verify(remoteValidator, never()).getPublishingStatus(any(EomFile.class), anyString(), any(Boolean.class));
+    }
+
+    @Test
+    public void thatTheMapperStillDecidesAboutAnArticleTheRulesFindValid() {
+        when(rules.decide(eomFile, false)).thenReturn(PublishingStatus.VALID);
+        when(remoteValidator.getPublishingStatus(eomFile, TRANSACTION_ID, false)).thenReturn(PublishingStatus.INELIGIBLE);
+
+        assertThat(validator(PublishingStatusConfiguration.Mode.LOCAL).getPublishingStatus(eomFile, TRANSACTION_ID, false),
+                equalTo(PublishingStatus.INELIGIBLE));
+
+        assertThat(metrics.meter(METRIC_PREFIX + "local").getCount(), equalTo(0L));
+        assertThat(metrics.meter(METRIC_PREFIX + "remote").getCount(), equalTo(1L));
+    }
+
+    @Test
+    public void thatTheMapperIsAskedAboutAnArticleTheRulesCannotDecide() {
+        when(rules.decide(eomFile, false)).thenReturn(null);
+
+        assertThat(validator(PublishingStatusConfiguration.Mode.LOCAL).getPublishingStatus(eomFile, TRANSACTION_ID, false),
+                equalTo(PublishingStatus.VALID));
+
+        assertThat(metrics.meter(METRIC_PREFIX + "remote").getCount(), equalTo(1L));
+    }
+
+    @Test
+    public void thatTheMapperDecidesInShadowModeAndDisagreementsAreCounted() {
+        when(rules.decide(eomFile, false)).thenReturn(PublishingStatus.INELIGIBLE);
+
+        assertThat(validator(PublishingStatusConfiguration.Mode.SHADOW).getPublishingStatus(eomFile, TRANSACTION_ID, false),
+                equalTo(PublishingStatus.VALID));
+
+        assertThat(metrics.meter(METRIC_PREFIX + "shadow.agreed").getCount(), equalTo(0L));
+        assertThat(metrics.meter(METRIC_PREFIX + "shadow.disagreed").getCount(), equalTo(1L));
+        assertThat(metrics.meter(METRIC_PREFIX + "shadow.disagreed.ineligible.valid").getCount(), equalTo(1L));
+    }
+
+    @Test
+    public void thatAgreementsAreCountedInShadowMode() {
+        when(rules.decide(eomFile, false)).thenReturn(PublishingStatus.VALID);
+
+        validator(PublishingStatusConfiguration.Mode.SHADOW).getPublishingStatus(eomFile, TRANSACTION_ID, false);
+
+        assertThat(metrics.meter(METRIC_PREFIX + "shadow.agreed").getCount(), equalTo(1L));
+        assertThat(metrics.meter(METRIC_PREFIX + "shadow.disagreed").getCount(), equalTo(0L));
+    }
+
+    private RuleBasedMethodeArticleValidator validator(PublishingStatusConfiguration.Mode mode) {
+        return new RuleBasedMethodeArticleValidator(remoteValidator, rules, mode, "FT", metrics);
+    }
+}
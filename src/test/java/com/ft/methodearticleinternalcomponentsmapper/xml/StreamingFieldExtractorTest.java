@@ -0,0 +1,134 @@
+package com.ft.methodearticleinternalcomponentsmapper.xml;
+
+import com.codahale.metrics.MetricRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class StreamingFieldExtractorTest {
+
+    private static final String DOCUMENT = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+            "<!DOCTYPE doc SYSTEM \"/SysConfig/Rules/ftpsi.dtd\">\n" +
+            "<doc>" +
+            "<lead><headline>First <b>headline</b></headline><image/><image fileref=\"b.jpg\"/></lead>" +
+            "<lead><headline>Second</headline><image fileref=\"c.jpg\"/></lead>" +
+            "<meta><notes><source>FT</source></notes></meta>" +
+            "<story><body><p>One&nbsp;two &amp; <![CDATA[<three>]]><!--four--></p></body></story>" +
+            "<blocks><block><name>outer</name><div><block><name>inner</name></block></div></block></blocks>" +
+            "</doc>";
+
+    private XmlInfrastructure xmlInfrastructure;
+    private StreamingFieldExtractor.Fields fields;
+
+    @Before
+    public void setUp() throws Exception {
+        xmlInfrastructure = new XmlInfrastructure(new MetricRegistry());
+        StreamingFieldExtractor extractor = StreamingFieldExtractor.builder(xmlInfrastructure)
+                .withText("headline", "/doc/lead/headline")
+                .withText("image", "/doc/lead/image/@fileref")
+                .withText("source", "/doc//notes/source")
+                .withText("missing", "/doc/lead/missing")
+                .withElement("body", "/doc/story/body")
+                .withElement("missing-element", "/doc/story/missing")
+                .withElements("blocks", "/doc/blocks//block")
+                .build();
+
+        fields = extractor.extract(new ByteArrayInputStream(DOCUMENT.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void thatTextIsTheStringValueOfTheFirstMatch() {
+        assertThat(fields.text("headline"), equalTo("First headline"));
+    }
+
+    @Test
+    public void thatAttributeIsTakenFromTheFirstMatchWhichHasIt() {
+        assertThat(fields.text("image"), equalTo("b.jpg"));
+    }
+
+    @Test
+    public void thatDescendantPathsAreMatched() {
+        assertThat(fields.text("source"), equalTo("FT"));
+    }
+
+    @Test
+    public void thatMissingFieldsAreEmpty() {
+        assertThat(fields.text("missing"), equalTo(""));
+        assertThat(fields.element("missing-element"), nullValue());
+    }
+
+    @Test
+    public void thatElementIsCopiedAsTheDocumentBuilderWouldParseIt() throws Exception {
+        Node parsedBody = xmlInfrastructure.documentBuilder()
+                .parse(new ByteArrayInputStream(DOCUMENT.getBytes(StandardCharsets.UTF_8)))
+                .getElementsByTagName("body").item(0);
+
+        assertThat(serialize(fields.element("body")), equalTo(serialize(parsedBody)));
+        assertThat(serialize(fields.element("body")), equalTo("<body><p>Onetwo &amp; <![CDATA[<three>]]><!--four--></p></body>"));
+    }
+
+    @Test
+    public void thatAllMatchingElementsAreCopiedInDocumentOrder() {
+        List<Element> blocks = fields.elements("blocks");
+
+        assertThat(blocks.size(), equalTo(2));
+        assertThat(blocks.get(0).getFirstChild().getTextContent(), equalTo("outer"));
+        assertThat(blocks.get(1).getFirstChild().getTextContent(), equalTo("inner"));
+    }
+
+    @Test
+    public void thatCharacterStreamsAreSupported() throws Exception {
+        StreamingFieldExtractor extractor = StreamingFieldExtractor.builder(xmlInfrastructure)
+                .withText("title", "/doc/title")
+                .build();
+
+        assertThat(extractor.extract(new StringReader("<doc><title>Title</title></doc>")).text("title"), equalTo("Title"));
+    }
+
+    @Test
+    public void thatEachMatchOfATimedFieldIsTimed() throws Exception {
+        MetricRegistry metrics = new MetricRegistry();
+        StreamingFieldExtractor extractor = StreamingFieldExtractor.builder(xmlInfrastructure)
+                .withText("headline", "/doc/lead/headline")
+                .withText("image", "/doc/lead/image/@fileref")
+                .withText("missing", "/doc/lead/missing")
+                .withElements("blocks", "/doc/blocks//block")
+                .withFieldTimers(metrics, "extractor")
+                .build();
+
+        extractor.extract(new ByteArrayInputStream(DOCUMENT.getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(metrics.timer("extractor.headline").getCount(), equalTo(1L));
+        assertThat(metrics.timer("extractor.missing").getCount(), equalTo(0L));
+        assertThat(metrics.timer("extractor.blocks").getCount(), equalTo(2L));
+        assertThat(metrics.getTimers().containsKey("extractor.image"), equalTo(false));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void thatRelativePathsAreRejected() {
+        StreamingFieldExtractor.builder(xmlInfrastructure).withText("title", "doc/title");
+    }
+
+    private String serialize(Node node) throws Exception {
+        StringWriter writer = new StringWriter();
+        Transformer transformer = xmlInfrastructure.transformer();
+        transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "yes");
+        transformer.transform(new DOMSource(node), new StreamResult(writer));
+        return writer.toString();
+    }
+}
@@ -0,0 +1,55 @@
+package com.ft.methodearticleinternalcomponentsmapper.xml;
+
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.collect.ImmutableMap;
+import org.junit.Before;
+import org.junit.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.NodeList;
+import org.xml.sax.InputSource;
+
+import javax.xml.xpath.XPathConstants;
+import java.io.StringReader;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+public class XPathExpressionRegistryTest {
+
+    private static final String TITLE = "/doc/title";
+    private static final String PARAGRAPHS = "/doc/p";
+
+    private MetricRegistry metrics;
+    private XPathExpressionRegistry registry;
+    private Document document;
+
+    @Before
+    public void setUp() throws Exception {
+        metrics = new MetricRegistry();
+        XmlInfrastructure xmlInfrastructure = new XmlInfrastructure(metrics);
+        registry = new XPathExpressionRegistry(xmlInfrastructure, metrics, XPathExpressionRegistryTest.class,
+                ImmutableMap.of("title", TITLE, "paragraphs", PARAGRAPHS));
+        document = xmlInfrastructure.documentBuilder()
+                .parse(new InputSource(new StringReader("<doc><title>Title</title><p>one</p><p>two</p></doc>")));
+    }
+
+    @Test
+    public void thatRegisteredExpressionsAreEvaluatedAndTimed() throws Exception {
+        assertThat(registry.evaluate(TITLE, document), equalTo("Title"));
+        assertThat(((NodeList) registry.evaluate(PARAGRAPHS, document, XPathConstants.NODESET)).getLength(), equalTo(2));
+
+        assertThat(metrics.timer(MetricRegistry.name(XPathExpressionRegistryTest.class, "xpath", "title")).getCount(), equalTo(1L));
+        assertThat(metrics.timer(MetricRegistry.name(XPathExpressionRegistryTest.class, "xpath", "paragraphs")).getCount(), equalTo(1L));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void thatUnregisteredExpressionsAreRejected() throws Exception {
+        registry.evaluate("/doc/other", document);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void thatInvalidExpressionsFailOnCreation() {
+        new XPathExpressionRegistry(new XmlInfrastructure(metrics), metrics, XPathExpressionRegistryTest.class,
+                ImmutableMap.of("broken", "/doc/["));
+    }
+}
@@ -0,0 +1,69 @@
+package com.ft.methodearticleinternalcomponentsmapper.xml;
+
+import com.codahale.metrics.MetricRegistry;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.xpath.XPath;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class XmlInfrastructureTest {
+
+    private MetricRegistry metrics;
+    private XmlInfrastructure xmlInfrastructure;
+
+    @Before
+    public void setUp() {
+        metrics = new MetricRegistry();
+        xmlInfrastructure = new XmlInfrastructure(metrics);
+    }
+
+    @Test
+    public void thatInstancesAreReusedOnTheSameThread() throws Exception {
+        assertThat(xmlInfrastructure.documentBuilder(), sameInstance(xmlInfrastructure.documentBuilder()));
+        assertThat(xmlInfrastructure.transformer(), sameInstance(xmlInfrastructure.transformer()));
+        assertThat(xmlInfrastructure.xPath(), sameInstance(xmlInfrastructure.xPath()));
+
+        assertThat(count("document-builder", "created"), equalTo(1L));
+        assertThat(count("document-builder", "reused"), equalTo(1L));
+        assertThat(count("transformer", "created"), equalTo(1L));
+        assertThat(count("transformer", "reused"), equalTo(1L));
+        assertThat(count("xpath", "created"), equalTo(1L));
+        assertThat(count("xpath", "reused"), equalTo(1L));
+    }
+
+    @Test
+    public void thatInstancesAreNotSharedBetweenThreads() throws Exception {
+        XPath xPath = xmlInfrastructure.xPath();
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            XPath otherThreadXPath = executor.submit(xmlInfrastructure::xPath).get();
+            assertThat(otherThreadXPath, not(sameInstance(xPath)));
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(count("xpath", "created"), equalTo(2L));
+    }
+
+    @Test
+    public void thatReusedTransformerHasDefaultOutputProperties() throws Exception {
+        Transformer transformer = xmlInfrastructure.transformer();
+        transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "yes");
+
+        assertThat(xmlInfrastructure.transformer().getOutputProperty(OutputKeys.OMIT_XML_DECLARATION), equalTo("no"));
+    }
+
+    private long count(String type, String event) {
+        return metrics.counter(MetricRegistry.name(XmlInfrastructure.class, type, event)).getCount();
+    }
+}